@@ -1,17 +1,27 @@
 package com.xchess;
 
+import com.xchess.board.Board;
+import com.xchess.board.FenParser;
+import com.xchess.board.Move;
+import com.xchess.board.MoveList;
 import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.SearchResult;
 import com.xchess.evaluation.parameter.EvaluationParameters;
 import com.xchess.exceptions.IllegalMoveException;
 import com.xchess.exceptions.InvalidFenPositionException;
 import com.xchess.exceptions.InvalidMoveSyntaxException;
 import com.xchess.exceptions.InvalidSquareSyntaxException;
+import com.xchess.perft.Perft;
+import com.xchess.perft.PerftResult;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
-public interface ChessEngine {
+public interface ChessEngine extends Closeable {
     /**
      * Stop the engine
      *
@@ -20,6 +30,31 @@ public interface ChessEngine {
      */
     void stop() throws IOException;
 
+    /**
+     * Same as {@link #stop()}, so that engines can be used in
+     * try-with-resources statements
+     *
+     * @throws IOException If any error occurs communicating with Stockfish
+     *                     engine process
+     */
+    @Override
+    default void close() throws IOException {
+        stop();
+    }
+
+    /**
+     * Ask the engine to stop the running search as soon as possible. Unlike
+     * other methods, it can be called from another thread while a search
+     * is running, the search then returns its current best result. Has no
+     * effect if the engine is not searching. By default nothing is done,
+     * the running search completing normally
+     *
+     * @throws IOException If any error occurs communicating with engine
+     *                     process
+     */
+    default void stopSearch() throws IOException {
+    }
+
     /**
      * @return The engine version
      */
@@ -56,6 +91,58 @@ public interface ChessEngine {
     List<String> getPossibleMoves(String square) throws IOException,
             TimeoutException, InvalidSquareSyntaxException;
 
+    /**
+     * Fill a move list with possible moves from current position. See
+     * {@link #moveToFenPosition(String, boolean)} or
+     * {@link #moveToStartPosition(boolean)} to change current position
+     *
+     * @param moves The list to fill, cleared first. See
+     *              {@link com.xchess.board.Move}
+     * @throws IOException      If any error occurs communicating with
+     *                          engine process
+     * @throws TimeoutException In case of timeout reached when reading
+     */
+    default void getPossibleMoves(MoveList moves) throws IOException,
+            TimeoutException {
+        List<String> possibleMoves = getPossibleMoves();
+        moves.clear();
+        for (String possibleMove : possibleMoves) {
+            moves.add(Move.fromUci(possibleMove));
+        }
+    }
+
+    /**
+     * Count the leaf nodes of the move tree from current position. See
+     * {@link #moveToFenPosition(String, boolean)} or
+     * {@link #moveToStartPosition(boolean)} to change current position
+     *
+     * @param depth The depth, strictly positive
+     * @return The node count and the elapsed time. See {@link PerftResult}
+     * @throws IOException              If any error occurs communicating
+     *                                  with engine process
+     * @throws TimeoutException         In case of timeout reached when
+     *                                  reading
+     * @throws IllegalArgumentException If depth is not strictly positive
+     */
+    default PerftResult perft(int depth) throws IOException, TimeoutException {
+        return Perft.perft(getBoard(), depth);
+    }
+
+    /**
+     * Same as {@link #perft(int)}, with the node count below each root move
+     *
+     * @param depth The depth, strictly positive
+     * @return The node counts and the elapsed time. See {@link PerftResult}
+     * @throws IOException              If any error occurs communicating
+     *                                  with engine process
+     * @throws TimeoutException         In case of timeout reached when
+     *                                  reading
+     * @throws IllegalArgumentException If depth is not strictly positive
+     */
+    default PerftResult divide(int depth) throws IOException, TimeoutException {
+        return Perft.divide(getBoard(), depth);
+    }
+
     /**
      * Check if a move is possible from current position. See
      * {@link #moveToFenPosition(String, boolean)} or
@@ -70,6 +157,27 @@ public interface ChessEngine {
     boolean isMovePossible(String move) throws IOException,
             TimeoutException, InvalidMoveSyntaxException;
 
+    /**
+     * Check if a move is possible from current position. See
+     * {@link #moveToFenPosition(String, boolean)} or
+     * {@link #moveToStartPosition(boolean)} to change current position
+     *
+     * @param move The packed move to check. See {@link com.xchess.board.Move}
+     * @return true if the move is possible
+     * @throws IOException                If any error occurs communicating
+     *                                    with engine process
+     * @throws TimeoutException           In case of timeout reached when
+     *                                    reading
+     * @throws InvalidMoveSyntaxException If the packed move is invalid
+     */
+    default boolean isMovePossible(int move) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException {
+        if (!Move.isValid(move)) {
+            throw new InvalidMoveSyntaxException(String.valueOf(move));
+        }
+        return isMovePossible(Move.toUci(move));
+    }
+
     /**
      * Move from current position. See
      * {@link #moveToFenPosition(String, boolean)} or
@@ -89,6 +197,34 @@ public interface ChessEngine {
             InvalidMoveSyntaxException, IllegalMoveException,
             InvalidFenPositionException;
 
+    /**
+     * Move from current position. See
+     * {@link #moveToFenPosition(String, boolean)} or
+     * {@link #moveToStartPosition(boolean)} to change current position
+     *
+     * @param moves The packed moves. See {@link com.xchess.board.Move}
+     * @throws IOException                 If any error occurs communicating
+     *                                     with
+     *                                     engine process
+     * @throws TimeoutException            In case of timeout reached when
+     *                                     reading
+     * @throws InvalidMoveSyntaxException  Invalid packed move
+     * @throws IllegalMoveException        Illegal move
+     * @throws InvalidFenPositionException Invalid fen position when moving
+     */
+    default void move(MoveList moves) throws IOException, TimeoutException,
+            InvalidMoveSyntaxException, IllegalMoveException,
+            InvalidFenPositionException {
+        List<String> uciMoves = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            if (!Move.isValid(moves.get(i))) {
+                throw new InvalidMoveSyntaxException(String.valueOf(moves.get(i)));
+            }
+            uciMoves.add(Move.toUci(moves.get(i)));
+        }
+        move(uciMoves);
+    }
+
     /**
      * Move to the start position
      *
@@ -128,6 +264,51 @@ public interface ChessEngine {
     String findBestMove(EvaluationParameters options) throws IOException,
             TimeoutException;
 
+    /**
+     * Search the current position and report the search statistics along
+     * with the best move
+     *
+     * @param options the evaluation parameters. See
+     *                {@link EvaluationParameters}
+     * @return The search result. See {@link SearchResult}
+     * @throws IOException                   If any error occurs
+     *                                       communicating with engine
+     *                                       process
+     * @throws TimeoutException              In case of timeout reached when
+     *                                       reading
+     * @throws UnsupportedOperationException By default, engines having to
+     *                                       override this method to report
+     *                                       their search statistics
+     */
+    default SearchResult search(EvaluationParameters options) throws IOException,
+            TimeoutException {
+        throw new UnsupportedOperationException(getClass().getName() +
+                " does not report search results");
+    }
+
+    /**
+     * Search the current position, reporting each principal variation
+     * while searching. Engines not able to stream their output report the
+     * principal variations once the search is over
+     *
+     * @param options  the evaluation parameters. See
+     *                 {@link EvaluationParameters}
+     * @param listener Receives each principal variation, from the
+     *                 searching thread. If it throws, the search is stopped
+     *                 and the failure is thrown once the engine is ready
+     * @return The search result. See {@link SearchResult}
+     * @throws IOException      If any error occurs communicating with
+     *                          engine process
+     * @throws TimeoutException In case of timeout reached when reading
+     */
+    default SearchResult search(EvaluationParameters options,
+                                Consumer<SearchResult.Iteration> listener) throws IOException,
+            TimeoutException {
+        SearchResult result = search(options);
+        result.getIterations().forEach(listener);
+        return result;
+    }
+
     /**
      * @param options the evaluation parameters. See
      *                {@link EvaluationParameters}
@@ -142,4 +323,21 @@ public interface ChessEngine {
      * @return The current engine status
      */
     boolean healthCheck();
+
+    /**
+     * @return The current position, as reported by the engine
+     * @throws IOException      If the engine reports an invalid position or
+     *                          any error occurs communicating with engine
+     *                          process
+     * @throws TimeoutException In case of timeout reached when reading
+     */
+    private Board getBoard() throws IOException, TimeoutException {
+        String fen = getFenPosition();
+        try {
+            return FenParser.parse(fen);
+        } catch (InvalidFenPositionException e) {
+            throw new IOException("Engine reported an invalid position: " +
+                    fen, e);
+        }
+    }
 }
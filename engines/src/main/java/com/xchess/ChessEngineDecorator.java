@@ -0,0 +1,155 @@
+package com.xchess;
+
+import com.xchess.board.MoveList;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.IllegalMoveException;
+import com.xchess.exceptions.InvalidFenPositionException;
+import com.xchess.exceptions.InvalidMoveSyntaxException;
+import com.xchess.exceptions.InvalidSquareSyntaxException;
+import com.xchess.perft.PerftResult;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Base class for engines adding behaviour to another engine. Every method
+ * is forwarded to the decorated engine, subclasses override the ones they
+ * change
+ */
+public abstract class ChessEngineDecorator implements ChessEngine {
+    /**
+     * -- GETTER --
+     * Get the decorated engine
+     *
+     * @return the decorated engine
+     */
+    @Getter
+    protected final ChessEngine delegate;
+
+    /**
+     * @param delegate The decorated engine
+     */
+    protected ChessEngineDecorator(ChessEngine delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void stop() throws IOException {
+        delegate.stop();
+    }
+
+    @Override
+    public void stopSearch() throws IOException {
+        delegate.stopSearch();
+    }
+
+    @Override
+    public Float getEngineVersion() {
+        return delegate.getEngineVersion();
+    }
+
+    @Override
+    public String getFenPosition() throws IOException, TimeoutException {
+        return delegate.getFenPosition();
+    }
+
+    @Override
+    public List<String> getPossibleMoves() throws IOException,
+            TimeoutException {
+        return delegate.getPossibleMoves();
+    }
+
+    @Override
+    public List<String> getPossibleMoves(String square) throws IOException,
+            TimeoutException, InvalidSquareSyntaxException {
+        return delegate.getPossibleMoves(square);
+    }
+
+    @Override
+    public void getPossibleMoves(MoveList moves) throws IOException,
+            TimeoutException {
+        delegate.getPossibleMoves(moves);
+    }
+
+    @Override
+    public PerftResult perft(int depth) throws IOException, TimeoutException {
+        return delegate.perft(depth);
+    }
+
+    @Override
+    public PerftResult divide(int depth) throws IOException, TimeoutException {
+        return delegate.divide(depth);
+    }
+
+    @Override
+    public boolean isMovePossible(String move) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException {
+        return delegate.isMovePossible(move);
+    }
+
+    @Override
+    public boolean isMovePossible(int move) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException {
+        return delegate.isMovePossible(move);
+    }
+
+    @Override
+    public void move(List<String> moves) throws IOException, TimeoutException,
+            InvalidMoveSyntaxException, IllegalMoveException,
+            InvalidFenPositionException {
+        delegate.move(moves);
+    }
+
+    @Override
+    public void move(MoveList moves) throws IOException, TimeoutException,
+            InvalidMoveSyntaxException, IllegalMoveException,
+            InvalidFenPositionException {
+        delegate.move(moves);
+    }
+
+    @Override
+    public void moveToStartPosition(boolean newGame) throws IOException,
+            TimeoutException {
+        delegate.moveToStartPosition(newGame);
+    }
+
+    @Override
+    public void moveToFenPosition(String fen, boolean newGame) throws IOException,
+            TimeoutException, InvalidFenPositionException {
+        delegate.moveToFenPosition(fen, newGame);
+    }
+
+    @Override
+    public String findBestMove(EvaluationParameters options) throws IOException,
+            TimeoutException {
+        return delegate.findBestMove(options);
+    }
+
+    @Override
+    public SearchResult search(EvaluationParameters options) throws IOException,
+            TimeoutException {
+        return delegate.search(options);
+    }
+
+    @Override
+    public SearchResult search(EvaluationParameters options,
+                               Consumer<SearchResult.Iteration> listener) throws IOException,
+            TimeoutException {
+        return delegate.search(options, listener);
+    }
+
+    @Override
+    public ChessEngineEvaluation getPositionEvaluation(EvaluationParameters options) throws IOException, TimeoutException {
+        return delegate.getPositionEvaluation(options);
+    }
+
+    @Override
+    public boolean healthCheck() {
+        return delegate.healthCheck();
+    }
+}
@@ -0,0 +1,42 @@
+package com.xchess.analysis;
+
+import com.xchess.ChessEngine;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link PositionAnalyzer} running every request on a single engine. The
+ * engine is locked for the whole request so that no other caller can move
+ * it to another position in between
+ */
+public class EnginePositionAnalyzer implements PositionAnalyzer {
+    private final ChessEngine engine;
+
+    /**
+     * @param engine The engine running the requests
+     */
+    public EnginePositionAnalyzer(ChessEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public ChessEngineEvaluation getPositionEvaluation(String fen,
+                                                       EvaluationParameters parameters) throws IOException, TimeoutException, InvalidFenPositionException {
+        synchronized (engine) {
+            engine.moveToFenPosition(fen, false);
+            return engine.getPositionEvaluation(parameters);
+        }
+    }
+
+    @Override
+    public String findBestMove(String fen, EvaluationParameters parameters) throws IOException, TimeoutException, InvalidFenPositionException {
+        synchronized (engine) {
+            engine.moveToFenPosition(fen, false);
+            return engine.findBestMove(parameters);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.xchess.analysis;
+
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stateless analysis of positions: unlike {@link com.xchess.ChessEngine},
+ * each request holds its position, so that requests can be shared or
+ * dispatched between engines
+ */
+public interface PositionAnalyzer {
+    /**
+     * @param fen        The position to analyze
+     * @param parameters The evaluation parameters. See
+     *                   {@link EvaluationParameters}
+     * @return The chess engine evaluation. See {@link ChessEngineEvaluation}
+     * @throws IOException                 If any error occurs communicating
+     *                                     with engine process
+     * @throws TimeoutException            In case of timeout reached when
+     *                                     reading
+     * @throws InvalidFenPositionException If given fen position is invalid
+     */
+    ChessEngineEvaluation getPositionEvaluation(String fen,
+                                                EvaluationParameters parameters) throws IOException, TimeoutException, InvalidFenPositionException;
+
+    /**
+     * @param fen        The position to analyze
+     * @param parameters The evaluation parameters. See
+     *                   {@link EvaluationParameters}
+     * @return The best move in format "a1a2", or null if there is none
+     * @throws IOException                 If any error occurs communicating
+     *                                     with engine process
+     * @throws TimeoutException            In case of timeout reached when
+     *                                     reading
+     * @throws InvalidFenPositionException If given fen position is invalid
+     */
+    String findBestMove(String fen, EvaluationParameters parameters) throws IOException, TimeoutException, InvalidFenPositionException;
+}
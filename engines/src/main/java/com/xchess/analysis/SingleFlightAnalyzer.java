@@ -0,0 +1,151 @@
+package com.xchess.analysis;
+
+import com.xchess.board.FenParser;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.parameter.AdaptiveTimeManagement;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link PositionAnalyzer} coalescing identical concurrent requests: while
+ * a request is running, callers asking for the same position with the
+ * same parameters wait for its result instead of starting their own
+ * search. Positions are compared on their normalized fen without the
+ * fullmove number, which does not change the analysis. The running
+ * request is sent to the delegate with the fen of the caller which started
+ * it. Results are not cached once the request completes
+ */
+public class SingleFlightAnalyzer implements PositionAnalyzer {
+    private final PositionAnalyzer delegate;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight;
+    private final LongAdder coalescedCount;
+
+    /**
+     * @param delegate The analyzer running the requests
+     */
+    public SingleFlightAnalyzer(PositionAnalyzer delegate) {
+        this.delegate = delegate;
+        this.inFlight = new ConcurrentHashMap<>();
+        this.coalescedCount = new LongAdder();
+    }
+
+    @Override
+    public ChessEngineEvaluation getPositionEvaluation(String fen,
+                                                       EvaluationParameters parameters) throws IOException, TimeoutException, InvalidFenPositionException {
+        return coalesce("eval " + normalize(fen) + " " + requestKey(parameters),
+                () -> delegate.getPositionEvaluation(fen, parameters));
+    }
+
+    @Override
+    public String findBestMove(String fen, EvaluationParameters parameters) throws IOException, TimeoutException, InvalidFenPositionException {
+        return coalesce("bestmove " + normalize(fen) + " " + requestKey(parameters),
+                () -> delegate.findBestMove(fen, parameters));
+    }
+
+    /**
+     * @return The number of requests served by another caller's search
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * @return The number of requests currently running
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @FunctionalInterface
+    private interface Request<T> {
+        T run() throws IOException, TimeoutException,
+                InvalidFenPositionException;
+    }
+
+    /**
+     * @param fen The fen position
+     * @return The fen as written by {@link com.xchess.board.Board#toFen()},
+     * fullmove number excluded
+     * @throws InvalidFenPositionException If given fen position is invalid
+     */
+    private static String normalize(String fen) throws InvalidFenPositionException {
+        String normalized = FenParser.parse(fen).toFen();
+        return normalized.substring(0, normalized.lastIndexOf(' '));
+    }
+
+    /**
+     * @param parameters The search parameters
+     * @return The parameters part of the request key. Adaptive searches
+     * all send "go infinite", so their time management is added
+     */
+    private static String requestKey(EvaluationParameters parameters) {
+        AdaptiveTimeManagement timeManagement = parameters.getTimeManagement();
+        return timeManagement == null ? parameters.buildCommand() :
+                parameters.buildCommand() + " " + timeManagement;
+    }
+
+    /**
+     * @param key     The request key
+     * @param request The request to run if none with the same key is
+     *                running
+     * @return The request result
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(String key, Request<T> request) throws IOException,
+            TimeoutException, InvalidFenPositionException {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalescedCount.increment();
+            return (T) await(running);
+        }
+        try {
+            T result = request.run();
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @param flight The running request
+     * @return The request result
+     */
+    private static Object await(CompletableFuture<Object> flight) throws IOException, TimeoutException, InvalidFenPositionException {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " +
+                    "a coalesced request");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof TimeoutException timeoutException) {
+                throw timeoutException;
+            }
+            if (cause instanceof InvalidFenPositionException fenException) {
+                throw fenException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.xchess.board;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Compact chess position: one byte per square holding a {@link Piece}, plus
+ * the side to move, castling rights, en passant square and move counters.
+ * Boards are usually created with {@link FenParser}
+ */
+@Getter
+public class Board {
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    static final int[] KNIGHT_FILE_STEPS = {1, 2, 2, 1, -1, -2, -2, -1};
+    static final int[] KNIGHT_RANK_STEPS = {2, 1, -1, -2, -2, -1, 1, 2};
+    static final int[] KING_FILE_STEPS = {1, 1, 0, -1, -1, -1, 0, 1};
+    static final int[] KING_RANK_STEPS = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] CASTLING_RIGHTS_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_RIGHTS_KEPT, 15);
+        CASTLING_RIGHTS_KEPT[0] = 15 & ~WHITE_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[4] = 15 & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_RIGHTS_KEPT[7] = 15 & ~WHITE_KINGSIDE;
+        CASTLING_RIGHTS_KEPT[56] = 15 & ~BLACK_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[60] = 15 & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_RIGHTS_KEPT[63] = 15 & ~BLACK_KINGSIDE;
+    }
+
+    @Getter(AccessLevel.NONE)
+    final byte[] squares;
+    boolean whiteToMove;
+    /**
+     * -- GETTER --
+     * Get the castling rights as a combination of {@link #WHITE_KINGSIDE},
+     * {@link #WHITE_QUEENSIDE}, {@link #BLACK_KINGSIDE} and
+     * {@link #BLACK_QUEENSIDE}
+     *
+     * @return the castling rights
+     */
+    int castlingRights;
+    /**
+     * -- GETTER --
+     * Get the en passant target square
+     *
+     * @return the square or {@link Square#NONE}
+     */
+    int enPassantSquare;
+    int halfmoveClock;
+    int fullmoveNumber;
+
+    /**
+     * Creates an empty board, white to move
+     */
+    public Board() {
+        this.squares = new byte[64];
+        clear();
+    }
+
+    /**
+     * @param other The board to copy
+     */
+    public Board(Board other) {
+        this.squares = new byte[64];
+        copyFrom(other);
+    }
+
+    /**
+     * @param other The board to copy into this one
+     */
+    public void copyFrom(Board other) {
+        System.arraycopy(other.squares, 0, this.squares, 0, 64);
+        this.whiteToMove = other.whiteToMove;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.halfmoveClock = other.halfmoveClock;
+        this.fullmoveNumber = other.fullmoveNumber;
+    }
+
+    /**
+     * Remove all pieces and reset state
+     */
+    public void clear() {
+        Arrays.fill(this.squares, (byte) Piece.NONE);
+        this.whiteToMove = true;
+        this.castlingRights = 0;
+        this.enPassantSquare = Square.NONE;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
+    }
+
+    /**
+     * @param square The square, see {@link Square}
+     * @return The piece on square, see {@link Piece}
+     */
+    public int getPiece(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Play a move generated by {@link MoveGenerator}, without checking its
+     * legality. Moves parsed from UCI should first be resolved with
+     * {@link MoveGenerator#findLegalMove(Board, int)} to get their flags
+     *
+     * @param move The move to play, see {@link Move}
+     * @return The information needed by {@link #unmakeMove(int, long)}
+     */
+    public long makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = squares[from];
+        int captured = squares[to];
+        long undo = captured | castlingRights << 4 |
+                (long) (enPassantSquare + 1) << 8 | (long) halfmoveClock << 16;
+        boolean black = !whiteToMove;
+
+        if (Move.hasFlag(move, Move.EN_PASSANT)) {
+            squares[black ? to + 8 : to - 8] = Piece.NONE;
+        }
+        int promotion = Move.promotion(move);
+        squares[to] = (byte) (promotion == Piece.NONE ? piece :
+                Piece.of(promotion, black));
+        squares[from] = Piece.NONE;
+        if (Move.hasFlag(move, Move.CASTLING)) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            int rookTo = to > from ? to - 1 : to + 1;
+            squares[rookTo] = squares[rookFrom];
+            squares[rookFrom] = Piece.NONE;
+        }
+
+        castlingRights &= CASTLING_RIGHTS_KEPT[from] & CASTLING_RIGHTS_KEPT[to];
+        enPassantSquare = Move.hasFlag(move, Move.DOUBLE_PAWN_PUSH) &&
+                isEnemyPawnBeside(to, black) ? (from + to) / 2 : Square.NONE;
+        if (Piece.type(piece) == Piece.PAWN || captured != Piece.NONE ||
+                Move.hasFlag(move, Move.EN_PASSANT)) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+        if (black) {
+            fullmoveNumber++;
+        }
+        whiteToMove = !whiteToMove;
+        return undo;
+    }
+
+    /**
+     * Take back a move played with {@link #makeMove(int)}
+     *
+     * @param move The move to take back
+     * @param undo The value returned by {@link #makeMove(int)}
+     */
+    public void unmakeMove(int move, long undo) {
+        whiteToMove = !whiteToMove;
+        boolean black = !whiteToMove;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = Move.promotion(move) == Piece.NONE ? squares[to] :
+                Piece.of(Piece.PAWN, black);
+
+        squares[from] = (byte) piece;
+        squares[to] = (byte) (undo & 15);
+        if (Move.hasFlag(move, Move.EN_PASSANT)) {
+            squares[black ? to + 8 : to - 8] =
+                    (byte) Piece.of(Piece.PAWN, !black);
+        }
+        if (Move.hasFlag(move, Move.CASTLING)) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            int rookTo = to > from ? to - 1 : to + 1;
+            squares[rookFrom] = squares[rookTo];
+            squares[rookTo] = Piece.NONE;
+        }
+
+        castlingRights = (int) (undo >>> 4 & 15);
+        enPassantSquare = (int) (undo >>> 8 & 127) - 1;
+        halfmoveClock = (int) (undo >>> 16);
+        if (black) {
+            fullmoveNumber--;
+        }
+    }
+
+    /**
+     * @param black true to search the black king
+     * @return The king square, or {@link Square#NONE}
+     */
+    public int findKing(boolean black) {
+        byte king = (byte) Piece.of(Piece.KING, black);
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] == king) {
+                return square;
+            }
+        }
+        return Square.NONE;
+    }
+
+    /**
+     * @param black true to check the black king
+     * @return true if the king is attacked
+     */
+    public boolean isInCheck(boolean black) {
+        int king = findKing(black);
+        return king != Square.NONE && isSquareAttacked(king, !black);
+    }
+
+    /**
+     * @param square  The square
+     * @param byBlack true to check attacks by black pieces
+     * @return true if the square is attacked
+     */
+    public boolean isSquareAttacked(int square, boolean byBlack) {
+        int file = Square.file(square);
+        int rank = Square.rank(square);
+        int pawnRank = byBlack ? rank + 1 : rank - 1;
+        int pawn = Piece.of(Piece.PAWN, byBlack);
+        if (isPieceAt(file - 1, pawnRank, pawn) || isPieceAt(file + 1,
+                pawnRank, pawn)) {
+            return true;
+        }
+        int knight = Piece.of(Piece.KNIGHT, byBlack);
+        int king = Piece.of(Piece.KING, byBlack);
+        for (int i = 0; i < 8; i++) {
+            if (isPieceAt(file + KNIGHT_FILE_STEPS[i],
+                    rank + KNIGHT_RANK_STEPS[i], knight) ||
+                    isPieceAt(file + KING_FILE_STEPS[i],
+                            rank + KING_RANK_STEPS[i], king)) {
+                return true;
+            }
+        }
+        int queen = Piece.of(Piece.QUEEN, byBlack);
+        for (int i = 0; i < 8; i++) {
+            int slider = Piece.of(i % 2 == 0 ? Piece.ROOK : Piece.BISHOP,
+                    byBlack);
+            int attacker = firstPieceInDirection(file, rank,
+                    KING_FILE_STEPS[i], KING_RANK_STEPS[i]);
+            if (attacker == slider || attacker == queen) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The position in fen format
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = squares[Square.of(file, rank)];
+                if (piece == Piece.NONE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(Piece.toFenChar(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(whiteToMove ? " w " : " b ");
+        if (castlingRights == 0) {
+            fen.append('-');
+        } else {
+            appendIf(fen, WHITE_KINGSIDE, 'K');
+            appendIf(fen, WHITE_QUEENSIDE, 'Q');
+            appendIf(fen, BLACK_KINGSIDE, 'k');
+            appendIf(fen, BLACK_QUEENSIDE, 'q');
+        }
+        fen.append(' ');
+        fen.append(enPassantSquare == Square.NONE ? "-" :
+                Square.toString(enPassantSquare));
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * @param square The square a pawn just reached with a double step
+     * @param black  true if the pawn is black
+     * @return true if an enemy pawn stands beside, able to capture en
+     * passant
+     */
+    private boolean isEnemyPawnBeside(int square, boolean black) {
+        int enemyPawn = Piece.of(Piece.PAWN, !black);
+        int file = Square.file(square);
+        int rank = Square.rank(square);
+        return isPieceAt(file - 1, rank, enemyPawn) ||
+                isPieceAt(file + 1, rank, enemyPawn);
+    }
+
+    /**
+     * @param file  The file, may be out of board
+     * @param rank  The rank, may be out of board
+     * @param piece The expected piece
+     * @return true if the square is on board and holds the piece
+     */
+    private boolean isPieceAt(int file, int rank, int piece) {
+        return ((file | rank) & ~7) == 0 && squares[Square.of(file, rank)] == piece;
+    }
+
+    /**
+     * @param file     The starting file
+     * @param rank     The starting rank
+     * @param fileStep The file direction
+     * @param rankStep The rank direction
+     * @return The first piece met in direction, or {@link Piece#NONE}
+     */
+    private int firstPieceInDirection(int file, int rank, int fileStep,
+                                      int rankStep) {
+        file += fileStep;
+        rank += rankStep;
+        while (((file | rank) & ~7) == 0) {
+            int piece = squares[Square.of(file, rank)];
+            if (piece != Piece.NONE) {
+                return piece;
+            }
+            file += fileStep;
+            rank += rankStep;
+        }
+        return Piece.NONE;
+    }
+
+    /**
+     * @param fen   The fen builder
+     * @param right The castling right to check
+     * @param c     The char to append if right is set
+     */
+    private void appendIf(StringBuilder fen, int right, char c) {
+        if ((castlingRights & right) != 0) {
+            fen.append(c);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Board that = (Board) o;
+        return whiteToMove == that.whiteToMove && castlingRights == that.castlingRights && enPassantSquare == that.enPassantSquare && halfmoveClock == that.halfmoveClock && fullmoveNumber == that.fullmoveNumber && Arrays.equals(squares, that.squares);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(squares);
+        result = 31 * result + (whiteToMove ? 1 : 0);
+        result = 31 * result + castlingRights;
+        result = 31 * result + enPassantSquare;
+        result = 31 * result + halfmoveClock;
+        result = 31 * result + fullmoveNumber;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toFen();
+    }
+}
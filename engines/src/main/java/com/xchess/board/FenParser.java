@@ -0,0 +1,460 @@
+package com.xchess.board;
+
+import com.xchess.exceptions.InvalidFenPositionException;
+
+/**
+ * Single pass fen parser. Syntax is checked while filling a {@link Board},
+ * then the position is checked for consistency: one king per side, no pawn
+ * on first or last rank, castling rights matching king and rook squares,
+ * plausible en passant square and side not to move not in check. Neither
+ * validation nor parsing into an existing board allocates.
+ * <p>
+ * Chess960 positions are validated with {@link #isValid(CharSequence,
+ * boolean)}: castling rights may then also be given as rook files
+ * (Shredder-FEN and X-FEN), and only need the king on its back rank with a
+ * rook on the matching side
+ */
+public final class FenParser {
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8" +
+            "/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final ThreadLocal<Board> SCRATCH_BOARD =
+            ThreadLocal.withInitial(Board::new);
+
+    private FenParser() {
+    }
+
+    /**
+     * @param fen The fen position
+     * @return The parsed board
+     * @throws InvalidFenPositionException If the fen position is invalid
+     */
+    public static Board parse(CharSequence fen) throws InvalidFenPositionException {
+        Board board = new Board();
+        if (!parse(fen, board)) {
+            throw new InvalidFenPositionException(String.valueOf(fen));
+        }
+        return board;
+    }
+
+    /**
+     * Parse a fen position into an existing board. The board content is
+     * undefined if the position is invalid
+     *
+     * @param fen    The fen position
+     * @param target The board to fill
+     * @return true if the fen position is valid
+     */
+    public static boolean parse(CharSequence fen, Board target) {
+        return parseSyntax(fen, target, false) && isConsistent(target, false);
+    }
+
+    /**
+     * @param fen The fen position
+     * @return true if the fen position is syntactically valid and describes
+     * a consistent position
+     */
+    public static boolean isValid(CharSequence fen) {
+        return parse(fen, SCRATCH_BOARD.get());
+    }
+
+    /**
+     * @param fen      The fen position
+     * @param chess960 true to validate castling rights as a Chess960
+     *                 position
+     * @return true if the fen position is syntactically valid and describes
+     * a consistent position
+     */
+    public static boolean isValid(CharSequence fen, boolean chess960) {
+        Board board = SCRATCH_BOARD.get();
+        return parseSyntax(fen, board, chess960) && isConsistent(board,
+                chess960);
+    }
+
+    /**
+     * @param fen The fen position
+     * @return true if the fen position is syntactically valid. The position
+     * itself is not checked
+     */
+    public static boolean isSyntaxValid(CharSequence fen) {
+        return parseSyntax(fen, SCRATCH_BOARD.get(), false);
+    }
+
+    /**
+     * @param fen      The fen position
+     * @param target   The board to fill
+     * @param chess960 true to accept rook files as castling rights
+     * @return true if the fen syntax is valid
+     */
+    private static boolean parseSyntax(CharSequence fen, Board target,
+                                       boolean chess960) {
+        if (fen == null) {
+            return false;
+        }
+        int end = fen.length();
+        while (end > 0 && Character.isWhitespace(fen.charAt(end - 1))) {
+            end--;
+        }
+        int i = 0;
+        while (i < end && Character.isWhitespace(fen.charAt(i))) {
+            i++;
+        }
+        target.clear();
+
+        i = parsePlacement(fen, i, end, target);
+        if (i < 0 || !isSeparator(fen, i++, end) || i >= end) {
+            return false;
+        }
+
+        char side = fen.charAt(i++);
+        if (side != 'w' && side != 'b') {
+            return false;
+        }
+        target.whiteToMove = side == 'w';
+        if (!isSeparator(fen, i++, end)) {
+            return false;
+        }
+
+        i = parseCastling(fen, i, end, target, chess960);
+        if (i < 0 || !isSeparator(fen, i++, end)) {
+            return false;
+        }
+
+        if (i < end && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            target.enPassantSquare = i + 2 <= end ? Square.parse(fen, i) :
+                    Square.NONE;
+            if (target.enPassantSquare == Square.NONE) {
+                return false;
+            }
+            i += 2;
+        }
+        if (!isSeparator(fen, i++, end)) {
+            return false;
+        }
+
+        int start = i;
+        int halfmoveClock = 0;
+        while (i < end && isDigit(fen.charAt(i))) {
+            halfmoveClock = accumulate(halfmoveClock, fen.charAt(i++));
+        }
+        if (i == start || !isSeparator(fen, i++, end)) {
+            return false;
+        }
+        target.halfmoveClock = halfmoveClock;
+
+        start = i;
+        int fullmoveNumber = 0;
+        while (i < end && isDigit(fen.charAt(i))) {
+            fullmoveNumber = accumulate(fullmoveNumber, fen.charAt(i++));
+        }
+        target.fullmoveNumber = fullmoveNumber;
+        return i > start && i == end;
+    }
+
+    /**
+     * @param fen    The fen position
+     * @param i      The placement start index
+     * @param end    The fen end index
+     * @param target The board to fill
+     * @return The index following the placement, or -1 if invalid
+     */
+    private static int parsePlacement(CharSequence fen, int i, int end,
+                                      Board target) {
+        int rank = 7;
+        int file = 0;
+        boolean previousWasDigit = false;
+        while (i < end) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    return -1;
+                }
+                rank--;
+                file = 0;
+                previousWasDigit = false;
+            } else if (c >= '1' && c <= '8') {
+                if (previousWasDigit) {
+                    return -1;
+                }
+                file += c - '0';
+                if (file > 8) {
+                    return -1;
+                }
+                previousWasDigit = true;
+            } else {
+                int piece = Piece.fromFenChar(c);
+                if (piece < 0) {
+                    break;
+                }
+                if (file > 7) {
+                    return -1;
+                }
+                target.squares[Square.of(file++, rank)] = (byte) piece;
+                previousWasDigit = false;
+            }
+            i++;
+        }
+        return rank == 0 && file == 8 ? i : -1;
+    }
+
+    /**
+     * @param fen      The fen position
+     * @param i        The castling rights start index
+     * @param end      The fen end index
+     * @param target   The board to fill, with its pieces already placed
+     * @param chess960 true to accept rook files as castling rights
+     * @return The index following the castling rights, or -1 if invalid
+     */
+    private static int parseCastling(CharSequence fen, int i, int end,
+                                     Board target, boolean chess960) {
+        if (i < end && fen.charAt(i) == '-') {
+            return i + 1;
+        }
+        int start = i;
+        while (i < end) {
+            char c = fen.charAt(i);
+            int right = switch (c) {
+                case 'K' -> Board.WHITE_KINGSIDE;
+                case 'Q' -> Board.WHITE_QUEENSIDE;
+                case 'k' -> Board.BLACK_KINGSIDE;
+                case 'q' -> Board.BLACK_QUEENSIDE;
+                default -> chess960 ? rookFileRight(target, c) : 0;
+            };
+            if (right == 0) {
+                break;
+            }
+            if ((target.castlingRights & right) != 0) {
+                return -1;
+            }
+            target.castlingRights |= right;
+            i++;
+        }
+        return i > start ? i : -1;
+    }
+
+    /**
+     * @param board The board, with its pieces already placed
+     * @param c     A castling character
+     * @return The castling right of a rook file letter, uppercase for
+     * white, or 0 if the character is not a file or no king and rook of the
+     * side stand on that back rank
+     */
+    private static int rookFileRight(Board board, char c) {
+        boolean black = c >= 'a' && c <= 'h';
+        if (!black && (c < 'A' || c > 'H')) {
+            return 0;
+        }
+        int rank = black ? 7 : 0;
+        int rookFile = c - (black ? 'a' : 'A');
+        int kingFile = findBackRankKingFile(board, black);
+        if (kingFile < 0 || rookFile == kingFile ||
+                board.squares[Square.of(rookFile, rank)] != Piece.of(Piece.ROOK,
+                        black)) {
+            return 0;
+        }
+        if (rookFile > kingFile) {
+            return black ? Board.BLACK_KINGSIDE : Board.WHITE_KINGSIDE;
+        }
+        return black ? Board.BLACK_QUEENSIDE : Board.WHITE_QUEENSIDE;
+    }
+
+    /**
+     * @param board The board
+     * @param black true for the black king
+     * @return The file of the king on its back rank, or -1 if it is not
+     * there
+     */
+    private static int findBackRankKingFile(Board board, boolean black) {
+        int rank = black ? 7 : 0;
+        for (int file = 0; file < 8; file++) {
+            if (board.squares[Square.of(file, rank)] == Piece.of(Piece.KING,
+                    black)) {
+                return file;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param board    The parsed board
+     * @param chess960 true to check castling rights as a Chess960 position
+     * @return true if the position is consistent
+     */
+    private static boolean isConsistent(Board board, boolean chess960) {
+        int whiteKings = 0;
+        int blackKings = 0;
+        int whitePawns = 0;
+        int blackPawns = 0;
+        int whitePieces = 0;
+        int blackPieces = 0;
+        for (int square = 0; square < 64; square++) {
+            int piece = board.squares[square];
+            if (piece == Piece.NONE) {
+                continue;
+            }
+            boolean black = Piece.isBlack(piece);
+            int type = Piece.type(piece);
+            if (type == Piece.PAWN) {
+                int rank = Square.rank(square);
+                if (rank == 0 || rank == 7) {
+                    return false;
+                }
+                if (black) {
+                    blackPawns++;
+                } else {
+                    whitePawns++;
+                }
+            } else if (type == Piece.KING) {
+                if (black) {
+                    blackKings++;
+                } else {
+                    whiteKings++;
+                }
+            }
+            if (black) {
+                blackPieces++;
+            } else {
+                whitePieces++;
+            }
+        }
+        return whiteKings == 1 && blackKings == 1 &&
+                whitePawns <= 8 && blackPawns <= 8 &&
+                whitePieces <= 16 && blackPieces <= 16 &&
+                (chess960 ? isChess960CastlingConsistent(board) :
+                        isCastlingConsistent(board)) &&
+                isEnPassantConsistent(board) &&
+                !board.isInCheck(board.whiteToMove);
+    }
+
+    /**
+     * @param board The parsed board
+     * @return true if each castling right has its king and rook in place
+     */
+    private static boolean isCastlingConsistent(Board board) {
+        int rights = board.castlingRights;
+        return hasCastlingPieces(board, rights, Board.WHITE_KINGSIDE, 4, 7,
+                false) &&
+                hasCastlingPieces(board, rights, Board.WHITE_QUEENSIDE, 4, 0,
+                        false) &&
+                hasCastlingPieces(board, rights, Board.BLACK_KINGSIDE, 60, 63,
+                        true) &&
+                hasCastlingPieces(board, rights, Board.BLACK_QUEENSIDE, 60, 56,
+                        true);
+    }
+
+    /**
+     * @param board The parsed board
+     * @return true if, for each castling right, the king is on its back
+     * rank with a rook of its side on the matching side
+     */
+    private static boolean isChess960CastlingConsistent(Board board) {
+        int rights = board.castlingRights;
+        return hasChess960CastlingPieces(board, rights, Board.WHITE_KINGSIDE,
+                false, true) &&
+                hasChess960CastlingPieces(board, rights,
+                        Board.WHITE_QUEENSIDE, false, false) &&
+                hasChess960CastlingPieces(board, rights,
+                        Board.BLACK_KINGSIDE, true, true) &&
+                hasChess960CastlingPieces(board, rights,
+                        Board.BLACK_QUEENSIDE, true, false);
+    }
+
+    /**
+     * @param board    The parsed board
+     * @param rights   The castling rights
+     * @param right    The castling right to check
+     * @param black    true for black pieces
+     * @param kingside true if the rook should stand on the king side
+     * @return true if the right is not set or pieces are in place
+     */
+    private static boolean hasChess960CastlingPieces(Board board, int rights,
+                                                     int right, boolean black,
+                                                     boolean kingside) {
+        if ((rights & right) == 0) {
+            return true;
+        }
+        int kingFile = findBackRankKingFile(board, black);
+        if (kingFile < 0) {
+            return false;
+        }
+        int rank = black ? 7 : 0;
+        int step = kingside ? 1 : -1;
+        for (int file = kingFile + step; file >= 0 && file < 8; file += step) {
+            if (board.squares[Square.of(file, rank)] == Piece.of(Piece.ROOK,
+                    black)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param board      The parsed board
+     * @param rights     The castling rights
+     * @param right      The castling right to check
+     * @param kingSquare The expected king square
+     * @param rookSquare The expected rook square
+     * @param black      true for black pieces
+     * @return true if the right is not set or pieces are in place
+     */
+    private static boolean hasCastlingPieces(Board board, int rights,
+                                             int right, int kingSquare,
+                                             int rookSquare, boolean black) {
+        return (rights & right) == 0 ||
+                (board.squares[kingSquare] == Piece.of(Piece.KING, black) &&
+                        board.squares[rookSquare] == Piece.of(Piece.ROOK,
+                                black));
+    }
+
+    /**
+     * @param board The parsed board
+     * @return true if there is no en passant square, or if a pawn just made
+     * a double step over it
+     */
+    private static boolean isEnPassantConsistent(Board board) {
+        int square = board.enPassantSquare;
+        if (square == Square.NONE) {
+            return true;
+        }
+        boolean pawnIsBlack = board.whiteToMove;
+        int expectedRank = pawnIsBlack ? 5 : 2;
+        if (Square.rank(square) != expectedRank) {
+            return false;
+        }
+        int direction = pawnIsBlack ? -8 : 8;
+        return board.squares[square] == Piece.NONE &&
+                board.squares[square - direction] == Piece.NONE &&
+                board.squares[square + direction] == Piece.of(Piece.PAWN,
+                        pawnIsBlack);
+    }
+
+    /**
+     * @param fen The fen position
+     * @param i   The index to check
+     * @param end The fen end index
+     * @return true if the char at index is a whitespace
+     */
+    private static boolean isSeparator(CharSequence fen, int i, int end) {
+        return i < end && Character.isWhitespace(fen.charAt(i));
+    }
+
+    /**
+     * @param c The char to check
+     * @return true if the char is an ASCII digit
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @param value The current value
+     * @param digit The next digit
+     * @return The accumulated value, saturated to avoid overflow
+     */
+    private static int accumulate(int value, char digit) {
+        return value >= Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE :
+                value * 10 + (digit - '0');
+    }
+}
@@ -0,0 +1,188 @@
+package com.xchess.board;
+
+/**
+ * Packed move encoding. A move is an int holding:
+ * <ul>
+ *     <li>bits 0-5: the origin {@link Square}</li>
+ *     <li>bits 6-11: the destination {@link Square}</li>
+ *     <li>bits 12-14: the promotion {@link Piece} type, or
+ *     {@link Piece#NONE}</li>
+ *     <li>bits 15-18: flags only known with a position, see
+ *     {@link #CAPTURE}, {@link #EN_PASSANT}, {@link #CASTLING} and
+ *     {@link #DOUBLE_PAWN_PUSH}</li>
+ * </ul>
+ * The 15 lowest bits identify the UCI move and fit in a short
+ */
+public final class Move {
+    public static final int NONE = 0;
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLING = 1 << 17;
+    public static final int DOUBLE_PAWN_PUSH = 1 << 18;
+
+    private static final int UCI_MASK = (1 << 15) - 1;
+    private static final char[] PROMOTION_CHARS = {0, 0, 'n', 'b', 'r', 'q'};
+
+    private Move() {
+    }
+
+    /**
+     * @param from The origin square
+     * @param to   The destination square
+     * @return The move
+     */
+    public static int of(int from, int to) {
+        return from | to << 6;
+    }
+
+    /**
+     * @param from      The origin square
+     * @param to        The destination square
+     * @param promotion The promotion piece type, or {@link Piece#NONE}
+     * @return The move
+     */
+    public static int of(int from, int to, int promotion) {
+        return from | to << 6 | promotion << 12;
+    }
+
+    /**
+     * @param move The move
+     * @return The origin square
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * @param move The move
+     * @return The destination square
+     */
+    public static int to(int move) {
+        return move >>> 6 & 63;
+    }
+
+    /**
+     * @param move The move
+     * @return The promotion piece type, or {@link Piece#NONE}
+     */
+    public static int promotion(int move) {
+        return move >>> 12 & 7;
+    }
+
+    /**
+     * @param move The move
+     * @param flag The flag to check
+     * @return true if the flag is set
+     */
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * @param move The move
+     * @return The move without position dependent flags
+     */
+    public static int withoutFlags(int move) {
+        return move & UCI_MASK;
+    }
+
+    /**
+     * @param move The move
+     * @return true if the move can be written in UCI format
+     */
+    public static boolean isValid(int move) {
+        int promotion = promotion(move);
+        return (move & ~(UCI_MASK | CAPTURE | EN_PASSANT | CASTLING |
+                DOUBLE_PAWN_PUSH)) == 0 && from(move) != to(move) &&
+                (promotion == Piece.NONE || (promotion >= Piece.KNIGHT &&
+                        promotion <= Piece.QUEEN));
+    }
+
+    /**
+     * @param uci The move with format "a1a2" or "a7a8q", case insensitive
+     * @return The move, or {@link #NONE} if the syntax is invalid
+     */
+    public static int fromUci(CharSequence uci) {
+        return fromUci(uci, 0, uci.length());
+    }
+
+    /**
+     * @param text   The text holding the move
+     * @param offset The move start index in text
+     * @param length The move length
+     * @return The move, or {@link #NONE} if the syntax is invalid
+     */
+    public static int fromUci(CharSequence text, int offset, int length) {
+        if (length != 4 && length != 5) {
+            return NONE;
+        }
+        int from = parseSquare(text.charAt(offset), text.charAt(offset + 1));
+        int to = parseSquare(text.charAt(offset + 2), text.charAt(offset + 3));
+        if (from < 0 || to < 0 || from == to) {
+            return NONE;
+        }
+        int promotion = Piece.NONE;
+        if (length == 5) {
+            promotion = promotionFromChar(text.charAt(offset + 4));
+            if (promotion == Piece.NONE) {
+                return NONE;
+            }
+        }
+        return of(from, to, promotion);
+    }
+
+    /**
+     * @param move The move
+     * @return The move with format "a1a2" or "a7a8q"
+     */
+    public static String toUci(int move) {
+        return appendUci(new StringBuilder(5), move).toString();
+    }
+
+    /**
+     * @param builder The builder to append to
+     * @param move    The move
+     * @return The builder
+     */
+    public static StringBuilder appendUci(StringBuilder builder, int move) {
+        int from = from(move);
+        int to = to(move);
+        builder.append((char) ('a' + Square.file(from)))
+                .append((char) ('1' + Square.rank(from)))
+                .append((char) ('a' + Square.file(to)))
+                .append((char) ('1' + Square.rank(to)));
+        int promotion = promotion(move);
+        if (promotion != Piece.NONE) {
+            builder.append(PROMOTION_CHARS[promotion]);
+        }
+        return builder;
+    }
+
+    /**
+     * @param c The promotion char, case insensitive
+     * @return The promotion piece type, or {@link Piece#NONE} if invalid
+     */
+    static int promotionFromChar(char c) {
+        return switch (c) {
+            case 'q', 'Q' -> Piece.QUEEN;
+            case 'r', 'R' -> Piece.ROOK;
+            case 'b', 'B' -> Piece.BISHOP;
+            case 'n', 'N' -> Piece.KNIGHT;
+            default -> Piece.NONE;
+        };
+    }
+
+    /**
+     * @param fileChar The file char, case insensitive
+     * @param rankChar The rank char
+     * @return The square, or {@link Square#NONE} if invalid
+     */
+    private static int parseSquare(char fileChar, char rankChar) {
+        int file = (fileChar | 0x20) - 'a';
+        int rank = rankChar - '1';
+        if ((file & ~7) != 0 || (rank & ~7) != 0) {
+            return Square.NONE;
+        }
+        return Square.of(file, rank);
+    }
+}
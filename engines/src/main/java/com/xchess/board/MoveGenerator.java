@@ -0,0 +1,230 @@
+package com.xchess.board;
+
+/**
+ * Legal move generator working on a {@link Board}. Pseudo legal moves are
+ * generated with their {@link Move} flags, then moves leaving the king in
+ * check are filtered out by playing them
+ */
+public final class MoveGenerator {
+    private static final int[] PROMOTIONS = {Piece.QUEEN, Piece.ROOK,
+            Piece.BISHOP, Piece.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * @param board The position, left unchanged
+     * @param moves The list to fill, cleared first
+     */
+    public static void generateLegalMoves(Board board, MoveList moves) {
+        generatePseudoLegalMoves(board, moves);
+        boolean black = !board.whiteToMove;
+        int legalCount = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (isLegal(board, move, black)) {
+                moves.set(legalCount++, move);
+            }
+        }
+        moves.truncate(legalCount);
+    }
+
+    /**
+     * Resolve a move, typically parsed from UCI, to the matching legal move
+     * holding its flags
+     *
+     * @param board The position, left unchanged
+     * @param move  The move to search, flags are ignored
+     * @return The legal move, or {@link Move#NONE} if the move is not legal
+     */
+    public static int findLegalMove(Board board, int move) {
+        MoveList moves = new MoveList();
+        generateLegalMoves(board, moves);
+        int index = moves.indexOf(move);
+        return index == -1 ? Move.NONE : moves.get(index);
+    }
+
+    /**
+     * Generate moves without checking if they leave the king in check.
+     * Castling moves are only generated if the king does not cross an
+     * attacked square
+     *
+     * @param board The position
+     * @param moves The list to fill, cleared first
+     */
+    public static void generatePseudoLegalMoves(Board board, MoveList moves) {
+        moves.clear();
+        boolean black = !board.whiteToMove;
+        for (int from = 0; from < 64; from++) {
+            int piece = board.squares[from];
+            if (piece == Piece.NONE || Piece.isBlack(piece) != black) {
+                continue;
+            }
+            switch (Piece.type(piece)) {
+                case Piece.PAWN -> generatePawnMoves(board, from, black, moves);
+                case Piece.KNIGHT -> generateStepMoves(board, from, black,
+                        Board.KNIGHT_FILE_STEPS, Board.KNIGHT_RANK_STEPS,
+                        moves);
+                case Piece.BISHOP -> generateSlidingMoves(board, from, black,
+                        1, moves);
+                case Piece.ROOK -> generateSlidingMoves(board, from, black, 0,
+                        moves);
+                case Piece.QUEEN -> {
+                    generateSlidingMoves(board, from, black, 0, moves);
+                    generateSlidingMoves(board, from, black, 1, moves);
+                }
+                case Piece.KING -> {
+                    generateStepMoves(board, from, black,
+                            Board.KING_FILE_STEPS, Board.KING_RANK_STEPS,
+                            moves);
+                    generateCastlingMoves(board, from, black, moves);
+                }
+                default -> {
+                    // No other piece type
+                }
+            }
+        }
+    }
+
+    /**
+     * @param board The position, left unchanged
+     * @param move  The pseudo legal move
+     * @param black true if black is moving
+     * @return true if the move does not leave the king in check
+     */
+    private static boolean isLegal(Board board, int move, boolean black) {
+        long undo = board.makeMove(move);
+        boolean legal = !board.isInCheck(black);
+        board.unmakeMove(move, undo);
+        return legal;
+    }
+
+    private static void generatePawnMoves(Board board, int from,
+                                          boolean black, MoveList moves) {
+        int direction = black ? -8 : 8;
+        int rank = Square.rank(from);
+        int startRank = black ? 6 : 1;
+        int promotionRank = black ? 1 : 6;
+        int to = from + direction;
+        if (board.squares[to] == Piece.NONE) {
+            addPawnMove(from, to, 0, rank == promotionRank, moves);
+            int doubleTo = to + direction;
+            if (rank == startRank && board.squares[doubleTo] == Piece.NONE) {
+                moves.add(Move.of(from, doubleTo) | Move.DOUBLE_PAWN_PUSH);
+            }
+        }
+        int file = Square.file(from);
+        for (int fileStep = -1; fileStep <= 1; fileStep += 2) {
+            if (((file + fileStep) & ~7) != 0) {
+                continue;
+            }
+            int captureTo = to + fileStep;
+            int target = board.squares[captureTo];
+            if (target != Piece.NONE && Piece.isBlack(target) != black) {
+                addPawnMove(from, captureTo, Move.CAPTURE,
+                        rank == promotionRank, moves);
+            } else if (captureTo == board.enPassantSquare) {
+                moves.add(Move.of(from, captureTo) | Move.CAPTURE |
+                        Move.EN_PASSANT);
+            }
+        }
+    }
+
+    private static void addPawnMove(int from, int to, int flags,
+                                    boolean promotion, MoveList moves) {
+        if (!promotion) {
+            moves.add(Move.of(from, to) | flags);
+            return;
+        }
+        for (int piece : PROMOTIONS) {
+            moves.add(Move.of(from, to, piece) | flags);
+        }
+    }
+
+    private static void generateStepMoves(Board board, int from,
+                                          boolean black, int[] fileSteps,
+                                          int[] rankSteps, MoveList moves) {
+        int file = Square.file(from);
+        int rank = Square.rank(from);
+        for (int i = 0; i < fileSteps.length; i++) {
+            int toFile = file + fileSteps[i];
+            int toRank = rank + rankSteps[i];
+            if (((toFile | toRank) & ~7) != 0) {
+                continue;
+            }
+            addIfReachable(board, from, Square.of(toFile, toRank), black,
+                    moves);
+        }
+    }
+
+    /**
+     * @param board     The position
+     * @param from      The sliding piece square
+     * @param black     true if black is moving
+     * @param firstStep 0 for orthogonal directions, 1 for diagonal ones
+     * @param moves     The list to fill
+     */
+    private static void generateSlidingMoves(Board board, int from,
+                                             boolean black, int firstStep,
+                                             MoveList moves) {
+        int file = Square.file(from);
+        int rank = Square.rank(from);
+        for (int i = firstStep; i < 8; i += 2) {
+            int fileStep = Board.KING_FILE_STEPS[i];
+            int rankStep = Board.KING_RANK_STEPS[i];
+            int toFile = file + fileStep;
+            int toRank = rank + rankStep;
+            while (((toFile | toRank) & ~7) == 0) {
+                int to = Square.of(toFile, toRank);
+                if (!addIfReachable(board, from, to, black, moves) ||
+                        board.squares[to] != Piece.NONE) {
+                    break;
+                }
+                toFile += fileStep;
+                toRank += rankStep;
+            }
+        }
+    }
+
+    /**
+     * @return false if the destination holds a piece of the moving side
+     */
+    private static boolean addIfReachable(Board board, int from, int to,
+                                          boolean black, MoveList moves) {
+        int target = board.squares[to];
+        if (target == Piece.NONE) {
+            moves.add(Move.of(from, to));
+            return true;
+        }
+        if (Piece.isBlack(target) != black) {
+            moves.add(Move.of(from, to) | Move.CAPTURE);
+            return true;
+        }
+        return false;
+    }
+
+    private static void generateCastlingMoves(Board board, int from,
+                                              boolean black, MoveList moves) {
+        int kingSquare = black ? 60 : 4;
+        int kingside = black ? Board.BLACK_KINGSIDE : Board.WHITE_KINGSIDE;
+        int queenside = black ? Board.BLACK_QUEENSIDE :
+                Board.WHITE_QUEENSIDE;
+        if (from != kingSquare || (board.castlingRights & (kingside | queenside)) == 0 ||
+                board.isSquareAttacked(from, !black)) {
+            return;
+        }
+        if ((board.castlingRights & kingside) != 0 &&
+                board.squares[from + 1] == Piece.NONE &&
+                board.squares[from + 2] == Piece.NONE &&
+                !board.isSquareAttacked(from + 1, !black)) {
+            moves.add(Move.of(from, from + 2) | Move.CASTLING);
+        }
+        if ((board.castlingRights & queenside) != 0 &&
+                board.squares[from - 1] == Piece.NONE &&
+                board.squares[from - 2] == Piece.NONE &&
+                board.squares[from - 3] == Piece.NONE &&
+                !board.isSquareAttacked(from - 1, !black)) {
+            moves.add(Move.of(from, from - 2) | Move.CASTLING);
+        }
+    }
+}
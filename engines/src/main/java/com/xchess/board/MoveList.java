@@ -0,0 +1,195 @@
+package com.xchess.board;
+
+import com.xchess.exceptions.InvalidMoveSyntaxException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable list of packed moves, see {@link Move}. Moves are stored in a
+ * primitive array which is kept when the list is cleared, so that a list
+ * can be reused without allocating
+ */
+public class MoveList {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The initial capacity
+     */
+    public MoveList(int capacity) {
+        this.moves = new int[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    /**
+     * @param uciMoves The moves with format "a1a2" or "a7a8q"
+     * @return The move list
+     * @throws InvalidMoveSyntaxException If one of the moves is invalid
+     */
+    public static MoveList fromUci(List<String> uciMoves) throws InvalidMoveSyntaxException {
+        MoveList result = new MoveList(uciMoves.size());
+        for (String uciMove : uciMoves) {
+            int move = Move.fromUci(uciMove);
+            if (move == Move.NONE) {
+                throw new InvalidMoveSyntaxException(uciMove);
+            }
+            result.add(move);
+        }
+        return result;
+    }
+
+    /**
+     * @param move The move to add
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * @param index The index
+     * @return The move at index
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    /**
+     * @param index The index
+     * @param move  The move to store at index
+     */
+    public void set(int index, int move) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        moves[index] = move;
+    }
+
+    /**
+     * Keep only the first moves, the allocated capacity is kept
+     *
+     * @param newSize The number of moves to keep
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException(newSize);
+        }
+        size = newSize;
+    }
+
+    /**
+     * @return The number of moves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the list holds no move
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all moves, keeping the allocated capacity
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Remove the last move
+     *
+     * @return The removed move
+     */
+    public int removeLast() {
+        if (size == 0) {
+            throw new IndexOutOfBoundsException(0);
+        }
+        return moves[--size];
+    }
+
+    /**
+     * @param move The move to search, position dependent flags are ignored
+     * @return The index of the move, or -1 if not found
+     */
+    public int indexOf(int move) {
+        int searched = Move.withoutFlags(move);
+        for (int i = 0; i < size; i++) {
+            if (Move.withoutFlags(moves[i]) == searched) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param move The move to search, position dependent flags are ignored
+     * @return true if the list contains the move
+     */
+    public boolean contains(int move) {
+        return indexOf(move) != -1;
+    }
+
+    /**
+     * @return A copy of the moves
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * @return The moves with format "a1a2" or "a7a8q"
+     */
+    public List<String> toUciList() {
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(Move.toUci(moves[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MoveList that = (MoveList) o;
+        return size == that.size && Arrays.equals(moves, 0, size, that.moves
+                , 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + moves[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            Move.appendUci(builder, moves[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
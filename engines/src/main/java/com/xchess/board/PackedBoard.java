@@ -0,0 +1,93 @@
+package com.xchess.board;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-width binary board encoding of {@link #SIZE} bytes:
+ * <ul>
+ *     <li>bytes 0-31: one {@link Piece} per half byte, square a1 in the
+ *     low half of byte 0</li>
+ *     <li>byte 32: bit 0 set when black is to move, bits 1-4 the castling
+ *     rights</li>
+ *     <li>byte 33: the en passant square, or 0xFF</li>
+ *     <li>byte 34: the halfmove clock</li>
+ *     <li>bytes 35-36: the fullmove number, unsigned</li>
+ * </ul>
+ */
+public final class PackedBoard {
+    public static final int SIZE = 37;
+
+    private static final int FLAGS = 32;
+    private static final int EN_PASSANT = 33;
+    private static final int HALFMOVE_CLOCK = 34;
+    private static final int FULLMOVE_NUMBER = 35;
+    private static final int NO_EN_PASSANT = 0xFF;
+
+    private PackedBoard() {
+    }
+
+    /**
+     * @param board  The board to encode
+     * @param buffer The buffer to write to, its position is left unchanged
+     * @param offset The index of the first byte to write
+     * @throws IllegalArgumentException If the halfmove clock or the
+     *                                  fullmove number does not fit
+     */
+    public static void pack(Board board, ByteBuffer buffer, int offset) {
+        if (board.halfmoveClock > 0xFF || board.fullmoveNumber > 0xFFFF) {
+            throw new IllegalArgumentException("Move counters too large to " +
+                    "pack: " + board.halfmoveClock + " " + board.fullmoveNumber);
+        }
+        for (int i = 0; i < 32; i++) {
+            buffer.put(offset + i, (byte) (board.squares[2 * i] |
+                    board.squares[2 * i + 1] << 4));
+        }
+        buffer.put(offset + FLAGS, (byte) ((board.whiteToMove ? 0 : 1) |
+                board.castlingRights << 1));
+        buffer.put(offset + EN_PASSANT, (byte) (board.enPassantSquare ==
+                Square.NONE ? NO_EN_PASSANT : board.enPassantSquare));
+        buffer.put(offset + HALFMOVE_CLOCK, (byte) board.halfmoveClock);
+        buffer.putShort(offset + FULLMOVE_NUMBER, (short) board.fullmoveNumber);
+    }
+
+    /**
+     * Decode a board. Only the encoding is checked, not the position
+     * consistency
+     *
+     * @param buffer The buffer to read from, its position is left unchanged
+     * @param offset The index of the first byte to read
+     * @param target The board to fill
+     * @return false if the bytes are not a packed board, target content is
+     * then undefined
+     */
+    public static boolean unpack(ByteBuffer buffer, int offset, Board target) {
+        for (int i = 0; i < 32; i++) {
+            int packed = buffer.get(offset + i);
+            int low = packed & 0xF;
+            int high = packed >>> 4 & 0xF;
+            if (!isPiece(low) || !isPiece(high)) {
+                return false;
+            }
+            target.squares[2 * i] = (byte) low;
+            target.squares[2 * i + 1] = (byte) high;
+        }
+        int flags = buffer.get(offset + FLAGS) & 0xFF;
+        int enPassant = buffer.get(offset + EN_PASSANT) & 0xFF;
+        if (flags >>> 5 != 0 || (enPassant != NO_EN_PASSANT && enPassant >= 64)) {
+            return false;
+        }
+        target.whiteToMove = (flags & 1) == 0;
+        target.castlingRights = flags >>> 1;
+        target.enPassantSquare = enPassant == NO_EN_PASSANT ? Square.NONE :
+                enPassant;
+        target.halfmoveClock = buffer.get(offset + HALFMOVE_CLOCK) & 0xFF;
+        target.fullmoveNumber =
+                buffer.getShort(offset + FULLMOVE_NUMBER) & 0xFFFF;
+        return true;
+    }
+
+    private static boolean isPiece(int code) {
+        int type = Piece.type(code);
+        return code == Piece.NONE || (type >= Piece.PAWN && type <= Piece.KING);
+    }
+}
@@ -0,0 +1,77 @@
+package com.xchess.board;
+
+import java.util.Arrays;
+
+/**
+ * Piece encoding used by {@link Board}. A piece is an int holding its type
+ * in the 3 lowest bits and its color in the {@link #BLACK} bit, so that any
+ * piece fits in 4 bits
+ */
+public final class Piece {
+    public static final int NONE = 0;
+    public static final int PAWN = 1;
+    public static final int KNIGHT = 2;
+    public static final int BISHOP = 3;
+    public static final int ROOK = 4;
+    public static final int QUEEN = 5;
+    public static final int KING = 6;
+    public static final int BLACK = 8;
+
+    private static final String FEN_CHARS = " PNBRQK  pnbrqk";
+    private static final byte[] FROM_FEN_CHAR = new byte[128];
+
+    static {
+        Arrays.fill(FROM_FEN_CHAR, (byte) -1);
+        for (int piece = 0; piece < FEN_CHARS.length(); piece++) {
+            char c = FEN_CHARS.charAt(piece);
+            if (c != ' ') {
+                FROM_FEN_CHAR[c] = (byte) piece;
+            }
+        }
+    }
+
+    private Piece() {
+    }
+
+    /**
+     * @param type  The piece type, from {@link #PAWN} to {@link #KING}
+     * @param black true for a black piece
+     * @return The piece
+     */
+    public static int of(int type, boolean black) {
+        return black ? type | BLACK : type;
+    }
+
+    /**
+     * @param piece The piece
+     * @return The piece type, from {@link #PAWN} to {@link #KING}, or
+     * {@link #NONE}
+     */
+    public static int type(int piece) {
+        return piece & 7;
+    }
+
+    /**
+     * @param piece The piece
+     * @return true if the piece is black
+     */
+    public static boolean isBlack(int piece) {
+        return (piece & BLACK) != 0;
+    }
+
+    /**
+     * @param c The fen character, as "P" or "k"
+     * @return The piece, or -1 if the character is not a piece
+     */
+    public static int fromFenChar(char c) {
+        return c < FROM_FEN_CHAR.length ? FROM_FEN_CHAR[c] : -1;
+    }
+
+    /**
+     * @param piece The piece
+     * @return The fen character, uppercase for white pieces
+     */
+    public static char toFenChar(int piece) {
+        return FEN_CHARS.charAt(piece);
+    }
+}
@@ -0,0 +1,63 @@
+package com.xchess.board;
+
+/**
+ * Square encoding used by {@link Board}. Squares are indexed from 0 (a1) to
+ * 63 (h8), rank by rank
+ */
+public final class Square {
+    public static final int NONE = -1;
+
+    private Square() {
+    }
+
+    /**
+     * @param file The file, from 0 (a) to 7 (h)
+     * @param rank The rank, from 0 (1) to 7 (8)
+     * @return The square
+     */
+    public static int of(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    /**
+     * @param square The square
+     * @return The file, from 0 (a) to 7 (h)
+     */
+    public static int file(int square) {
+        return square & 7;
+    }
+
+    /**
+     * @param square The square
+     * @return The rank, from 0 (1) to 7 (8)
+     */
+    public static int rank(int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * @param text   The text holding the square
+     * @param offset The index of the square in text
+     * @return The square with format "a1", or {@link #NONE} if invalid
+     */
+    public static int parse(CharSequence text, int offset) {
+        if (offset + 2 > text.length()) {
+            return NONE;
+        }
+        int file = text.charAt(offset) - 'a';
+        int rank = text.charAt(offset + 1) - '1';
+        if ((file & ~7) != 0 || (rank & ~7) != 0) {
+            return NONE;
+        }
+        return of(file, rank);
+    }
+
+    /**
+     * @param square The square
+     * @return The square with format "a1"
+     */
+    public static String toString(int square) {
+        return new String(new char[]{(char) ('a' + file(square)),
+                (char) ('1' + rank(square))});
+    }
+}
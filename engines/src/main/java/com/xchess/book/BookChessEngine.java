@@ -0,0 +1,113 @@
+package com.xchess.book;
+
+import com.xchess.ChessEngine;
+import com.xchess.ChessEngineDecorator;
+import com.xchess.board.Board;
+import com.xchess.board.FenParser;
+import com.xchess.board.Move;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine answering {@link #findBestMove(EvaluationParameters)} from an
+ * opening book when the current position is in it, and searching with the
+ * decorated engine otherwise
+ */
+public class BookChessEngine extends ChessEngineDecorator {
+    private final PolyglotBook book;
+    private BookSelection selection;
+    private Random random;
+    private int maxPly;
+    private final AtomicLong bookHitCount;
+    private final AtomicLong bookMissCount;
+
+    /**
+     * Create an engine picking the best weighted book move at any ply
+     *
+     * @param delegate The engine searching positions out of the book
+     * @param book     The opening book
+     */
+    public BookChessEngine(ChessEngine delegate, PolyglotBook book) {
+        super(delegate);
+        this.book = book;
+        this.selection = BookSelection.BEST;
+        this.random = new Random();
+        this.maxPly = Integer.MAX_VALUE;
+        this.bookHitCount = new AtomicLong();
+        this.bookMissCount = new AtomicLong();
+    }
+
+    /**
+     * @param selection How to pick among the book moves
+     * @return the engine object
+     */
+    public BookChessEngine setSelection(BookSelection selection) {
+        this.selection = selection;
+        return this;
+    }
+
+    /**
+     * @param random The random source of {@link BookSelection#WEIGHTED}
+     * @return the engine object
+     */
+    public BookChessEngine setRandom(Random random) {
+        this.random = random;
+        return this;
+    }
+
+    /**
+     * Stop looking up the book after a number of plies, computed from the
+     * fullmove number of the position
+     *
+     * @param maxPly The last ply looked up in the book, 1 being white first
+     *               move
+     * @return the engine object
+     */
+    public BookChessEngine setMaxPly(int maxPly) {
+        this.maxPly = maxPly;
+        return this;
+    }
+
+    /**
+     * @return The number of moves answered from the book
+     */
+    public long getBookHitCount() {
+        return bookHitCount.get();
+    }
+
+    /**
+     * @return The number of moves searched by the decorated engine
+     */
+    public long getBookMissCount() {
+        return bookMissCount.get();
+    }
+
+    /**
+     * The book is looked up first, search parameters are then ignored
+     */
+    @Override
+    public String findBestMove(EvaluationParameters options) throws IOException,
+            TimeoutException {
+        String fen = delegate.getFenPosition();
+        Board board = new Board();
+        if (fen != null && FenParser.parse(fen, board) &&
+                getPly(board) <= maxPly) {
+            int move = book.findMove(board, selection, random);
+            if (move != Move.NONE) {
+                bookHitCount.incrementAndGet();
+                return Move.toUci(move);
+            }
+        }
+        bookMissCount.incrementAndGet();
+        return delegate.findBestMove(options);
+    }
+
+    private static int getPly(Board board) {
+        return 2 * (board.getFullmoveNumber() - 1) +
+                (board.isWhiteToMove() ? 1 : 2);
+    }
+}
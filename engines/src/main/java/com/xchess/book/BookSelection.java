@@ -0,0 +1,16 @@
+package com.xchess.book;
+
+/**
+ * How a move is picked among the book moves of a position
+ */
+public enum BookSelection {
+    /**
+     * The move with the highest weight
+     */
+    BEST,
+    /**
+     * A random move, each move being picked with a probability
+     * proportional to its weight
+     */
+    WEIGHTED
+}
@@ -0,0 +1,191 @@
+package com.xchess.book;
+
+import com.xchess.board.Board;
+import com.xchess.board.Move;
+import com.xchess.board.MoveGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Polyglot opening book reader. The book file is memory mapped and never
+ * copied to the heap: entries are sorted by key, so the entries of a
+ * position are found with a binary search. Lookups do not modify any
+ * state and can run from several threads
+ */
+public class PolyglotBook implements Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long entryCount;
+    private final PolyglotZobrist zobrist;
+
+    private PolyglotBook(FileChannel channel, MappedByteBuffer buffer,
+                         PolyglotZobrist zobrist) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.entryCount = buffer.capacity() / PolyglotEntry.SIZE;
+        this.zobrist = zobrist;
+    }
+
+    /**
+     * Open a book built with the standard hashing of the format
+     * specification, as are published ".bin" books
+     *
+     * @param path The ".bin" book file
+     * @return The opened book
+     * @throws IOException If the file cannot be mapped or is not a
+     *                     Polyglot book
+     * @see PolyglotZobrist#standard()
+     */
+    public static PolyglotBook open(Path path) throws IOException {
+        return open(path, PolyglotZobrist.standard());
+    }
+
+    /**
+     * @param path    The ".bin" book file
+     * @param zobrist The position hashing the book was built with
+     * @return The opened book
+     * @throws IOException If the file cannot be mapped or is not a
+     *                     Polyglot book
+     */
+    public static PolyglotBook open(Path path, PolyglotZobrist zobrist) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size % PolyglotEntry.SIZE != 0) {
+                throw new IOException("Invalid Polyglot book size: " + size);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Polyglot book too large: " + size);
+            }
+            MappedByteBuffer buffer =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new PolyglotBook(channel, buffer, zobrist);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of entries in the book
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @param key The Polyglot key of a position. See {@link PolyglotZobrist}
+     * @return The entries of the position, in book order
+     */
+    public List<PolyglotEntry> getEntries(long key) {
+        List<PolyglotEntry> entries = new ArrayList<>();
+        for (long i = lowerBound(key); i < entryCount && keyAt(i) == key; i++) {
+            entries.add(entryAt(i));
+        }
+        return entries;
+    }
+
+    /**
+     * @param board The position
+     * @return The entries of the position, in book order
+     */
+    public List<PolyglotEntry> getEntries(Board board) {
+        return getEntries(zobrist.key(board));
+    }
+
+    /**
+     * Pick a legal book move
+     *
+     * @param board     The position, left unchanged
+     * @param selection How to pick among the book moves
+     * @param random    The random source of {@link BookSelection#WEIGHTED}
+     * @return The move with its flags, see {@link Move}, or
+     * {@link Move#NONE} if the position is not in the book
+     */
+    public int findMove(Board board, BookSelection selection, Random random) {
+        List<PolyglotEntry> entries = getEntries(board);
+        int[] moves = new int[entries.size()];
+        long totalWeight = 0;
+        for (int i = 0; i < moves.length; i++) {
+            PolyglotEntry entry = entries.get(i);
+            // Keys may collide, and books may hold moves without weight
+            moves[i] = entry.getWeight() == 0 ? Move.NONE :
+                    MoveGenerator.findLegalMove(board, entry.toMove(board));
+            if (moves[i] != Move.NONE) {
+                totalWeight += entry.getWeight();
+            }
+        }
+        if (totalWeight == 0) {
+            return Move.NONE;
+        }
+        if (selection == BookSelection.BEST) {
+            int best = Move.NONE;
+            int bestWeight = 0;
+            for (int i = 0; i < moves.length; i++) {
+                if (moves[i] != Move.NONE &&
+                        entries.get(i).getWeight() > bestWeight) {
+                    best = moves[i];
+                    bestWeight = entries.get(i).getWeight();
+                }
+            }
+            return best;
+        }
+        long pick = (long) (random.nextDouble() * totalWeight);
+        for (int i = 0; i < moves.length; i++) {
+            if (moves[i] == Move.NONE) {
+                continue;
+            }
+            pick -= entries.get(i).getWeight();
+            if (pick < 0) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Unmapping is left to the garbage collector, the file is only closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return The index of the first entry whose key is not lower than
+     * the given one, keys being compared as unsigned numbers
+     */
+    private long lowerBound(long key) {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(long index) {
+        return buffer.getLong((int) (index * PolyglotEntry.SIZE));
+    }
+
+    private PolyglotEntry entryAt(long index) {
+        int offset = (int) (index * PolyglotEntry.SIZE);
+        return new PolyglotEntry(buffer.getLong(offset),
+                Short.toUnsignedInt(buffer.getShort(offset + 8)),
+                Short.toUnsignedInt(buffer.getShort(offset + 10)),
+                buffer.getInt(offset + 12));
+    }
+}
@@ -0,0 +1,69 @@
+package com.xchess.book;
+
+import com.xchess.board.Board;
+import com.xchess.board.Move;
+import com.xchess.board.Piece;
+import com.xchess.board.Square;
+import lombok.Getter;
+
+/**
+ * A 16 bytes entry of a Polyglot book: the position key, the move, its
+ * weight and learning data
+ */
+@Getter
+public class PolyglotEntry {
+    public static final int SIZE = 16;
+
+    private final long key;
+    /**
+     * -- GETTER --
+     * Get the move as stored in the book. Castling moves are stored as the
+     * king capturing its own rook, see {@link #toMove(Board)}
+     *
+     * @return the raw Polyglot move
+     */
+    private final int rawMove;
+    private final int weight;
+    private final int learn;
+
+    public PolyglotEntry(long key, int rawMove, int weight, int learn) {
+        this.key = key;
+        this.rawMove = rawMove;
+        this.weight = weight;
+        this.learn = learn;
+    }
+
+    /**
+     * Convert the book move to a {@link Move}, without flags
+     *
+     * @param board The position of the entry, needed to tell castling
+     *              moves apart
+     * @return The move
+     */
+    public int toMove(Board board) {
+        int to = rawMove & 63;
+        int from = (rawMove >> 6) & 63;
+        int promotion = (rawMove >> 12) & 7;
+        if (promotion != 0) {
+            return Move.of(from, to, promotion + 1);
+        }
+        int piece = board.getPiece(from);
+        if (Piece.type(piece) == Piece.KING &&
+                board.getPiece(to) == Piece.of(Piece.ROOK,
+                        Piece.isBlack(piece))) {
+            int rank = Square.rank(from);
+            to = Square.of(Square.file(to) > Square.file(from) ? 6 : 2, rank);
+        }
+        return Move.of(from, to);
+    }
+
+    @Override
+    public String toString() {
+        return "PolyglotEntry{" +
+                "key=" + Long.toHexString(key) +
+                ", rawMove=" + rawMove +
+                ", weight=" + weight +
+                ", learn=" + learn +
+                '}';
+    }
+}
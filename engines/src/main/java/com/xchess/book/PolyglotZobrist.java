@@ -0,0 +1,177 @@
+package com.xchess.book;
+
+import com.xchess.board.Board;
+import com.xchess.board.Piece;
+import com.xchess.board.Square;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Position hashing of the Polyglot book format. A key is the xor of random
+ * numbers picked from a table of {@link #TABLE_SIZE} values: one per piece
+ * and square, one per castling right, one per en passant file and one for
+ * white to move. The table is the "Random64" array published with the
+ * format specification, and books only match keys computed with it
+ */
+public class PolyglotZobrist {
+    public static final int TABLE_SIZE = 781;
+    /**
+     * Classpath resource, next to this class, holding the "Random64" table
+     * in the layout read by {@link #load(InputStream)}
+     */
+    public static final String STANDARD_TABLE_RESOURCE =
+            "polyglot-random64.txt";
+
+    private static final int CASTLING_OFFSET = 768;
+    private static final int EN_PASSANT_OFFSET = 772;
+    private static final int TURN_OFFSET = 780;
+
+    private static volatile PolyglotZobrist standard;
+
+    private final long[] random64;
+
+    /**
+     * @param random64 The random number table, of {@link #TABLE_SIZE}
+     *                 values
+     */
+    public PolyglotZobrist(long[] random64) {
+        if (random64.length != TABLE_SIZE) {
+            throw new IllegalArgumentException("Polyglot random table should" +
+                    " hold " + TABLE_SIZE + " values: " + random64.length);
+        }
+        this.random64 = random64.clone();
+    }
+
+    /**
+     * Read a random number table written as hexadecimal numbers, with or
+     * without "0x" prefix and "ULL" suffix, separated by spaces or commas.
+     * This is the layout of the table in the format specification
+     *
+     * @param input The table text
+     * @return The hashing
+     * @throws IOException If the text is not a table of
+     *                     {@link #TABLE_SIZE} numbers
+     */
+    public static PolyglotZobrist load(InputStream input) throws IOException {
+        String text = new String(input.readAllBytes(),
+                StandardCharsets.US_ASCII);
+        String[] tokens = text.trim().split("[\\s,]+");
+        if (tokens.length != TABLE_SIZE) {
+            throw new IOException("Polyglot random table should hold " +
+                    TABLE_SIZE + " values: " + tokens.length);
+        }
+        long[] values = new long[TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            String token = tokens[i];
+            if (token.startsWith("0x") || token.startsWith("0X")) {
+                token = token.substring(2);
+            }
+            if (token.toUpperCase().endsWith("ULL")) {
+                token = token.substring(0, token.length() - 3);
+            }
+            try {
+                values[i] = Long.parseUnsignedLong(token, 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid Polyglot random value: " +
+                        tokens[i], e);
+            }
+        }
+        return new PolyglotZobrist(values);
+    }
+
+    /**
+     * @param path The table file. See {@link #load(InputStream)}
+     * @return The hashing
+     * @throws IOException If the file cannot be read or is not a table of
+     *                     {@link #TABLE_SIZE} numbers
+     */
+    public static PolyglotZobrist load(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            return load(input);
+        }
+    }
+
+    /**
+     * Get the hashing of the "Random64" table of the format specification,
+     * bundled as the {@link #STANDARD_TABLE_RESOURCE} classpath resource.
+     * The table is read once
+     *
+     * @return The hashing matching Polyglot books
+     * @throws IOException If the resource cannot be read
+     */
+    public static PolyglotZobrist standard() throws IOException {
+        PolyglotZobrist current = standard;
+        if (current != null) {
+            return current;
+        }
+        try (InputStream input =
+                     PolyglotZobrist.class.getResourceAsStream(STANDARD_TABLE_RESOURCE)) {
+            if (input == null) {
+                throw new IOException("Polyglot random table resource not " +
+                        "found: " + STANDARD_TABLE_RESOURCE);
+            }
+            current = load(input);
+        }
+        standard = current;
+        return current;
+    }
+
+    /**
+     * @param board The position
+     * @return The Polyglot key of the position
+     */
+    public long key(Board board) {
+        long key = 0;
+        for (int square = 0; square < 64; square++) {
+            int piece = board.getPiece(square);
+            if (piece != Piece.NONE) {
+                int kind = 2 * (Piece.type(piece) - 1) +
+                        (Piece.isBlack(piece) ? 0 : 1);
+                key ^= random64[64 * kind + square];
+            }
+        }
+        int castlingRights = board.getCastlingRights();
+        if ((castlingRights & Board.WHITE_KINGSIDE) != 0) {
+            key ^= random64[CASTLING_OFFSET];
+        }
+        if ((castlingRights & Board.WHITE_QUEENSIDE) != 0) {
+            key ^= random64[CASTLING_OFFSET + 1];
+        }
+        if ((castlingRights & Board.BLACK_KINGSIDE) != 0) {
+            key ^= random64[CASTLING_OFFSET + 2];
+        }
+        if ((castlingRights & Board.BLACK_QUEENSIDE) != 0) {
+            key ^= random64[CASTLING_OFFSET + 3];
+        }
+        if (canCaptureEnPassant(board)) {
+            key ^= random64[EN_PASSANT_OFFSET +
+                    Square.file(board.getEnPassantSquare())];
+        }
+        if (board.isWhiteToMove()) {
+            key ^= random64[TURN_OFFSET];
+        }
+        return key;
+    }
+
+    /**
+     * The en passant file is only hashed if a pawn of the side to move
+     * stands next to the pawn which has just moved, whether the capture
+     * is legal or not
+     */
+    private static boolean canCaptureEnPassant(Board board) {
+        int target = board.getEnPassantSquare();
+        if (target == Square.NONE) {
+            return false;
+        }
+        boolean white = board.isWhiteToMove();
+        int rank = Square.rank(target) + (white ? -1 : 1);
+        int pawn = Piece.of(Piece.PAWN, !white);
+        int file = Square.file(target);
+        return (file > 0 && board.getPiece(Square.of(file - 1, rank)) == pawn) ||
+                (file < 7 && board.getPiece(Square.of(file + 1, rank)) == pawn);
+    }
+}
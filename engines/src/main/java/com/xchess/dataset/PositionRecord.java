@@ -0,0 +1,164 @@
+package com.xchess.dataset;
+
+import com.xchess.board.Board;
+import com.xchess.board.Move;
+import com.xchess.board.PackedBoard;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A position with its evaluation and best move, stored in
+ * {@link #SIZE} bytes:
+ * <ul>
+ *     <li>bytes 0-36: the board, see {@link PackedBoard}</li>
+ *     <li>byte 37: 0 without evaluation, 1 for
+ *     {@link ChessEngineEvaluationType#CENTIPAWNS}, 2 for
+ *     {@link ChessEngineEvaluationType#MATE}</li>
+ *     <li>bytes 38-39: the best move without its flags, or
+ *     {@link Move#NONE}</li>
+ *     <li>bytes 40-43: the evaluation value</li>
+ * </ul>
+ */
+@Getter
+public class PositionRecord {
+    public static final int SIZE = 44;
+
+    private static final int EVALUATION_TYPE = PackedBoard.SIZE;
+    private static final int BEST_MOVE = 38;
+    private static final int EVALUATION_VALUE = 40;
+    // Stored codes, changing them requires a new file version
+    private static final byte NO_EVALUATION = 0;
+    private static final byte CENTIPAWNS = 1;
+    private static final byte MATE = 2;
+
+    private final Board board;
+    /**
+     * -- GETTER --
+     * Get the evaluation
+     *
+     * @return the evaluation, or null if the position was not evaluated
+     */
+    private final ChessEngineEvaluation evaluation;
+    /**
+     * -- GETTER --
+     * Get the best move. Position dependent flags are not stored, resolve
+     * the move with
+     * {@link com.xchess.board.MoveGenerator#findLegalMove(Board, int)}
+     * before playing it
+     *
+     * @return the move, or {@link Move#NONE}
+     */
+    private final int bestMove;
+
+    public PositionRecord(Board board, ChessEngineEvaluation evaluation,
+                          int bestMove) {
+        this.board = board;
+        this.evaluation = evaluation;
+        this.bestMove = Move.withoutFlags(bestMove);
+    }
+
+    /**
+     * @param board      The position
+     * @param evaluation The evaluation, may be null
+     * @param bestMove   The best move, or {@link Move#NONE}
+     * @param buffer     The buffer to write to, its position is left
+     *                   unchanged
+     * @param offset     The index of the first byte to write
+     * @throws IllegalArgumentException If the board move counters do not
+     *                                  fit, see {@link PackedBoard}
+     */
+    public static void write(Board board, ChessEngineEvaluation evaluation,
+                             int bestMove, ByteBuffer buffer, int offset) {
+        PackedBoard.pack(board, buffer, offset);
+        buffer.put(offset + EVALUATION_TYPE, evaluation == null ?
+                NO_EVALUATION : typeCode(evaluation.getType()));
+        buffer.putShort(offset + BEST_MOVE, (short) Move.withoutFlags(bestMove));
+        buffer.putInt(offset + EVALUATION_VALUE, evaluation == null ? 0 :
+                evaluation.getValue());
+    }
+
+    /**
+     * @param buffer The buffer to read from, its position is left unchanged
+     * @param offset The index of the first byte to read
+     * @param target The board to fill
+     * @return false if the bytes are not a record, target content is then
+     * undefined
+     */
+    public static boolean readBoard(ByteBuffer buffer, int offset,
+                                    Board target) {
+        return PackedBoard.unpack(buffer, offset, target);
+    }
+
+    /**
+     * @param buffer The buffer to read from
+     * @param offset The index of the first byte of the record
+     * @return The evaluation, or null if the position was not evaluated or
+     * the type is unknown
+     */
+    public static ChessEngineEvaluation readEvaluation(ByteBuffer buffer,
+                                                       int offset) {
+        ChessEngineEvaluationType type;
+        switch (buffer.get(offset + EVALUATION_TYPE)) {
+            case CENTIPAWNS:
+                type = ChessEngineEvaluationType.CENTIPAWNS;
+                break;
+            case MATE:
+                type = ChessEngineEvaluationType.MATE;
+                break;
+            default:
+                return null;
+        }
+        return new ChessEngineEvaluation(type,
+                buffer.getInt(offset + EVALUATION_VALUE));
+    }
+
+    private static byte typeCode(ChessEngineEvaluationType type) {
+        switch (type) {
+            case CENTIPAWNS:
+                return CENTIPAWNS;
+            case MATE:
+                return MATE;
+            default:
+                throw new IllegalArgumentException("Unsupported evaluation " +
+                        "type " + type);
+        }
+    }
+
+    /**
+     * @param buffer The buffer to read from
+     * @param offset The index of the first byte of the record
+     * @return The best move without its flags, or {@link Move#NONE}
+     */
+    public static int readBestMove(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset + BEST_MOVE) & 0x7FFF;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PositionRecord that = (PositionRecord) o;
+        return bestMove == that.bestMove && Objects.equals(board, that.board)
+                && Objects.equals(evaluation, that.evaluation);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(board, evaluation, bestMove);
+    }
+
+    @Override
+    public String toString() {
+        return "PositionRecord{" +
+                "fen='" + board.toFen() + '\'' +
+                ", evaluation=" + (evaluation == null ? null :
+                evaluation.getType() + " " + evaluation.getValue()) +
+                ", bestMove='" + (bestMove == Move.NONE ? null :
+                Move.toUci(bestMove)) + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+package com.xchess.dataset;
+
+import com.xchess.board.Board;
+import com.xchess.evaluation.ChessEngineEvaluation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access reader of a file written by {@link PositionRecordWriter}.
+ * The file is memory mapped by segments, so that files larger than 2 GB
+ * can be read, and records are decoded in place without copy. Reads do
+ * not modify any state and can run from several threads
+ */
+public class PositionRecordReader implements Closeable {
+    public static final int HEADER_SIZE = 8;
+    static final int MAGIC = 0x58435052;
+    // To increment whenever the record layout or its codes change
+    static final short VERSION = 1;
+    private static final int RECORDS_PER_SEGMENT =
+            (1 << 30) / PositionRecord.SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long count;
+
+    private PositionRecordReader(FileChannel channel,
+                                 MappedByteBuffer[] segments, long count) {
+        this.channel = channel;
+        this.segments = segments;
+        this.count = count;
+    }
+
+    /**
+     * @param path The record file
+     * @return The reader
+     * @throws IOException If the file cannot be mapped or is not a record
+     *                     file
+     */
+    public static PositionRecordReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a position record file: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a position record file: " + path);
+            }
+            short version = header.getShort();
+            short recordSize = header.getShort();
+            if (version != VERSION || recordSize != PositionRecord.SIZE) {
+                throw new IOException("Unsupported position record version " +
+                        version + " with record size " + recordSize);
+            }
+            long count = (size - HEADER_SIZE) / PositionRecord.SIZE;
+            if (count * PositionRecord.SIZE != size - HEADER_SIZE) {
+                throw new IOException("Truncated position record file: " + path);
+            }
+            int segmentCount = (int) ((count + RECORDS_PER_SEGMENT - 1) /
+                    RECORDS_PER_SEGMENT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i * RECORDS_PER_SEGMENT;
+                long records = Math.min(RECORDS_PER_SEGMENT, count - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + first * PositionRecord.SIZE,
+                        records * PositionRecord.SIZE);
+            }
+            return new PositionRecordReader(channel, segments, count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of records
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Decode a position into an existing board, without allocation
+     *
+     * @param index  The record index
+     * @param target The board to fill
+     * @throws IOException If the record is corrupted
+     */
+    public void readBoard(long index, Board target) throws IOException {
+        if (!PositionRecord.readBoard(segment(index), offset(index), target)) {
+            throw new IOException("Corrupted position record " + index);
+        }
+    }
+
+    /**
+     * @param index The record index
+     * @return The evaluation, or null if the position was not evaluated
+     */
+    public ChessEngineEvaluation getEvaluation(long index) {
+        return PositionRecord.readEvaluation(segment(index), offset(index));
+    }
+
+    /**
+     * @param index The record index
+     * @return The best move without its flags, or
+     * {@link com.xchess.board.Move#NONE}
+     */
+    public int getBestMove(long index) {
+        return PositionRecord.readBestMove(segment(index), offset(index));
+    }
+
+    /**
+     * @param index The record index
+     * @return The record
+     * @throws IOException If the record is corrupted
+     */
+    public PositionRecord get(long index) throws IOException {
+        Board board = new Board();
+        readBoard(index, board);
+        return new PositionRecord(board, getEvaluation(index),
+                getBestMove(index));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer segment(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Record " + index +
+                    " out of " + count);
+        }
+        return segments[(int) (index / RECORDS_PER_SEGMENT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % RECORDS_PER_SEGMENT) * PositionRecord.SIZE;
+    }
+}
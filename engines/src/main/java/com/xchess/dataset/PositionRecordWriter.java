@@ -0,0 +1,119 @@
+package com.xchess.dataset;
+
+import com.xchess.board.Board;
+import com.xchess.evaluation.ChessEngineEvaluation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Sequential writer of position records. A file is made of a
+ * {@link PositionRecordReader#HEADER_SIZE} bytes header followed by
+ * {@link PositionRecord#SIZE} bytes records, so that the nth record is
+ * found without reading the previous ones. Records are buffered and
+ * written by batches
+ */
+public class PositionRecordWriter implements Closeable {
+    private static final int BATCH_SIZE = 1024;
+
+    private final OutputStream outputStream;
+    private final byte[] batch;
+    private final ByteBuffer buffer;
+    private int batchCount;
+    private long count;
+
+    /**
+     * Write the header then records to a stream
+     *
+     * @param outputStream The stream, closed with the writer
+     * @throws IOException If the header cannot be written
+     */
+    public PositionRecordWriter(OutputStream outputStream) throws IOException {
+        this.outputStream = outputStream;
+        this.batch = new byte[BATCH_SIZE * PositionRecord.SIZE];
+        this.buffer = ByteBuffer.wrap(batch);
+        ByteBuffer header =
+                ByteBuffer.allocate(PositionRecordReader.HEADER_SIZE);
+        header.putInt(PositionRecordReader.MAGIC);
+        header.putShort(PositionRecordReader.VERSION);
+        header.putShort((short) PositionRecord.SIZE);
+        outputStream.write(header.array());
+    }
+
+    /**
+     * @param path The file to create or replace
+     * @return The writer
+     * @throws IOException If the file cannot be written
+     */
+    public static PositionRecordWriter open(Path path) throws IOException {
+        OutputStream outputStream = Files.newOutputStream(path);
+        try {
+            return new PositionRecordWriter(outputStream);
+        } catch (IOException e) {
+            outputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param board      The position
+     * @param evaluation The evaluation, may be null
+     * @param bestMove   The best move, or {@link com.xchess.board.Move#NONE}
+     * @throws IOException If the batch cannot be written
+     */
+    public void write(Board board, ChessEngineEvaluation evaluation,
+                      int bestMove) throws IOException {
+        PositionRecord.write(board, evaluation, bestMove, buffer,
+                batchCount * PositionRecord.SIZE);
+        batchCount++;
+        count++;
+        if (batchCount == BATCH_SIZE) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * @param record The record
+     * @throws IOException If the batch cannot be written
+     */
+    public void write(PositionRecord record) throws IOException {
+        write(record.getBoard(), record.getEvaluation(), record.getBestMove());
+    }
+
+    /**
+     * @return The number of records written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Write the buffered records and flush the stream
+     *
+     * @throws IOException If the records cannot be written
+     */
+    public void flush() throws IOException {
+        flushBatch();
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBatch();
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private void flushBatch() throws IOException {
+        if (batchCount > 0) {
+            outputStream.write(batch, 0, batchCount * PositionRecord.SIZE);
+            batchCount = 0;
+        }
+    }
+}
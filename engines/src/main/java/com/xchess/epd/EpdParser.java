@@ -0,0 +1,169 @@
+package com.xchess.epd;
+
+import com.xchess.board.Board;
+import com.xchess.board.FenParser;
+import com.xchess.board.Move;
+import com.xchess.board.MoveGenerator;
+import com.xchess.exceptions.InvalidEpdException;
+import com.xchess.exceptions.InvalidFenPositionException;
+import com.xchess.pgn.SanParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser of EPD lines: four FEN fields followed by operations such as
+ * {@code bm Nf3; id "test 1";}
+ */
+public class EpdParser {
+    private static final int FEN_FIELDS = 4;
+
+    // Private constructor to hide implicit public one
+    private EpdParser() {
+    }
+
+    /**
+     * @param line The EPD line
+     * @return The record
+     * @throws InvalidEpdException If the position or an operation is invalid
+     */
+    public static EpdRecord parse(String line) throws InvalidEpdException {
+        return parse(line, 1);
+    }
+
+    /**
+     * Read every record of a suite. Blank lines and lines starting with
+     * '#' are skipped
+     *
+     * @param inputStream The UTF-8 suite content, not closed
+     * @return The records in file order
+     * @throws IOException         If the stream cannot be read
+     * @throws InvalidEpdException If a line is invalid
+     */
+    public static List<EpdRecord> read(InputStream inputStream) throws IOException, InvalidEpdException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                inputStream, StandardCharsets.UTF_8));
+        List<EpdRecord> records = new ArrayList<>();
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && trimmed.charAt(0) != '#') {
+                records.add(parse(trimmed, lineNumber));
+            }
+        }
+        return records;
+    }
+
+    private static EpdRecord parse(String line, long lineNumber) throws InvalidEpdException {
+        String[] fields = line.trim().split("\\s+", FEN_FIELDS + 1);
+        if (fields.length < FEN_FIELDS) {
+            throw new InvalidEpdException(lineNumber, "expected " + FEN_FIELDS +
+                    " position fields");
+        }
+        Map<String, List<String>> operations = fields.length > FEN_FIELDS ?
+                parseOperations(fields[FEN_FIELDS], lineNumber) :
+                new LinkedHashMap<>();
+
+        String fen = String.join(" ", fields[0], fields[1], fields[2],
+                fields[3], firstOperand(operations, "hmvc", "0"),
+                firstOperand(operations, "fmvn", "1"));
+        Board board;
+        try {
+            board = FenParser.parse(fen);
+        } catch (InvalidFenPositionException e) {
+            throw new InvalidEpdException(lineNumber, "invalid position " + fen);
+        }
+        return new EpdRecord(fen, operations,
+                resolveMoves(board, operations.get("bm"), lineNumber),
+                resolveMoves(board, operations.get("am"), lineNumber));
+    }
+
+    private static Map<String, List<String>> parseOperations(String text,
+                                                             long lineNumber) throws InvalidEpdException {
+        Map<String, List<String>> operations = new LinkedHashMap<>();
+        String opcode = null;
+        List<String> operands = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == ';') {
+                if (opcode == null) {
+                    throw new InvalidEpdException(lineNumber, "empty operation");
+                }
+                operations.put(opcode, operands);
+                opcode = null;
+                operands = new ArrayList<>();
+                i++;
+            } else if (c == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0 || opcode == null) {
+                    throw new InvalidEpdException(lineNumber, "misplaced " +
+                            "string operand");
+                }
+                operands.add(text.substring(i + 1, end));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < text.length() && !Character.isWhitespace(text.charAt(end))
+                        && text.charAt(end) != ';') {
+                    end++;
+                }
+                String token = text.substring(i, end);
+                if (opcode == null) {
+                    opcode = token;
+                } else {
+                    operands.add(token);
+                }
+                i = end;
+            }
+        }
+        if (opcode != null) {
+            throw new InvalidEpdException(lineNumber, "operation " + opcode +
+                    " is not terminated by ';'");
+        }
+        return operations;
+    }
+
+    private static String firstOperand(Map<String, List<String>> operations,
+                                       String opcode, String defaultValue) {
+        List<String> operands = operations.get(opcode);
+        return operands == null || operands.isEmpty() ? defaultValue :
+                operands.get(0);
+    }
+
+    /**
+     * Convert moves to UCI. Operands are expected in SAN, UCI is accepted
+     * as well since some suites use it
+     */
+    private static List<String> resolveMoves(Board board, List<String> moves,
+                                             long lineNumber) throws InvalidEpdException {
+        List<String> resolved = new ArrayList<>();
+        if (moves == null) {
+            return resolved;
+        }
+        for (String move : moves) {
+            int parsed = SanParser.parse(board, move);
+            if (parsed == Move.NONE) {
+                int uci = Move.fromUci(move);
+                parsed = uci == Move.NONE ? Move.NONE :
+                        MoveGenerator.findLegalMove(board, uci);
+            }
+            if (parsed == Move.NONE) {
+                throw new InvalidEpdException(lineNumber, "illegal move " + move);
+            }
+            resolved.add(Move.toUci(parsed));
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,94 @@
+package com.xchess.epd;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A position of an EPD suite with its operations. The "bm" and "am"
+ * operands are resolved from SAN to UCI moves when the record is parsed
+ */
+@Getter
+public class EpdRecord {
+    /**
+     * -- GETTER --
+     * Get the position
+     *
+     * @return the position as a full FEN, using the "hmvc" and "fmvn"
+     * operations when present
+     */
+    private final String fen;
+    /**
+     * -- GETTER --
+     * Get the operations in file order
+     *
+     * @return the operands of each opcode
+     */
+    private final Map<String, List<String>> operations;
+    /**
+     * -- GETTER --
+     * Get the moves to find
+     *
+     * @return the "bm" moves with format "a1a2", empty if none
+     */
+    private final List<String> bestMoves;
+    /**
+     * -- GETTER --
+     * Get the moves to avoid
+     *
+     * @return the "am" moves with format "a1a2", empty if none
+     */
+    private final List<String> avoidMoves;
+
+    public EpdRecord(String fen, Map<String, List<String>> operations,
+                     List<String> bestMoves, List<String> avoidMoves) {
+        this.fen = fen;
+        this.operations = Collections.unmodifiableMap(operations);
+        this.bestMoves = List.copyOf(bestMoves);
+        this.avoidMoves = List.copyOf(avoidMoves);
+    }
+
+    /**
+     * @param opcode The operation name
+     * @return The operands of the operation, empty if absent
+     */
+    public List<String> getOperation(String opcode) {
+        return operations.getOrDefault(opcode, List.of());
+    }
+
+    /**
+     * @return The first "id" operand, or null if absent
+     */
+    public String getId() {
+        List<String> id = getOperation("id");
+        return id.isEmpty() ? null : id.get(0);
+    }
+
+    /**
+     * A move solves the record when it is one of the best moves, if any,
+     * and none of the moves to avoid. A record with neither is solved by
+     * any move
+     *
+     * @param move The move with format "a1a2"
+     * @return true if the move solves the record
+     */
+    public boolean isSolution(String move) {
+        if (move == null) {
+            return false;
+        }
+        if (!bestMoves.isEmpty() && !bestMoves.contains(move)) {
+            return false;
+        }
+        return !avoidMoves.contains(move);
+    }
+
+    @Override
+    public String toString() {
+        return "EpdRecord{" +
+                "fen='" + fen + '\'' +
+                ", operations=" + operations +
+                '}';
+    }
+}
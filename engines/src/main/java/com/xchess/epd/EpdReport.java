@@ -0,0 +1,116 @@
+package com.xchess.epd;
+
+import com.xchess.evaluation.SearchResult;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Scores of an EPD suite run
+ */
+@Getter
+public class EpdReport {
+    /**
+     * -- GETTER --
+     * Get the result of each record
+     *
+     * @return the results, in record order
+     */
+    private final List<EpdResult> results;
+    /**
+     * -- GETTER --
+     * Get the wall time of the whole run
+     *
+     * @return the duration in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    public EpdReport(List<EpdResult> results, long elapsedNanos) {
+        this.results = List.copyOf(results);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return The number of records
+     */
+    public int getTotalCount() {
+        return results.size();
+    }
+
+    /**
+     * @return The number of records solved by the engines
+     */
+    public int getSolvedCount() {
+        int count = 0;
+        for (EpdResult result : results) {
+            if (result.isSolved()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of records whose search failed
+     */
+    public int getFailedCount() {
+        int count = 0;
+        for (EpdResult result : results) {
+            if (result.isFailed()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The nodes searched over the whole suite
+     */
+    public long getTotalNodes() {
+        long nodes = 0;
+        for (EpdResult result : results) {
+            SearchResult searchResult = result.getSearchResult();
+            if (searchResult != null) {
+                nodes += searchResult.getNodes();
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * @return The nodes searched per second of wall time, all engines
+     * together
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 :
+                (long) (getTotalNodes() * 1_000_000_000.0 / elapsedNanos);
+    }
+
+    /**
+     * @return The average time to solution of the solved records in
+     * milliseconds, or -1 if none is solved
+     */
+    public double getAverageTimeToSolutionMs() {
+        long total = 0;
+        int count = 0;
+        for (EpdResult result : results) {
+            long time = result.getTimeToSolutionMs();
+            if (time >= 0) {
+                total += time;
+                count++;
+            }
+        }
+        return count == 0 ? -1 : (double) total / count;
+    }
+
+    @Override
+    public String toString() {
+        return "EpdReport{" +
+                "solved=" + getSolvedCount() + "/" + getTotalCount() +
+                ", failed=" + getFailedCount() +
+                ", nodes=" + getTotalNodes() +
+                ", nps=" + getNodesPerSecond() +
+                ", averageTimeToSolutionMs=" + getAverageTimeToSolutionMs() +
+                '}';
+    }
+}
@@ -0,0 +1,102 @@
+package com.xchess.epd;
+
+import com.xchess.evaluation.SearchResult;
+import lombok.Getter;
+
+/**
+ * Outcome of an EPD record search
+ */
+@Getter
+public class EpdResult {
+    private final EpdRecord record;
+    /**
+     * -- GETTER --
+     * Get the engine search result
+     *
+     * @return the search result, or null if the search failed
+     */
+    private final SearchResult searchResult;
+    /**
+     * -- GETTER --
+     * Get the wall time of the search, position setup included
+     *
+     * @return the duration in nanoseconds
+     */
+    private final long elapsedNanos;
+    /**
+     * -- GETTER --
+     * Get the reason of the failure
+     *
+     * @return the error message, or null if the search succeeded
+     */
+    private final String error;
+
+    private EpdResult(EpdRecord record, SearchResult searchResult,
+                      long elapsedNanos, String error) {
+        this.record = record;
+        this.searchResult = searchResult;
+        this.elapsedNanos = elapsedNanos;
+        this.error = error;
+    }
+
+    /**
+     * @param record       The searched record
+     * @param searchResult The engine search result
+     * @param elapsedNanos The wall time of the search
+     * @return The result of a completed search
+     */
+    public static EpdResult of(EpdRecord record, SearchResult searchResult,
+                               long elapsedNanos) {
+        return new EpdResult(record, searchResult, elapsedNanos, null);
+    }
+
+    /**
+     * @param record The record which could not be searched
+     * @param error  The reason of the failure
+     * @return The result of a failed search
+     */
+    public static EpdResult failed(EpdRecord record, String error) {
+        return new EpdResult(record, null, 0, error);
+    }
+
+    /**
+     * @return true if the search failed
+     */
+    public boolean isFailed() {
+        return searchResult == null;
+    }
+
+    /**
+     * @return The move played by the engine, or null if the search failed
+     * or there is no legal move
+     */
+    public String getMove() {
+        return searchResult == null ? null : searchResult.getBestMove();
+    }
+
+    /**
+     * @return true if the engine move solves the record
+     */
+    public boolean isSolved() {
+        return record.isSolution(getMove());
+    }
+
+    /**
+     * @return The engine time from which the best move stayed a solution,
+     * or -1 if the record is not solved
+     */
+    public long getTimeToSolutionMs() {
+        return searchResult == null ? -1 :
+                searchResult.getTimeToSolution(record::isSolution);
+    }
+
+    @Override
+    public String toString() {
+        return "EpdResult{" +
+                "id='" + record.getId() + '\'' +
+                ", move='" + getMove() + '\'' +
+                ", solved=" + isSolved() +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,111 @@
+package com.xchess.epd;
+
+import com.xchess.ChessEngine;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs an EPD suite over several engines. Each engine has its own thread
+ * taking the next record as soon as its previous search is over, so that
+ * slow positions do not leave the other engines idle
+ */
+public class EpdSuiteRunner {
+    private final List<? extends ChessEngine> engines;
+
+    /**
+     * @param engines The started engines, not empty. They should not be
+     *                used by anything else during a run
+     */
+    public EpdSuiteRunner(List<? extends ChessEngine> engines) {
+        if (engines.isEmpty()) {
+            throw new IllegalArgumentException("At least one engine is " +
+                    "required");
+        }
+        this.engines = List.copyOf(engines);
+    }
+
+    /**
+     * Run a suite with the same parameters for every record
+     *
+     * @param records    The records to search
+     * @param parameters The search parameters
+     * @return The report
+     * @throws InterruptedException If interrupted while waiting for the
+     *                              engines
+     */
+    public EpdReport run(List<EpdRecord> records,
+                         EvaluationParameters parameters) throws InterruptedException {
+        return run(records, record -> parameters);
+    }
+
+    /**
+     * Run a suite. A record whose search fails is reported as failed. An
+     * engine failing to communicate is not given other records, and the
+     * records left when every engine failed are reported as failed
+     *
+     * @param records    The records to search
+     * @param parameters Gives the search parameters of each record
+     * @return The report
+     * @throws InterruptedException If interrupted while waiting for the
+     *                              engines. The searches in progress are
+     *                              completed in the background
+     */
+    public EpdReport run(List<EpdRecord> records,
+                         Function<EpdRecord, EvaluationParameters> parameters) throws InterruptedException {
+        EpdResult[] results = new EpdResult[records.size()];
+        AtomicInteger next = new AtomicInteger();
+        long start = System.nanoTime();
+
+        List<Thread> workers = new ArrayList<>();
+        for (ChessEngine engine : engines) {
+            Thread worker = new Thread(() -> work(engine, records, parameters,
+                    next, results), "epd-runner");
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = EpdResult.failed(records.get(i), "No engine " +
+                        "available");
+            }
+        }
+        return new EpdReport(Arrays.asList(results), elapsed);
+    }
+
+    private static void work(ChessEngine engine, List<EpdRecord> records,
+                             Function<EpdRecord, EvaluationParameters> parameters,
+                             AtomicInteger next, EpdResult[] results) {
+        int index;
+        while ((index = next.getAndIncrement()) < records.size()) {
+            EpdRecord record = records.get(index);
+            long start = System.nanoTime();
+            try {
+                engine.moveToFenPosition(record.getFen(), true);
+                SearchResult searchResult =
+                        engine.search(parameters.apply(record));
+                results[index] = EpdResult.of(record, searchResult,
+                        System.nanoTime() - start);
+            } catch (InvalidFenPositionException e) {
+                results[index] = EpdResult.failed(record, e.getMessage());
+            } catch (IOException | TimeoutException e) {
+                results[index] = EpdResult.failed(record, e.getMessage());
+                return;
+            }
+        }
+    }
+}
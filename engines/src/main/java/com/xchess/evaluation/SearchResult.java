@@ -0,0 +1,216 @@
+package com.xchess.evaluation;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Outcome of a search: the best move with the statistics reported by the
+ * engine in its last "info" line, and the best move found at each depth
+ */
+@Getter
+@Builder
+public class SearchResult {
+    /**
+     * -- GETTER --
+     * Get the best move
+     *
+     * @return the move with format "a1a2", or null if there is no legal
+     * move
+     */
+    private final String bestMove;
+    /**
+     * -- GETTER --
+     * Get the evaluation reported by the engine, from the point of view of
+     * the side to move
+     *
+     * @return the evaluation, or null if the engine did not report any
+     */
+    private final ChessEngineEvaluation evaluation;
+    private final int depth;
+    private final long nodes;
+    /**
+     * -- GETTER --
+     * Get the search speed reported by the engine
+     *
+     * @return the nodes per second
+     */
+    private final long nps;
+    /**
+     * -- GETTER --
+     * Get the search time reported by the engine
+     *
+     * @return the time in milliseconds
+     */
+    private final long timeMs;
+    /**
+     * -- GETTER --
+     * Get the successive principal variations, in reporting order
+     *
+     * @return the iterations
+     */
+    @Singular
+    private final List<Iteration> iterations;
+
+    /**
+     * Parse the output of a UCI "go" command
+     *
+     * @param lines The output lines, up to and including the "bestmove" one
+     * @return The search result
+     * @throws IOException If the output holds no "bestmove" line
+     */
+    public static SearchResult parse(List<String> lines) throws IOException {
+        SearchResultBuilder builder = SearchResult.builder();
+        boolean bestMoveFound = false;
+        for (String line : lines) {
+            if (line.startsWith("bestmove")) {
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens.length > 1) {
+                    builder.bestMove("(none)".equals(tokens[1]) ? null : tokens[1]);
+                    bestMoveFound = true;
+                }
+            } else if (line.startsWith("info") && line.contains(" score ")) {
+                Iteration iteration = Iteration.parse(line);
+                builder.depth(iteration.getDepth())
+                        .nodes(iteration.getNodes())
+                        .nps(iteration.getNps())
+                        .timeMs(iteration.getTimeMs())
+                        .evaluation(iteration.getEvaluation());
+                if (iteration.getMove() != null) {
+                    builder.iteration(iteration);
+                }
+            }
+        }
+        if (!bestMoveFound) {
+            throw new IOException("Cannot find best move in search output");
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param solution Tells whether a move solves the position
+     * @return The time from which the best move stayed a solution, or -1
+     * if the final best move is not a solution
+     */
+    public long getTimeToSolution(Predicate<String> solution) {
+        if (bestMove == null || !solution.test(bestMove)) {
+            return -1;
+        }
+        long time = timeMs;
+        for (int i = iterations.size() - 1; i >= 0; i--) {
+            if (!solution.test(iterations.get(i).getMove())) {
+                break;
+            }
+            time = iterations.get(i).getTimeMs();
+        }
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+                "bestMove='" + bestMove + '\'' +
+                ", evaluation=" + evaluation +
+                ", depth=" + depth +
+                ", nodes=" + nodes +
+                ", nps=" + nps +
+                ", timeMs=" + timeMs +
+                '}';
+    }
+
+    /**
+     * The statistics and the first move of a principal variation reported
+     * during the search
+     */
+    @Getter
+    public static class Iteration {
+        private final int depth;
+        private final long timeMs;
+        private final long nodes;
+        private final long nps;
+        /**
+         * -- GETTER --
+         * Get the score, from the point of view of the side to move
+         *
+         * @return the score, or null if the line has none
+         */
+        private final ChessEngineEvaluation evaluation;
+        /**
+         * -- GETTER --
+         * Tell whether the score is only a lower or upper bound, as
+         * reported when the search fails out of its aspiration window
+         *
+         * @return true if the score is not exact
+         */
+        private final boolean bound;
+        /**
+         * -- GETTER --
+         * Get the first move of the principal variation
+         *
+         * @return the move with format "a1a2", or null if the line has no
+         * principal variation
+         */
+        private final String move;
+
+        public Iteration(int depth, long timeMs, long nodes, long nps,
+                         ChessEngineEvaluation evaluation, boolean bound,
+                         String move) {
+            this.depth = depth;
+            this.timeMs = timeMs;
+            this.nodes = nodes;
+            this.nps = nps;
+            this.evaluation = evaluation;
+            this.bound = bound;
+            this.move = move;
+        }
+
+        /**
+         * @param line A UCI "info" line
+         * @return The iteration, with zero values for missing statistics
+         * @throws IOException If a statistic is not a number
+         */
+        public static Iteration parse(String line) throws IOException {
+            String[] tokens = line.trim().split("\\s+");
+            int depth = 0;
+            long timeMs = 0;
+            long nodes = 0;
+            long nps = 0;
+            ChessEngineEvaluation evaluation = null;
+            boolean bound = false;
+            String move = null;
+            try {
+                for (int i = 1; i < tokens.length; i++) {
+                    switch (tokens[i]) {
+                        case "depth" -> depth = Integer.parseInt(tokens[++i]);
+                        case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                        case "nps" -> nps = Long.parseLong(tokens[++i]);
+                        case "time" -> timeMs = Long.parseLong(tokens[++i]);
+                        case "score" -> {
+                            ChessEngineEvaluationType type = "mate".equals(tokens[++i]) ?
+                                    ChessEngineEvaluationType.MATE :
+                                    ChessEngineEvaluationType.CENTIPAWNS;
+                            evaluation = new ChessEngineEvaluation(type,
+                                    Integer.parseInt(tokens[++i]));
+                        }
+                        case "lowerbound", "upperbound" -> bound = true;
+                        case "pv" -> {
+                            move = tokens[++i];
+                            i = tokens.length;
+                        }
+                        default -> {
+                            // Other fields are not kept
+                        }
+                    }
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Invalid info line: " + line, e);
+            }
+            return new Iteration(depth, timeMs, nodes, nps, evaluation, bound,
+                    move);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.xchess.evaluation;
+
+import com.xchess.evaluation.parameter.AdaptiveTimeManagement;
+
+/**
+ * Follows the iterations of a search and tells when its result is stable
+ * according to an {@link AdaptiveTimeManagement}. Iterations with a bound
+ * score or without move are ignored, as are repeated reports of a depth
+ * already seen
+ */
+public class SearchStabilityTracker {
+    private final AdaptiveTimeManagement timeManagement;
+    private String move;
+    private ChessEngineEvaluation evaluation;
+    private int depth;
+    private int stableDepths;
+
+    /**
+     * @param timeManagement The stability criteria
+     */
+    public SearchStabilityTracker(AdaptiveTimeManagement timeManagement) {
+        this.timeManagement = timeManagement;
+    }
+
+    /**
+     * @param iteration The last iteration reported by the engine
+     * @return true if the search can be stopped
+     */
+    public boolean update(SearchResult.Iteration iteration) {
+        if (iteration.isBound() || iteration.getMove() == null ||
+                iteration.getEvaluation() == null) {
+            return false;
+        }
+        if (iteration.getDepth() <= depth) {
+            // Another line of a depth already counted, as with MultiPV
+            return false;
+        }
+        if (iteration.getMove().equals(move) &&
+                isClose(iteration.getEvaluation(), evaluation)) {
+            stableDepths++;
+        } else {
+            stableDepths = 1;
+        }
+        move = iteration.getMove();
+        evaluation = iteration.getEvaluation();
+        depth = iteration.getDepth();
+        return depth >= timeManagement.getMinDepth() &&
+                stableDepths >= timeManagement.getStableDepths();
+    }
+
+    private boolean isClose(ChessEngineEvaluation current,
+                            ChessEngineEvaluation previous) {
+        if (previous == null || current.getType() != previous.getType()) {
+            return false;
+        }
+        if (current.getType() == ChessEngineEvaluationType.MATE) {
+            return Integer.signum(current.getValue()) ==
+                    Integer.signum(previous.getValue());
+        }
+        return Math.abs(current.getValue() - previous.getValue()) <=
+                timeManagement.getScoreMarginInCp();
+    }
+}
@@ -0,0 +1,59 @@
+package com.xchess.evaluation.parameter;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Time management stopping an infinite search once its result is stable:
+ * the best move stayed the same and the score moved by at most
+ * {@link #getScoreMarginInCp()} for {@link #getStableDepths()} consecutive
+ * depths. The search is stopped after {@link #getMaxTimeInMs()} anyway
+ */
+@Builder
+@Getter
+public class AdaptiveTimeManagement {
+    /**
+     * -- GETTER --
+     * Get the depth below which the search is never stopped early
+     *
+     * @return the minimal depth
+     */
+    @Builder.Default
+    private final int minDepth = 8;
+    /**
+     * -- GETTER --
+     * Get the number of consecutive depths agreeing on the best move and
+     * score needed to stop the search
+     *
+     * @return the number of depths
+     */
+    @Builder.Default
+    private final int stableDepths = 4;
+    /**
+     * -- GETTER --
+     * Get the largest score change between two depths still considered
+     * stable. Mate scores are stable while the mating side stays the same
+     *
+     * @return the margin in centipawns
+     */
+    @Builder.Default
+    private final int scoreMarginInCp = 20;
+    /**
+     * -- GETTER --
+     * Get the search budget
+     *
+     * @return the maximum search time in milliseconds
+     */
+    @Builder.Default
+    private final int maxTimeInMs = 5000;
+
+    @Override
+    public String toString() {
+        return "AdaptiveTimeManagement{" +
+                "minDepth=" + minDepth +
+                ", stableDepths=" + stableDepths +
+                ", scoreMarginInCp=" + scoreMarginInCp +
+                ", maxTimeInMs=" + maxTimeInMs +
+                '}';
+    }
+}
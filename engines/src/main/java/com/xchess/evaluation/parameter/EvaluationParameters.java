@@ -22,6 +22,16 @@ public class EvaluationParameters {
     private Integer nodes;
     private Integer mate;
     private Integer movetime;
+    /**
+     * -- GETTER --
+     * Get the adaptive time management. When set, the search is an
+     * infinite one stopped by the engine once stable, and the other limits
+     * are ignored
+     *
+     * @return the time management, or null for a search bounded by the
+     * other parameters
+     */
+    private AdaptiveTimeManagement timeManagement;
 
     /**
      * @return The command to write to Stockfish engine
@@ -32,6 +42,10 @@ public class EvaluationParameters {
         if (!Objects.isNull(searchMoves) && !searchMoves.isEmpty()) {
             joiner.add("searchmoves " + String.join(" ", searchMoves));
         }
+        if (!Objects.isNull(timeManagement)) {
+            joiner.add("infinite");
+            return joiner.toString();
+        }
         if (!Objects.isNull(wtime)) {
             joiner.add("wtime " + wtime);
         }
@@ -0,0 +1,7 @@
+package com.xchess.exceptions;
+
+public class InvalidEpdException extends Exception {
+    public InvalidEpdException(long lineNumber, String reason) {
+        super("Invalid epd line " + lineNumber + " : " + reason);
+    }
+}
@@ -0,0 +1,7 @@
+package com.xchess.exceptions;
+
+public class InvalidPgnException extends Exception {
+    public InvalidPgnException(long gameNumber, String reason) {
+        super("Invalid pgn game " + gameNumber + " : " + reason);
+    }
+}
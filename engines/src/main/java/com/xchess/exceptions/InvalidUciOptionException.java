@@ -0,0 +1,7 @@
+package com.xchess.exceptions;
+
+public class InvalidUciOptionException extends Exception {
+    public InvalidUciOptionException(String name, String value, String reason) {
+        super("Invalid value " + value + " for option " + name + " : " + reason);
+    }
+}
@@ -0,0 +1,107 @@
+package com.xchess.perft;
+
+import com.xchess.board.Board;
+import com.xchess.board.Move;
+import com.xchess.board.MoveGenerator;
+import com.xchess.board.MoveList;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In process perft based on {@link MoveGenerator}, used to cross check
+ * engine results and to validate move generation
+ */
+public final class Perft {
+    private Perft() {
+    }
+
+    /**
+     * @param board The position, left unchanged
+     * @param depth The depth, strictly positive
+     * @return The number of leaf nodes and the elapsed time
+     */
+    public static PerftResult perft(Board board, int depth) {
+        checkDepth(depth);
+        Board position = new Board(board);
+        MoveList[] moveLists = createMoveLists(depth);
+        long start = System.nanoTime();
+        long nodes = count(position, depth, moveLists);
+        return PerftResult.builder()
+                .depth(depth)
+                .nodes(nodes)
+                .elapsedNanos(System.nanoTime() - start)
+                .build();
+    }
+
+    /**
+     * @param board The position, left unchanged
+     * @param depth The depth, strictly positive
+     * @return The number of leaf nodes below each root move, the total and
+     * the elapsed time
+     */
+    public static PerftResult divide(Board board, int depth) {
+        checkDepth(depth);
+        Board position = new Board(board);
+        MoveList[] moveLists = createMoveLists(depth);
+        Map<String, Long> divide = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        MoveList rootMoves = moveLists[depth];
+        MoveGenerator.generateLegalMoves(position, rootMoves);
+        long nodes = 0;
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            long undo = position.makeMove(move);
+            long moveNodes = count(position, depth - 1, moveLists);
+            position.unmakeMove(move, undo);
+            divide.put(Move.toUci(move), moveNodes);
+            nodes += moveNodes;
+        }
+        return PerftResult.builder()
+                .depth(depth)
+                .nodes(nodes)
+                .elapsedNanos(System.nanoTime() - start)
+                .divide(divide)
+                .build();
+    }
+
+    /**
+     * @param board     The position, restored before returning
+     * @param depth     The remaining depth
+     * @param moveLists One reusable move list per depth
+     * @return The number of leaf nodes
+     */
+    private static long count(Board board, int depth, MoveList[] moveLists) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = moveLists[depth];
+        MoveGenerator.generateLegalMoves(board, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            long undo = board.makeMove(move);
+            nodes += count(board, depth - 1, moveLists);
+            board.unmakeMove(move, undo);
+        }
+        return nodes;
+    }
+
+    private static MoveList[] createMoveLists(int depth) {
+        MoveList[] moveLists = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            moveLists[i] = new MoveList();
+        }
+        return moveLists;
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Perft depth must be " +
+                    "strictly positive: " + depth);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.xchess.perft;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Result of a perft run: the number of leaf nodes reached at a given
+ * depth, the time spent and, for divide runs, the node count below each
+ * root move
+ */
+@Getter
+@Builder
+public class PerftResult {
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    /**
+     * -- GETTER --
+     * Get the node count per root move with format "a1a2", in engine
+     * output order. Empty if the run was not a divide
+     *
+     * @return the node counts per root move
+     */
+    @Builder.Default
+    private final Map<String, Long> divide = Collections.emptyMap();
+
+    /**
+     * @return The number of nodes per second, or 0 if the elapsed time is
+     * unknown
+     */
+    public long getNodesPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return (long) (nodes * 1_000_000_000.0 / elapsedNanos);
+    }
+
+    /**
+     * Compare divide results, typically between an engine and the in
+     * process move generator, to find the root moves to investigate
+     *
+     * @param other The result to compare to
+     * @return The root moves with different node counts, mapped to the
+     * count of this result and the count of the other result. A missing
+     * move has a count of -1
+     */
+    public Map<String, long[]> mismatches(PerftResult other) {
+        Map<String, long[]> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : divide.entrySet()) {
+            long otherNodes = other.divide.getOrDefault(entry.getKey(), -1L);
+            if (otherNodes != entry.getValue()) {
+                result.put(entry.getKey(), new long[]{entry.getValue(),
+                        otherNodes});
+            }
+        }
+        for (Map.Entry<String, Long> entry : other.divide.entrySet()) {
+            if (!divide.containsKey(entry.getKey())) {
+                result.put(entry.getKey(), new long[]{-1L, entry.getValue()});
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PerftResult that = (PerftResult) o;
+        return depth == that.depth && nodes == that.nodes && divide.equals(that.divide);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(depth, nodes, divide);
+    }
+
+    @Override
+    public String toString() {
+        return "PerftResult{depth=" + depth + ", nodes=" + nodes + ", " +
+                "elapsedNanos=" + elapsedNanos + "}";
+    }
+}
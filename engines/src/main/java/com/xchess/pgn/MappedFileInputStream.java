@@ -0,0 +1,73 @@
+package com.xchess.pgn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential input stream over a memory mapped file. The file is mapped by
+ * windows, so that files larger than 2 GB can be read, and no window is
+ * kept once read
+ */
+class MappedFileInputStream extends InputStream {
+    private static final long WINDOW_SIZE = 1L << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    MappedFileInputStream(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowStart = 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        int count = Math.min(length, window.remaining());
+        window.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * @return false at the end of the file
+     */
+    private boolean ensureAvailable() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        if (window != null) {
+            windowStart += window.capacity();
+        }
+        if (windowStart >= size) {
+            return false;
+        }
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                Math.min(WINDOW_SIZE, size - windowStart));
+        return true;
+    }
+}
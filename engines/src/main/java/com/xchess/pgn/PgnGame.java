@@ -0,0 +1,97 @@
+package com.xchess.pgn;
+
+import com.xchess.board.Board;
+import com.xchess.board.FenParser;
+import com.xchess.board.MoveList;
+import com.xchess.exceptions.InvalidFenPositionException;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A game read by {@link PgnReader}: its tags, its main line moves resolved
+ * to legal {@link com.xchess.board.Move} and its result
+ */
+@Getter
+public class PgnGame {
+    /**
+     * -- GETTER --
+     * Get the tags, such as "White" or "Event", in file order
+     *
+     * @return the tags
+     */
+    private final Map<String, String> tags;
+    /**
+     * -- GETTER --
+     * Get the main line moves, with their flags. They can be given to
+     * {@link com.xchess.ChessEngine#move(MoveList)}
+     *
+     * @return the moves
+     */
+    private final MoveList moves;
+    /**
+     * -- GETTER --
+     * Get the game termination marker
+     *
+     * @return "1-0", "0-1", "1/2-1/2", "*" or null if missing
+     */
+    private final String result;
+
+    public PgnGame(Map<String, String> tags, MoveList moves, String result) {
+        this.tags = Collections.unmodifiableMap(tags);
+        this.moves = moves;
+        this.result = result;
+    }
+
+    /**
+     * @param name The tag name
+     * @return The tag value, or null if missing
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * @return The position the game starts from, given by the "FEN" tag or
+     * the standard start position
+     */
+    public String getStartFen() {
+        String fen = tags.get("FEN");
+        return fen == null ? FenParser.START_POSITION : fen;
+    }
+
+    /**
+     * @return The main line moves with format "a1a2" or "a7a8q"
+     */
+    public List<String> getUciMoves() {
+        return moves.toUciList();
+    }
+
+    /**
+     * Replay the game, without allocating a board per position
+     *
+     * @param visitor Called with the start position and after each move.
+     *                The board is reused and should not be kept
+     * @throws InvalidFenPositionException If the start position is invalid
+     */
+    public void forEachPosition(Consumer<Board> visitor) throws InvalidFenPositionException {
+        Board board = FenParser.parse(getStartFen());
+        visitor.accept(board);
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            visitor.accept(board);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PgnGame{" +
+                "tags=" + tags +
+                ", moves=" + moves +
+                ", result='" + result + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,300 @@
+package com.xchess.pgn;
+
+import com.xchess.board.Board;
+import com.xchess.board.FenParser;
+import com.xchess.board.Move;
+import com.xchess.board.MoveList;
+import com.xchess.exceptions.InvalidPgnException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming reader of PGN files, returning one game at a time so that files
+ * of any size can be read. Moves in standard algebraic notation are
+ * resolved against the position while reading, see {@link SanParser}.
+ * Comments, variations and numeric annotations are skipped. Only game
+ * tags and moves are allocated: the board, the move token and the legal
+ * move list are reused from one move to the next
+ */
+public class PgnReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NO_BYTE = -2;
+
+    private final InputStream input;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private int pushedBack;
+    private int previous;
+    private long gameCount;
+
+    private final StringBuilder token;
+    private final ByteArrayOutputStream tagBytes;
+    private final Board board;
+    private final MoveList legalMoves;
+
+    /**
+     * @param input The PGN stream, read until its end and closed with the
+     *              reader
+     */
+    public PgnReader(InputStream input) {
+        this.input = input;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.pushedBack = NO_BYTE;
+        this.previous = '\n';
+        this.token = new StringBuilder();
+        this.tagBytes = new ByteArrayOutputStream();
+        this.board = new Board();
+        this.legalMoves = new MoveList();
+    }
+
+    /**
+     * Read a PGN file through a memory mapping instead of heap buffers
+     *
+     * @param path The PGN file
+     * @return The reader
+     * @throws IOException If the file cannot be opened
+     */
+    public static PgnReader open(Path path) throws IOException {
+        return new PgnReader(new MappedFileInputStream(path));
+    }
+
+    /**
+     * @return The number of games read so far, invalid ones included
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Read the next game. An invalid game is read until its end before the
+     * exception is thrown, so that reading can go on with the next game
+     *
+     * @return The game, or null at the end of the stream
+     * @throws IOException         If the stream cannot be read
+     * @throws InvalidPgnException If the game holds an invalid start
+     *                             position or an illegal move
+     */
+    public PgnGame next() throws IOException, InvalidPgnException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        String result = null;
+        String error = null;
+        boolean started = false;
+        boolean inMovetext = false;
+        int variationDepth = 0;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (!started) {
+                    return null;
+                }
+                break;
+            }
+            if (c == '%' && previous == '\n') {
+                skipLine();
+                continue;
+            }
+            previous = c;
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                continue;
+            }
+            started = true;
+            if (c == '[') {
+                if (inMovetext) {
+                    // Missing result: the next game has started
+                    unread(c);
+                    break;
+                }
+                readTag(tags);
+            } else if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipLine();
+            } else if (c == '(') {
+                variationDepth++;
+            } else if (c == ')') {
+                variationDepth = Math.max(0, variationDepth - 1);
+            } else {
+                readToken(c);
+                if (variationDepth > 0) {
+                    continue;
+                }
+                if (!inMovetext) {
+                    inMovetext = true;
+                    if (!FenParser.parse(startFen(tags), board)) {
+                        error = "invalid start position " + startFen(tags);
+                    }
+                }
+                if (isResult()) {
+                    result = token.toString();
+                    break;
+                }
+                if (error == null) {
+                    error = playToken(moves);
+                }
+            }
+        }
+        gameCount++;
+        if (error != null) {
+            throw new InvalidPgnException(gameCount, error);
+        }
+        return new PgnGame(tags, moves, result);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * Play the move held by the current token, skipping move numbers and
+     * numeric annotations. A move number is a digit run followed by dots,
+     * so that castling written with zeros is kept
+     *
+     * @return An error message, or null if the token is valid
+     */
+    private String playToken(MoveList moves) {
+        if (token.charAt(0) == '$') {
+            return null;
+        }
+        int digits = 0;
+        while (digits < token.length() && Character.isDigit(token.charAt(digits))) {
+            digits++;
+        }
+        if (digits == token.length()) {
+            return null;
+        }
+        int start = token.charAt(digits) == '.' ? digits : 0;
+        while (start < token.length() && token.charAt(start) == '.') {
+            start++;
+        }
+        if (start == token.length()) {
+            return null;
+        }
+        int move = SanParser.parse(board, token, start,
+                token.length() - start, legalMoves);
+        if (move == Move.NONE) {
+            return "illegal move " + token.substring(start) + " at ply " +
+                    (moves.size() + 1);
+        }
+        board.makeMove(move);
+        moves.add(move);
+        return null;
+    }
+
+    private boolean isResult() {
+        return contentEquals("1-0") || contentEquals("0-1") ||
+                contentEquals("1/2-1/2") || contentEquals("*");
+    }
+
+    private boolean contentEquals(String text) {
+        if (token.length() != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (token.charAt(i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String startFen(Map<String, String> tags) {
+        String fen = tags.get("FEN");
+        return fen == null ? FenParser.START_POSITION : fen;
+    }
+
+    /**
+     * Read a tag pair, the opening bracket being already read
+     */
+    private void readTag(Map<String, String> tags) throws IOException {
+        token.setLength(0);
+        int c = read();
+        while (c != -1 && c != '"' && c != ']') {
+            if (c != ' ' && c != '\t') {
+                token.append((char) c);
+            }
+            c = read();
+        }
+        tagBytes.reset();
+        if (c == '"') {
+            c = read();
+            while (c != -1 && c != '"') {
+                if (c == '\\') {
+                    c = read();
+                }
+                if (c != -1) {
+                    tagBytes.write(c);
+                    c = read();
+                }
+            }
+            skipUntil(']');
+        }
+        tags.put(token.toString(), tagBytes.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read a movetext token into {@link #token}
+     *
+     * @param first The first character of the token
+     */
+    private void readToken(int first) throws IOException {
+        token.setLength(0);
+        token.append((char) first);
+        int c = read();
+        while (c != -1 && !isTokenEnd(c)) {
+            token.append((char) c);
+            c = read();
+        }
+        if (c != -1) {
+            unread(c);
+        }
+    }
+
+    private static boolean isTokenEnd(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '{' ||
+                c == '}' || c == '(' || c == ')' || c == '[' || c == ']' ||
+                c == ';';
+    }
+
+    private void skipUntil(int end) throws IOException {
+        int c = read();
+        while (c != -1 && c != end) {
+            c = read();
+        }
+    }
+
+    private void skipLine() throws IOException {
+        skipUntil('\n');
+        previous = '\n';
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NO_BYTE) {
+            int c = pushedBack;
+            pushedBack = NO_BYTE;
+            return c;
+        }
+        if (position == limit) {
+            limit = input.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
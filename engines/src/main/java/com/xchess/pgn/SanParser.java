@@ -0,0 +1,166 @@
+package com.xchess.pgn;
+
+import com.xchess.board.Board;
+import com.xchess.board.Move;
+import com.xchess.board.MoveGenerator;
+import com.xchess.board.MoveList;
+import com.xchess.board.Piece;
+import com.xchess.board.Square;
+
+/**
+ * Resolves moves in standard algebraic notation, such as "Nbd7", "exd6",
+ * "e8=Q+" or "O-O", to the matching legal {@link Move} of a position
+ */
+public final class SanParser {
+    private SanParser() {
+    }
+
+    /**
+     * @param board The position, left unchanged
+     * @param san   The move in standard algebraic notation
+     * @return The legal move with its flags, or {@link Move#NONE} if the
+     * move is invalid, illegal or ambiguous
+     */
+    public static int parse(Board board, CharSequence san) {
+        return parse(board, san, 0, san.length(), new MoveList());
+    }
+
+    /**
+     * Allocation free variant of {@link #parse(Board, CharSequence)}
+     *
+     * @param board   The position, left unchanged
+     * @param text    The text holding the move
+     * @param offset  The move start index in text
+     * @param length  The move length
+     * @param scratch A list used to generate legal moves, cleared first
+     * @return The legal move with its flags, or {@link Move#NONE} if the
+     * move is invalid, illegal or ambiguous
+     */
+    public static int parse(Board board, CharSequence text, int offset,
+                            int length, MoveList scratch) {
+        int end = offset + length;
+        // Check, mate and annotation suffixes
+        while (end > offset && "+#!?".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end - offset < 2) {
+            return Move.NONE;
+        }
+        MoveGenerator.generateLegalMoves(board, scratch);
+        char first = text.charAt(offset);
+        if (first == 'O' || first == '0') {
+            return parseCastling(text, offset, end, scratch);
+        }
+
+        int pieceType = pieceType(first);
+        int start = offset;
+        if (pieceType == Piece.NONE) {
+            pieceType = Piece.PAWN;
+        } else {
+            start++;
+        }
+        int promotion = Piece.NONE;
+        if (pieceType == Piece.PAWN && end - start >= 3) {
+            int promotionType = pieceType(Character.toUpperCase(
+                    text.charAt(end - 1)));
+            if (promotionType != Piece.NONE) {
+                promotion = promotionType;
+                end--;
+                if (text.charAt(end - 1) == '=') {
+                    end--;
+                }
+            }
+        }
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+        int to = Square.parse(text, end - 2);
+        if (to == Square.NONE) {
+            return Move.NONE;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return Move.NONE;
+            }
+        }
+        return findMove(board, scratch, pieceType, to, promotion, fromFile,
+                fromRank);
+    }
+
+    private static int findMove(Board board, MoveList moves, int pieceType,
+                                int to, int promotion, int fromFile,
+                                int fromRank) {
+        int found = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to ||
+                    Piece.type(board.getPiece(from)) != pieceType ||
+                    Move.promotion(move) != promotion ||
+                    Move.hasFlag(move, Move.CASTLING) ||
+                    (fromFile != -1 && Square.file(from) != fromFile) ||
+                    (fromRank != -1 && Square.rank(from) != fromRank)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                return Move.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private static int parseCastling(CharSequence text, int offset, int end,
+                                     MoveList moves) {
+        int length = end - offset;
+        int toFile;
+        if (length == 3 && isCastlingToken(text, offset, 2)) {
+            toFile = 6;
+        } else if (length == 5 && isCastlingToken(text, offset, 3)) {
+            toFile = 2;
+        } else {
+            return Move.NONE;
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.hasFlag(move, Move.CASTLING) &&
+                    Square.file(Move.to(move)) == toFile) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @return true if text holds "O-O", "0-0", "O-O-O" or "0-0-0"
+     */
+    private static boolean isCastlingToken(CharSequence text, int offset,
+                                           int letters) {
+        char letter = text.charAt(offset);
+        for (int i = 0; i < letters; i++) {
+            if (text.charAt(offset + 2 * i) != letter ||
+                    (i > 0 && text.charAt(offset + 2 * i - 1) != '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int pieceType(char c) {
+        return switch (c) {
+            case 'N' -> Piece.KNIGHT;
+            case 'B' -> Piece.BISHOP;
+            case 'R' -> Piece.ROOK;
+            case 'Q' -> Piece.QUEEN;
+            case 'K' -> Piece.KING;
+            default -> Piece.NONE;
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.xchess.pool;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Waits for engine calls run on other threads, rethrowing their failures
+ * as the engine would have thrown them
+ */
+final class EngineCalls {
+    // Private constructor to hide implicit public one
+    private EngineCalls() {
+    }
+
+    static <T, E extends Exception> T await(Future<T> future,
+                                            Class<E> failure) throws IOException, TimeoutException, E {
+        return await(future, failure, failure, failure);
+    }
+
+    /**
+     * @param future The call result
+     * @param first  A checked failure the call may throw
+     * @param second A checked failure the call may throw
+     * @param third  A checked failure the call may throw
+     * @return The call result
+     */
+    static <T, A extends Exception, B extends Exception,
+            C extends Exception> T await(Future<T> future, Class<A> first,
+                                         Class<B> second,
+                                         Class<C> third) throws IOException,
+            TimeoutException, A, B, C {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " +
+                    "an engine call");
+        } catch (CancellationException e) {
+            throw new IOException("Engine call cancelled", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause(), first, second, third);
+        }
+    }
+
+    static IOException rethrow(Throwable cause) throws IOException,
+            TimeoutException {
+        return rethrow(cause, IOException.class, IOException.class,
+                IOException.class);
+    }
+
+    /**
+     * @param cause  The call failure
+     * @param first  A checked failure the call may throw
+     * @param second A checked failure the call may throw
+     * @param third  A checked failure the call may throw
+     * @return The failure to throw if the cause is not thrown as is
+     */
+    static <A extends Exception, B extends Exception,
+            C extends Exception> IOException rethrow(Throwable cause,
+                                                     Class<A> first,
+                                                     Class<B> second,
+                                                     Class<C> third) throws IOException,
+            TimeoutException, A, B, C {
+        if (cause instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (cause instanceof TimeoutException timeoutException) {
+            throw timeoutException;
+        }
+        if (first.isInstance(cause)) {
+            throw first.cast(cause);
+        }
+        if (second.isInstance(cause)) {
+            throw second.cast(cause);
+        }
+        if (third.isInstance(cause)) {
+            throw third.cast(cause);
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        return new IOException(cause);
+    }
+}
@@ -0,0 +1,85 @@
+package com.xchess.pool;
+
+import lombok.Getter;
+
+/**
+ * Health of one engine as seen by an {@link EngineWatchdog}
+ */
+@Getter
+public class EngineHealth {
+    /**
+     * -- GETTER --
+     * Get the engine index in the scheduler
+     *
+     * @return the index
+     */
+    private final int index;
+    /**
+     * -- GETTER --
+     * Tell whether the engine is kept out of rotation until its response
+     * times are back under the threshold
+     *
+     * @return true if the engine does not run tasks
+     */
+    private final boolean quarantined;
+    /**
+     * -- GETTER --
+     * Get the number of response times in the rolling window
+     *
+     * @return the sample count
+     */
+    private final int sampleCount;
+    /**
+     * -- GETTER --
+     * Get the median response time
+     *
+     * @return the duration in nanoseconds, or -1 without samples
+     */
+    private final long medianNanos;
+    /**
+     * -- GETTER --
+     * Get the response time at the watchdog percentile
+     *
+     * @return the duration in nanoseconds, or -1 without samples
+     */
+    private final long percentileNanos;
+    /**
+     * -- GETTER --
+     * Get the number of pings the engine did not answer
+     *
+     * @return the failed ping count
+     */
+    private final long failedPingCount;
+    /**
+     * -- GETTER --
+     * Get the number of times the watchdog restarted the engine
+     *
+     * @return the restart count
+     */
+    private final long restartCount;
+
+    public EngineHealth(int index, boolean quarantined, int sampleCount,
+                        long medianNanos, long percentileNanos,
+                        long failedPingCount, long restartCount) {
+        this.index = index;
+        this.quarantined = quarantined;
+        this.sampleCount = sampleCount;
+        this.medianNanos = medianNanos;
+        this.percentileNanos = percentileNanos;
+        this.failedPingCount = failedPingCount;
+        this.restartCount = restartCount;
+    }
+
+    @Override
+    public String toString() {
+        return "EngineHealth{" +
+                "index=" + index +
+                ", quarantined=" + quarantined +
+                ", sampleCount=" + sampleCount +
+                ", medianNanos=" + medianNanos +
+                ", percentileNanos=" + percentileNanos +
+                ", failedPingCount=" + failedPingCount +
+                ", restartCount=" + restartCount +
+                '}';
+    }
+}
@@ -0,0 +1,592 @@
+package com.xchess.pool;
+
+import com.xchess.ChessEngine;
+import com.xchess.analysis.PositionAnalyzer;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduler running tasks over a set of engines, each engine running one
+ * task at a time. Pending tasks are ordered by {@link Priority}, then by
+ * earliest deadline. Each priority class can be limited to a number of
+ * engines, for instance to keep an engine free for interactive tasks, and
+ * batch searches can be stopped when an interactive task is waiting. A
+ * stopped batch task is run again from the start once an engine is free.
+ * <p>
+ * Tasks can be bound to a game: they are then routed to the engine which
+ * ran the previous task of the game, so that its hash table is still warm.
+ * If that engine is busy, the task runs on any idle engine instead of
+ * waiting, and the game moves to that engine
+ */
+public class EngineScheduler implements Closeable {
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final int DEFAULT_MAX_TRACKED_GAMES = 10_000;
+
+    private final List<ChessEngine> engines;
+    private final Deque<ChessEngine> idleEngines;
+    private final Map<ChessEngine, ScheduledTask<?>> runningTasks;
+    private final NavigableSet<ScheduledTask<?>> pendingTasks;
+    private final EnumMap<Priority, Integer> concurrencyLimits;
+    private final EnumMap<Priority, Integer> runningCounts;
+    private final ExecutorService executor;
+    private final ScheduledThreadPoolExecutor timer;
+    private final AtomicLong sequence;
+    private final LinkedHashMap<String, ChessEngine> gameEngines;
+    private int maxTrackedGames;
+    private boolean preemption;
+    private boolean closed;
+    private long preemptionCount;
+    private long affinityHitCount;
+    private long affinityMissCount;
+
+    /**
+     * Create a scheduler without concurrency limits and with preemption
+     * enabled
+     *
+     * @param engines The engines to run tasks on. They should not be used
+     *                directly while the scheduler is running
+     */
+    public EngineScheduler(List<ChessEngine> engines) {
+        if (engines.isEmpty()) {
+            throw new IllegalArgumentException("At least one engine is " +
+                    "needed");
+        }
+        this.engines = List.copyOf(engines);
+        this.idleEngines = new ArrayDeque<>(this.engines);
+        this.runningTasks = new IdentityHashMap<>();
+        this.pendingTasks = new TreeSet<>();
+        this.concurrencyLimits = new EnumMap<>(Priority.class);
+        this.runningCounts = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            this.concurrencyLimits.put(priority, this.engines.size());
+            this.runningCounts.put(priority, 0);
+        }
+        this.executor = Executors.newFixedThreadPool(this.engines.size(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "engine-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "engine-scheduler-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.sequence = new AtomicLong();
+        this.maxTrackedGames = DEFAULT_MAX_TRACKED_GAMES;
+        this.gameEngines = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ChessEngine> eldest) {
+                return size() > maxTrackedGames;
+            }
+        };
+        this.preemption = true;
+        this.closed = false;
+    }
+
+    /**
+     * Set the maximum number of engines running tasks of a priority class
+     * at the same time
+     *
+     * @param priority The priority class
+     * @param limit    The maximum number of engines, strictly positive
+     * @return the scheduler
+     */
+    public synchronized EngineScheduler setConcurrencyLimit(Priority priority,
+                                                            int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Concurrency limit should be " +
+                    "greater than 0");
+        }
+        this.concurrencyLimits.put(priority, limit);
+        dispatch();
+        return this;
+    }
+
+    /**
+     * Enable or disable stopping batch searches when an interactive task
+     * cannot start. Stopping is best effort: a task between two searches
+     * will only be stopped by its next search
+     *
+     * @param preemption true to enable preemption
+     * @return the scheduler
+     */
+    public synchronized EngineScheduler setPreemption(boolean preemption) {
+        this.preemption = preemption;
+        dispatch();
+        return this;
+    }
+
+    /**
+     * Set the number of games whose engine is remembered. The least
+     * recently used games are forgotten first
+     *
+     * @param maxTrackedGames The number of games, strictly positive
+     * @return the scheduler
+     */
+    public synchronized EngineScheduler setMaxTrackedGames(int maxTrackedGames) {
+        if (maxTrackedGames <= 0) {
+            throw new IllegalArgumentException("Tracked games count should " +
+                    "be greater than 0");
+        }
+        this.maxTrackedGames = maxTrackedGames;
+        while (gameEngines.size() > maxTrackedGames) {
+            gameEngines.remove(gameEngines.keySet().iterator().next());
+        }
+        return this;
+    }
+
+    /**
+     * @param priority The task priority class
+     * @param deadline The maximum time before the task starts, or null to
+     *                 wait as long as needed. Tasks which cannot start in
+     *                 time fail with a {@link TimeoutException}
+     * @param task     The task to run
+     * @param <T>      The result type
+     * @return The task result
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Duration deadline,
+                                           EngineTask<T> task) {
+        return submit(priority, deadline, null, task);
+    }
+
+    /**
+     * @param priority The task priority class
+     * @param deadline The maximum time before the task starts, or null to
+     *                 wait as long as needed. Tasks which cannot start in
+     *                 time fail with a {@link TimeoutException}
+     * @param gameId   The game the task belongs to, or null. Tasks of a
+     *                 game preferably run on the same engine
+     * @param task     The task to run. It should not start a new game on
+     *                 the engine, which would clear its hash table
+     * @param <T>      The result type
+     * @return The task result
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Duration deadline,
+                                           String gameId, EngineTask<T> task) {
+        long deadlineNanos = Objects.isNull(deadline) ? NO_DEADLINE :
+                System.nanoTime() + deadline.toNanos();
+        ScheduledTask<T> scheduledTask = new ScheduledTask<>(priority,
+                deadlineNanos, sequence.getAndIncrement(), gameId, task);
+        synchronized (this) {
+            if (closed) {
+                throw new RejectedExecutionException("Scheduler is closed");
+            }
+            pendingTasks.add(scheduledTask);
+            dispatch();
+            if (deadlineNanos != NO_DEADLINE && pendingTasks.contains(scheduledTask)) {
+                scheduledTask.expiry = timer.schedule(() -> expire(scheduledTask),
+                        deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        }
+        return scheduledTask.future;
+    }
+
+    /**
+     * @param priority The task priority class
+     * @param deadline The maximum time before the search starts, or null
+     * @return An analyzer submitting its requests to this scheduler and
+     * waiting for their results
+     */
+    public PositionAnalyzer asAnalyzer(Priority priority, Duration deadline) {
+        return asAnalyzer(priority, deadline, null);
+    }
+
+    /**
+     * @param priority The task priority class
+     * @param deadline The maximum time before the search starts, or null
+     * @param gameId   The game the analyzed positions belong to, or null
+     * @return An analyzer submitting its requests to this scheduler and
+     * waiting for their results
+     */
+    public PositionAnalyzer asAnalyzer(Priority priority, Duration deadline,
+                                       String gameId) {
+        return new PositionAnalyzer() {
+            @Override
+            public ChessEngineEvaluation getPositionEvaluation(String fen,
+                                                               EvaluationParameters parameters) throws IOException, TimeoutException, InvalidFenPositionException {
+                return await(submit(priority, deadline, gameId, engine -> {
+                    engine.moveToFenPosition(fen, false);
+                    return engine.getPositionEvaluation(parameters);
+                }));
+            }
+
+            @Override
+            public String findBestMove(String fen,
+                                       EvaluationParameters parameters) throws IOException, TimeoutException, InvalidFenPositionException {
+                return await(submit(priority, deadline, gameId, engine -> {
+                    engine.moveToFenPosition(fen, false);
+                    return engine.findBestMove(parameters);
+                }));
+            }
+        };
+    }
+
+    /**
+     * @return The number of engines
+     */
+    public int getEngineCount() {
+        return engines.size();
+    }
+
+    /**
+     * @return The number of tasks waiting for an engine
+     */
+    public synchronized int getPendingCount() {
+        return pendingTasks.size();
+    }
+
+    /**
+     * @param priority The priority class
+     * @return The number of tasks of the class currently running
+     */
+    public synchronized int getRunningCount(Priority priority) {
+        return runningCounts.get(priority);
+    }
+
+    /**
+     * Forget the engine of a finished game
+     *
+     * @param gameId The game
+     */
+    public synchronized void releaseGame(String gameId) {
+        gameEngines.remove(gameId);
+    }
+
+    /**
+     * @return The number of game tasks which ran on the engine of the
+     * previous task of their game
+     */
+    public synchronized long getAffinityHitCount() {
+        return affinityHitCount;
+    }
+
+    /**
+     * @return The number of game tasks which ran on another engine because
+     * the engine of their game was busy
+     */
+    public synchronized long getAffinityMissCount() {
+        return affinityMissCount;
+    }
+
+    /**
+     * @return The number of batch searches stopped for interactive tasks
+     */
+    public synchronized long getPreemptionCount() {
+        return preemptionCount;
+    }
+
+    /**
+     * @return The engines, in construction order
+     */
+    List<ChessEngine> getEngines() {
+        return engines;
+    }
+
+    /**
+     * Take an idle engine out of rotation, for instance to check its
+     * health. An engine is not reserved while tasks are waiting, which
+     * would delay them
+     *
+     * @param engine One of the scheduler engines
+     * @return true if the engine is reserved and should be given back with
+     * {@link #release(ChessEngine)}
+     */
+    synchronized boolean tryReserve(ChessEngine engine) {
+        if (closed || !pendingTasks.isEmpty()) {
+            return false;
+        }
+        return idleEngines.remove(engine);
+    }
+
+    /**
+     * Put a reserved engine back in rotation
+     *
+     * @param engine The reserved engine
+     */
+    synchronized void release(ChessEngine engine) {
+        idleEngines.push(engine);
+        dispatch();
+    }
+
+    /**
+     * Stop accepting tasks and cancel pending ones. Running tasks complete
+     * normally and engines are not stopped
+     */
+    @Override
+    public void close() {
+        List<ScheduledTask<?>> cancelled;
+        synchronized (this) {
+            closed = true;
+            cancelled = new ArrayList<>(pendingTasks);
+            pendingTasks.clear();
+        }
+        for (ScheduledTask<?> task : cancelled) {
+            task.future.cancel(false);
+        }
+        executor.shutdown();
+        timer.shutdownNow();
+    }
+
+    /**
+     * Fail a task still waiting for an engine once its deadline is reached,
+     * without waiting for an engine to become idle
+     *
+     * @param task The task whose deadline is reached
+     */
+    private synchronized void expire(ScheduledTask<?> task) {
+        if (pendingTasks.remove(task)) {
+            task.future.completeExceptionally(new TimeoutException(
+                    "Task deadline reached before an engine was free"));
+        }
+    }
+
+    /**
+     * Start pending tasks on idle engines, then stop batch searches if
+     * interactive tasks are still waiting. Must be called holding the lock
+     */
+    private void dispatch() {
+        while (!idleEngines.isEmpty()) {
+            ScheduledTask<?> task = pollStartableTask();
+            if (task == null) {
+                break;
+            }
+            start(task, takeIdleEngine(task));
+        }
+        if (preemption) {
+            preemptBatchTasks();
+        }
+    }
+
+    /**
+     * @return The first pending task whose class is below its concurrency
+     * limit, or null. Expired tasks are failed and cancelled tasks dropped
+     * on the way
+     */
+    private ScheduledTask<?> pollStartableTask() {
+        long now = System.nanoTime();
+        Iterator<ScheduledTask<?>> iterator = pendingTasks.iterator();
+        while (iterator.hasNext()) {
+            ScheduledTask<?> task = iterator.next();
+            if (task.future.isDone()) {
+                // Cancelled by the caller while waiting
+                iterator.remove();
+                if (task.expiry != null) {
+                    task.expiry.cancel(false);
+                }
+                continue;
+            }
+            if (task.deadlineNanos != NO_DEADLINE && task.deadlineNanos - now < 0) {
+                iterator.remove();
+                task.future.completeExceptionally(new TimeoutException(
+                        "Task deadline reached before an engine was free"));
+                continue;
+            }
+            if (hasCapacity(task.priority)) {
+                iterator.remove();
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param task The task to start
+     * @return The engine of the task game if idle, or any idle engine
+     */
+    private ChessEngine takeIdleEngine(ScheduledTask<?> task) {
+        if (task.gameId == null) {
+            return idleEngines.poll();
+        }
+        ChessEngine preferred = gameEngines.get(task.gameId);
+        if (preferred != null && idleEngines.remove(preferred)) {
+            affinityHitCount++;
+            return preferred;
+        }
+        if (preferred != null) {
+            affinityMissCount++;
+        }
+        ChessEngine engine = idleEngines.poll();
+        gameEngines.put(task.gameId, engine);
+        return engine;
+    }
+
+    private boolean hasCapacity(Priority priority) {
+        return runningCounts.get(priority) < concurrencyLimits.get(priority);
+    }
+
+    private void preemptBatchTasks() {
+        int startable = Math.min(countPending(Priority.INTERACTIVE),
+                concurrencyLimits.get(Priority.INTERACTIVE) -
+                        runningCounts.get(Priority.INTERACTIVE));
+        for (ScheduledTask<?> running : runningTasks.values()) {
+            if (running.preempted) {
+                startable--;
+            }
+        }
+        if (startable <= 0) {
+            return;
+        }
+        List<Map.Entry<ChessEngine, ScheduledTask<?>>> candidates =
+                new ArrayList<>();
+        for (Map.Entry<ChessEngine, ScheduledTask<?>> entry :
+                runningTasks.entrySet()) {
+            if (entry.getValue().priority == Priority.BATCH &&
+                    !entry.getValue().preempted) {
+                candidates.add(entry);
+            }
+        }
+        // Stop the least urgent batch tasks first
+        candidates.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+        for (int i = 0; i < Math.min(startable, candidates.size()); i++) {
+            Map.Entry<ChessEngine, ScheduledTask<?>> candidate = candidates.get(i);
+            candidate.getValue().preempted = true;
+            preemptionCount++;
+            try {
+                candidate.getKey().stopSearch();
+            } catch (IOException e) {
+                // The task will fail on its own and free the engine
+            }
+        }
+    }
+
+    private int countPending(Priority priority) {
+        int count = 0;
+        for (ScheduledTask<?> task : pendingTasks) {
+            if (task.priority == priority) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private <T> void start(ScheduledTask<T> task, ChessEngine engine) {
+        if (task.expiry != null) {
+            task.expiry.cancel(false);
+            task.expiry = null;
+        }
+        runningTasks.put(engine, task);
+        runningCounts.merge(task.priority, 1, Integer::sum);
+        executor.execute(() -> {
+            T result = null;
+            Throwable failure = null;
+            try {
+                result = task.task.run(engine);
+            } catch (Throwable e) {
+                failure = e;
+            }
+            if (finish(task, engine)) {
+                return;
+            }
+            if (failure != null) {
+                task.future.completeExceptionally(failure);
+            } else {
+                task.future.complete(result);
+            }
+        });
+    }
+
+    /**
+     * @param task   The task which ran
+     * @param engine The engine to release
+     * @return true if the task has been preempted and is pending again
+     */
+    private synchronized boolean finish(ScheduledTask<?> task,
+                                        ChessEngine engine) {
+        runningTasks.remove(engine);
+        runningCounts.merge(task.priority, -1, Integer::sum);
+        idleEngines.push(engine);
+        boolean requeued = task.preempted && !closed;
+        if (requeued) {
+            task.preempted = false;
+            // The deadline only bounds the wait before the first start
+            task.deadlineNanos = NO_DEADLINE;
+            pendingTasks.add(task);
+        }
+        dispatch();
+        return requeued;
+    }
+
+    /**
+     * @param future The task result
+     * @return The result
+     */
+    private static <T> T await(CompletableFuture<T> future) throws IOException,
+            TimeoutException, InvalidFenPositionException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " +
+                    "a scheduled task");
+        } catch (CancellationException e) {
+            throw new IOException("Scheduler has been closed", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof TimeoutException timeoutException) {
+                throw timeoutException;
+            }
+            if (cause instanceof InvalidFenPositionException fenException) {
+                throw fenException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static class ScheduledTask<T> implements Comparable<ScheduledTask<?>> {
+        private final Priority priority;
+        private long deadlineNanos;
+        private final long sequence;
+        private final String gameId;
+        private final EngineTask<T> task;
+        private final CompletableFuture<T> future;
+        private boolean preempted;
+        private ScheduledFuture<?> expiry;
+
+        ScheduledTask(Priority priority, long deadlineNanos, long sequence,
+                      String gameId, EngineTask<T> task) {
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+            this.sequence = sequence;
+            this.gameId = gameId;
+            this.task = task;
+            this.future = new CompletableFuture<>();
+            this.preempted = false;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask<?> other) {
+            int result = priority.compareTo(other.priority);
+            if (result == 0 && deadlineNanos != other.deadlineNanos) {
+                if (deadlineNanos == NO_DEADLINE) {
+                    return 1;
+                }
+                if (other.deadlineNanos == NO_DEADLINE) {
+                    return -1;
+                }
+                result = Long.signum(deadlineNanos - other.deadlineNanos);
+            }
+            return result != 0 ? result : Long.compare(sequence,
+                    other.sequence);
+        }
+    }
+}
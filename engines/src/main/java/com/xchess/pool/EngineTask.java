@@ -0,0 +1,19 @@
+package com.xchess.pool;
+
+import com.xchess.ChessEngine;
+
+/**
+ * Work run by {@link EngineScheduler} with exclusive access to an engine
+ *
+ * @param <T> The result type
+ */
+@FunctionalInterface
+public interface EngineTask<T> {
+    /**
+     * @param engine The engine assigned to the task. Its position is the
+     *               one left by the previous task
+     * @return The task result
+     * @throws Exception If the task fails
+     */
+    T run(ChessEngine engine) throws Exception;
+}
@@ -0,0 +1,299 @@
+package com.xchess.pool;
+
+import com.xchess.ChessEngine;
+import com.xchess.startup.LazyChessEngine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Background check of the engines of an {@link EngineScheduler}. Idle
+ * engines are periodically taken out of rotation for a
+ * {@link ChessEngine#healthCheck()} ping, whose response time is kept in
+ * a rolling window per engine. Engines running a task are skipped, as are
+ * all engines while tasks are waiting, so that checks never delay a
+ * search.
+ * <p>
+ * An engine not answering a ping, or whose response time percentile goes
+ * over the threshold, is evicted. A {@link LazyChessEngine} is restarted.
+ * Other engines are quarantined: they stay out of rotation and are pinged
+ * at each check until their percentile is back under the threshold. At
+ * least one engine is always kept in rotation
+ */
+public class EngineWatchdog implements Closeable {
+    private static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_LATENCY_THRESHOLD =
+            Duration.ofMillis(250);
+    // With a nearest-rank percentile over so few pings, p90 lets a couple
+    // of pauses go while the p99 would be the slowest ping
+    private static final double DEFAULT_PERCENTILE = 90;
+    private static final int DEFAULT_WINDOW_SIZE = 32;
+    private static final int DEFAULT_MIN_SAMPLES = 16;
+
+    private final EngineScheduler scheduler;
+    private final List<ChessEngine> engines;
+    private final List<EngineState> states;
+    private final ScheduledExecutorService executor;
+    private Duration interval;
+    private long latencyThresholdNanos;
+    private double percentile;
+    private int minSamples;
+    private boolean started;
+
+    /**
+     * Create a watchdog checking every 5 seconds, evicting engines whose
+     * 90th percentile over the last 32 pings is above 250 ms, once at
+     * least 16 pings are recorded
+     *
+     * @param scheduler The scheduler whose engines are checked
+     */
+    public EngineWatchdog(EngineScheduler scheduler) {
+        this.scheduler = scheduler;
+        this.engines = scheduler.getEngines();
+        this.states = new ArrayList<>();
+        for (int i = 0; i < engines.size(); i++) {
+            this.states.add(new EngineState(DEFAULT_WINDOW_SIZE));
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.interval = DEFAULT_INTERVAL;
+        this.latencyThresholdNanos = DEFAULT_LATENCY_THRESHOLD.toNanos();
+        this.percentile = DEFAULT_PERCENTILE;
+        this.minSamples = DEFAULT_MIN_SAMPLES;
+    }
+
+    /**
+     * @param interval The delay between two checks, taken into account by
+     *                 {@link #start()}
+     * @return the watchdog
+     */
+    public synchronized EngineWatchdog setInterval(Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval should be " +
+                    "positive");
+        }
+        this.interval = interval;
+        return this;
+    }
+
+    /**
+     * @param latencyThreshold The response time over which an engine is
+     *                         evicted
+     * @param percentile       The response time percentile compared to the
+     *                         threshold, between 0 exclusive and 100
+     * @return the watchdog
+     */
+    public synchronized EngineWatchdog setLatencyThreshold(Duration latencyThreshold,
+                                                           double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile should be " +
+                    "between 0 exclusive and 100");
+        }
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * Set the rolling window of each engine. Samples already recorded are
+     * dropped
+     *
+     * @param windowSize The number of pings kept per engine
+     * @param minSamples The number of pings needed before comparing the
+     *                   percentile to the threshold, at most the window
+     *                   size
+     * @return the watchdog
+     */
+    public synchronized EngineWatchdog setWindow(int windowSize,
+                                                 int minSamples) {
+        if (minSamples <= 0 || minSamples > windowSize) {
+            throw new IllegalArgumentException("Minimum samples should be " +
+                    "between 1 and the window size");
+        }
+        for (int i = 0; i < states.size(); i++) {
+            EngineState previous = states.get(i);
+            EngineState state = new EngineState(windowSize);
+            synchronized (previous) {
+                state.quarantined = previous.quarantined;
+                state.failedPingCount = previous.failedPingCount;
+                state.restartCount = previous.restartCount;
+            }
+            states.set(i, state);
+        }
+        this.minSamples = minSamples;
+        return this;
+    }
+
+    /**
+     * Start checking the engines in the background
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        long delayNanos = interval.toNanos();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                checkNow();
+            } catch (RuntimeException e) {
+                // A failing check must not cancel the next ones
+            }
+        }, delayNanos, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Check the engines once, in the calling thread
+     */
+    public synchronized void checkNow() {
+        for (int i = 0; i < engines.size(); i++) {
+            ChessEngine engine = engines.get(i);
+            EngineState state = states.get(i);
+            if (!state.quarantined && !scheduler.tryReserve(engine)) {
+                continue;
+            }
+            check(engine, state);
+            if (!state.quarantined) {
+                scheduler.release(engine);
+            }
+        }
+    }
+
+    /**
+     * @param index The engine index in the scheduler
+     * @return The engine health
+     */
+    public EngineHealth getHealth(int index) {
+        EngineState state;
+        synchronized (this) {
+            state = states.get(index);
+        }
+        synchronized (state) {
+            return new EngineHealth(index, state.quarantined,
+                    state.window.size(), state.window.percentile(50),
+                    state.window.percentile(percentile),
+                    state.failedPingCount, state.restartCount);
+        }
+    }
+
+    /**
+     * Stop checking the engines. Quarantined engines are put back in
+     * rotation
+     */
+    @Override
+    public synchronized void close() {
+        executor.shutdownNow();
+        for (int i = 0; i < engines.size(); i++) {
+            EngineState state = states.get(i);
+            if (state.quarantined) {
+                state.quarantined = false;
+                scheduler.release(engines.get(i));
+            }
+        }
+    }
+
+    /**
+     * Ping an engine out of rotation and update its state. Must be called
+     * holding the lock
+     */
+    private void check(ChessEngine engine, EngineState state) {
+        if (engine instanceof LazyChessEngine<?> lazy && !lazy.isStarted()) {
+            // Never used, or a previous restart failed
+            if (state.quarantined) {
+                restart(lazy, state);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        boolean answered = engine.healthCheck();
+        long elapsedNanos = System.nanoTime() - start;
+        boolean slow;
+        synchronized (state) {
+            if (!answered) {
+                state.failedPingCount++;
+                slow = true;
+            } else {
+                state.window.record(elapsedNanos);
+                boolean enoughSamples = state.window.size() >= minSamples;
+                slow = enoughSamples &&
+                        state.window.percentile(percentile) > latencyThresholdNanos;
+                if (state.quarantined && enoughSamples && !slow) {
+                    state.quarantined = false;
+                }
+            }
+        }
+        if (slow) {
+            evict(engine, state);
+        }
+    }
+
+    private void evict(ChessEngine engine, EngineState state) {
+        if (engine instanceof LazyChessEngine<?> lazy) {
+            restart(lazy, state);
+            return;
+        }
+        boolean quarantine = state.quarantined || canQuarantine();
+        synchronized (state) {
+            state.window.clear();
+            state.quarantined = quarantine;
+        }
+    }
+
+    private void restart(LazyChessEngine<?> lazy, EngineState state) {
+        try {
+            lazy.stop();
+        } catch (IOException e) {
+            // Process already gone
+        }
+        boolean restarted;
+        try {
+            lazy.get();
+            restarted = true;
+        } catch (IOException | TimeoutException e) {
+            restarted = false;
+        }
+        boolean quarantine = !restarted && (state.quarantined || canQuarantine());
+        synchronized (state) {
+            state.window.clear();
+            state.quarantined = quarantine;
+            if (restarted) {
+                state.restartCount++;
+            }
+        }
+    }
+
+    /**
+     * @return true if an engine can be taken out of rotation while keeping
+     * another one in
+     */
+    private boolean canQuarantine() {
+        int quarantined = 0;
+        for (EngineState state : states) {
+            if (state.quarantined) {
+                quarantined++;
+            }
+        }
+        return quarantined < engines.size() - 1;
+    }
+
+    private static class EngineState {
+        private final LatencyWindow window;
+        private volatile boolean quarantined;
+        private long failedPingCount;
+        private long restartCount;
+
+        EngineState(int windowSize) {
+            this.window = new LatencyWindow(windowSize);
+        }
+    }
+}
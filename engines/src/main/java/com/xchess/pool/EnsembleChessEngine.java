@@ -0,0 +1,449 @@
+package com.xchess.pool;
+
+import com.xchess.ChessEngine;
+import com.xchess.board.MoveList;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.IllegalMoveException;
+import com.xchess.exceptions.InvalidFenPositionException;
+import com.xchess.exceptions.InvalidMoveSyntaxException;
+import com.xchess.exceptions.InvalidSquareSyntaxException;
+import com.xchess.perft.PerftResult;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Engine made of several engines, for instance different versions or
+ * networks, kept on the same position. Searches run on every engine at
+ * the same time and one result is picked with an {@link EnsembleStrategy}.
+ * The details of the last search, with the latency of each engine and how
+ * much they agree, are given by {@link #getLastReport()}.
+ * <p>
+ * Position changes are sent to every engine, and queries not depending on
+ * the engine, as the legal moves, are answered by the first engine
+ */
+public class EnsembleChessEngine implements ChessEngine {
+    private final List<ChessEngine> engines;
+    private final ExecutorService executor;
+    private EnsembleStrategy strategy;
+    private Duration deadline;
+    private volatile EnsembleReport lastReport;
+
+    /**
+     * Create an ensemble using {@link EnsembleStrategy#FIRST_TO_FINISH}
+     * without deadline
+     *
+     * @param engines The engines, not empty. They should not be used
+     *                directly anymore
+     */
+    public EnsembleChessEngine(List<? extends ChessEngine> engines) {
+        if (engines.isEmpty()) {
+            throw new IllegalArgumentException("At least one engine is " +
+                    "needed");
+        }
+        this.engines = List.copyOf(engines);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "engine-ensemble");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.strategy = EnsembleStrategy.FIRST_TO_FINISH;
+    }
+
+    /**
+     * @param strategy The way results are picked
+     * @return the ensemble
+     */
+    public synchronized EnsembleChessEngine setStrategy(EnsembleStrategy strategy) {
+        this.strategy = strategy;
+        return this;
+    }
+
+    /**
+     * Set the time after which the engines still searching are stopped.
+     * A stopped engine still returns the best move found so far, which
+     * takes part in the choice
+     *
+     * @param deadline The maximum search time, or null to wait for every
+     *                 engine
+     * @return the ensemble
+     */
+    public synchronized EnsembleChessEngine setDeadline(Duration deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    /**
+     * @return The engines, in ensemble order
+     */
+    public List<ChessEngine> getEngines() {
+        return engines;
+    }
+
+    /**
+     * @return The report of the last search, or null if none ran
+     */
+    public EnsembleReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Stop every engine
+     */
+    @Override
+    public void stop() throws IOException {
+        IOException failure = null;
+        for (ChessEngine engine : engines) {
+            try {
+                engine.stop();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        executor.shutdown();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void stopSearch() throws IOException {
+        for (ChessEngine engine : engines) {
+            engine.stopSearch();
+        }
+    }
+
+    /**
+     * @return The version of the first engine. See
+     * {@link #getEngineVersions()}
+     */
+    @Override
+    public Float getEngineVersion() {
+        return engines.get(0).getEngineVersion();
+    }
+
+    /**
+     * @return The version of each engine, in ensemble order
+     */
+    public List<Float> getEngineVersions() {
+        List<Float> versions = new ArrayList<>();
+        for (ChessEngine engine : engines) {
+            versions.add(engine.getEngineVersion());
+        }
+        return versions;
+    }
+
+    @Override
+    public synchronized String getFenPosition() throws IOException,
+            TimeoutException {
+        return engines.get(0).getFenPosition();
+    }
+
+    @Override
+    public synchronized List<String> getPossibleMoves() throws IOException,
+            TimeoutException {
+        return engines.get(0).getPossibleMoves();
+    }
+
+    @Override
+    public synchronized List<String> getPossibleMoves(String square) throws IOException,
+            TimeoutException, InvalidSquareSyntaxException {
+        return engines.get(0).getPossibleMoves(square);
+    }
+
+    @Override
+    public synchronized void getPossibleMoves(MoveList moves) throws IOException,
+            TimeoutException {
+        engines.get(0).getPossibleMoves(moves);
+    }
+
+    @Override
+    public synchronized PerftResult perft(int depth) throws IOException,
+            TimeoutException {
+        return engines.get(0).perft(depth);
+    }
+
+    @Override
+    public synchronized PerftResult divide(int depth) throws IOException,
+            TimeoutException {
+        return engines.get(0).divide(depth);
+    }
+
+    @Override
+    public synchronized boolean isMovePossible(String move) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException {
+        return engines.get(0).isMovePossible(move);
+    }
+
+    @Override
+    public synchronized boolean isMovePossible(int move) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException {
+        return engines.get(0).isMovePossible(move);
+    }
+
+    @Override
+    public synchronized void move(List<String> moves) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException, IllegalMoveException,
+            InvalidFenPositionException {
+        broadcast(engine -> {
+            engine.move(moves);
+            return null;
+        }, InvalidMoveSyntaxException.class, IllegalMoveException.class,
+                InvalidFenPositionException.class);
+    }
+
+    @Override
+    public synchronized void move(MoveList moves) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException, IllegalMoveException,
+            InvalidFenPositionException {
+        broadcast(engine -> {
+            engine.move(moves);
+            return null;
+        }, InvalidMoveSyntaxException.class, IllegalMoveException.class,
+                InvalidFenPositionException.class);
+    }
+
+    @Override
+    public synchronized void moveToStartPosition(boolean newGame) throws IOException,
+            TimeoutException {
+        broadcast(engine -> {
+            engine.moveToStartPosition(newGame);
+            return null;
+        }, IOException.class, IOException.class, IOException.class);
+    }
+
+    @Override
+    public synchronized void moveToFenPosition(String fen, boolean newGame) throws IOException,
+            TimeoutException, InvalidFenPositionException {
+        broadcast(engine -> {
+            engine.moveToFenPosition(fen, newGame);
+            return null;
+        }, InvalidFenPositionException.class,
+                InvalidFenPositionException.class,
+                InvalidFenPositionException.class);
+    }
+
+    @Override
+    public String findBestMove(EvaluationParameters options) throws IOException,
+            TimeoutException {
+        return search(options).getBestMove();
+    }
+
+    /**
+     * The evaluation of the chosen result, from white point of view
+     */
+    @Override
+    public synchronized ChessEngineEvaluation getPositionEvaluation(EvaluationParameters options) throws IOException, TimeoutException {
+        int multiplier = getFenPosition().contains(" w ") ? 1 : -1;
+        ChessEngineEvaluation evaluation = search(options).getEvaluation();
+        if (evaluation == null) {
+            throw new IOException("Chosen engine did not report any score");
+        }
+        return new ChessEngineEvaluation(evaluation.getType(),
+                evaluation.getValue() * multiplier);
+    }
+
+    /**
+     * Search on every engine and pick a result with the ensemble strategy.
+     * With {@link EnsembleStrategy#FIRST_TO_FINISH}, the other engines are
+     * stopped and not awaited: their next command waits for their search
+     * to end
+     *
+     * @throws IOException If every engine failed, the first failure is
+     *                     thrown
+     */
+    @Override
+    public synchronized SearchResult search(EvaluationParameters options) throws IOException,
+            TimeoutException {
+        int count = engines.size();
+        SearchResult[] results = new SearchResult[count];
+        Throwable[] failures = new Throwable[count];
+        long[] latencies = new long[count];
+        BlockingQueue<Integer> completions = new LinkedBlockingQueue<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            ChessEngine engine = engines.get(i);
+            int index = i;
+            executor.execute(() -> {
+                try {
+                    results[index] = engine.search(options);
+                } catch (Exception | Error e) {
+                    failures[index] = e;
+                }
+                latencies[index] = System.nanoTime() - start;
+                completions.add(index);
+            });
+        }
+
+        List<Integer> order = awaitCompletions(completions, results, start);
+
+        int chosen = choose(order, results);
+        List<EnsembleOutcome> outcomes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            boolean awaited = order.contains(i);
+            outcomes.add(new EnsembleOutcome(i,
+                    engines.get(i).getEngineVersion(),
+                    awaited ? latencies[i] : -1,
+                    awaited ? results[i] : null,
+                    awaited ? failures[i] : null));
+        }
+        if (chosen < 0) {
+            throw EngineCalls.rethrow(failures[order.get(0)]);
+        }
+        lastReport = new EnsembleReport(strategy, outcomes, chosen);
+        return results[chosen];
+    }
+
+    /**
+     * Every engine must be healthy
+     */
+    @Override
+    public synchronized boolean healthCheck() {
+        for (ChessEngine engine : engines) {
+            if (!engine.healthCheck()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wait for the engines, stopping the late ones at the deadline
+     *
+     * @return The indexes of the awaited engines, in completion order
+     */
+    private List<Integer> awaitCompletions(BlockingQueue<Integer> completions,
+                                           SearchResult[] results,
+                                           long start) throws IOException {
+        int count = engines.size();
+        List<Integer> order = new ArrayList<>();
+        boolean stopped = false;
+        try {
+            while (order.size() < count) {
+                Integer index;
+                if (deadline == null || stopped) {
+                    index = completions.take();
+                } else {
+                    index = completions.poll(start + deadline.toNanos() -
+                            System.nanoTime(), TimeUnit.NANOSECONDS);
+                }
+                if (index == null) {
+                    stopPending(order);
+                    stopped = true;
+                    continue;
+                }
+                order.add(index);
+                if (strategy == EnsembleStrategy.FIRST_TO_FINISH &&
+                        results[index] != null) {
+                    stopPending(order);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopPending(order);
+            throw new InterruptedIOException("Interrupted while waiting for " +
+                    "ensemble engines");
+        }
+        return order;
+    }
+
+    /**
+     * @param order   The indexes of the awaited engines, in completion order
+     * @param results The engine results
+     * @return The index of the chosen engine, or -1 if every engine failed
+     */
+    private int choose(List<Integer> order, SearchResult[] results) {
+        Map<String, Integer> votes = new HashMap<>();
+        for (int index : order) {
+            if (results[index] != null) {
+                votes.merge(results[index].getBestMove(), 1, Integer::sum);
+            }
+        }
+        int chosen = -1;
+        for (int index : order) {
+            SearchResult result = results[index];
+            if (result == null) {
+                continue;
+            }
+            if (chosen < 0) {
+                chosen = index;
+                continue;
+            }
+            SearchResult best = results[chosen];
+            boolean better = switch (strategy) {
+                case FIRST_TO_FINISH -> false;
+                case DEEPEST -> result.getDepth() > best.getDepth();
+                case MAJORITY -> {
+                    int resultVotes = votes.get(result.getBestMove());
+                    int bestVotes = votes.get(best.getBestMove());
+                    yield resultVotes > bestVotes || (resultVotes == bestVotes
+                            && result.getDepth() > best.getDepth());
+                }
+            };
+            if (better) {
+                chosen = index;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Stop the searches of the engines not awaited yet. Failures are
+     * reported by the searches themselves
+     *
+     * @param order The indexes of the awaited engines
+     */
+    private void stopPending(List<Integer> order) {
+        for (int i = 0; i < engines.size(); i++) {
+            if (!order.contains(i)) {
+                try {
+                    engines.get(i).stopSearch();
+                } catch (IOException e) {
+                    // The search fails with the same error
+                }
+            }
+        }
+    }
+
+    /**
+     * Run a command on every engine at the same time and wait for all of
+     * them. The first failure in engine order is thrown
+     */
+    private <A extends Exception, B extends Exception,
+            C extends Exception> void broadcast(EngineTask<Void> task,
+                                                Class<A> first,
+                                                Class<B> second,
+                                                Class<C> third) throws IOException,
+            TimeoutException, A, B, C {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (ChessEngine engine : engines) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            executor.execute(() -> {
+                try {
+                    future.complete(task.run(engine));
+                } catch (Exception | Error e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            futures.add(future);
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            // Thrown below in engine order
+        }
+        for (CompletableFuture<Void> future : futures) {
+            EngineCalls.await(future, first, second, third);
+        }
+    }
+}
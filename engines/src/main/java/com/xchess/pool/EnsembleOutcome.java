@@ -0,0 +1,68 @@
+package com.xchess.pool;
+
+import com.xchess.evaluation.SearchResult;
+import lombok.Getter;
+
+/**
+ * Outcome of one engine in an {@link EnsembleChessEngine} search
+ */
+@Getter
+public class EnsembleOutcome {
+    /**
+     * -- GETTER --
+     * Get the engine index in the ensemble
+     *
+     * @return the index
+     */
+    private final int index;
+    private final Float engineVersion;
+    /**
+     * -- GETTER --
+     * Get the time the engine took to answer
+     *
+     * @return the duration in nanoseconds, or -1 if the engine was not
+     * awaited
+     */
+    private final long latencyNanos;
+    /**
+     * -- GETTER --
+     * Get the engine result
+     *
+     * @return the result, or null if the engine failed or was not awaited
+     */
+    private final SearchResult searchResult;
+    /**
+     * -- GETTER --
+     * Get the engine failure
+     *
+     * @return the failure, or null
+     */
+    private final Throwable failure;
+
+    public EnsembleOutcome(int index, Float engineVersion, long latencyNanos,
+                           SearchResult searchResult, Throwable failure) {
+        this.index = index;
+        this.engineVersion = engineVersion;
+        this.latencyNanos = latencyNanos;
+        this.searchResult = searchResult;
+        this.failure = failure;
+    }
+
+    /**
+     * @return true if the engine returned a result
+     */
+    public boolean isSucceeded() {
+        return searchResult != null;
+    }
+
+    @Override
+    public String toString() {
+        return "EnsembleOutcome{" +
+                "index=" + index +
+                ", engineVersion=" + engineVersion +
+                ", latencyNanos=" + latencyNanos +
+                ", searchResult=" + searchResult +
+                ", failure=" + failure +
+                '}';
+    }
+}
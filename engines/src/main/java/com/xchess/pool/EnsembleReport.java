@@ -0,0 +1,73 @@
+package com.xchess.pool;
+
+import com.xchess.evaluation.SearchResult;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Per-engine details of an {@link EnsembleChessEngine} search
+ */
+@Getter
+public class EnsembleReport {
+    private final EnsembleStrategy strategy;
+    /**
+     * -- GETTER --
+     * Get the outcome of each engine
+     *
+     * @return the outcomes, in engine order
+     */
+    private final List<EnsembleOutcome> outcomes;
+    /**
+     * -- GETTER --
+     * Get the index of the engine whose result was returned
+     *
+     * @return the engine index
+     */
+    private final int chosenIndex;
+
+    public EnsembleReport(EnsembleStrategy strategy,
+                          List<EnsembleOutcome> outcomes, int chosenIndex) {
+        this.strategy = strategy;
+        this.outcomes = List.copyOf(outcomes);
+        this.chosenIndex = chosenIndex;
+    }
+
+    /**
+     * @return The returned result
+     */
+    public SearchResult getChosenResult() {
+        return outcomes.get(chosenIndex).getSearchResult();
+    }
+
+    /**
+     * @return The share of engines which returned a result and agree with
+     * the returned best move, from 0 to 1
+     */
+    public double getAgreement() {
+        String chosenMove = getChosenResult().getBestMove();
+        int succeeded = 0;
+        int agreeing = 0;
+        for (EnsembleOutcome outcome : outcomes) {
+            if (outcome.isSucceeded()) {
+                succeeded++;
+                if (Objects.equals(chosenMove,
+                        outcome.getSearchResult().getBestMove())) {
+                    agreeing++;
+                }
+            }
+        }
+        return (double) agreeing / succeeded;
+    }
+
+    @Override
+    public String toString() {
+        return "EnsembleReport{" +
+                "strategy=" + strategy +
+                ", chosenIndex=" + chosenIndex +
+                ", agreement=" + getAgreement() +
+                ", outcomes=" + outcomes +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package com.xchess.pool;
+
+/**
+ * How {@link EnsembleChessEngine} picks the result among its engines
+ */
+public enum EnsembleStrategy {
+    /**
+     * The first engine returning a result wins, the others are stopped
+     */
+    FIRST_TO_FINISH,
+    /**
+     * The best move found by most engines wins, ties going to the move
+     * searched the deepest
+     */
+    MAJORITY,
+    /**
+     * The result searched the deepest wins, ties going to the earliest
+     */
+    DEEPEST
+}
@@ -0,0 +1,59 @@
+package com.xchess.pool;
+
+import java.util.Arrays;
+
+/**
+ * Rolling window over the last response times of an engine, giving their
+ * percentiles. Not thread safe
+ */
+class LatencyWindow {
+    private final long[] samples;
+    private int count;
+    private int next;
+
+    /**
+     * @param capacity The number of samples kept, strictly positive
+     */
+    LatencyWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Window capacity should be " +
+                    "greater than 0");
+        }
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * Add a sample, replacing the oldest one once the window is full
+     *
+     * @param nanos The response time in nanoseconds
+     */
+    void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * @param percentile The percentile, between 0 exclusive and 100
+     * @return The nearest-rank percentile of the samples in nanoseconds, or
+     * -1 if there is no sample
+     */
+    long percentile(double percentile) {
+        if (count == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    int size() {
+        return count;
+    }
+
+    void clear() {
+        count = 0;
+        next = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.xchess.pool;
+
+/**
+ * Priority classes of {@link EngineScheduler} tasks, from the most to the
+ * least urgent
+ */
+public enum Priority {
+    /**
+     * Latency sensitive tasks, such as hints for a player waiting for them
+     */
+    INTERACTIVE,
+    /**
+     * Throughput oriented tasks, such as game annotation. Batch searches
+     * may be stopped to free an engine for interactive tasks, see
+     * {@link EngineScheduler#setPreemption(boolean)}
+     */
+    BATCH
+}
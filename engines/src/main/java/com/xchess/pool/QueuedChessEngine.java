@@ -0,0 +1,288 @@
+package com.xchess.pool;
+
+import com.xchess.ChessEngine;
+import com.xchess.ChessEngineDecorator;
+import com.xchess.board.MoveList;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.IllegalMoveException;
+import com.xchess.exceptions.InvalidFenPositionException;
+import com.xchess.exceptions.InvalidMoveSyntaxException;
+import com.xchess.exceptions.InvalidSquareSyntaxException;
+import com.xchess.perft.PerftResult;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Engine whose commands are run one at a time, in submission order, by a
+ * single thread owning the decorated engine. Callers wait on their own
+ * command result instead of contending on the engine monitors, so latency
+ * under contention is the queue length times the command time, with no
+ * barging.
+ * <p>
+ * Every {@link ChessEngine} method is queued and waits for its result,
+ * except {@link #stopSearch()}, which is sent at once to interrupt the
+ * running search, and {@link #getEngineVersion()}. Commands can also be
+ * submitted without waiting, see {@link #submit(EngineTask)}. Stopping the
+ * engine runs the commands already queued first
+ */
+public class QueuedChessEngine extends ChessEngineDecorator {
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param delegate The engine to own. It should not be used directly
+     *                 anymore
+     */
+    public QueuedChessEngine(ChessEngine delegate) {
+        super(delegate);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "engine-queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a command. The command has exclusive access to the engine
+     * while it runs, so that several calls can be chained without another
+     * command in between, as setting a position and searching it
+     *
+     * @param task The command
+     * @param <T>  The result type
+     * @return The command result
+     * @throws RejectedExecutionException If the engine is stopped
+     */
+    public <T> CompletableFuture<T> submit(EngineTask<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            try {
+                future.complete(task.run(delegate));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } catch (Error e) {
+                future.completeExceptionally(e);
+                throw e;
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @param fen        The position to search
+     * @param parameters The search parameters
+     * @return The best move, or null if there is none
+     */
+    public CompletableFuture<String> findBestMoveAsync(String fen,
+                                                       EvaluationParameters parameters) {
+        return submit(engine -> {
+            engine.moveToFenPosition(fen, false);
+            return engine.findBestMove(parameters);
+        });
+    }
+
+    /**
+     * @param fen        The position to search
+     * @param parameters The search parameters
+     * @return The evaluation, from white point of view
+     */
+    public CompletableFuture<ChessEngineEvaluation> getPositionEvaluationAsync(String fen,
+                                                                              EvaluationParameters parameters) {
+        return submit(engine -> {
+            engine.moveToFenPosition(fen, false);
+            return engine.getPositionEvaluation(parameters);
+        });
+    }
+
+    /**
+     * @param fen        The position to search
+     * @param parameters The search parameters
+     * @return The search result
+     */
+    public CompletableFuture<SearchResult> searchAsync(String fen,
+                                                       EvaluationParameters parameters) {
+        return submit(engine -> {
+            engine.moveToFenPosition(fen, false);
+            return engine.search(parameters);
+        });
+    }
+
+    /**
+     * @return The number of commands waiting for the running one
+     */
+    public int getPendingCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Run the queued commands, then stop the engine. Commands submitted
+     * afterwards are rejected
+     */
+    @Override
+    public void stop() throws IOException {
+        if (executor.isShutdown()) {
+            return;
+        }
+        CompletableFuture<Void> stopped = submit(engine -> {
+            engine.stop();
+            return null;
+        });
+        executor.shutdown();
+        try {
+            EngineCalls.await(stopped, IOException.class);
+        } catch (TimeoutException e) {
+            // ChessEngine.stop does not time out
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Sent at once, without waiting for the queued commands
+     */
+    @Override
+    public void stopSearch() throws IOException {
+        delegate.stopSearch();
+    }
+
+    @Override
+    public String getFenPosition() throws IOException, TimeoutException {
+        return EngineCalls.await(submit(ChessEngine::getFenPosition), IOException.class);
+    }
+
+    @Override
+    public List<String> getPossibleMoves() throws IOException,
+            TimeoutException {
+        return EngineCalls.await(submit(ChessEngine::getPossibleMoves), IOException.class);
+    }
+
+    @Override
+    public List<String> getPossibleMoves(String square) throws IOException,
+            TimeoutException, InvalidSquareSyntaxException {
+        return EngineCalls.await(submit(engine -> engine.getPossibleMoves(square)),
+                InvalidSquareSyntaxException.class);
+    }
+
+    @Override
+    public void getPossibleMoves(MoveList moves) throws IOException,
+            TimeoutException {
+        EngineCalls.await(submit(engine -> {
+            engine.getPossibleMoves(moves);
+            return null;
+        }), IOException.class);
+    }
+
+    @Override
+    public PerftResult perft(int depth) throws IOException, TimeoutException {
+        return EngineCalls.await(submit(engine -> engine.perft(depth)), IOException.class);
+    }
+
+    @Override
+    public PerftResult divide(int depth) throws IOException, TimeoutException {
+        return EngineCalls.await(submit(engine -> engine.divide(depth)), IOException.class);
+    }
+
+    @Override
+    public boolean isMovePossible(String move) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException {
+        return EngineCalls.await(submit(engine -> engine.isMovePossible(move)),
+                InvalidMoveSyntaxException.class);
+    }
+
+    @Override
+    public boolean isMovePossible(int move) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException {
+        return EngineCalls.await(submit(engine -> engine.isMovePossible(move)),
+                InvalidMoveSyntaxException.class);
+    }
+
+    @Override
+    public void move(List<String> moves) throws IOException, TimeoutException,
+            InvalidMoveSyntaxException, IllegalMoveException,
+            InvalidFenPositionException {
+        EngineCalls.await(submit(engine -> {
+            engine.move(moves);
+            return null;
+        }), InvalidMoveSyntaxException.class, IllegalMoveException.class,
+                InvalidFenPositionException.class);
+    }
+
+    @Override
+    public void move(MoveList moves) throws IOException, TimeoutException,
+            InvalidMoveSyntaxException, IllegalMoveException,
+            InvalidFenPositionException {
+        EngineCalls.await(submit(engine -> {
+            engine.move(moves);
+            return null;
+        }), InvalidMoveSyntaxException.class, IllegalMoveException.class,
+                InvalidFenPositionException.class);
+    }
+
+    @Override
+    public void moveToStartPosition(boolean newGame) throws IOException,
+            TimeoutException {
+        EngineCalls.await(submit(engine -> {
+            engine.moveToStartPosition(newGame);
+            return null;
+        }), IOException.class);
+    }
+
+    @Override
+    public void moveToFenPosition(String fen, boolean newGame) throws IOException,
+            TimeoutException, InvalidFenPositionException {
+        EngineCalls.await(submit(engine -> {
+            engine.moveToFenPosition(fen, newGame);
+            return null;
+        }), InvalidFenPositionException.class);
+    }
+
+    @Override
+    public String findBestMove(EvaluationParameters options) throws IOException,
+            TimeoutException {
+        return EngineCalls.await(submit(engine -> engine.findBestMove(options)),
+                IOException.class);
+    }
+
+    @Override
+    public SearchResult search(EvaluationParameters options) throws IOException,
+            TimeoutException {
+        return EngineCalls.await(submit(engine -> engine.search(options)),
+                IOException.class);
+    }
+
+    /**
+     * The listener runs on the engine thread
+     */
+    @Override
+    public SearchResult search(EvaluationParameters options,
+                               Consumer<SearchResult.Iteration> listener) throws IOException,
+            TimeoutException {
+        return EngineCalls.await(submit(engine -> engine.search(options,
+                listener)), IOException.class);
+    }
+
+    @Override
+    public ChessEngineEvaluation getPositionEvaluation(EvaluationParameters options) throws IOException, TimeoutException {
+        return EngineCalls.await(submit(engine -> engine.getPositionEvaluation(options)),
+                IOException.class);
+    }
+
+    /**
+     * Queued behind the running commands, so a busy engine is only
+     * reported unhealthy if it does not answer once its queue is drained
+     */
+    @Override
+    public boolean healthCheck() {
+        try {
+            return EngineCalls.await(submit(ChessEngine::healthCheck), IOException.class);
+        } catch (IOException | TimeoutException | RejectedExecutionException e) {
+            return false;
+        }
+    }
+}
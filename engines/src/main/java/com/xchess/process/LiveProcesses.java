@@ -0,0 +1,43 @@
+package com.xchess.process;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Processes started by {@link ProcessWrapper} and not stopped yet. A single
+ * shutdown hook, registered on first use, destroys the processes still
+ * running when the JVM exits
+ */
+final class LiveProcesses {
+    private static final Set<Process> PROCESSES = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(LiveProcesses::destroyAll,
+                "process-cleanup"));
+    }
+
+    // Private constructor to hide implicit public one
+    private LiveProcesses() {
+    }
+
+    static void add(Process process) {
+        PROCESSES.add(process);
+    }
+
+    static void remove(Process process) {
+        PROCESSES.remove(process);
+    }
+
+    /**
+     * @return The number of processes started and not stopped yet
+     */
+    static int count() {
+        return PROCESSES.size();
+    }
+
+    private static void destroyAll() {
+        for (Process process : PROCESSES) {
+            process.destroy();
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.xchess.exceptions.ProcessKilledException;
 
 import java.io.*;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -13,18 +15,79 @@ import java.util.regex.Pattern;
  * Class wrapping process and providing utils to read and write standard
  * input and output
  */
-public class ProcessWrapper {
+public class ProcessWrapper implements Closeable {
+    private static final int DEFAULT_STOP_TIMEOUT_IN_MS = 1000;
+
     private final ProcessBuilder processBuilder;
+    private final AtomicBoolean stopped;
     private Process process;
     private BufferedWriter writer;
-    private BufferedReader stdoutReader;
+    private InputStream stdout;
     private StdoutReaderThread stdoutReaderThread;
+    private StdoutLines stdoutLines;
+    private StdoutReactor stdoutReactor;
+    private UciLineFilter lineFilter;
+    private ProcessBuilder.Redirect errorRedirect;
+    private int stopTimeoutInMs;
 
     /**
      * @param command The process commands
      */
     public ProcessWrapper(String... command) {
         this.processBuilder = new ProcessBuilder(command);
+        this.stopped = new AtomicBoolean(false);
+        this.lineFilter = UciLineFilter.ALL;
+        this.errorRedirect = ProcessBuilder.Redirect.DISCARD;
+        this.stopTimeoutInMs = DEFAULT_STOP_TIMEOUT_IN_MS;
+    }
+
+    /**
+     * Set where the process stderr goes. It is discarded by default, so
+     * that an engine writing to it never blocks on a full pipe. Should be
+     * called before {@link #start()}
+     *
+     * @param errorRedirect The stderr destination, for instance a log file
+     */
+    public void setErrorRedirect(ProcessBuilder.Redirect errorRedirect) {
+        this.errorRedirect = errorRedirect;
+    }
+
+    /**
+     * Set how long {@link #stop()} waits for the process at each step:
+     * after closing its stdin, after asking it to terminate, and for the
+     * stdout reader to end
+     *
+     * @param stopTimeoutInMs The timeout, strictly positive
+     */
+    public void setStopTimeoutInMs(int stopTimeoutInMs) {
+        if (stopTimeoutInMs <= 0) {
+            throw new IllegalArgumentException("Stop timeout should be " +
+                    "greater than 0");
+        }
+        this.stopTimeoutInMs = stopTimeoutInMs;
+    }
+
+    /**
+     * Set the filter deciding which stdout lines are kept for reading.
+     * Rejected lines are dropped without being decoded. Should be called
+     * before {@link #start()}
+     *
+     * @param lineFilter The filter to use
+     */
+    public void setLineFilter(UciLineFilter lineFilter) {
+        this.lineFilter = lineFilter;
+    }
+
+    /**
+     * Read stdout with a shared {@link StdoutReactor} instead of a
+     * dedicated thread, so that many processes can be driven with a small
+     * number of threads. Should be called before {@link #start()}
+     *
+     * @param stdoutReactor The reactor to register to, or null to use a
+     *                      dedicated thread
+     */
+    public void setStdoutReactor(StdoutReactor stdoutReactor) {
+        this.stdoutReactor = stdoutReactor;
     }
 
     /**
@@ -52,45 +115,94 @@ public class ProcessWrapper {
      */
     public void setStdoutReaderThread(StdoutReaderThread stdoutReaderThread) {
         this.stdoutReaderThread = stdoutReaderThread;
+        this.stdoutLines = stdoutReaderThread.getStdoutLines();
     }
 
     /**
      * Used for test purposes
      *
-     * @param bufferedReader The process stdout reader
+     * @param stdout The process stdout
      */
-    public void setStdoutReader(BufferedReader bufferedReader) {
-        this.stdoutReader = bufferedReader;
+    public void setStdout(InputStream stdout) {
+        this.stdout = stdout;
     }
 
     /**
-     * Start the process
+     * Start the process. Processes not stopped when the JVM exits are
+     * destroyed by a shutdown hook shared by all wrappers
      *
      * @throws IOException If any error occurs during communicating with process
      */
     public void start() throws IOException {
+        this.processBuilder.redirectError(this.errorRedirect);
         this.process = this.processBuilder.start();
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> process.destroy()));
+        LiveProcesses.add(this.process);
 
         this.writer =
                 new BufferedWriter(new OutputStreamWriter(this.process.getOutputStream()));
 
-        this.stdoutReader =
-                new BufferedReader(new InputStreamReader(this.process.getInputStream()));
-        this.stdoutReaderThread = new StdoutReaderThread(this.stdoutReader,
-                this.process);
-        this.stdoutReaderThread.start();
+        this.stdout = this.process.getInputStream();
+        if (this.stdoutReactor != null) {
+            this.stdoutLines = new StdoutLines(this.process, this.lineFilter);
+            this.stdoutReactor.register(this.stdout, this.process,
+                    this.stdoutLines);
+        } else {
+            setStdoutReaderThread(new StdoutReaderThread(this.stdout,
+                    this.process, this.lineFilter));
+            this.stdoutReaderThread.start();
+        }
     }
 
     /**
-     * Stop the process
+     * Stop the process: close its stdin and let it exit, then ask it to
+     * terminate, then kill it, waiting for the stop timeout at each step.
+     * The stdout reader is then ended. Calling it again has no effect
      *
      * @throws IOException If any error occurs during communicating with process
      */
     public void stop() throws IOException {
-        this.writer.close();
-        this.stdoutReader.close();
-        this.process.destroy();
+        if (!this.stopped.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.writer.close();
+        } finally {
+            waitForExit();
+            if (this.stdoutReactor != null) {
+                this.stdoutReactor.unregister(this.stdout);
+            }
+            if (this.stdoutReaderThread != null) {
+                this.stdoutReaderThread.close(this.stopTimeoutInMs);
+            } else {
+                this.stdout.close();
+            }
+            LiveProcesses.remove(this.process);
+        }
+    }
+
+    /**
+     * Same as {@link #stop()}
+     */
+    @Override
+    public void close() throws IOException {
+        stop();
+    }
+
+    private void waitForExit() {
+        try {
+            if (this.process.waitFor(this.stopTimeoutInMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            this.process.destroy();
+            if (this.process.waitFor(this.stopTimeoutInMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            this.process.destroyForcibly();
+            this.process.waitFor(this.stopTimeoutInMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.process.destroyForcibly();
+        }
     }
 
     /**
@@ -147,18 +259,40 @@ public class ProcessWrapper {
                     "greater than 0");
         }
 
-        return stdoutReaderThread.getLinesUntil(matchPredicate, timeoutInMs);
+        return stdoutLines.getLinesUntil(matchPredicate, timeoutInMs);
     }
 
     /**
-     * Write a command to the process stdin
+     * Write a command to the process stdin. Writes are atomic, so that a
+     * command sent from another thread, such as "stop" during a search,
+     * is never interleaved with another one
      *
      * @param command The command
      * @throws IOException If any error occurs during communicating with process
      */
     public void writeCommand(String command) throws IOException {
-        this.writer.write(command);
-        this.writer.newLine();
-        this.writer.flush();
+        synchronized (this.writer) {
+            this.writer.write(command);
+            this.writer.newLine();
+            this.writer.flush();
+        }
+    }
+
+    /**
+     * Write several commands to the process stdin with a single flush. The
+     * commands are encoded in the writer buffer, so that a batch usually
+     * reaches the process in one write
+     *
+     * @param commands The commands, in order
+     * @throws IOException If any error occurs during communicating with process
+     */
+    public void writeCommands(List<String> commands) throws IOException {
+        synchronized (this.writer) {
+            for (String command : commands) {
+                this.writer.write(command);
+                this.writer.newLine();
+            }
+            this.writer.flush();
+        }
     }
 }
@@ -0,0 +1,101 @@
+package com.xchess.process;
+
+import com.xchess.exceptions.ProcessKilledException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Lines read from a process standard output, waiting to be consumed. Lines
+ * are added by whichever thread reads the output, see
+ * {@link StdoutReaderThread} and {@link StdoutReactor}, and consumers are
+ * woken up when new lines arrive instead of polling
+ */
+public class StdoutLines implements UciLineHandler {
+    private static final long ALIVE_CHECK_INTERVAL_IN_MS = 10;
+
+    private final List<String> lines;
+    private final Process process;
+    private final UciLineFilter lineFilter;
+
+    /**
+     * @param process    The process, checked while waiting for lines
+     * @param lineFilter The filter deciding which lines are kept. Rejected
+     *                   lines are never decoded
+     */
+    public StdoutLines(Process process, UciLineFilter lineFilter) {
+        this.lines = new ArrayList<>();
+        this.process = process;
+        this.lineFilter = lineFilter;
+    }
+
+    @Override
+    public void onLine(UciLineType type, byte[] buffer, int offset,
+                       int length) {
+        if (lineFilter.accept(type, buffer, offset, length)) {
+            add(UciOutputParser.toString(buffer, offset, length));
+        }
+    }
+
+    /**
+     * @param line The line to add
+     */
+    public synchronized void add(String line) {
+        lines.add(line);
+        notifyAll();
+    }
+
+    /**
+     * Wait for a line matching a predicate. Lines after the matching one
+     * are kept for the next call, and no line is consumed on timeout
+     *
+     * @param matchPredicate The predicate of the last awaited line
+     * @param timeoutInMs    Maximum timeout for waiting
+     * @return The lines up to and including the matching one
+     * @throws TimeoutException       if timeout is reached
+     * @throws ProcessKilledException if the process is not alive anymore
+     */
+    public synchronized List<String> getLinesUntil(Predicate<String> matchPredicate,
+                                                   int timeoutInMs) throws TimeoutException, ProcessKilledException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+        int scanned = 0;
+        while (true) {
+            for (; scanned < lines.size(); scanned++) {
+                if (matchPredicate.test(lines.get(scanned))) {
+                    List<String> consumed = lines.subList(0, scanned + 1);
+                    List<String> result = new ArrayList<>(consumed);
+                    consumed.clear();
+                    return result;
+                }
+            }
+            if (!process.isAlive()) {
+                throw new ProcessKilledException();
+            }
+            long remainingInMs =
+                    TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingInMs <= 0) {
+                throw new TimeoutException("Timeout while waiting for " +
+                        "process to respond");
+            }
+            try {
+                wait(Math.min(remainingInMs, ALIVE_CHECK_INTERVAL_IN_MS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for " +
+                        "process to respond");
+            }
+        }
+    }
+
+    /**
+     * @return All pending lines, which are consumed
+     */
+    public synchronized List<String> getLines() {
+        List<String> result = new ArrayList<>(lines);
+        lines.clear();
+        return result;
+    }
+}
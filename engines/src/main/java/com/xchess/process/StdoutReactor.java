@@ -0,0 +1,159 @@
+package com.xchess.process;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Polling reactor reading the standard output of many processes with a
+ * fixed number of threads. Process pipes are not selectable channels, so
+ * each thread loops over its streams, reads only the bytes available
+ * without blocking and parks with an increasing delay while all its
+ * streams are idle. Lines are dispatched to the handler given at
+ * registration, from the reactor thread
+ */
+public class StdoutReactor implements Closeable {
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final Worker[] workers;
+    private volatile boolean running;
+
+    /**
+     * @param threadCount The number of reading threads, strictly positive
+     */
+    public StdoutReactor(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Reactor thread count should " +
+                    "be greater than 0");
+        }
+        this.running = true;
+        this.workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker("stdout-reactor-" + i);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Start reading a process output. The stream is read until its end,
+     * until it is unregistered or until the process dies, in which case
+     * the remaining output is read before the stream is dropped
+     *
+     * @param stdout  The process standard output
+     * @param process The process
+     * @param handler The handler receiving the lines
+     */
+    public void register(InputStream stdout, Process process,
+                         UciLineHandler handler) {
+        if (!running) {
+            throw new IllegalStateException("Reactor is closed");
+        }
+        Worker worker = workers[0];
+        for (Worker candidate : workers) {
+            if (candidate.sources.size() < worker.sources.size()) {
+                worker = candidate;
+            }
+        }
+        worker.sources.add(new Source(stdout, process,
+                new UciOutputParser(stdout, handler)));
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Stop reading a process output. Should be called before closing the
+     * stream
+     *
+     * @param stdout The process standard output given at registration
+     */
+    public void unregister(InputStream stdout) {
+        for (Worker worker : workers) {
+            worker.sources.removeIf(source -> source.stdout == stdout);
+        }
+    }
+
+    /**
+     * @return The number of streams being read
+     */
+    public int getRegisteredCount() {
+        int count = 0;
+        for (Worker worker : workers) {
+            count += worker.sources.size();
+        }
+        return count;
+    }
+
+    /**
+     * Stop the reactor threads. Registered streams are not closed
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private static class Source {
+        private final InputStream stdout;
+        private final Process process;
+        private final UciOutputParser parser;
+
+        Source(InputStream stdout, Process process, UciOutputParser parser) {
+            this.stdout = stdout;
+            this.process = process;
+            this.parser = parser;
+        }
+    }
+
+    private class Worker extends Thread {
+        private final List<Source> sources;
+
+        Worker(String name) {
+            super(name);
+            this.sources = new CopyOnWriteArrayList<>();
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long parkNanos = MIN_PARK_NANOS;
+            while (running) {
+                boolean progress = false;
+                for (Source source : sources) {
+                    progress |= poll(source);
+                }
+                if (progress) {
+                    parkNanos = MIN_PARK_NANOS;
+                } else {
+                    LockSupport.parkNanos(this, parkNanos);
+                    parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+                }
+            }
+        }
+
+        /**
+         * @param source The stream to read
+         * @return true if some bytes have been read
+         */
+        private boolean poll(Source source) {
+            try {
+                if (source.parser.readAvailable() > 0) {
+                    return true;
+                }
+                if (!source.process.isAlive()) {
+                    source.parser.readAll();
+                    sources.remove(source);
+                }
+            } catch (IOException e) {
+                // Stream closed: nothing more will be read
+                sources.remove(source);
+            }
+            return false;
+        }
+    }
+}
@@ -3,12 +3,9 @@ package com.xchess.process;
 import com.xchess.exceptions.ProcessKilledException;
 import com.xchess.exceptions.StdoutReaderThreadException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 
@@ -16,18 +13,30 @@ import java.util.function.Predicate;
  * A thread reading a java Inputstream until a predicate matches
  */
 public class StdoutReaderThread extends Thread {
-    private final List<String> lines;
-    private final BufferedReader stdoutReader;
-    private final Process process;
+    private final InputStream stdout;
+    private final StdoutLines lines;
+    private final UciOutputParser stdoutParser;
+    private volatile boolean closed;
 
     /**
-     * @param stdoutReader The buffered reader
+     * @param stdout  The process standard output
+     * @param process The process
      */
-    public StdoutReaderThread(BufferedReader stdoutReader,
-                              Process process) {
-        this.lines = Collections.synchronizedList(new ArrayList<>());
-        this.stdoutReader = stdoutReader;
-        this.process = process;
+    public StdoutReaderThread(InputStream stdout, Process process) {
+        this(stdout, process, UciLineFilter.ALL);
+    }
+
+    /**
+     * @param stdout     The process standard output
+     * @param process    The process
+     * @param lineFilter The filter deciding which lines are kept. Rejected
+     *                   lines are never decoded
+     */
+    public StdoutReaderThread(InputStream stdout, Process process,
+                              UciLineFilter lineFilter) {
+        this.stdout = stdout;
+        this.lines = new StdoutLines(process, lineFilter);
+        this.stdoutParser = new UciOutputParser(stdout, this.lines);
     }
 
     /**
@@ -36,58 +45,47 @@ public class StdoutReaderThread extends Thread {
     @Override
     public void run() {
         super.run();
-        String line;
-
         try {
-            while ((line = stdoutReader.readLine()) != null) {
-                if (!line.isEmpty()) {
-                    this.lines.add(line);
-                }
-            }
+            stdoutParser.readAll();
         } catch (IOException e) {
+            if (closed) {
+                // Stream closed on purpose to end the thread
+                return;
+            }
             throw new StdoutReaderThreadException(e);
         }
     }
 
-    public List<String> getLinesUntil(Predicate<String> matchPredicate,
-                                      int timeoutInMs) throws TimeoutException, ProcessKilledException {
-        long start = System.currentTimeMillis();
-        List<String> newLines = new ArrayList<>();
-        List<String> allLines = new ArrayList<>();
-        Optional<String> matchingLine;
-        long now;
-        do {
-            if (!this.process.isAlive()) {
-                throw new ProcessKilledException();
-            }
-            now = System.currentTimeMillis();
-            if (now - start > timeoutInMs) {
-                this.lines.addAll(0, newLines);
-                throw new TimeoutException("Timeout while waiting for " +
-                        "process" +
-                        " to respond");
-            }
-            newLines = getLines();
-            matchingLine =
-                    newLines.stream().filter(matchPredicate).findFirst();
+    /**
+     * Wait for the thread to reach the end of the stream, then close the
+     * stream. Should be called once the process has exited
+     *
+     * @param timeoutInMs Maximum time to wait for the thread
+     * @throws IOException If the stream cannot be closed
+     */
+    public void close(long timeoutInMs) throws IOException {
+        try {
+            join(timeoutInMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closed = true;
+        stdout.close();
+    }
 
-            allLines.addAll(newLines);
-        } while (matchingLine.isEmpty());
+    /**
+     * @return The lines read by this thread
+     */
+    public StdoutLines getStdoutLines() {
+        return lines;
+    }
 
-        int firstMatchingLineIndex = allLines.indexOf(matchingLine.get());
-        List<String> resultLines = new ArrayList<>(allLines.subList(0,
-                firstMatchingLineIndex + 1));
-        List<String> remainingLines = resultLines.size() == allLines.size() ?
-                new ArrayList<>() :
-                new ArrayList<>(allLines.subList(firstMatchingLineIndex + 1,
-                        allLines.size()));
-        this.lines.addAll(0, remainingLines);
-        return resultLines;
+    public List<String> getLinesUntil(Predicate<String> matchPredicate,
+                                      int timeoutInMs) throws TimeoutException, ProcessKilledException {
+        return lines.getLinesUntil(matchPredicate, timeoutInMs);
     }
 
     public List<String> getLines() {
-        List<String> result = new ArrayList<>(this.lines);
-        this.lines.clear();
-        return result;
+        return lines.getLines();
     }
 }
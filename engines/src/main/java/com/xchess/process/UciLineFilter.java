@@ -0,0 +1,32 @@
+package com.xchess.process;
+
+/**
+ * Decides which engine output lines are worth materialising as
+ * {@link String}. Rejected lines are dropped without any allocation
+ */
+@FunctionalInterface
+public interface UciLineFilter {
+    /**
+     * Keeps every line
+     */
+    UciLineFilter ALL = (type, buffer, offset, length) -> true;
+
+    /**
+     * Drops search progress lines such as "info depth 12 currmove e2e4
+     * currmovenumber 1" or "info string ...", keeping only "info" lines
+     * holding a score
+     */
+    UciLineFilter SKIP_UNSCORED_INFO =
+            (type, buffer, offset, length) -> type != UciLineType.INFO ||
+                    UciOutputParser.contains(buffer, offset, length,
+                            UciOutputParser.SCORE_TOKEN);
+
+    /**
+     * @param type   The recognised line type
+     * @param buffer The buffer holding the line
+     * @param offset The line start index in buffer
+     * @param length The line length, without line terminator
+     * @return true if the line should be kept
+     */
+    boolean accept(UciLineType type, byte[] buffer, int offset, int length);
+}
@@ -0,0 +1,16 @@
+package com.xchess.process;
+
+/**
+ * Callback receiving lines parsed by {@link UciOutputParser}. The buffer is
+ * reused by the parser: its content is only valid during the call
+ */
+@FunctionalInterface
+public interface UciLineHandler {
+    /**
+     * @param type   The recognised line type
+     * @param buffer The buffer holding the line
+     * @param offset The line start index in buffer
+     * @param length The line length, without line terminator
+     */
+    void onLine(UciLineType type, byte[] buffer, int offset, int length);
+}
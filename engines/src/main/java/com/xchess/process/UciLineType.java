@@ -0,0 +1,72 @@
+package com.xchess.process;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Enumeration for the kind of line written by an UCI engine on its standard
+ * output. Recognition is done on raw ASCII bytes so that lines can be
+ * classified without being decoded to a {@link String}
+ */
+public enum UciLineType {
+    INFO("info"),
+    BESTMOVE("bestmove"),
+    READYOK("readyok"),
+    NODES_SEARCHED("Nodes searched"),
+    FEN("Fen:"),
+    OTHER("");
+
+    private final byte[] prefix;
+
+    UciLineType(String prefix) {
+        this.prefix = prefix.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param buffer The buffer holding the line
+     * @param offset The line start index in buffer
+     * @param length The line length, without line terminator
+     * @return The type of the line
+     */
+    public static UciLineType of(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return OTHER;
+        }
+        UciLineType candidate = switch (buffer[offset]) {
+            case 'i' -> INFO;
+            case 'b' -> BESTMOVE;
+            case 'r' -> READYOK;
+            case 'N' -> NODES_SEARCHED;
+            case 'F' -> FEN;
+            default -> OTHER;
+        };
+        if (candidate == OTHER || !candidate.matches(buffer, offset, length)) {
+            return OTHER;
+        }
+        return candidate;
+    }
+
+    /**
+     * @param buffer The buffer holding the line
+     * @param offset The line start index in buffer
+     * @param length The line length, without line terminator
+     * @return true if the line starts with this type prefix, as a whole word
+     */
+    private boolean matches(byte[] buffer, int offset, int length) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        if (this == READYOK) {
+            return length == prefix.length;
+        }
+        if (length == prefix.length || prefix[prefix.length - 1] == ':') {
+            return true;
+        }
+        byte next = buffer[offset + prefix.length];
+        return next == ' ' || next == ':';
+    }
+}
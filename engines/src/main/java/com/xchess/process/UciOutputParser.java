@@ -0,0 +1,193 @@
+package com.xchess.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parser splitting an UCI engine output stream into lines. Bytes are read
+ * into a reusable buffer and lines are handed to a {@link UciLineHandler}
+ * with their {@link UciLineType} without being decoded, so that callers only
+ * pay for the lines they actually need. Empty lines are skipped and "\r\n"
+ * terminators are supported
+ */
+public class UciOutputParser {
+    static final byte[] SCORE_TOKEN =
+            " score ".getBytes(StandardCharsets.US_ASCII);
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int INITIAL_LINE_BUFFER_SIZE = 256;
+
+    private final InputStream input;
+    private final UciLineHandler handler;
+    private final byte[] readBuffer;
+    private byte[] lineBuffer;
+    private int lineLength;
+
+    /**
+     * @param input   The stream to read from
+     * @param handler The handler receiving parsed lines
+     */
+    public UciOutputParser(InputStream input, UciLineHandler handler) {
+        this.input = input;
+        this.handler = handler;
+        this.readBuffer = new byte[READ_BUFFER_SIZE];
+        this.lineBuffer = new byte[INITIAL_LINE_BUFFER_SIZE];
+        this.lineLength = 0;
+    }
+
+    /**
+     * Read the stream until its end, dispatching every line
+     *
+     * @throws IOException If any error occurs reading the stream
+     */
+    public void readAll() throws IOException {
+        while (read()) {
+            // Lines are dispatched while reading
+        }
+    }
+
+    /**
+     * Block until some bytes are available and dispatch all complete lines
+     * they contain. At the end of the stream, the pending partial line is
+     * dispatched
+     *
+     * @return false if the end of the stream has been reached
+     * @throws IOException If any error occurs reading the stream
+     */
+    public boolean read() throws IOException {
+        int count = input.read(readBuffer, 0, readBuffer.length);
+        if (count < 0) {
+            flush();
+            return false;
+        }
+        feed(readBuffer, 0, count);
+        return true;
+    }
+
+    /**
+     * Read only the bytes that are available without blocking and dispatch
+     * all complete lines they contain
+     *
+     * @return The number of bytes read
+     * @throws IOException If any error occurs reading the stream
+     */
+    public int readAvailable() throws IOException {
+        int total = 0;
+        int available;
+        while ((available = input.available()) > 0) {
+            int count = input.read(readBuffer, 0, Math.min(available,
+                    readBuffer.length));
+            if (count <= 0) {
+                break;
+            }
+            feed(readBuffer, 0, count);
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Parse a chunk of bytes. Complete lines are dispatched, the trailing
+     * partial line is kept until its terminator is fed
+     *
+     * @param bytes  The bytes to parse
+     * @param offset The chunk start index
+     * @param length The chunk length
+     */
+    public void feed(byte[] bytes, int offset, int length) {
+        int lineStart = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            if (lineLength == 0) {
+                dispatch(bytes, lineStart, i - lineStart);
+            } else {
+                append(bytes, lineStart, i - lineStart);
+                dispatch(lineBuffer, 0, lineLength);
+                lineLength = 0;
+            }
+            lineStart = i + 1;
+        }
+        if (lineStart < end) {
+            append(bytes, lineStart, end - lineStart);
+        }
+    }
+
+    /**
+     * Dispatch the pending partial line, if any
+     */
+    public void flush() {
+        if (lineLength > 0) {
+            dispatch(lineBuffer, 0, lineLength);
+            lineLength = 0;
+        }
+    }
+
+    /**
+     * Decode a line. Engine output is expected to be ASCII, so bytes are
+     * mapped one to one to chars
+     *
+     * @param buffer The buffer holding the line
+     * @param offset The line start index in buffer
+     * @param length The line length
+     * @return The line as a String
+     */
+    public static String toString(byte[] buffer, int offset, int length) {
+        return new String(buffer, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @param buffer The buffer holding the line
+     * @param offset The line start index in buffer
+     * @param length The line length
+     * @param needle The bytes to search
+     * @return true if the line contains the needle
+     */
+    public static boolean contains(byte[] buffer, int offset, int length,
+                                   byte[] needle) {
+        int last = offset + length - needle.length;
+        for (int i = offset; i <= last; i++) {
+            int j = 0;
+            while (j < needle.length && buffer[i + j] == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param bytes  The bytes to append to the pending line
+     * @param offset The start index
+     * @param length The number of bytes
+     */
+    private void append(byte[] bytes, int offset, int length) {
+        if (lineLength + length > lineBuffer.length) {
+            lineBuffer = Arrays.copyOf(lineBuffer,
+                    Math.max(lineBuffer.length * 2, lineLength + length));
+        }
+        System.arraycopy(bytes, offset, lineBuffer, lineLength, length);
+        lineLength += length;
+    }
+
+    /**
+     * @param buffer The buffer holding the line
+     * @param offset The line start index in buffer
+     * @param length The line length, including a possible '\r'
+     */
+    private void dispatch(byte[] buffer, int offset, int length) {
+        if (length > 0 && buffer[offset + length - 1] == '\r') {
+            length--;
+        }
+        if (length == 0) {
+            return;
+        }
+        handler.onLine(UciLineType.of(buffer, offset, length), buffer, offset,
+                length);
+    }
+}
@@ -0,0 +1,24 @@
+package com.xchess.startup;
+
+import com.xchess.ChessEngine;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Creates started engines, ready to be used
+ *
+ * @param <T> The engine type
+ */
+@FunctionalInterface
+public interface EngineFactory<T extends ChessEngine> {
+    /**
+     * Start a new engine. May be called from several threads at once
+     *
+     * @return The started engine
+     * @throws IOException      If any error occurs communicating with the
+     *                          engine process
+     * @throws TimeoutException In case of timeout reached when reading
+     */
+    T create() throws IOException, TimeoutException;
+}
@@ -0,0 +1,52 @@
+package com.xchess.startup;
+
+import com.xchess.ChessEngine;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An engine started by {@link ParallelEngineStarter}, with the time its
+ * startup took
+ *
+ * @param <T> The engine type
+ */
+@Getter
+public class EngineStartup<T extends ChessEngine> {
+    /**
+     * -- GETTER --
+     * Get the position of the engine in the started batch
+     *
+     * @return the engine index
+     */
+    private final int index;
+    private final T engine;
+    /**
+     * -- GETTER --
+     * Get the time spent in {@link EngineFactory#create()} for this engine
+     *
+     * @return the startup duration in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    public EngineStartup(int index, T engine, long elapsedNanos) {
+        this.index = index;
+        this.engine = engine;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return The startup duration in milliseconds
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "EngineStartup{" +
+                "index=" + index +
+                ", elapsedNanos=" + elapsedNanos +
+                '}';
+    }
+}
@@ -0,0 +1,161 @@
+package com.xchess.startup;
+
+import com.xchess.ChessEngine;
+import com.xchess.ChessEngineDecorator;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Engine whose process is only started on first use. Stopping the engine
+ * stops the process, and the next use starts a new one.
+ * <p>
+ * The decorated engine is a proxy starting the underlying engine before
+ * forwarding each call, so that only the methods which must not start it
+ * are overridden
+ *
+ * @param <T> The underlying engine type
+ */
+public class LazyChessEngine<T extends ChessEngine> extends ChessEngineDecorator {
+    private final Starter<T> starter;
+
+    /**
+     * @param factory The factory starting the underlying engine
+     */
+    public LazyChessEngine(EngineFactory<T> factory) {
+        this(new Starter<>(factory));
+    }
+
+    private LazyChessEngine(Starter<T> starter) {
+        super((ChessEngine) Proxy.newProxyInstance(
+                ChessEngine.class.getClassLoader(),
+                new Class<?>[]{ChessEngine.class}, starter));
+        this.starter = starter;
+    }
+
+    /**
+     * Get the underlying engine, starting it if needed. If the startup
+     * fails, the next call tries again
+     *
+     * @return The started engine
+     * @throws IOException      If any error occurs communicating with the
+     *                          engine process
+     * @throws TimeoutException In case of timeout reached when reading
+     */
+    public T get() throws IOException, TimeoutException {
+        return starter.get();
+    }
+
+    /**
+     * @return true if the underlying engine is running
+     */
+    public boolean isStarted() {
+        return starter.engine != null;
+    }
+
+    /**
+     * @return The duration of the last startup in nanoseconds, or -1 if
+     * the engine has never been started
+     */
+    public long getStartupNanos() {
+        return starter.startupNanos;
+    }
+
+    /**
+     * Stop the underlying engine if it is running
+     */
+    @Override
+    public void stop() throws IOException {
+        starter.stop();
+    }
+
+    /**
+     * Has no effect if the engine is not started
+     */
+    @Override
+    public void stopSearch() throws IOException {
+        T current = starter.engine;
+        if (current != null) {
+            current.stopSearch();
+        }
+    }
+
+    /**
+     * Starts the engine if needed
+     *
+     * @throws IllegalStateException If the engine cannot be started
+     */
+    @Override
+    public Float getEngineVersion() {
+        try {
+            return get().getEngineVersion();
+        } catch (IOException | TimeoutException e) {
+            throw new IllegalStateException("Cannot start engine", e);
+        }
+    }
+
+    /**
+     * An engine not started yet is considered healthy, and is not started
+     * by the check
+     */
+    @Override
+    public boolean healthCheck() {
+        T current = starter.engine;
+        return current == null || current.healthCheck();
+    }
+
+    /**
+     * Holds the underlying engine, and forwards the proxy calls to it after
+     * starting it if needed
+     */
+    private static final class Starter<T extends ChessEngine> implements InvocationHandler {
+        private final EngineFactory<T> factory;
+        private volatile T engine;
+        private volatile long startupNanos;
+
+        Starter(EngineFactory<T> factory) {
+            this.factory = factory;
+            this.startupNanos = -1;
+        }
+
+        T get() throws IOException, TimeoutException {
+            T current = engine;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                if (engine == null) {
+                    long start = System.nanoTime();
+                    engine = factory.create();
+                    startupNanos = System.nanoTime() - start;
+                }
+                return engine;
+            }
+        }
+
+        synchronized void stop() throws IOException {
+            T current = engine;
+            engine = null;
+            if (current != null) {
+                current.stop();
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(this, args);
+            }
+            try {
+                return method.invoke(get(), args);
+            } catch (InvocationTargetException e) {
+                // Thrown as the underlying engine threw it
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.xchess.startup;
+
+import com.xchess.ChessEngine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Starts many engines concurrently. Engine startup is mostly spent waiting
+ * for the process to answer "uciok" and "readyok", so starting engines in
+ * parallel brings the startup time of a batch close to the one of its
+ * slowest engine
+ */
+public class ParallelEngineStarter {
+    // Private constructor to hide implicit public one
+    private ParallelEngineStarter() {
+    }
+
+    /**
+     * Start engines with one thread per engine
+     *
+     * @param factory The factory creating each engine
+     * @param count   The number of engines to start, positive
+     * @param <T>     The engine type
+     * @return The started engines with their startup time, in index order
+     * @throws IOException      If an engine fails to start. Engines
+     *                          already started are stopped
+     * @throws TimeoutException If an engine does not answer in time.
+     *                          Engines already started are stopped
+     */
+    public static <T extends ChessEngine> List<EngineStartup<T>> startAll(EngineFactory<T> factory,
+                                                                        int count) throws IOException, TimeoutException {
+        return startAll(factory, count, count);
+    }
+
+    /**
+     * Start engines with a bounded number of threads
+     *
+     * @param factory     The factory creating each engine
+     * @param count       The number of engines to start, positive
+     * @param parallelism The maximum number of engines starting at the
+     *                    same time, strictly positive
+     * @param <T>         The engine type
+     * @return The started engines with their startup time, in index order
+     * @throws IOException      If an engine fails to start. Engines
+     *                          already started are stopped
+     * @throws TimeoutException If an engine does not answer in time.
+     *                          Engines already started are stopped
+     */
+    public static <T extends ChessEngine> List<EngineStartup<T>> startAll(EngineFactory<T> factory,
+                                                                        int count,
+                                                                        int parallelism) throws IOException, TimeoutException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Engine count should not be " +
+                    "negative");
+        }
+        if (count == 0) {
+            return new ArrayList<>();
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism should be " +
+                    "greater than 0");
+        }
+        ExecutorService executor =
+                Executors.newFixedThreadPool(Math.min(count, parallelism),
+                        runnable -> {
+                            Thread thread = new Thread(runnable,
+                                    "engine-starter");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        try {
+            List<Future<EngineStartup<T>>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    T engine = factory.create();
+                    return new EngineStartup<>(index, engine,
+                            System.nanoTime() - start);
+                }));
+            }
+            return collect(futures);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Wait for all startups. If any fails, the others are still awaited so
+     * that every started engine can be stopped
+     */
+    private static <T extends ChessEngine> List<EngineStartup<T>> collect(List<Future<EngineStartup<T>>> futures) throws IOException, TimeoutException {
+        List<EngineStartup<T>> startups = new ArrayList<>();
+        Throwable failure = null;
+        for (Future<EngineStartup<T>> future : futures) {
+            try {
+                startups.add(future.get());
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure == null) {
+            return startups;
+        }
+        for (EngineStartup<T> startup : startups) {
+            try {
+                startup.getEngine().stop();
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof TimeoutException) {
+            throw (TimeoutException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new IOException("Engine startup interrupted", failure);
+    }
+}
@@ -0,0 +1,186 @@
+package com.xchess.uci;
+
+import com.xchess.exceptions.InvalidUciOptionException;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Option advertised by an UCI engine in answer to the "uci" command, such
+ * as "option name Hash type spin default 16 min 1 max 33554432"
+ */
+@Getter
+@Builder
+public class UciOption {
+    private static final String OPTION_PREFIX = "option name ";
+    private static final String TYPE_SEPARATOR = " type ";
+    private static final String EMPTY_VALUE = "<empty>";
+
+    private final String name;
+    private final UciOptionType type;
+    /**
+     * -- GETTER --
+     * Get the default value, empty for string options without default
+     *
+     * @return the default value, or null for buttons
+     */
+    private final String defaultValue;
+    private final Integer min;
+    private final Integer max;
+    /**
+     * -- GETTER --
+     * Get the allowed values of a combo option
+     *
+     * @return the allowed values
+     */
+    @Singular
+    private final List<String> vars;
+
+    /**
+     * @param line An engine output line
+     * @return The option, or null if the line is not a valid option line
+     */
+    public static UciOption parse(String line) {
+        if (!line.startsWith(OPTION_PREFIX)) {
+            return null;
+        }
+        int typeIndex = line.indexOf(TYPE_SEPARATOR, OPTION_PREFIX.length());
+        if (typeIndex == -1) {
+            return null;
+        }
+        String name = line.substring(OPTION_PREFIX.length(), typeIndex).trim();
+        String[] tokens = line.substring(typeIndex + TYPE_SEPARATOR.length())
+                .split(" ", -1);
+        UciOptionType type = UciOptionType.fromToken(tokens[0]);
+        if (name.isEmpty() || type == null) {
+            return null;
+        }
+        UciOptionBuilder builder = UciOption.builder().name(name).type(type);
+        String keyword = null;
+        List<String> value = new ArrayList<>();
+        try {
+            for (int i = 1; i <= tokens.length; i++) {
+                String token = i < tokens.length ? tokens[i] : null;
+                if (token == null || isKeyword(token)) {
+                    if (keyword != null) {
+                        applyValue(builder, keyword, String.join(" ", value));
+                    }
+                    keyword = token;
+                    value.clear();
+                } else {
+                    value.add(token);
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Check a value locally, without sending it to the engine
+     *
+     * @param value The value to set
+     * @throws InvalidUciOptionException If the value does not match the
+     *                                   option type or bounds
+     */
+    public void validate(String value) throws InvalidUciOptionException {
+        switch (type) {
+            case CHECK -> {
+                if (!"true".equals(value) && !"false".equals(value)) {
+                    throw new InvalidUciOptionException(name, value,
+                            "expected true or false");
+                }
+            }
+            case SPIN -> validateSpin(value);
+            case COMBO -> {
+                if (vars.stream().noneMatch(var -> var.equalsIgnoreCase(value))) {
+                    throw new InvalidUciOptionException(name, value,
+                            "expected one of " + vars);
+                }
+            }
+            case STRING -> {
+                if (Objects.isNull(value) || value.indexOf('\n') != -1) {
+                    throw new InvalidUciOptionException(name, value,
+                            "expected a single line");
+                }
+            }
+            default -> {
+                // Buttons take no value
+            }
+        }
+    }
+
+    /**
+     * @param value The value to set, ignored for buttons
+     * @return The command to write to the engine
+     * @throws InvalidUciOptionException If the value is invalid
+     */
+    public String buildCommand(String value) throws InvalidUciOptionException {
+        validate(value);
+        if (type == UciOptionType.BUTTON) {
+            return "setoption name " + name;
+        }
+        return "setoption name " + name + " value " + value;
+    }
+
+    private void validateSpin(String value) throws InvalidUciOptionException {
+        long number;
+        try {
+            number = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidUciOptionException(name, value, "expected an " +
+                    "integer");
+        }
+        if ((!Objects.isNull(min) && number < min) ||
+                (!Objects.isNull(max) && number > max)) {
+            throw new InvalidUciOptionException(name, value, "expected a " +
+                    "value between " + min + " and " + max);
+        }
+    }
+
+    private static boolean isKeyword(String token) {
+        return "default".equals(token) || "min".equals(token) ||
+                "max".equals(token) || "var".equals(token);
+    }
+
+    private static void applyValue(UciOptionBuilder builder, String keyword,
+                                   String value) {
+        switch (keyword) {
+            case "default" -> builder.defaultValue(EMPTY_VALUE.equals(value) ?
+                    "" : value);
+            case "min" -> builder.min(Integer.parseInt(value));
+            case "max" -> builder.max(Integer.parseInt(value));
+            default -> builder.var(value);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UciOption that = (UciOption) o;
+        return Objects.equals(name, that.name) && type == that.type && Objects.equals(defaultValue, that.defaultValue) && Objects.equals(min, that.min) && Objects.equals(max, that.max) && Objects.equals(vars, that.vars);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, type, defaultValue, min, max, vars);
+    }
+
+    @Override
+    public String toString() {
+        return "UciOption{" +
+                "name='" + name + '\'' +
+                ", type=" + type +
+                ", defaultValue='" + defaultValue + '\'' +
+                ", min=" + min +
+                ", max=" + max +
+                ", vars=" + vars +
+                '}';
+    }
+}
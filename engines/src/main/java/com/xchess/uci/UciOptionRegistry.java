@@ -0,0 +1,93 @@
+package com.xchess.uci;
+
+import com.xchess.exceptions.InvalidUciOptionException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Options advertised by an UCI engine, used to validate option values
+ * locally before sending them. Names are case insensitive, as in UCI
+ */
+public class UciOptionRegistry {
+    private final Map<String, UciOption> options;
+
+    /**
+     * @param options The advertised options
+     */
+    public UciOptionRegistry(List<UciOption> options) {
+        this.options = new LinkedHashMap<>();
+        for (UciOption option : options) {
+            this.options.put(key(option.getName()), option);
+        }
+    }
+
+    /**
+     * @param lines The engine output after the "uci" command. Lines which
+     *              are not option lines are ignored
+     * @return The registry
+     */
+    public static UciOptionRegistry parse(List<String> lines) {
+        List<UciOption> options = new ArrayList<>();
+        for (String line : lines) {
+            UciOption option = UciOption.parse(line);
+            if (option != null) {
+                options.add(option);
+            }
+        }
+        return new UciOptionRegistry(options);
+    }
+
+    /**
+     * @param name The option name, case insensitive
+     * @return The option, or null if not advertised
+     */
+    public UciOption get(String name) {
+        return options.get(key(name));
+    }
+
+    /**
+     * @param name The option name, case insensitive
+     * @return true if the engine advertises the option
+     */
+    public boolean contains(String name) {
+        return options.containsKey(key(name));
+    }
+
+    /**
+     * @return true if the engine advertised no option
+     */
+    public boolean isEmpty() {
+        return options.isEmpty();
+    }
+
+    /**
+     * @return The advertised options, in engine order
+     */
+    public List<UciOption> getOptions() {
+        return Collections.unmodifiableList(new ArrayList<>(options.values()));
+    }
+
+    /**
+     * @param name  The option name, case insensitive
+     * @param value The value to set
+     * @return The command to write to the engine
+     * @throws InvalidUciOptionException If the option is not advertised or
+     *                                   the value is invalid
+     */
+    public String buildCommand(String name, String value) throws InvalidUciOptionException {
+        UciOption option = get(name);
+        if (option == null) {
+            throw new InvalidUciOptionException(name, value, "unknown option");
+        }
+        return option.buildCommand(value);
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,39 @@
+package com.xchess.uci;
+
+/**
+ * Enumeration for the UCI option types, as advertised by engines in
+ * "option name ... type ..." lines
+ */
+public enum UciOptionType {
+    CHECK("check"),
+    SPIN("spin"),
+    COMBO("combo"),
+    BUTTON("button"),
+    STRING("string");
+
+    private final String token;
+
+    UciOptionType(String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return The type as written in UCI output
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @param token The type as written in UCI output
+     * @return The type, or null if unknown
+     */
+    public static UciOptionType fromToken(String token) {
+        for (UciOptionType type : values()) {
+            if (type.token.equals(token)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -1,8 +1,6 @@
 package com.xchess.validators;
 
-import java.util.Arrays;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import com.xchess.board.FenParser;
 
 /**
  * Validator for fen syntax
@@ -16,45 +14,26 @@ public class FenSyntaxValidator {
      * @return true if the fen syntax is valid
      */
     public static boolean isFenSyntaxValid(String fen) {
-        Pattern regexPattern = Pattern.compile("^\\s*(((?:[rnbqkpRNBQKP1-8" +
-                "]+/){7})[rnbqkpRNBQKP1-8]+)\\s([b|w])\\s(-|[KQkq]{1,4})" +
-                "\\s(-|[a-h][1-8])\\s(\\d+\\s\\d+)\\s*$");
-
-        Matcher regexMatcher = regexPattern.matcher(fen);
-        if (!regexMatcher.matches()) {
-            return false;
-        }
-
-        String fenBoardPart = regexMatcher.group(1);
-        String[] splittedFenBoard = fenBoardPart.split("/");
+        return FenParser.isSyntaxValid(fen);
+    }
 
-        for (String fenPart :
-                splittedFenBoard) {
-            if (!isFenPartValid(fenPart)) {
-                return false;
-            }
-        }
-        return true;
+    /**
+     * @param fen The fen string to test
+     * @return true if the fen syntax is valid and the position is
+     * consistent. See {@link FenParser}
+     */
+    public static boolean isFenValid(String fen) {
+        return FenParser.isValid(fen);
     }
 
     /**
-     * @param fenPart The fen part to validate
-     * @return true if valid
+     * @param fen      The fen string to test
+     * @param chess960 true to validate castling rights as a Chess960
+     *                 position
+     * @return true if the fen syntax is valid and the position is
+     * consistent. See {@link FenParser#isValid(CharSequence, boolean)}
      */
-    private static boolean isFenPartValid(String fenPart) {
-        boolean previousWasDigit = false;
-        String[] fenPartChars = fenPart.split("");
-        for (String fenPartChar :
-                fenPartChars) {
-            if (Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8").contains(fenPartChar)) {
-                if (previousWasDigit) {
-                    return false;
-                }
-                previousWasDigit = true;
-            } else {
-                previousWasDigit = false;
-            }
-        }
-        return true;
+    public static boolean isFenValid(String fen, boolean chess960) {
+        return FenParser.isValid(fen, chess960);
     }
 }
@@ -1,5 +1,7 @@
 package com.xchess.validators;
 
+import java.util.List;
+
 /**
  * Validator for move syntax
  */
@@ -13,15 +15,36 @@ public class MoveValidator {
      * @return True if the move is valid
      */
     public static boolean isMoveValid(String move) {
-        if (move.length() == 4) {
-            return SquareValidator.isSquareSyntaxValid(move.substring(0, 2)) &&
-                    SquareValidator.isSquareSyntaxValid(move.substring(2));
+        int length = move.length();
+        if (length != 4 && length != 5) {
+            return false;
         }
+        return SquareValidator.isSquareSyntaxValid(move, 0) &&
+                SquareValidator.isSquareSyntaxValid(move, 2) &&
+                (length == 4 || PieceValidator.isPromotablePieceValid(move.charAt(4)));
+    }
 
-        if (move.length() == 5) {
-            return MoveValidator.isMoveValid(move.substring(0, 4)) && PieceValidator.isPromotablePieceValid(move.substring(4));
+    /**
+     * Validate a whole move list in one pass
+     *
+     * @param moves The moves to check
+     * @return The index of the first invalid move, or -1 if all moves are
+     * valid
+     */
+    public static int findFirstInvalidMove(List<String> moves) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (!isMoveValid(moves.get(i))) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        return false;
+    /**
+     * @param moves The moves to check
+     * @return true if all moves are valid
+     */
+    public static boolean areMovesValid(List<String> moves) {
+        return findFirstInvalidMove(moves) == -1;
     }
 }
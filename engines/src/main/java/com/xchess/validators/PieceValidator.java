@@ -1,11 +1,12 @@
 package com.xchess.validators;
 
-import java.util.Arrays;
-
 /**
  * Validator for piece syntax
  */
 public class PieceValidator {
+    private static final boolean[] PIECES = lookupTable("qrbnpk");
+    private static final boolean[] PROMOTABLE_PIECES = lookupTable("qrbn");
+
     private PieceValidator() {
     }
 
@@ -14,8 +15,15 @@ public class PieceValidator {
      * @return true if the piece is valid
      */
     public static boolean isPieceValid(String piece) {
-        return Arrays.asList("q", "r", "b", "n", "p",
-                "k").contains(piece.toLowerCase());
+        return piece.length() == 1 && isPieceValid(piece.charAt(0));
+    }
+
+    /**
+     * @param piece The piece to check, case insensitive
+     * @return true if the piece is valid
+     */
+    public static boolean isPieceValid(char piece) {
+        return piece < PIECES.length && PIECES[piece];
     }
 
     /**
@@ -23,6 +31,27 @@ public class PieceValidator {
      * @return true if the piece is a promotable piece
      */
     public static boolean isPromotablePieceValid(String piece) {
-        return Arrays.asList("q", "r", "b", "n").contains(piece.toLowerCase());
+        return piece.length() == 1 && isPromotablePieceValid(piece.charAt(0));
+    }
+
+    /**
+     * @param piece The piece to check, case insensitive
+     * @return true if the piece is a promotable piece
+     */
+    public static boolean isPromotablePieceValid(char piece) {
+        return piece < PROMOTABLE_PIECES.length && PROMOTABLE_PIECES[piece];
+    }
+
+    /**
+     * @param pieces The lowercase accepted pieces
+     * @return A table indexed by char, accepting both cases
+     */
+    private static boolean[] lookupTable(String pieces) {
+        boolean[] table = new boolean[128];
+        for (char piece : pieces.toCharArray()) {
+            table[piece] = true;
+            table[Character.toUpperCase(piece)] = true;
+        }
+        return table;
     }
 }
@@ -12,6 +12,35 @@ public class SquareValidator {
      * @return true if the square is valid
      */
     public static boolean isSquareSyntaxValid(String square) {
-        return square.matches("^[a-h][1-8]$");
+        return square.length() == 2 && isSquareSyntaxValid(square, 0);
+    }
+
+    /**
+     * Check a square inside a text without extracting it
+     *
+     * @param text   The text holding the square
+     * @param offset The square start index in text
+     * @return true if the two chars at offset are a valid square
+     */
+    public static boolean isSquareSyntaxValid(CharSequence text, int offset) {
+        return offset >= 0 && offset + 2 <= text.length() &&
+                isFileValid(text.charAt(offset)) &&
+                isRankValid(text.charAt(offset + 1));
+    }
+
+    /**
+     * @param file The file char to check
+     * @return true if the file is between "a" and "h"
+     */
+    public static boolean isFileValid(char file) {
+        return (char) (file - 'a') < 8;
+    }
+
+    /**
+     * @param rank The rank char to check
+     * @return true if the rank is between "1" and "8"
+     */
+    public static boolean isRankValid(char rank) {
+        return (char) (rank - '1') < 8;
     }
 }
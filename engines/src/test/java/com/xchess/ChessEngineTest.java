@@ -0,0 +1,108 @@
+package com.xchess;
+
+import com.xchess.board.FenParser;
+import com.xchess.board.Move;
+import com.xchess.board.MoveList;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidMoveSyntaxException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChessEngineTest {
+    @Test
+    public void shouldImplementNewMethodsWithOriginalOnes() throws Exception {
+        LegacyEngine engine = new LegacyEngine();
+
+        MoveList moves = new MoveList();
+        engine.getPossibleMoves(moves);
+        assertEquals(20, moves.size());
+        assertTrue(engine.isMovePossible(Move.fromUci("e2e4")));
+        assertFalse(engine.isMovePossible(Move.fromUci("e2e5")));
+        assertThrows(InvalidMoveSyntaxException.class,
+                () -> engine.isMovePossible(Move.NONE));
+
+        engine.move(MoveList.fromUci(List.of("e2e4", "e7e5")));
+        assertEquals(List.of("e2e4", "e7e5"), engine.playedMoves);
+
+        assertEquals(8902, engine.perft(3).getNodes());
+        assertEquals(20, engine.divide(1).getDivide().size());
+        engine.stopSearch();
+        assertThrows(UnsupportedOperationException.class,
+                () -> engine.search(EvaluationParameters.builder().depth(1).build()));
+    }
+
+    /**
+     * Engine implementing the methods of the first published interface only
+     */
+    private static class LegacyEngine implements ChessEngine {
+        private final List<String> playedMoves = new ArrayList<>();
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public Float getEngineVersion() {
+            return 1f;
+        }
+
+        @Override
+        public String getFenPosition() {
+            return FenParser.START_POSITION;
+        }
+
+        @Override
+        public List<String> getPossibleMoves() {
+            List<String> moves = new ArrayList<>();
+            for (char file = 'a'; file <= 'h'; file++) {
+                moves.add(file + "2" + file + "3");
+                moves.add(file + "2" + file + "4");
+            }
+            moves.addAll(List.of("b1a3", "b1c3", "g1f3", "g1h3"));
+            return moves;
+        }
+
+        @Override
+        public List<String> getPossibleMoves(String square) {
+            return List.of();
+        }
+
+        @Override
+        public boolean isMovePossible(String move) {
+            return getPossibleMoves().contains(move);
+        }
+
+        @Override
+        public void move(List<String> moves) {
+            playedMoves.addAll(moves);
+        }
+
+        @Override
+        public void moveToStartPosition(boolean newGame) {
+        }
+
+        @Override
+        public void moveToFenPosition(String fen, boolean newGame) {
+        }
+
+        @Override
+        public String findBestMove(EvaluationParameters options) {
+            return "e2e4";
+        }
+
+        @Override
+        public ChessEngineEvaluation getPositionEvaluation(EvaluationParameters options) {
+            return null;
+        }
+
+        @Override
+        public boolean healthCheck() {
+            return true;
+        }
+    }
+}
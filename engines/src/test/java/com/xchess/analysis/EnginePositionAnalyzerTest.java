@@ -0,0 +1,37 @@
+package com.xchess.analysis;
+
+import com.xchess.ChessEngine;
+import com.xchess.board.FenParser;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class EnginePositionAnalyzerTest {
+    @Test
+    public void shouldMoveEngineToPositionBeforeSearching() throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        EvaluationParameters parameters =
+                EvaluationParameters.builder().depth(10).build();
+        ChessEngineEvaluation evaluation =
+                new ChessEngineEvaluation(ChessEngineEvaluationType.MATE, 2);
+        when(engine.getPositionEvaluation(parameters)).thenReturn(evaluation);
+        when(engine.findBestMove(parameters)).thenReturn("e2e4");
+        EnginePositionAnalyzer subject = new EnginePositionAnalyzer(engine);
+
+        assertEquals(evaluation, subject.getPositionEvaluation(
+                FenParser.START_POSITION, parameters));
+        assertEquals("e2e4", subject.findBestMove(FenParser.START_POSITION,
+                parameters));
+
+        InOrder inOrder = inOrder(engine);
+        inOrder.verify(engine).moveToFenPosition(FenParser.START_POSITION, false);
+        inOrder.verify(engine).getPositionEvaluation(parameters);
+        inOrder.verify(engine).moveToFenPosition(FenParser.START_POSITION, false);
+        inOrder.verify(engine).findBestMove(parameters);
+    }
+}
@@ -0,0 +1,190 @@
+package com.xchess.analysis;
+
+import com.xchess.board.FenParser;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+import com.xchess.validators.FenSyntaxValidator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class SingleFlightAnalyzerTest {
+    private static final ChessEngineEvaluation EVALUATION =
+            new ChessEngineEvaluation(ChessEngineEvaluationType.CENTIPAWNS, 20);
+
+    private PositionAnalyzer delegate;
+    private SingleFlightAnalyzer subject;
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() {
+        this.delegate = mock(PositionAnalyzer.class);
+        this.subject = new SingleFlightAnalyzer(delegate);
+        this.release = new CountDownLatch(1);
+    }
+
+    @Test
+    public void shouldShareSearchBetweenConcurrentIdenticalRequests() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        when(delegate.getPositionEvaluation(anyString(),
+                any(EvaluationParameters.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return EVALUATION;
+        });
+        EvaluationParameters parameters =
+                EvaluationParameters.builder().depth(10).build();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ChessEngineEvaluation>> results = new ArrayList<>();
+            results.add(executor.submit(() -> subject.getPositionEvaluation(
+                    FenParser.START_POSITION, parameters)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> subject.getPositionEvaluation(
+                        "  " + FenParser.START_POSITION.replace(" 1", " 42"),
+                        EvaluationParameters.builder().depth(10).build())));
+            }
+            waitForCoalescedCount(7);
+            release.countDown();
+            for (Future<ChessEngineEvaluation> result : results) {
+                assertEquals(EVALUATION, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(delegate, times(1)).getPositionEvaluation(anyString(),
+                any(EvaluationParameters.class));
+        assertEquals(0, subject.getInFlightCount());
+    }
+
+    @Test
+    public void shouldSendCallerFenToValidatingDelegate() throws Exception {
+        PositionAnalyzer validating = new PositionAnalyzer() {
+            @Override
+            public ChessEngineEvaluation getPositionEvaluation(String fen,
+                                                               EvaluationParameters parameters) throws InvalidFenPositionException {
+                if (!FenSyntaxValidator.isFenValid(fen)) {
+                    throw new InvalidFenPositionException(fen);
+                }
+                return EVALUATION;
+            }
+
+            @Override
+            public String findBestMove(String fen,
+                                       EvaluationParameters parameters) throws InvalidFenPositionException {
+                if (!FenSyntaxValidator.isFenValid(fen)) {
+                    throw new InvalidFenPositionException(fen);
+                }
+                return "e2e4";
+            }
+        };
+        SingleFlightAnalyzer analyzer = new SingleFlightAnalyzer(validating);
+        EvaluationParameters parameters =
+                EvaluationParameters.builder().depth(10).build();
+
+        assertEquals(EVALUATION, analyzer.getPositionEvaluation(
+                FenParser.START_POSITION, parameters));
+        assertEquals("e2e4", analyzer.findBestMove(FenParser.START_POSITION,
+                parameters));
+    }
+
+    @Test
+    public void shouldNotShareSearchWithDifferentParameters() throws Exception {
+        when(delegate.findBestMove(anyString(),
+                any(EvaluationParameters.class))).thenReturn("e2e4");
+        subject.findBestMove(FenParser.START_POSITION,
+                EvaluationParameters.builder().depth(10).build());
+        subject.findBestMove(FenParser.START_POSITION,
+                EvaluationParameters.builder().depth(12).build());
+        verify(delegate, times(2)).findBestMove(anyString(),
+                any(EvaluationParameters.class));
+        assertEquals(0, subject.getCoalescedCount());
+    }
+
+    @Test
+    public void shouldNotCacheCompletedSearch() throws Exception {
+        when(delegate.findBestMove(anyString(),
+                any(EvaluationParameters.class))).thenReturn("e2e4");
+        EvaluationParameters parameters =
+                EvaluationParameters.builder().depth(10).build();
+        assertEquals("e2e4", subject.findBestMove(FenParser.START_POSITION,
+                parameters));
+        assertEquals("e2e4", subject.findBestMove(FenParser.START_POSITION,
+                parameters));
+        verify(delegate, times(2)).findBestMove(anyString(),
+                any(EvaluationParameters.class));
+    }
+
+    @Test
+    public void shouldShareFailureWithWaiters() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        when(delegate.findBestMove(anyString(),
+                any(EvaluationParameters.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            throw new TimeoutException();
+        });
+        EvaluationParameters parameters =
+                EvaluationParameters.builder().movetime(100).build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> subject.findBestMove(
+                    FenParser.START_POSITION, parameters));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> waiter = executor.submit(() -> subject.findBestMove(
+                    FenParser.START_POSITION, parameters));
+            waitForCoalescedCount(1);
+            release.countDown();
+            assertCause(TimeoutException.class, leader);
+            assertCause(TimeoutException.class, waiter);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidFen() throws IOException,
+            TimeoutException, InvalidFenPositionException {
+        assertThrows(InvalidFenPositionException.class,
+                () -> subject.findBestMove("8/8/8/8/8/8/8/8 w - - 0 1",
+                        new EvaluationParameters()));
+        verify(delegate, never()).findBestMove(anyString(),
+                any(EvaluationParameters.class));
+    }
+
+    private void waitForCoalescedCount(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subject.getCoalescedCount() < count &&
+                System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, subject.getCoalescedCount());
+    }
+
+    private static void assertCause(Class<? extends Throwable> expected,
+                                    Future<?> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Expected " + expected.getSimpleName());
+        } catch (Exception e) {
+            assertTrue(expected.isInstance(e.getCause()));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.xchess.board;
+
+import com.xchess.exceptions.InvalidFenPositionException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FenParserTest {
+    @Test
+    public void shouldParseStartPosition() throws InvalidFenPositionException {
+        Board board = FenParser.parse(FenParser.START_POSITION);
+        assertEquals(Piece.ROOK, board.getPiece(Square.of(0, 0)));
+        assertEquals(Piece.of(Piece.KING, true), board.getPiece(Square.of(4,
+                7)));
+        assertEquals(Piece.NONE, board.getPiece(Square.of(4, 3)));
+        assertTrue(board.isWhiteToMove());
+        assertEquals(Board.WHITE_KINGSIDE | Board.WHITE_QUEENSIDE |
+                Board.BLACK_KINGSIDE | Board.BLACK_QUEENSIDE,
+                board.getCastlingRights());
+        assertEquals(Square.NONE, board.getEnPassantSquare());
+        assertEquals(0, board.getHalfmoveClock());
+        assertEquals(1, board.getFullmoveNumber());
+    }
+
+    @Test
+    public void shouldWriteBackSameFen() throws InvalidFenPositionException {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R" +
+                " w KQkq - 3 12";
+        assertEquals(fen, FenParser.parse(fen).toFen());
+        String enPassant = "rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b " +
+                "KQkq e3 0 3";
+        assertEquals(enPassant, FenParser.parse(enPassant).toFen());
+    }
+
+    @Test
+    public void shouldTrimSurroundingWhitespaces() {
+        assertTrue(FenParser.isValid("  " + FenParser.START_POSITION + "  "));
+    }
+
+    @Test
+    public void shouldNotValidateWrongRankWidth() {
+        assertFalse(FenParser.isSyntaxValid("rnbqkbnr/ppppppp/8/8/8/8" +
+                "/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        assertFalse(FenParser.isSyntaxValid("rnbqkbnr/pppppppp/9/8/8/8" +
+                "/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        assertFalse(FenParser.isSyntaxValid("rnbqkbnr/pppppppp/44/8/8/8" +
+                "/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+    }
+
+    @Test
+    public void shouldValidateChess960CastlingRights() {
+        String standard = "bqnb1rkr/pp3ppp/3ppn2/2p5/5P2/P2P4/NPP1P1PP" +
+                "/BQ1BNRKR w HFhf - 2 9";
+        assertTrue(FenParser.isValid(standard, true));
+        assertFalse(FenParser.isValid(standard, false));
+        String kq = "qrkbbnnr/pppppppp/8/8/8/8/PPPPPPPP/QRKBBNNR w KQkq - 0 1";
+        assertTrue(FenParser.isValid(kq, true));
+        assertFalse(FenParser.isValid(kq, false));
+        assertTrue(FenParser.isValid("rk5r/8/8/8/8/8/8/RK5R w HAha - 0 1",
+                true));
+        assertTrue(FenParser.isValid(FenParser.START_POSITION, true));
+        // Rook file letter without a rook on it
+        assertFalse(FenParser.isValid("1k5r/8/8/8/8/8/8/RK5R w HAa - 0 1",
+                true));
+        // Queenside right without a rook on the queen side of the king
+        assertFalse(FenParser.isValid("k6r/8/8/8/8/8/8/K6R w Qk - 0 1",
+                true));
+        // King off its back rank
+        assertFalse(FenParser.isValid("r6r/8/8/8/8/8/k7/RK5R w Hq - 0 1",
+                true));
+    }
+
+    @Test
+    public void shouldNotValidateMissingOrExtraKings() {
+        assertFalse(FenParser.isValid("8/8/8/8/8/8/8/4K3 w - - 0 1"));
+        assertFalse(FenParser.isValid("4k3/8/8/8/8/8/8/3KK3 w - - 0 1"));
+        assertTrue(FenParser.isSyntaxValid("8/8/8/8/8/8/8/4K3 w - - 0 1"));
+    }
+
+    @Test
+    public void shouldNotValidatePawnsOnBackRanks() {
+        assertFalse(FenParser.isValid("4k2P/8/8/8/8/8/8/4K3 w - - 0 1"));
+        assertFalse(FenParser.isValid("4k3/8/8/8/8/8/8/p3K3 w - - 0 1"));
+    }
+
+    @Test
+    public void shouldNotValidateCastlingWithoutKingOrRook() {
+        assertTrue(FenParser.isValid("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1"));
+        assertFalse(FenParser.isValid("r3k2r/8/8/8/8/8/8/R3K1R1 w KQkq - 0 1"));
+        assertFalse(FenParser.isValid("r3k2r/8/8/8/8/8/8/R2K3R w Q - 0 1"));
+        assertFalse(FenParser.isValid("r3k2r/8/8/8/8/8/8/R3K2R w KK - 0 1"));
+    }
+
+    @Test
+    public void shouldNotValidateImplausibleEnPassant() {
+        String base = "rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq ";
+        assertTrue(FenParser.isValid(base + "e3 0 3"));
+        assertFalse(FenParser.isValid(base + "d3 0 3"));
+        assertFalse(FenParser.isValid(base + "e6 0 3"));
+        assertTrue(FenParser.isSyntaxValid(base + "a1 0 3"));
+    }
+
+    @Test
+    public void shouldNotValidateSideNotToMoveInCheck() {
+        assertFalse(FenParser.isValid("4k3/8/8/8/8/8/4R3/4K3 w - - 0 1"));
+        assertTrue(FenParser.isValid("4k3/8/8/8/8/8/4R3/4K3 b - - 0 1"));
+    }
+
+    @Test
+    public void shouldNotValidateMalformedFields() {
+        assertFalse(FenParser.isValid(null));
+        assertFalse(FenParser.isValid(""));
+        assertFalse(FenParser.isValid(FenParser.START_POSITION.replace(" w ",
+                " | ")));
+        assertFalse(FenParser.isValid(FenParser.START_POSITION + " 1"));
+        assertFalse(FenParser.isValid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP" +
+                "/RNBQKBNR w KQkq -"));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenParsingInvalidFen() {
+        assertThrows(InvalidFenPositionException.class,
+                () -> FenParser.parse("8/8/8/8/8/8/8/8 w - - 0 1"));
+    }
+}
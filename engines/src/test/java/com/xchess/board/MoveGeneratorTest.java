@@ -0,0 +1,80 @@
+package com.xchess.board;
+
+import com.xchess.exceptions.InvalidFenPositionException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MoveGeneratorTest {
+    @Test
+    public void shouldGenerateStartPositionMoves() throws InvalidFenPositionException {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegalMoves(FenParser.parse(FenParser.START_POSITION), moves);
+        assertEquals(20, moves.size());
+        assertTrue(moves.contains(Move.fromUci("e2e4")));
+        assertTrue(Move.hasFlag(moves.get(moves.indexOf(Move.fromUci("e2e4"))),
+                Move.DOUBLE_PAWN_PUSH));
+    }
+
+    @Test
+    public void shouldNotCastleThroughAttackedSquare() throws InvalidFenPositionException {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegalMoves(FenParser.parse("r3k2r/8/8/8/8/8/8" +
+                "/R3K2R w KQkq - 0 1"), moves);
+        assertTrue(moves.contains(Move.fromUci("e1g1")));
+        assertTrue(moves.contains(Move.fromUci("e1c1")));
+
+        MoveGenerator.generateLegalMoves(FenParser.parse("r3k2r/8/8/8/8/8/5r2" +
+                "/R3K2R w KQkq - 0 1"), moves);
+        assertFalse(moves.contains(Move.fromUci("e1g1")));
+        assertTrue(moves.contains(Move.fromUci("e1c1")));
+
+        MoveGenerator.generateLegalMoves(FenParser.parse("r3k2r/8/8/8/8/8/8" +
+                "/R3K2R b Qk - 0 1"), moves);
+        assertTrue(moves.contains(Move.fromUci("e8g8")));
+        assertFalse(moves.contains(Move.fromUci("e8c8")));
+    }
+
+    @Test
+    public void shouldNotMovePinnedPiece() throws InvalidFenPositionException {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegalMoves(FenParser.parse("4k3/4r3/8/8/8/8/4B3" +
+                "/4K3 w - - 0 1"), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            assertNotEquals(Square.of(4, 1), Move.from(moves.get(i)));
+        }
+    }
+
+    @Test
+    public void shouldGeneratePromotions() throws InvalidFenPositionException {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegalMoves(FenParser.parse("1r2k3/P7/8/8/8/8/8" +
+                "/4K3 w - - 0 1"), moves);
+        assertTrue(moves.contains(Move.fromUci("a7a8q")));
+        assertTrue(moves.contains(Move.fromUci("a7b8n")));
+        assertFalse(moves.contains(Move.fromUci("a7a8")));
+    }
+
+    @Test
+    public void shouldFindLegalMoveWithFlags() throws InvalidFenPositionException {
+        Board board = FenParser.parse("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP" +
+                "/RNBQKBNR b KQkq e3 0 3");
+        int move = MoveGenerator.findLegalMove(board, Move.fromUci("d4e3"));
+        assertTrue(Move.hasFlag(move, Move.EN_PASSANT));
+        assertEquals(Move.NONE, MoveGenerator.findLegalMove(board,
+                Move.fromUci("d4d2")));
+    }
+
+    @Test
+    public void shouldMakeAndUnmakeMoves() throws InvalidFenPositionException {
+        Board board = FenParser.parse("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP" +
+                "/RNBQKBNR b KQkq e3 0 3");
+        Board copy = new Board(board);
+        int move = MoveGenerator.findLegalMove(board, Move.fromUci("d4e3"));
+        long undo = board.makeMove(move);
+        assertEquals("rnbqkbnr/ppp1pppp/8/8/8/4p3/PPPP1PPP/RNBQKBNR w KQkq -" +
+                " 0 4", board.toFen());
+        board.unmakeMove(move, undo);
+        assertEquals(copy, board);
+    }
+}
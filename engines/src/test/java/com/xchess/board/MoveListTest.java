@@ -0,0 +1,64 @@
+package com.xchess.board;
+
+import com.xchess.exceptions.InvalidMoveSyntaxException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MoveListTest {
+    @Test
+    public void shouldGrowWhenAddingMoves() {
+        MoveList moves = new MoveList(1);
+        for (int i = 1; i < 64; i++) {
+            moves.add(Move.of(0, i));
+        }
+        assertEquals(63, moves.size());
+        assertEquals(Move.of(0, 63), moves.get(62));
+    }
+
+    @Test
+    public void shouldKeepCapacityWhenCleared() {
+        MoveList moves = new MoveList();
+        moves.add(Move.fromUci("e2e4"));
+        moves.clear();
+        assertTrue(moves.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> moves.get(0));
+    }
+
+    @Test
+    public void shouldIgnoreFlagsWhenSearching() {
+        MoveList moves = new MoveList();
+        moves.add(Move.fromUci("e2e4") | Move.DOUBLE_PAWN_PUSH);
+        assertTrue(moves.contains(Move.fromUci("e2e4")));
+        assertEquals(-1, moves.indexOf(Move.fromUci("e2e3")));
+    }
+
+    @Test
+    public void shouldConvertFromAndToUci() throws InvalidMoveSyntaxException {
+        List<String> uciMoves = Arrays.asList("e2e4", "e7e5", "g7g8q");
+        MoveList moves = MoveList.fromUci(uciMoves);
+        assertEquals(uciMoves, moves.toUciList());
+        assertEquals("[e2e4, e7e5, g7g8q]", moves.toString());
+    }
+
+    @Test
+    public void shouldThrowExceptionIfUciMoveIsInvalid() {
+        assertThrows(InvalidMoveSyntaxException.class,
+                () -> MoveList.fromUci(Arrays.asList("e2e4", "e7e9")));
+    }
+
+    @Test
+    public void shouldCompareContent() throws InvalidMoveSyntaxException {
+        MoveList first = MoveList.fromUci(Arrays.asList("e2e4", "e7e5"));
+        MoveList second = new MoveList(1);
+        second.add(Move.fromUci("e2e4"));
+        second.add(Move.fromUci("e7e5"));
+        second.add(Move.fromUci("g1f3"));
+        second.removeLast();
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+}
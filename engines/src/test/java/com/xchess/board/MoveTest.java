@@ -0,0 +1,58 @@
+package com.xchess.board;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MoveTest {
+    @Test
+    public void shouldEncodeAndDecodeUciMove() {
+        int move = Move.fromUci("e2e4");
+        assertEquals(Square.of(4, 1), Move.from(move));
+        assertEquals(Square.of(4, 3), Move.to(move));
+        assertEquals(Piece.NONE, Move.promotion(move));
+        assertEquals("e2e4", Move.toUci(move));
+    }
+
+    @Test
+    public void shouldEncodeAndDecodePromotion() {
+        int move = Move.fromUci("a7a8n");
+        assertEquals(Piece.KNIGHT, Move.promotion(move));
+        assertEquals("a7a8n", Move.toUci(move));
+    }
+
+    @Test
+    public void shouldAcceptUppercaseUciMove() {
+        assertEquals(Move.fromUci("e7e8q"), Move.fromUci("E7E8Q"));
+    }
+
+    @Test
+    public void shouldReturnNoneForInvalidUciMove() {
+        assertEquals(Move.NONE, Move.fromUci("e2e9"));
+        assertEquals(Move.NONE, Move.fromUci("i2e4"));
+        assertEquals(Move.NONE, Move.fromUci("e7e8k"));
+        assertEquals(Move.NONE, Move.fromUci("e2e2"));
+        assertEquals(Move.NONE, Move.fromUci("e2e"));
+        assertEquals(Move.NONE, Move.fromUci("e2e4qq"));
+    }
+
+    @Test
+    public void shouldParseMoveInsideText() {
+        assertEquals(Move.fromUci("g1f3"), Move.fromUci("g1f3: 1", 0, 4));
+    }
+
+    @Test
+    public void shouldFitUciPartInAShort() {
+        int move = Move.of(63, 62, Piece.QUEEN);
+        assertEquals(move, (short) move);
+        assertEquals(move, Move.withoutFlags(move | Move.CAPTURE));
+    }
+
+    @Test
+    public void shouldValidatePackedMove() {
+        assertTrue(Move.isValid(Move.fromUci("e2e4") | Move.DOUBLE_PAWN_PUSH));
+        assertFalse(Move.isValid(Move.NONE));
+        assertFalse(Move.isValid(Move.of(8, 16, Piece.KING)));
+        assertFalse(Move.isValid(1 << 20 | Move.fromUci("e2e4")));
+    }
+}
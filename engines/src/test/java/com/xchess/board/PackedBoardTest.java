@@ -0,0 +1,46 @@
+package com.xchess.board;
+
+import com.xchess.exceptions.InvalidFenPositionException;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class PackedBoardTest {
+    @Test
+    public void shouldRoundTripPositions() throws InvalidFenPositionException {
+        String[] fens = {
+                FenParser.START_POSITION,
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "r3k2r/8/8/8/8/8/8/R3K2R b Kq - 37 300",
+                "4k3/8/8/8/8/8/8/4K3 w - - 0 1"
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(PackedBoard.SIZE + 3);
+        for (String fen : fens) {
+            PackedBoard.pack(FenParser.parse(fen), buffer, 3);
+            Board board = new Board();
+            assertTrue(PackedBoard.unpack(buffer, 3, board));
+            assertEquals(fen, board.toFen());
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidBytes() throws InvalidFenPositionException {
+        ByteBuffer buffer = ByteBuffer.allocate(PackedBoard.SIZE);
+        PackedBoard.pack(FenParser.parse(FenParser.START_POSITION), buffer, 0);
+        buffer.put(33, (byte) 64);
+        assertFalse(PackedBoard.unpack(buffer, 0, new Board()));
+        buffer.put(33, (byte) 0xFF);
+        buffer.put(20, (byte) 0x07);
+        assertFalse(PackedBoard.unpack(buffer, 0, new Board()));
+    }
+
+    @Test
+    public void shouldRejectLargeMoveCounters() throws InvalidFenPositionException {
+        Board board = FenParser.parse("4k3/8/8/8/8/8/8/4K3 w - - 256 1");
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedBoard.pack(board, ByteBuffer.allocate(PackedBoard.SIZE), 0));
+    }
+}
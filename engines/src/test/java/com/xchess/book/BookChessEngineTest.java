@@ -0,0 +1,87 @@
+package com.xchess.book;
+
+import com.xchess.ChessEngine;
+import com.xchess.board.FenParser;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class BookChessEngineTest {
+    private static final String AFTER_E4 = "rnbqkbnr/pppppppp/8/8/4P3/8" +
+            "/PPPP1PPP/RNBQKBNR b KQkq - 0 1";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final EvaluationParameters parameters =
+            EvaluationParameters.builder().depth(10).build();
+    private ChessEngine engine;
+    private PolyglotBook book;
+
+    @Before
+    public void setUp() throws Exception {
+        engine = mock(ChessEngine.class);
+        when(engine.findBestMove(parameters)).thenReturn("a2a3");
+        Path path = folder.newFile().toPath();
+        PolyglotBookTest.writeBook(path,
+                PolyglotBookTest.entry(FenParser.parse(FenParser.START_POSITION),
+                        "e2e4", 1),
+                PolyglotBookTest.entry(FenParser.parse(AFTER_E4), "c7c5", 1));
+        book = PolyglotBook.open(path);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        book.close();
+    }
+
+    @Test
+    public void shouldAnswerFromBookWithoutSearching() throws Exception {
+        when(engine.getFenPosition()).thenReturn(FenParser.START_POSITION);
+        BookChessEngine subject = new BookChessEngine(engine, book);
+
+        assertEquals("e2e4", subject.findBestMove(parameters));
+        verify(engine, never()).findBestMove(any());
+        assertEquals(1, subject.getBookHitCount());
+    }
+
+    @Test
+    public void shouldSearchPositionsOutOfBook() throws Exception {
+        when(engine.getFenPosition()).thenReturn("rnbqkbnr/pppppppp/8/8/8/P7" +
+                "/1PPPPPPP/RNBQKBNR b KQkq - 0 1");
+        BookChessEngine subject = new BookChessEngine(engine, book);
+
+        assertEquals("a2a3", subject.findBestMove(parameters));
+        assertEquals(1, subject.getBookMissCount());
+    }
+
+    @Test
+    public void shouldStopUsingBookAfterMaxPly() throws Exception {
+        when(engine.getFenPosition()).thenReturn(FenParser.START_POSITION,
+                AFTER_E4);
+        BookChessEngine subject = new BookChessEngine(engine, book)
+                .setMaxPly(1);
+
+        assertEquals("e2e4", subject.findBestMove(parameters));
+        assertEquals("a2a3", subject.findBestMove(parameters));
+    }
+
+    @Test
+    public void shouldForwardOtherCalls() throws Exception {
+        BookChessEngine subject = new BookChessEngine(engine, book);
+        subject.moveToStartPosition(true);
+        subject.getPositionEvaluation(parameters);
+        verify(engine).moveToStartPosition(true);
+        verify(engine).getPositionEvaluation(parameters);
+        assertSame(engine, subject.getDelegate());
+    }
+}
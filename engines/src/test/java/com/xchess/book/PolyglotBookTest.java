@@ -0,0 +1,231 @@
+package com.xchess.book;
+
+import com.xchess.board.Board;
+import com.xchess.board.FenParser;
+import com.xchess.board.Move;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PolyglotBookTest {
+    static final PolyglotZobrist ZOBRIST = createZobrist();
+
+    private static final String CASTLING_FEN = "r3k2r/pppppppp/8/8/8/8" +
+            "/PPPPPPPP/R3K2R w KQkq - 0 1";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PolyglotBook subject;
+
+    @After
+    public void tearDown() throws IOException {
+        if (subject != null) {
+            subject.close();
+        }
+    }
+
+    @Test
+    public void shouldFindEntriesOfPosition() throws Exception {
+        Board start = FenParser.parse(FenParser.START_POSITION);
+        subject = openBook(
+                entry(start, "e2e4", 10),
+                entry(start, "d2d4", 5),
+                entry(FenParser.parse(CASTLING_FEN), "e1h1", 1));
+
+        assertEquals(3, subject.getEntryCount());
+        List<PolyglotEntry> entries = subject.getEntries(start);
+        assertEquals(2, entries.size());
+        assertEquals(ZOBRIST.key(start), entries.get(0).getKey());
+        assertEquals(10, entries.get(0).getWeight());
+        assertEquals("e2e4", Move.toUci(entries.get(0).toMove(start)));
+        assertTrue(subject.getEntries(FenParser.parse("8/8/8/8/8/8/8/K6k " +
+                "w - - 0 1")).isEmpty());
+    }
+
+    @Test
+    public void shouldPickBestLegalMove() throws Exception {
+        Board start = FenParser.parse(FenParser.START_POSITION);
+        subject = openBook(
+                entry(start, "e2e4", 10),
+                entry(start, "d2d4", 20),
+                entry(start, "e2e5", 100));
+
+        int move = subject.findMove(start, BookSelection.BEST, new Random());
+        assertEquals("d2d4", Move.toUci(move));
+        assertTrue(Move.hasFlag(move, Move.DOUBLE_PAWN_PUSH));
+    }
+
+    @Test
+    public void shouldPickMovesProportionallyToWeight() throws Exception {
+        Board start = FenParser.parse(FenParser.START_POSITION);
+        subject = openBook(
+                entry(start, "e2e4", 3),
+                entry(start, "d2d4", 1),
+                entry(start, "g1f3", 0));
+
+        Random random = new Random(42);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 4000; i++) {
+            counts.merge(Move.toUci(subject.findMove(start,
+                    BookSelection.WEIGHTED, random)), 1, Integer::sum);
+        }
+        assertEquals(Set.of("e2e4", "d2d4"), counts.keySet());
+        assertEquals(3.0, counts.get("e2e4") / (double) counts.get("d2d4"),
+                0.3);
+    }
+
+    @Test
+    public void shouldConvertCastlingMoves() throws Exception {
+        Board board = FenParser.parse(CASTLING_FEN);
+        subject = openBook(entry(board, "e1h1", 1));
+        assertEquals("e1g1", Move.toUci(subject.findMove(board,
+                BookSelection.BEST, new Random())));
+
+        PolyglotEntry queenside = new PolyglotEntry(0, rawMove("e1a1"), 1, 0);
+        assertEquals("e1c1", Move.toUci(queenside.toMove(board)));
+    }
+
+    @Test
+    public void shouldReadPromotions() throws Exception {
+        Board board = FenParser.parse("8/P7/8/8/8/8/8/K6k w - - 0 1");
+        PolyglotEntry entry = new PolyglotEntry(0, rawMove("a7a8") | 4 << 12,
+                1, 0);
+        assertEquals("a7a8q", Move.toUci(entry.toMove(board)));
+    }
+
+    @Test
+    public void shouldFindEntriesAcrossWholeKeyRange() throws Exception {
+        List<long[]> entries = new ArrayList<>();
+        for (long key : new long[]{0, 1, Long.MAX_VALUE, Long.MIN_VALUE, -1}) {
+            entries.add(new long[]{key, rawMove("e2e4"), 1});
+        }
+        subject = openBook(entries.toArray(new long[0][]));
+        for (long[] entry : entries) {
+            assertEquals(1, subject.getEntries(entry[0]).size());
+        }
+        assertTrue(subject.getEntries(2).isEmpty());
+    }
+
+    @Test
+    public void shouldThrowExceptionIfFileIsNotABook() throws IOException {
+        Path path = folder.newFile("invalid.bin").toPath();
+        Files.write(path, new byte[17]);
+        assertThrows(IOException.class, () -> PolyglotBook.open(path, ZOBRIST));
+    }
+
+    @Test
+    public void shouldLoadRandomTable() throws IOException {
+        StringBuilder table = new StringBuilder();
+        for (int i = 0; i < PolyglotZobrist.TABLE_SIZE; i++) {
+            table.append(i % 2 == 0 ? "0x" : "").append(Long.toHexString(i + 1))
+                    .append(i % 3 == 0 ? "ULL,\n" : ", ");
+        }
+        PolyglotZobrist zobrist = PolyglotZobrist.load(new ByteArrayInputStream(
+                table.toString().getBytes(StandardCharsets.US_ASCII)));
+        Board empty = new Board();
+        // Only the side to move value, the last of the table
+        assertEquals(781, zobrist.key(empty));
+
+        assertThrows(IOException.class, () -> PolyglotZobrist.load(
+                new ByteArrayInputStream("0x1, 0x2".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    public void shouldComputePublishedKeys() throws Exception {
+        PolyglotZobrist zobrist = PolyglotZobrist.standard();
+
+        // Keys listed in the Polyglot format specification
+        assertKey(zobrist, 0x463b96181691fc9cL, FenParser.START_POSITION);
+        assertKey(zobrist, 0x823c9b50fd114196L, "rnbqkbnr/pppppppp/8/8" +
+                "/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        assertKey(zobrist, 0x0756b94461c50fb0L, "rnbqkbnr/ppp1pppp/8/3p4" +
+                "/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2");
+        assertKey(zobrist, 0x662fafb965db29d4L, "rnbqkbnr/ppp1pppp/8/3pP3" +
+                "/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2");
+        assertKey(zobrist, 0x22a48b5a8e47ff78L, "rnbqkbnr/ppp1p1pp/8" +
+                "/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        assertKey(zobrist, 0x652a607ca3f242c1L, "rnbqkbnr/ppp1p1pp/8" +
+                "/3pPp2/8/8/PPPPKPPP/RNBQ1BNR b kq - 0 3");
+        assertKey(zobrist, 0x00fdd303c946bdd9L, "rnbq1bnr/ppp1pkpp/8" +
+                "/3pPp2/8/8/PPPPKPPP/RNBQ1BNR w - - 0 4");
+        assertKey(zobrist, 0x3c8123ea7b067637L, "rnbqkbnr/p1pppppp/8/8" +
+                "/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3");
+        assertKey(zobrist, 0x5c3f9b829b279560L, "rnbqkbnr/p1pppppp/8/8" +
+                "/P6P/R1p5/1P1PPPP1/1NBQKBNR b Kkq - 0 4");
+    }
+
+    @Test
+    public void shouldOnlyHashCapturableEnPassantSquare() throws Exception {
+        Board withoutCapture = FenParser.parse("rnbqkbnr/pppppppp/8/8/4P3/8" +
+                "/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        Board withoutSquare = FenParser.parse("rnbqkbnr/pppppppp/8/8/4P3/8" +
+                "/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        assertEquals(ZOBRIST.key(withoutSquare), ZOBRIST.key(withoutCapture));
+
+        Board withCapture = FenParser.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8" +
+                "/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        Board withCaptureWithoutSquare = FenParser.parse("rnbqkbnr/ppp1p1pp/8" +
+                "/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3");
+        assertNotEquals(ZOBRIST.key(withCaptureWithoutSquare),
+                ZOBRIST.key(withCapture));
+    }
+
+    static long[] entry(Board board, String uci, int weight) {
+        return new long[]{ZOBRIST.key(board), rawMove(uci), weight};
+    }
+
+    static int rawMove(String uci) {
+        int move = Move.fromUci(uci);
+        return Move.to(move) | Move.from(move) << 6;
+    }
+
+    /**
+     * @param entries The entries as {key, raw move, weight}, in any order
+     */
+    PolyglotBook openBook(long[]... entries) throws IOException {
+        Path path = folder.newFile().toPath();
+        writeBook(path, entries);
+        return PolyglotBook.open(path);
+    }
+
+    static void writeBook(Path path, long[]... entries) throws IOException {
+        long[][] sorted = entries.clone();
+        Arrays.sort(sorted, (a, b) -> Long.compareUnsigned(a[0], b[0]));
+        ByteBuffer buffer = ByteBuffer.allocate(sorted.length *
+                PolyglotEntry.SIZE);
+        for (long[] entry : sorted) {
+            buffer.putLong(entry[0])
+                    .putShort((short) entry[1])
+                    .putShort((short) entry[2])
+                    .putInt(0);
+        }
+        Files.write(path, buffer.array());
+    }
+
+    private static void assertKey(PolyglotZobrist zobrist, long key,
+                                  String fen) throws Exception {
+        assertEquals(fen, Long.toHexString(key),
+                Long.toHexString(zobrist.key(FenParser.parse(fen))));
+    }
+
+    private static PolyglotZobrist createZobrist() {
+        try {
+            return PolyglotZobrist.standard();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.xchess.dataset;
+
+import com.xchess.board.Board;
+import com.xchess.board.FenParser;
+import com.xchess.board.Move;
+import com.xchess.board.MoveGenerator;
+import com.xchess.board.MoveList;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PositionRecordReaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadWrittenRecords() throws Exception {
+        Path path = folder.newFile("positions.bin").toPath();
+        List<PositionRecord> written = new ArrayList<>();
+        Board board = FenParser.parse(FenParser.START_POSITION);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 3000; i++) {
+            MoveGenerator.generateLegalMoves(board, moves);
+            if (moves.isEmpty() || board.getHalfmoveClock() > 100) {
+                board = FenParser.parse(FenParser.START_POSITION);
+                MoveGenerator.generateLegalMoves(board, moves);
+            }
+            int move = moves.get(i % moves.size());
+            ChessEngineEvaluation evaluation = i % 5 == 0 ? null :
+                    new ChessEngineEvaluation(i % 2 == 0 ?
+                            ChessEngineEvaluationType.MATE :
+                            ChessEngineEvaluationType.CENTIPAWNS, 50 - i);
+            written.add(new PositionRecord(new Board(board), evaluation, move));
+            board.makeMove(move);
+        }
+        try (PositionRecordWriter writer = PositionRecordWriter.open(path)) {
+            for (PositionRecord record : written) {
+                writer.write(record);
+            }
+            assertEquals(3000, writer.getCount());
+        }
+        assertEquals(PositionRecordReader.HEADER_SIZE +
+                3000L * PositionRecord.SIZE, Files.size(path));
+
+        try (PositionRecordReader reader = PositionRecordReader.open(path)) {
+            assertEquals(3000, reader.getCount());
+            for (int i = written.size() - 1; i >= 0; i--) {
+                assertEquals(written.get(i), reader.get(i));
+            }
+            Board target = new Board();
+            reader.readBoard(1, target);
+            assertEquals(written.get(1).getBoard(), target);
+            assertNull(reader.getEvaluation(0));
+            assertEquals(Move.withoutFlags(written.get(7).getBestMove()),
+                    reader.getBestMove(7));
+            assertThrows(IndexOutOfBoundsException.class,
+                    () -> reader.getBestMove(3000));
+        }
+    }
+
+    @Test
+    public void shouldStoreEvaluationTypeCodes() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(PositionRecord.SIZE);
+        Board board = FenParser.parse(FenParser.START_POSITION);
+        PositionRecord.write(board, null, Move.NONE, buffer, 0);
+        assertEquals(0, buffer.get(37));
+        assertNull(PositionRecord.readEvaluation(buffer, 0));
+
+        PositionRecord.write(board, new ChessEngineEvaluation(
+                ChessEngineEvaluationType.CENTIPAWNS, 25), Move.NONE, buffer, 0);
+        assertEquals(1, buffer.get(37));
+        assertEquals(new ChessEngineEvaluation(
+                        ChessEngineEvaluationType.CENTIPAWNS, 25),
+                PositionRecord.readEvaluation(buffer, 0));
+
+        PositionRecord.write(board, new ChessEngineEvaluation(
+                ChessEngineEvaluationType.MATE, -3), Move.NONE, buffer, 0);
+        assertEquals(2, buffer.get(37));
+        assertEquals(new ChessEngineEvaluation(
+                        ChessEngineEvaluationType.MATE, -3),
+                PositionRecord.readEvaluation(buffer, 0));
+
+        buffer.put(37, (byte) 3);
+        assertNull(PositionRecord.readEvaluation(buffer, 0));
+    }
+
+    @Test
+    public void shouldStoreMovesWithoutFlags() throws Exception {
+        Board board = FenParser.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        int castling = MoveGenerator.findLegalMove(board, Move.fromUci("e1g1"));
+        assertTrue(Move.hasFlag(castling, Move.CASTLING));
+        PositionRecord record = new PositionRecord(board, null, castling);
+        assertEquals(Move.fromUci("e1g1"), record.getBestMove());
+        assertEquals(castling, MoveGenerator.findLegalMove(board,
+                record.getBestMove()));
+    }
+
+    @Test
+    public void shouldRejectInvalidFiles() throws IOException {
+        Path empty = folder.newFile("empty.bin").toPath();
+        assertThrows(IOException.class, () -> PositionRecordReader.open(empty));
+
+        Path truncated = folder.newFile("truncated.bin").toPath();
+        try (PositionRecordWriter writer = PositionRecordWriter.open(truncated)) {
+            writer.write(new Board(), null, Move.NONE);
+        }
+        Files.write(truncated, new byte[]{1},
+                StandardOpenOption.APPEND);
+        assertThrows(IOException.class,
+                () -> PositionRecordReader.open(truncated));
+    }
+}
@@ -0,0 +1,78 @@
+package com.xchess.epd;
+
+import com.xchess.exceptions.InvalidEpdException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EpdParserTest {
+    @Test
+    public void shouldParseOperations() throws InvalidEpdException {
+        EpdRecord record = EpdParser.parse("r1bqkbnr/pppp1ppp/2n5/4p3/4P3" +
+                "/5N2/PPPP1PPP/RNBQKB1R w KQkq - bm Bb5 Bc4; am Qe2; " +
+                "id \"Open; game\"; c0 \"first\" \"second\";");
+        assertEquals("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w " +
+                "KQkq - 0 1", record.getFen());
+        assertEquals(List.of("f1b5", "f1c4"), record.getBestMoves());
+        assertEquals(List.of("d1e2"), record.getAvoidMoves());
+        assertEquals("Open; game", record.getId());
+        assertEquals(List.of("first", "second"), record.getOperation("c0"));
+        assertEquals(List.of(), record.getOperation("ce"));
+        assertTrue(record.isSolution("f1c4"));
+        assertFalse(record.isSolution("d1e2"));
+        assertFalse(record.isSolution("a2a3"));
+        assertFalse(record.isSolution(null));
+    }
+
+    @Test
+    public void shouldUseMoveCounters() throws InvalidEpdException {
+        EpdRecord record = EpdParser.parse("4k3/8/8/8/8/8/8/4K2R w K - hmvc " +
+                "12; fmvn 40; am O-O;");
+        assertEquals("4k3/8/8/8/8/8/8/4K2R w K - 12 40", record.getFen());
+        assertEquals(List.of("e1g1"), record.getAvoidMoves());
+        assertTrue(record.isSolution("h1h8"));
+        assertNull(record.getId());
+    }
+
+    @Test
+    public void shouldAcceptUciMoves() throws InvalidEpdException {
+        EpdRecord record = EpdParser.parse(
+                "4k3/P7/8/8/8/8/8/4K3 w - - bm a7a8q;");
+        assertEquals(List.of("a7a8q"), record.getBestMoves());
+    }
+
+    @Test
+    public void shouldReadSuite() throws IOException, InvalidEpdException {
+        String suite = """
+                # Suite header
+                4k3/8/8/8/8/8/8/4K2R w K - bm Rh8+; id "1";
+
+                4k3/8/8/8/8/8/8/R3K3 w Q - bm Ra8+; id "2";
+                """;
+        List<EpdRecord> records = EpdParser.read(new ByteArrayInputStream(
+                suite.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, records.size());
+        assertEquals("2", records.get(1).getId());
+    }
+
+    @Test
+    public void shouldRejectInvalidLines() {
+        assertThrows(InvalidEpdException.class,
+                () -> EpdParser.parse("4k3/8/8/8 w -"));
+        assertThrows(InvalidEpdException.class,
+                () -> EpdParser.parse("4k3/8/8/8/8/8/8/4K3 w - - id \"1\""));
+        assertThrows(InvalidEpdException.class,
+                () -> EpdParser.parse("4k3/8/8/8/8/8/8/4K3 w - - bm Ra8;"));
+        assertThrows(InvalidEpdException.class,
+                () -> EpdParser.parse("4k3/8/8/8/8/8/8/4K3 w - - ;"));
+        InvalidEpdException exception = assertThrows(InvalidEpdException.class,
+                () -> EpdParser.read(new ByteArrayInputStream(
+                        "\n9k/8 w - - bm e4;".getBytes(StandardCharsets.UTF_8))));
+        assertTrue(exception.getMessage().contains("line 2"));
+    }
+}
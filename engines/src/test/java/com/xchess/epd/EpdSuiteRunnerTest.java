@@ -0,0 +1,126 @@
+package com.xchess.epd;
+
+import com.xchess.ChessEngine;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidEpdException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EpdSuiteRunnerTest {
+    private static final EvaluationParameters PARAMETERS =
+            EvaluationParameters.builder().depth(10).build();
+
+    @Test
+    public void shouldScoreSuiteOverEngines() throws Exception {
+        // Records alternate between a solution played by the engines and
+        // another one, whichever engine searches them
+        List<EpdRecord> records = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            records.add(record(i, i % 2 == 0 ? "Rh8+" : "Kf1"));
+        }
+        ChessEngine first = engine("h1h8");
+        ChessEngine second = engine("h1h8");
+
+        EpdReport report = new EpdSuiteRunner(List.of(first, second))
+                .run(records, PARAMETERS);
+
+        assertEquals(6, report.getTotalCount());
+        assertEquals(3, report.getSolvedCount());
+        assertEquals(0, report.getFailedCount());
+        assertEquals(6000, report.getTotalNodes());
+        assertTrue(report.getNodesPerSecond() > 0);
+        for (int i = 0; i < records.size(); i++) {
+            EpdResult result = report.getResults().get(i);
+            assertSame(records.get(i), result.getRecord());
+            assertEquals("h1h8", result.getMove());
+            assertEquals(i % 2 == 0, result.isSolved());
+            assertEquals(i % 2 == 0 ? 7 : -1, result.getTimeToSolutionMs());
+        }
+        assertEquals(7, report.getAverageTimeToSolutionMs(), 0);
+        assertEquals(6, searchCount(first) + searchCount(second));
+    }
+
+    @Test
+    public void shouldGiveRecordsToWorkingEngines() throws Exception {
+        List<EpdRecord> records = records(4);
+        CountDownLatch brokenSearched = new CountDownLatch(1);
+        ChessEngine broken = mock(ChessEngine.class);
+        when(broken.search(any())).thenAnswer(invocation -> {
+            brokenSearched.countDown();
+            throw new IOException("Broken pipe");
+        });
+        ChessEngine working = engine("h1h8");
+        // The working engine waits for the broken one to take a record
+        doAnswer(invocation -> brokenSearched.await(5, TimeUnit.SECONDS))
+                .when(working).moveToFenPosition(anyString(), anyBoolean());
+
+        EpdReport report = new EpdSuiteRunner(List.of(broken, working))
+                .run(records, record -> PARAMETERS);
+
+        assertEquals(1, report.getFailedCount());
+        assertEquals(3, report.getSolvedCount());
+        assertEquals(7, report.getAverageTimeToSolutionMs(), 0);
+        verify(broken, times(1)).search(any());
+        verify(working, times(3)).search(any());
+    }
+
+    @Test
+    public void shouldReportRecordsLeftWhenEveryEngineFails() throws Exception {
+        ChessEngine broken = mock(ChessEngine.class);
+        when(broken.search(any())).thenThrow(new IOException("Broken pipe"));
+
+        EpdReport report = new EpdSuiteRunner(List.of(broken))
+                .run(records(3), PARAMETERS);
+
+        assertEquals(3, report.getFailedCount());
+        assertEquals("Broken pipe", report.getResults().get(0).getError());
+        assertEquals("No engine available",
+                report.getResults().get(2).getError());
+        assertEquals(-1, report.getAverageTimeToSolutionMs(), 0);
+    }
+
+    @Test
+    public void shouldRequireEngines() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new EpdSuiteRunner(List.of()));
+    }
+
+    private static long searchCount(ChessEngine engine) {
+        return mockingDetails(engine).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName()
+                        .equals("search"))
+                .count();
+    }
+
+    private static ChessEngine engine(String bestMove) throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        when(engine.search(any())).thenReturn(SearchResult.parse(List.of(
+                "info depth 1 score cp 10 nodes 400 nps 1000 time 3 pv a2a3",
+                "info depth 2 score cp 30 nodes 1000 nps 1000 time 7 pv " + bestMove,
+                "bestmove " + bestMove)));
+        return engine;
+    }
+
+    private static List<EpdRecord> records(int count) throws InvalidEpdException {
+        List<EpdRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add(record(i, "Rh8+"));
+        }
+        return records;
+    }
+
+    private static EpdRecord record(int id, String bestMove) throws InvalidEpdException {
+        return EpdParser.parse("4k3/8/8/8/8/8/8/4K2R w K - bm " + bestMove +
+                "; id \"" + id + "\";");
+    }
+}
@@ -0,0 +1,58 @@
+package com.xchess.evaluation;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SearchResultTest {
+    private static final List<String> LINES = List.of(
+            "info string NNUE evaluation enabled",
+            "info depth 1 seldepth 1 multipv 1 score cp 20 nodes 20 nps 10000 time 2 pv e2e3",
+            "info depth 2 seldepth 2 multipv 1 score cp 30 nodes 60 nps 20000 time 3 pv d2d4 d7d5",
+            "info depth 3 currmove d2d4 currmovenumber 1",
+            "info depth 3 seldepth 4 multipv 1 score cp 25 nodes 150 nps 30000 time 5 pv e2e4 e7e5",
+            "info depth 4 seldepth 5 multipv 1 score mate 3 nodes 400 nps 40000 time 10 pv e2e4 e7e5 d1h5",
+            "bestmove e2e4 ponder e7e5");
+
+    @Test
+    public void shouldParseLastInfoLine() throws IOException {
+        SearchResult result = SearchResult.parse(LINES);
+        assertEquals("e2e4", result.getBestMove());
+        assertEquals(new ChessEngineEvaluation(ChessEngineEvaluationType.MATE,
+                3), result.getEvaluation());
+        assertEquals(4, result.getDepth());
+        assertEquals(400, result.getNodes());
+        assertEquals(40000, result.getNps());
+        assertEquals(10, result.getTimeMs());
+        assertEquals(4, result.getIterations().size());
+        assertEquals("d2d4", result.getIterations().get(1).getMove());
+    }
+
+    @Test
+    public void shouldComputeTimeToSolution() throws IOException {
+        SearchResult result = SearchResult.parse(LINES);
+        assertEquals(5, result.getTimeToSolution("e2e4"::equals));
+        assertEquals(-1, result.getTimeToSolution("d2d4"::equals));
+        assertEquals(2, result.getTimeToSolution(move -> !move.equals("a2a3")));
+    }
+
+    @Test
+    public void shouldParseSearchWithoutMove() throws IOException {
+        SearchResult result = SearchResult.parse(List.of("info depth 0 " +
+                "score mate 0", "bestmove (none)"));
+        assertNull(result.getBestMove());
+        assertTrue(result.getIterations().isEmpty());
+        assertEquals(-1, result.getTimeToSolution(move -> true));
+    }
+
+    @Test
+    public void shouldFailWithoutBestMove() {
+        assertThrows(IOException.class,
+                () -> SearchResult.parse(List.of("info depth 1 score cp 10")));
+        assertThrows(IOException.class, () -> SearchResult.parse(List.of(
+                "info depth x score cp 10", "bestmove e2e4")));
+    }
+}
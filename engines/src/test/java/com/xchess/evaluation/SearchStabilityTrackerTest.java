@@ -0,0 +1,66 @@
+package com.xchess.evaluation;
+
+import com.xchess.evaluation.parameter.AdaptiveTimeManagement;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class SearchStabilityTrackerTest {
+    private static final AdaptiveTimeManagement TIME_MANAGEMENT =
+            AdaptiveTimeManagement.builder()
+                    .minDepth(3)
+                    .stableDepths(3)
+                    .scoreMarginInCp(10)
+                    .build();
+
+    @Test
+    public void shouldBeStableAfterConsecutiveAgreeingDepths() throws IOException {
+        SearchStabilityTracker tracker = new SearchStabilityTracker(TIME_MANAGEMENT);
+        assertFalse(tracker.update(info(1, "cp 15", "e2e4")));
+        assertFalse(tracker.update(info(2, "cp 20", "e2e4")));
+        assertTrue(tracker.update(info(3, "cp 12", "e2e4")));
+    }
+
+    @Test
+    public void shouldRestartCountOnMoveOrScoreChange() throws IOException {
+        SearchStabilityTracker tracker = new SearchStabilityTracker(TIME_MANAGEMENT);
+        tracker.update(info(1, "cp 15", "e2e4"));
+        tracker.update(info(2, "cp 20", "e2e4"));
+        assertFalse(tracker.update(info(3, "cp 20", "d2d4")));
+        assertFalse(tracker.update(info(4, "cp 45", "d2d4")));
+        assertFalse(tracker.update(info(5, "cp 50", "d2d4")));
+        assertTrue(tracker.update(info(6, "cp 41", "d2d4")));
+    }
+
+    @Test
+    public void shouldIgnoreBoundsAndRepeatedDepths() throws IOException {
+        SearchStabilityTracker tracker = new SearchStabilityTracker(TIME_MANAGEMENT);
+        tracker.update(info(1, "cp 15", "e2e4"));
+        tracker.update(info(2, "cp 20", "e2e4"));
+        assertFalse(tracker.update(SearchResult.Iteration.parse(
+                "info depth 3 score cp 300 lowerbound pv d2d4")));
+        assertFalse(tracker.update(info(2, "cp 20", "e2e4")));
+        assertFalse(tracker.update(SearchResult.Iteration.parse(
+                "info depth 3 score cp 20")));
+        assertTrue(tracker.update(info(3, "cp 20", "e2e4")));
+    }
+
+    @Test
+    public void shouldWaitForMinimalDepth() throws IOException {
+        SearchStabilityTracker tracker = new SearchStabilityTracker(
+                AdaptiveTimeManagement.builder().minDepth(5).stableDepths(2).build());
+        assertFalse(tracker.update(info(1, "mate 4", "h5f7")));
+        assertFalse(tracker.update(info(2, "mate 3", "h5f7")));
+        assertFalse(tracker.update(info(4, "mate 2", "h5f7")));
+        assertTrue(tracker.update(info(5, "mate 2", "h5f7")));
+    }
+
+    private static SearchResult.Iteration info(int depth, String score,
+                                               String move) throws IOException {
+        return SearchResult.Iteration.parse("info depth " + depth +
+                " seldepth " + depth + " multipv 1 score " + score +
+                " nodes 100 time 5 pv " + move);
+    }
+}
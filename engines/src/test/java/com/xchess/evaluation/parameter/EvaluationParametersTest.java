@@ -33,4 +33,14 @@ public class EvaluationParametersTest {
                 .build();
         assertEquals("go binc 2", ep.buildCommand());
     }
+
+    @Test
+    public void shouldBuildInfiniteCommandWithTimeManagement() {
+        EvaluationParameters ep = EvaluationParameters.builder()
+                .depth(4)
+                .searchMoves(Arrays.asList("a2a4", "e2e4"))
+                .timeManagement(AdaptiveTimeManagement.builder().build())
+                .build();
+        assertEquals("go searchmoves a2a4 e2e4 infinite", ep.buildCommand());
+    }
 }
@@ -0,0 +1,102 @@
+package com.xchess.perft;
+
+import com.xchess.board.Board;
+import com.xchess.board.FenParser;
+import com.xchess.exceptions.InvalidFenPositionException;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Node counts from the reference positions of the chess programming wiki
+ */
+public class PerftTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3" +
+            "/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1" +
+            "/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6" +
+            "/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8" +
+            "/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    @Test
+    public void shouldCountStartPositionNodes() throws InvalidFenPositionException {
+        assertNodes(FenParser.START_POSITION, 20, 400, 8902, 197281);
+    }
+
+    @Test
+    public void shouldCountKiwipeteNodes() throws InvalidFenPositionException {
+        assertNodes(KIWIPETE, 48, 2039, 97862);
+    }
+
+    @Test
+    public void shouldCountEnPassantAndPinNodes() throws InvalidFenPositionException {
+        assertNodes(POSITION_3, 14, 191, 2812, 43238);
+    }
+
+    @Test
+    public void shouldCountPromotionAndCastlingNodes() throws InvalidFenPositionException {
+        assertNodes(POSITION_4, 6, 264, 9467);
+        assertNodes(POSITION_5, 44, 1486, 62379);
+    }
+
+    @Test
+    public void shouldDivideByRootMove() throws InvalidFenPositionException {
+        PerftResult result = Perft.divide(FenParser.parse(FenParser.START_POSITION), 3);
+        assertEquals(8902, result.getNodes());
+        assertEquals(20, result.getDivide().size());
+        assertEquals(Long.valueOf(600), result.getDivide().get("e2e4"));
+        assertEquals(Long.valueOf(440), result.getDivide().get("g1f3"));
+        assertEquals(result.getNodes(),
+                result.getDivide().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void shouldLeaveBoardUnchanged() throws InvalidFenPositionException {
+        Board board = FenParser.parse(KIWIPETE);
+        Board copy = new Board(board);
+        Perft.divide(board, 2);
+        assertEquals(copy, board);
+    }
+
+    @Test
+    public void shouldFindMismatchesBetweenDivides() throws InvalidFenPositionException {
+        PerftResult expected = Perft.divide(FenParser.parse(FenParser.START_POSITION), 2);
+        PerftResult actual = PerftResult.builder()
+                .depth(2)
+                .nodes(399)
+                .divide(Map.of("a2a3", 19L, "a2a4", 20L))
+                .build();
+        Map<String, long[]> mismatches = expected.mismatches(actual);
+        assertEquals(19, mismatches.size());
+        assertArrayEquals(new long[]{20, 19}, mismatches.get("a2a3"));
+        assertArrayEquals(new long[]{20, -1}, mismatches.get("e2e4"));
+        assertFalse(mismatches.containsKey("a2a4"));
+    }
+
+    @Test
+    public void shouldComputeNodesPerSecond() {
+        assertEquals(2000, PerftResult.builder().nodes(1000)
+                .elapsedNanos(500_000_000).build().getNodesPerSecond());
+        assertEquals(0, PerftResult.builder().nodes(1000).build()
+                .getNodesPerSecond());
+    }
+
+    @Test
+    public void shouldThrowExceptionForNonPositiveDepth() throws InvalidFenPositionException {
+        Board board = FenParser.parse(FenParser.START_POSITION);
+        assertThrows(IllegalArgumentException.class, () -> Perft.perft(board, 0));
+        assertThrows(IllegalArgumentException.class, () -> Perft.divide(board, -1));
+    }
+
+    private static void assertNodes(String fen, long... expectedNodes) throws InvalidFenPositionException {
+        Board board = FenParser.parse(fen);
+        for (int depth = 1; depth <= expectedNodes.length; depth++) {
+            assertEquals("depth " + depth, expectedNodes[depth - 1],
+                    Perft.perft(board, depth).getNodes());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.xchess.pgn;
+
+import com.xchess.board.FenParser;
+import com.xchess.exceptions.InvalidPgnException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PgnReaderTest {
+    private static final String GAMES = """
+            [Event "Casual \\"blitz\\""]
+            [White "M\u00fcller"]
+            [Black "Smith"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 {main line} Nc6 (2... d6 3. d4) 3. Bc4 Nf6?!
+            4. Ng5 d5 5. exd5 Na5 $6 6. Bb5+ c6 7. dxc6 bxc6 8. Qf3 1-0
+
+            [Event "From position"]
+            [FEN "4k3/P7/8/8/8/8/8/4K3 w - - 0 1"]
+
+            1. a8=Q+ Kd7 1/2-1/2
+            % escaped line 1. e4
+            ; a line comment
+            1.d4 d5 2.c4 *
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadGamesOneByOne() throws IOException, InvalidPgnException {
+        try (PgnReader reader = reader(GAMES)) {
+            PgnGame first = reader.next();
+            assertEquals("Casual \"blitz\"", first.getTag("Event"));
+            assertEquals("M\u00fcller", first.getTag("White"));
+            assertEquals("1-0", first.getResult());
+            assertEquals(List.of("e2e4", "e7e5", "g1f3", "b8c6", "f1c4",
+                    "g8f6", "f3g5", "d7d5", "e4d5", "c6a5", "c4b5", "c7c6",
+                    "d5c6", "b7c6", "d1f3"), first.getUciMoves());
+            assertEquals(FenParser.START_POSITION, first.getStartFen());
+
+            PgnGame second = reader.next();
+            assertEquals("4k3/P7/8/8/8/8/8/4K3 w - - 0 1",
+                    second.getStartFen());
+            assertEquals(List.of("a7a8q", "e8d7"), second.getUciMoves());
+            assertEquals("1/2-1/2", second.getResult());
+
+            PgnGame third = reader.next();
+            assertTrue(third.getTags().isEmpty());
+            assertEquals(List.of("d2d4", "d7d5", "c2c4"), third.getUciMoves());
+            assertEquals("*", third.getResult());
+
+            assertNull(reader.next());
+            assertEquals(3, reader.getGameCount());
+        }
+    }
+
+    @Test
+    public void shouldReplayPositions() throws Exception {
+        try (PgnReader reader = reader("1. e4 c5 2. Nf3 *")) {
+            List<String> fens = new ArrayList<>();
+            reader.next().forEachPosition(board -> fens.add(board.toFen()));
+            assertEquals(4, fens.size());
+            assertEquals(FenParser.START_POSITION, fens.get(0));
+            assertEquals("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R " +
+                    "b KQkq - 1 2", fens.get(3));
+        }
+    }
+
+    @Test
+    public void shouldGoOnAfterInvalidGame() throws IOException, InvalidPgnException {
+        try (PgnReader reader = reader("""
+                [Event "Broken"]
+                1. e4 e5 2. Ke3 Nc6 1-0
+                [Event "Fine"]
+                1. d4 *
+                """)) {
+            InvalidPgnException exception =
+                    assertThrows(InvalidPgnException.class, reader::next);
+            assertTrue(exception.getMessage().contains("Ke3"));
+            assertTrue(exception.getMessage().contains("ply 3"));
+            assertEquals("Fine", reader.next().getTag("Event"));
+        }
+    }
+
+    @Test
+    public void shouldStartNewGameWhenResultIsMissing() throws IOException,
+            InvalidPgnException {
+        try (PgnReader reader = reader("""
+                [Event "A"]
+                1. e4
+                [Event "B"]
+                1. d4 *
+                """)) {
+            PgnGame first = reader.next();
+            assertNull(first.getResult());
+            assertEquals(List.of("e2e4"), first.getUciMoves());
+            assertEquals("B", reader.next().getTag("Event"));
+        }
+    }
+
+    @Test
+    public void shouldReadBothCastlingNotations() throws IOException,
+            InvalidPgnException {
+        List<String> expected = List.of("e2e4", "e7e5", "g1f3", "b8c6",
+                "f1c4", "f8c5", "e1g1", "g8f6");
+        for (String castling : List.of("O-O", "0-0")) {
+            try (PgnReader reader = reader("1. e4 e5 2. Nf3 Nc6 3. Bc4 Bc5 " +
+                    "4. " + castling + " Nf6 1-0")) {
+                PgnGame game = reader.next();
+                assertEquals(castling, expected, game.getUciMoves());
+                assertEquals("1-0", game.getResult());
+            }
+        }
+        try (PgnReader reader = reader("[FEN \"r3k3/8/8/8/8/8/8/4K3 b q - " +
+                "0 1\"]\n\n1... 0-0-0 2.Kf1 0-1")) {
+            PgnGame game = reader.next();
+            assertEquals(List.of("e8c8", "e1f1"), game.getUciMoves());
+            assertEquals("0-1", game.getResult());
+        }
+    }
+
+    @Test
+    public void shouldReadMemoryMappedFile() throws IOException,
+            InvalidPgnException {
+        Path path = folder.newFile("games.pgn").toPath();
+        StringBuilder games = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            games.append(GAMES).append('\n');
+        }
+        Files.writeString(path, games);
+        int count = 0;
+        try (PgnReader reader = PgnReader.open(path)) {
+            while (reader.next() != null) {
+                count++;
+            }
+        }
+        assertEquals(3000, count);
+    }
+
+    private static PgnReader reader(String pgn) {
+        return new PgnReader(new ByteArrayInputStream(
+                pgn.getBytes(StandardCharsets.UTF_8)));
+    }
+}
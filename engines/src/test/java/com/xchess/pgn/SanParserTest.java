@@ -0,0 +1,68 @@
+package com.xchess.pgn;
+
+import com.xchess.board.Board;
+import com.xchess.board.FenParser;
+import com.xchess.board.Move;
+import com.xchess.exceptions.InvalidFenPositionException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SanParserTest {
+    @Test
+    public void shouldParsePawnAndPieceMoves() throws InvalidFenPositionException {
+        Board start = FenParser.parse(FenParser.START_POSITION);
+        assertEquals("e2e4", parse(start, "e4"));
+        assertEquals("g1f3", parse(start, "Nf3"));
+        assertEquals("b1c3", parse(start, "Nc3!?"));
+        assertEquals(Move.NONE, SanParser.parse(start, "e5"));
+        assertEquals(Move.NONE, SanParser.parse(start, "Bc4"));
+        assertEquals(Move.NONE, SanParser.parse(start, "Zz9"));
+        assertEquals(Move.NONE, SanParser.parse(start, "+"));
+    }
+
+    @Test
+    public void shouldParseCapturesAndEnPassant() throws InvalidFenPositionException {
+        Board board = FenParser.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP" +
+                "/RNBQKBNR w KQkq f6 0 3");
+        int move = SanParser.parse(board, "exf6");
+        assertEquals("e5f6", Move.toUci(move));
+        assertTrue(Move.hasFlag(move, Move.EN_PASSANT));
+        assertEquals("d1h5", parse(board, "Qh5+"));
+    }
+
+    @Test
+    public void shouldUseDisambiguation() throws InvalidFenPositionException {
+        Board board = FenParser.parse("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+        assertEquals(Move.NONE, SanParser.parse(board, "Rd1"));
+        assertEquals("a1d1", parse(board, "Rad1"));
+        assertEquals("h1f1", parse(board, "Rhf1"));
+
+        Board knights = FenParser.parse("4k3/8/8/1N6/8/1N6/8/4K3 w - - 0 1");
+        assertEquals("b5d4", parse(knights, "N5d4"));
+        assertEquals("b3d4", parse(knights, "N3xd4"));
+    }
+
+    @Test
+    public void shouldParsePromotions() throws InvalidFenPositionException {
+        Board board = FenParser.parse("1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        assertEquals("a7a8q", parse(board, "a8=Q+"));
+        assertEquals("a7b8n", parse(board, "axb8N"));
+        assertEquals(Move.NONE, SanParser.parse(board, "a8"));
+    }
+
+    @Test
+    public void shouldParseCastling() throws InvalidFenPositionException {
+        Board board = FenParser.parse("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1");
+        assertEquals("e8g8", parse(board, "O-O"));
+        assertEquals("e8c8", parse(board, "0-0-0"));
+        assertEquals(Move.NONE, SanParser.parse(board, "O-O-O-O"));
+        assertTrue(Move.hasFlag(SanParser.parse(board, "O-O"), Move.CASTLING));
+    }
+
+    private static String parse(Board board, String san) {
+        int move = SanParser.parse(board, san);
+        assertNotEquals(san, Move.NONE, move);
+        return Move.toUci(move);
+    }
+}
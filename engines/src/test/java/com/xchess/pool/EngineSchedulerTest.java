@@ -0,0 +1,310 @@
+package com.xchess.pool;
+
+import com.xchess.ChessEngine;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class EngineSchedulerTest {
+    private EngineScheduler subject;
+
+    @After
+    public void tearDown() {
+        if (this.subject != null) {
+            this.subject.close();
+        }
+    }
+
+    @Test
+    public void shouldRunInteractiveTasksBeforeBatchTasks() throws Exception {
+        this.subject = new EngineScheduler(List.of(mock(ChessEngine.class)))
+                .setPreemption(false);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?> blocker = this.subject.submit(Priority.BATCH,
+                null, engine -> release.await(5, TimeUnit.SECONDS));
+        CompletableFuture<?> batch = this.subject.submit(Priority.BATCH, null,
+                engine -> order.add("batch"));
+        CompletableFuture<?> interactive =
+                this.subject.submit(Priority.INTERACTIVE, null,
+                        engine -> order.add("interactive"));
+        release.countDown();
+        CompletableFuture.allOf(blocker, batch, interactive).get(5,
+                TimeUnit.SECONDS);
+        assertEquals(List.of("interactive", "batch"), order);
+    }
+
+    @Test
+    public void shouldRunEarliestDeadlineFirst() throws Exception {
+        this.subject = new EngineScheduler(List.of(mock(ChessEngine.class)));
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?> blocker = this.subject.submit(Priority.INTERACTIVE,
+                null, engine -> release.await(5, TimeUnit.SECONDS));
+        CompletableFuture<?> noDeadline =
+                this.subject.submit(Priority.INTERACTIVE, null,
+                        engine -> order.add("none"));
+        CompletableFuture<?> late = this.subject.submit(Priority.INTERACTIVE,
+                Duration.ofSeconds(20), engine -> order.add("late"));
+        CompletableFuture<?> early = this.subject.submit(Priority.INTERACTIVE,
+                Duration.ofSeconds(10), engine -> order.add("early"));
+        release.countDown();
+        CompletableFuture.allOf(blocker, noDeadline, late, early).get(5,
+                TimeUnit.SECONDS);
+        assertEquals(List.of("early", "late", "none"), order);
+    }
+
+    @Test
+    public void shouldFailTaskWhoseDeadlineIsReachedBeforeStarting() throws Exception {
+        this.subject = new EngineScheduler(List.of(mock(ChessEngine.class)));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?> blocker = this.subject.submit(Priority.INTERACTIVE,
+                null, engine -> release.await(5, TimeUnit.SECONDS));
+        CompletableFuture<?> expiring =
+                this.subject.submit(Priority.INTERACTIVE, Duration.ofMillis(1),
+                        engine -> "too late");
+        Thread.sleep(20);
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> expiring.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+    }
+
+    @Test
+    public void shouldFailExpiredTaskWhileEnginesAreBusy() throws Exception {
+        this.subject = new EngineScheduler(List.of(mock(ChessEngine.class)));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?> blocker = this.subject.submit(Priority.INTERACTIVE,
+                null, engine -> release.await(10, TimeUnit.SECONDS));
+        CompletableFuture<?> expiring =
+                this.subject.submit(Priority.INTERACTIVE, Duration.ofMillis(50),
+                        engine -> "too late");
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> expiring.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+        assertFalse(blocker.isDone());
+        assertEquals(0, this.subject.getPendingCount());
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldRespectConcurrencyLimit() throws Exception {
+        this.subject = new EngineScheduler(List.of(mock(ChessEngine.class),
+                mock(ChessEngine.class), mock(ChessEngine.class)))
+                .setConcurrencyLimit(Priority.BATCH, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tasks.add(this.subject.submit(Priority.BATCH, null,
+                    engine -> release.await(5, TimeUnit.SECONDS)));
+        }
+        assertEquals(1, this.subject.getRunningCount(Priority.BATCH));
+        assertEquals(2, this.subject.getPendingCount());
+        assertEquals("free", this.subject.submit(Priority.INTERACTIVE, null,
+                engine -> "free").get(5, TimeUnit.SECONDS));
+        release.countDown();
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).get(5,
+                TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldStopBatchSearchForInteractiveTaskAndRunItAgain() throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        Semaphore stopped = new Semaphore(0);
+        doAnswer(invocation -> {
+            stopped.release();
+            return null;
+        }).when(engine).stopSearch();
+        this.subject = new EngineScheduler(List.of(engine));
+        List<String> runs = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch batchStarted = new CountDownLatch(1);
+        CompletableFuture<String> batch = this.subject.submit(Priority.BATCH,
+                null, chessEngine -> {
+                    runs.add("batch");
+                    batchStarted.countDown();
+                    // First run waits for the stop command, second run is
+                    // not interrupted
+                    return runs.size() == 1 && stopped.tryAcquire(5,
+                            TimeUnit.SECONDS) ? "shallow" : "complete";
+                });
+        assertTrue(batchStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> interactive =
+                this.subject.submit(Priority.INTERACTIVE, null,
+                        chessEngine -> {
+                            runs.add("interactive");
+                            return "hint";
+                        });
+        assertEquals("hint", interactive.get(5, TimeUnit.SECONDS));
+        assertEquals("complete", batch.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("batch", "interactive", "batch"), runs);
+        assertEquals(1, this.subject.getPreemptionCount());
+        verify(engine, times(1)).stopSearch();
+    }
+
+    @Test
+    public void shouldRunPreemptedTaskAgainAfterItsDeadline() throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        Semaphore stopped = new Semaphore(0);
+        doAnswer(invocation -> {
+            stopped.release();
+            return null;
+        }).when(engine).stopSearch();
+        this.subject = new EngineScheduler(List.of(engine));
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch batchStarted = new CountDownLatch(1);
+        CompletableFuture<String> batch = this.subject.submit(Priority.BATCH,
+                Duration.ofMillis(50), chessEngine -> {
+                    batchStarted.countDown();
+                    return runs.incrementAndGet() == 1 && stopped.tryAcquire(5,
+                            TimeUnit.SECONDS) ? "shallow" : "complete";
+                });
+        assertTrue(batchStarted.await(5, TimeUnit.SECONDS));
+        // The deadline is reached while the batch task runs
+        Thread.sleep(150);
+        CompletableFuture<String> interactive =
+                this.subject.submit(Priority.INTERACTIVE, null,
+                        chessEngine -> "hint");
+
+        assertEquals("hint", interactive.get(5, TimeUnit.SECONDS));
+        assertEquals("complete", batch.get(5, TimeUnit.SECONDS));
+        assertEquals(2, runs.get());
+        assertEquals(1, this.subject.getPreemptionCount());
+    }
+
+    @Test
+    public void shouldRouteGameTasksToSameEngine() throws Exception {
+        ChessEngine first = mock(ChessEngine.class);
+        ChessEngine second = mock(ChessEngine.class);
+        this.subject = new EngineScheduler(List.of(first, second));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ChessEngine> gameA = this.subject.submit(
+                Priority.INTERACTIVE, null, "a", engine -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return engine;
+                });
+        CompletableFuture<ChessEngine> gameB = this.subject.submit(
+                Priority.INTERACTIVE, null, "b", engine -> engine);
+        release.countDown();
+        ChessEngine engineA = gameA.get(5, TimeUnit.SECONDS);
+        ChessEngine engineB = gameB.get(5, TimeUnit.SECONDS);
+        assertNotSame(engineA, engineB);
+
+        for (int i = 0; i < 3; i++) {
+            assertSame(engineB, this.subject.submit(Priority.INTERACTIVE, null,
+                    "b", engine -> engine).get(5, TimeUnit.SECONDS));
+            assertSame(engineA, this.subject.submit(Priority.BATCH, null,
+                    "a", engine -> engine).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(6, this.subject.getAffinityHitCount());
+        assertEquals(0, this.subject.getAffinityMissCount());
+    }
+
+    @Test
+    public void shouldMoveGameToIdleEngineWhenItsEngineIsBusy() throws Exception {
+        this.subject = new EngineScheduler(List.of(mock(ChessEngine.class),
+                mock(ChessEngine.class)));
+        ChessEngine gameEngine = this.subject.submit(Priority.INTERACTIVE,
+                null, "a", engine -> engine).get(5, TimeUnit.SECONDS);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<ChessEngine> blocker = this.subject.submit(
+                Priority.BATCH, null, "other", engine -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return engine;
+                });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        ChessEngine fallback = this.subject.submit(Priority.INTERACTIVE, null,
+                "a", engine -> engine).get(5, TimeUnit.SECONDS);
+        assertNotSame(gameEngine, fallback);
+        assertEquals(1, this.subject.getAffinityMissCount());
+        release.countDown();
+        assertSame(gameEngine, blocker.get(5, TimeUnit.SECONDS));
+        assertSame(fallback, this.subject.submit(Priority.INTERACTIVE, null,
+                "a", engine -> engine).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldForgetReleasedAndLeastRecentlyUsedGames() throws Exception {
+        this.subject = new EngineScheduler(List.of(mock(ChessEngine.class)))
+                .setMaxTrackedGames(1);
+        this.subject.submit(Priority.INTERACTIVE, null, "a",
+                engine -> engine).get(5, TimeUnit.SECONDS);
+        this.subject.submit(Priority.INTERACTIVE, null, "b",
+                engine -> engine).get(5, TimeUnit.SECONDS);
+        this.subject.submit(Priority.INTERACTIVE, null, "a",
+                engine -> engine).get(5, TimeUnit.SECONDS);
+        this.subject.releaseGame("a");
+        this.subject.submit(Priority.INTERACTIVE, null, "a",
+                engine -> engine).get(5, TimeUnit.SECONDS);
+        assertEquals(0, this.subject.getAffinityHitCount());
+    }
+
+    @Test
+    public void shouldAnalyzeThroughScheduler() throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        EvaluationParameters parameters =
+                EvaluationParameters.builder().depth(5).build();
+        when(engine.findBestMove(parameters)).thenReturn("e2e4");
+        this.subject = new EngineScheduler(List.of(engine));
+        String fen = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+        assertEquals("e2e4", this.subject.asAnalyzer(Priority.INTERACTIVE,
+                null).findBestMove(fen, parameters));
+        verify(engine, times(1)).moveToFenPosition(fen, false);
+    }
+
+    @Test
+    public void shouldNotRunCancelledPendingTasks() throws Exception {
+        this.subject = new EngineScheduler(List.of(mock(ChessEngine.class)));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?> blocker = this.subject.submit(Priority.BATCH,
+                null, engine -> release.await(5, TimeUnit.SECONDS));
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<?> cancelled = this.subject.submit(Priority.BATCH,
+                null, engine -> runs.incrementAndGet());
+        cancelled.cancel(false);
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+
+        assertEquals("next", this.subject.submit(Priority.BATCH, null,
+                engine -> "next").get(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertEquals(0, this.subject.getPendingCount());
+    }
+
+    @Test
+    public void shouldCancelPendingTasksOnClose() throws Exception {
+        this.subject = new EngineScheduler(List.of(mock(ChessEngine.class)));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<?> blocker = this.subject.submit(Priority.BATCH,
+                null, engine -> release.await(5, TimeUnit.SECONDS));
+        CompletableFuture<?> pending = this.subject.submit(Priority.BATCH,
+                null, engine -> "never");
+        this.subject.close();
+        assertTrue(pending.isCancelled());
+        assertThrows(RejectedExecutionException.class,
+                () -> this.subject.submit(Priority.BATCH, null, engine -> 1));
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldThrowExceptionWithoutEngines() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new EngineScheduler(List.of()));
+    }
+}
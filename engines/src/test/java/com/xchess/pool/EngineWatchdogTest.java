@@ -0,0 +1,171 @@
+package com.xchess.pool;
+
+import com.xchess.ChessEngine;
+import com.xchess.startup.EngineFactory;
+import com.xchess.startup.LazyChessEngine;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class EngineWatchdogTest {
+    private EngineScheduler scheduler;
+    private EngineWatchdog subject;
+
+    @After
+    public void tearDown() {
+        if (this.subject != null) {
+            this.subject.close();
+        }
+        if (this.scheduler != null) {
+            this.scheduler.close();
+        }
+    }
+
+    @Test
+    public void shouldQuarantineSlowEngineUntilFastAgain() throws Exception {
+        AtomicBoolean slow = new AtomicBoolean(true);
+        ChessEngine slowEngine = mock(ChessEngine.class);
+        when(slowEngine.healthCheck()).thenAnswer(sleepingAnswer(slow, 60));
+        ChessEngine fastEngine = mock(ChessEngine.class);
+        when(fastEngine.healthCheck()).thenReturn(true);
+        createSubject(List.of(slowEngine, fastEngine));
+
+        this.subject.checkNow();
+        assertFalse(this.subject.getHealth(0).isQuarantined());
+        this.subject.checkNow();
+        assertTrue(this.subject.getHealth(0).isQuarantined());
+        assertEquals(0, this.subject.getHealth(0).getSampleCount());
+        assertFalse(this.subject.getHealth(1).isQuarantined());
+        assertEquals(2, this.subject.getHealth(1).getSampleCount());
+
+        List<ChessEngine> used = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 3; i++) {
+            this.scheduler.submit(Priority.INTERACTIVE, null, used::add)
+                    .get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of(fastEngine, fastEngine, fastEngine), used);
+        assertFalse(this.scheduler.tryReserve(slowEngine));
+
+        slow.set(false);
+        this.subject.checkNow();
+        assertTrue(this.subject.getHealth(0).isQuarantined());
+        this.subject.checkNow();
+        assertFalse(this.subject.getHealth(0).isQuarantined());
+        assertTrue(this.scheduler.tryReserve(slowEngine));
+        this.scheduler.release(slowEngine);
+    }
+
+    @Test
+    public void shouldRestartLazyEngineNotAnswering() throws Exception {
+        ChessEngine hung = mock(ChessEngine.class);
+        when(hung.healthCheck()).thenReturn(false);
+        ChessEngine healthy = mock(ChessEngine.class);
+        when(healthy.healthCheck()).thenReturn(true);
+        @SuppressWarnings("unchecked")
+        EngineFactory<ChessEngine> factory = mock(EngineFactory.class);
+        when(factory.create()).thenReturn(hung, healthy);
+        LazyChessEngine<ChessEngine> lazy = new LazyChessEngine<>(factory);
+        ChessEngine other = mock(ChessEngine.class);
+        when(other.healthCheck()).thenReturn(true);
+        createSubject(List.of(lazy, other));
+
+        this.subject.checkNow();
+        verify(factory, never()).create();
+
+        lazy.get();
+        this.subject.checkNow();
+        verify(hung).stop();
+        assertSame(healthy, lazy.get());
+        EngineHealth health = this.subject.getHealth(0);
+        assertEquals(1, health.getFailedPingCount());
+        assertEquals(1, health.getRestartCount());
+        assertFalse(health.isQuarantined());
+    }
+
+    @Test
+    public void shouldNotPingBusyEngines() throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        createSubject(List.of(engine, mock(ChessEngine.class)));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> task = this.scheduler.submit(
+                Priority.BATCH, null, running -> {
+                    if (running == engine) {
+                        started.countDown();
+                        return release.await(5, TimeUnit.SECONDS);
+                    }
+                    return false;
+                });
+        if (!task.isDone()) {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            this.subject.checkNow();
+            verify(engine, never()).healthCheck();
+        }
+        release.countDown();
+        task.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldKeepOneEngineInRotation() throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        when(engine.healthCheck()).thenReturn(false);
+        createSubject(List.of(engine));
+
+        this.subject.checkNow();
+
+        assertFalse(this.subject.getHealth(0).isQuarantined());
+        assertEquals(1, this.subject.getHealth(0).getFailedPingCount());
+        assertSame(engine, this.scheduler.submit(Priority.INTERACTIVE, null,
+                running -> running).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldNotEvictEngineForOneSlowPingByDefault() throws Exception {
+        AtomicBoolean slow = new AtomicBoolean(true);
+        ChessEngine engine = mock(ChessEngine.class);
+        when(engine.healthCheck()).thenAnswer(invocation -> {
+            if (slow.getAndSet(false)) {
+                Thread.sleep(300);
+            }
+            return true;
+        });
+        this.scheduler = new EngineScheduler(List.of(engine,
+                mock(ChessEngine.class)));
+        this.subject = new EngineWatchdog(this.scheduler);
+
+        for (int i = 0; i < 32; i++) {
+            this.subject.checkNow();
+            assertFalse(this.subject.getHealth(0).isQuarantined());
+        }
+        assertEquals(32, this.subject.getHealth(0).getSampleCount());
+    }
+
+    private void createSubject(List<ChessEngine> engines) {
+        this.scheduler = new EngineScheduler(engines);
+        this.subject = new EngineWatchdog(this.scheduler)
+                .setLatencyThreshold(Duration.ofMillis(30), 99)
+                .setWindow(4, 2);
+    }
+
+    private static Answer<Boolean> sleepingAnswer(AtomicBoolean slow,
+                                                  long millis) {
+        return invocation -> {
+            if (slow.get()) {
+                Thread.sleep(millis);
+            }
+            return true;
+        };
+    }
+}
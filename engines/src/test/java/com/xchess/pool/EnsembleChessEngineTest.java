@@ -0,0 +1,153 @@
+package com.xchess.pool;
+
+import com.xchess.ChessEngine;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class EnsembleChessEngineTest {
+    private static final EvaluationParameters PARAMETERS =
+            EvaluationParameters.builder().depth(12).build();
+
+    @Test
+    public void shouldReturnFirstResultAndStopOtherEngines() throws Exception {
+        CountDownLatch slowStopped = new CountDownLatch(1);
+        ChessEngine fast = engine(15f, "e2e4", 10, 0);
+        ChessEngine slow = mock(ChessEngine.class);
+        when(slow.search(any())).thenAnswer(invocation -> {
+            assertTrue(slowStopped.await(5, TimeUnit.SECONDS));
+            return result("d2d4", 20);
+        });
+        doAnswer(invocation -> {
+            slowStopped.countDown();
+            return null;
+        }).when(slow).stopSearch();
+        EnsembleChessEngine ensemble = new EnsembleChessEngine(List.of(slow, fast));
+
+        assertEquals("e2e4", ensemble.findBestMove(PARAMETERS));
+        EnsembleReport report = ensemble.getLastReport();
+        assertEquals(1, report.getChosenIndex());
+        assertEquals(-1, report.getOutcomes().get(0).getLatencyNanos());
+        assertFalse(report.getOutcomes().get(0).isSucceeded());
+        assertTrue(report.getOutcomes().get(1).getLatencyNanos() >= 0);
+        assertEquals(15f, report.getOutcomes().get(1).getEngineVersion(), 0);
+        assertEquals(1, report.getAgreement(), 0);
+        verify(slow).stopSearch();
+        verify(fast, never()).stopSearch();
+    }
+
+    @Test
+    public void shouldPickMajorityMove() throws Exception {
+        EnsembleChessEngine ensemble = new EnsembleChessEngine(List.of(
+                engine(15f, "d2d4", 25, 0),
+                engine(16f, "e2e4", 12, 0),
+                engine(17f, "e2e4", 14, 0)))
+                .setStrategy(EnsembleStrategy.MAJORITY);
+
+        SearchResult result = ensemble.search(PARAMETERS);
+        assertEquals("e2e4", result.getBestMove());
+        assertEquals(14, result.getDepth());
+        assertEquals(2, ensemble.getLastReport().getChosenIndex());
+        assertEquals(2.0 / 3, ensemble.getLastReport().getAgreement(), 1e-9);
+        assertEquals(List.of(15f, 16f, 17f), ensemble.getEngineVersions());
+    }
+
+    @Test
+    public void shouldPickDeepestResultWithinDeadline() throws Exception {
+        ChessEngine late = mock(ChessEngine.class);
+        CountDownLatch lateStopped = new CountDownLatch(1);
+        when(late.search(any())).thenAnswer(invocation -> {
+            assertTrue(lateStopped.await(5, TimeUnit.SECONDS));
+            return result("g1f3", 18);
+        });
+        doAnswer(invocation -> {
+            lateStopped.countDown();
+            return null;
+        }).when(late).stopSearch();
+        ChessEngine failing = mock(ChessEngine.class);
+        when(failing.search(any())).thenThrow(new IOException("Broken pipe"));
+        EnsembleChessEngine ensemble = new EnsembleChessEngine(List.of(
+                engine(15f, "e2e4", 10, 0), late, failing))
+                .setStrategy(EnsembleStrategy.DEEPEST)
+                .setDeadline(Duration.ofMillis(50));
+
+        assertEquals("g1f3", ensemble.findBestMove(PARAMETERS));
+        EnsembleReport report = ensemble.getLastReport();
+        assertEquals(1, report.getChosenIndex());
+        assertEquals("Broken pipe", report.getOutcomes().get(2).getFailure()
+                .getMessage());
+        assertEquals(0.5, report.getAgreement(), 0);
+    }
+
+    @Test
+    public void shouldFailWhenEveryEngineFails() throws Exception {
+        ChessEngine failing = mock(ChessEngine.class);
+        when(failing.search(any())).thenThrow(new IOException("Broken pipe"));
+        EnsembleChessEngine ensemble = new EnsembleChessEngine(List.of(failing,
+                failing));
+        assertThrows(IOException.class, () -> ensemble.search(PARAMETERS));
+    }
+
+    @Test
+    public void shouldGiveEvaluationFromWhitePointOfView() throws Exception {
+        ChessEngine engine = engine(15f, "e7e5", 10, -35);
+        when(engine.getFenPosition()).thenReturn("rnbqkbnr/pppppppp/8/8/4P3" +
+                "/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        EnsembleChessEngine ensemble = new EnsembleChessEngine(List.of(engine));
+        assertEquals(new ChessEngineEvaluation(ChessEngineEvaluationType.CENTIPAWNS,
+                35), ensemble.getPositionEvaluation(PARAMETERS));
+    }
+
+    @Test
+    public void shouldSendPositionToEveryEngine() throws Exception {
+        ChessEngine first = mock(ChessEngine.class);
+        ChessEngine second = mock(ChessEngine.class);
+        doThrow(new InvalidFenPositionException("bad")).when(second)
+                .moveToFenPosition("bad", false);
+        when(first.getPossibleMoves()).thenReturn(List.of("e2e4"));
+        EnsembleChessEngine ensemble = new EnsembleChessEngine(List.of(first,
+                second));
+
+        ensemble.moveToFenPosition("fen", true);
+        verify(first).moveToFenPosition("fen", true);
+        verify(second).moveToFenPosition("fen", true);
+        assertThrows(InvalidFenPositionException.class,
+                () -> ensemble.moveToFenPosition("bad", false));
+        assertEquals(List.of("e2e4"), ensemble.getPossibleMoves());
+        verify(second, never()).getPossibleMoves();
+
+        ensemble.stop();
+        verify(first).stop();
+        verify(second).stop();
+    }
+
+    private static ChessEngine engine(Float version, String bestMove,
+                                      int depth, int score) throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        when(engine.getEngineVersion()).thenReturn(version);
+        when(engine.search(any())).thenReturn(result(bestMove, depth, score));
+        return engine;
+    }
+
+    private static SearchResult result(String bestMove, int depth) throws IOException {
+        return result(bestMove, depth, 0);
+    }
+
+    private static SearchResult result(String bestMove, int depth, int score) throws IOException {
+        return SearchResult.parse(List.of("info depth " + depth + " score cp " +
+                score + " nodes 1000 time 10 pv " + bestMove, "bestmove " + bestMove));
+    }
+}
@@ -0,0 +1,34 @@
+package com.xchess.pool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyWindowTest {
+    @Test
+    public void shouldComputeNearestRankPercentiles() {
+        LatencyWindow window = new LatencyWindow(10);
+        assertEquals(-1, window.percentile(50));
+        for (long sample : new long[]{50, 10, 40, 20, 30}) {
+            window.record(sample);
+        }
+        assertEquals(5, window.size());
+        assertEquals(30, window.percentile(50));
+        assertEquals(50, window.percentile(99));
+        assertEquals(10, window.percentile(1));
+    }
+
+    @Test
+    public void shouldKeepLastSamples() {
+        LatencyWindow window = new LatencyWindow(3);
+        for (long sample = 1; sample <= 5; sample++) {
+            window.record(sample * 100);
+        }
+        assertEquals(3, window.size());
+        assertEquals(300, window.percentile(1));
+        assertEquals(500, window.percentile(100));
+        window.clear();
+        assertEquals(0, window.size());
+        assertEquals(-1, window.percentile(50));
+    }
+}
@@ -0,0 +1,130 @@
+package com.xchess.pool;
+
+import com.xchess.ChessEngine;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class QueuedChessEngineTest {
+    private static final EvaluationParameters PARAMETERS =
+            EvaluationParameters.builder().depth(5).build();
+
+    @Test
+    public void shouldRunCommandsInOrderOnOneThread() throws Exception {
+        QueuedChessEngine engine = new QueuedChessEngine(mock(ChessEngine.class));
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            futures.add(engine.submit(delegate -> {
+                order.add(index);
+                threads.add(Thread.currentThread());
+                return index;
+            }));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), futures.get(i).get(1, TimeUnit.SECONDS));
+            assertEquals(Integer.valueOf(i), order.get(i));
+        }
+        assertEquals(1, threads.size());
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void shouldForwardBlockingCallsAndFailures() throws Exception {
+        ChessEngine delegate = mock(ChessEngine.class);
+        when(delegate.findBestMove(PARAMETERS)).thenReturn("e2e4");
+        doThrow(new InvalidFenPositionException("bad")).when(delegate)
+                .moveToFenPosition("bad", true);
+        when(delegate.getFenPosition()).thenThrow(new TimeoutException());
+        QueuedChessEngine engine = new QueuedChessEngine(delegate);
+
+        assertEquals("e2e4", engine.findBestMove(PARAMETERS));
+        assertThrows(InvalidFenPositionException.class,
+                () -> engine.moveToFenPosition("bad", true));
+        assertThrows(TimeoutException.class, engine::getFenPosition);
+    }
+
+    @Test
+    public void shouldChainCallsInAsyncCommands() throws Exception {
+        ChessEngine delegate = mock(ChessEngine.class);
+        when(delegate.findBestMove(PARAMETERS)).thenReturn("d2d4");
+        QueuedChessEngine engine = new QueuedChessEngine(delegate);
+
+        assertEquals("d2d4", engine.findBestMoveAsync("fen", PARAMETERS)
+                .get(1, TimeUnit.SECONDS));
+        verify(delegate).moveToFenPosition("fen", false);
+    }
+
+    @Test
+    public void shouldStopSearchWithoutWaitingForQueue() throws Exception {
+        ChessEngine delegate = mock(ChessEngine.class);
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        when(delegate.findBestMove(any())).thenAnswer(invocation -> {
+            searching.countDown();
+            assertTrue(stopped.await(1, TimeUnit.SECONDS));
+            return "e2e4";
+        });
+        doAnswer(invocation -> {
+            stopped.countDown();
+            return null;
+        }).when(delegate).stopSearch();
+        QueuedChessEngine engine = new QueuedChessEngine(delegate);
+
+        CompletableFuture<String> search =
+                engine.submit(queued -> queued.findBestMove(PARAMETERS));
+        CompletableFuture<String> next = engine.submit(ChessEngine::getFenPosition);
+        assertTrue(searching.await(1, TimeUnit.SECONDS));
+        assertEquals(1, engine.getPendingCount());
+        engine.stopSearch();
+        assertEquals("e2e4", search.get(1, TimeUnit.SECONDS));
+        next.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldRunQueuedCommandsBeforeStopping() throws Exception {
+        ChessEngine delegate = mock(ChessEngine.class);
+        QueuedChessEngine engine = new QueuedChessEngine(delegate);
+        CompletableFuture<String> pending = engine.submit(queued -> {
+            Thread.sleep(50);
+            return "done";
+        });
+
+        engine.stop();
+        assertEquals("done", pending.getNow(null));
+        verify(delegate).stop();
+        assertThrows(RejectedExecutionException.class,
+                () -> engine.submit(ChessEngine::getFenPosition));
+        assertFalse(engine.healthCheck());
+        engine.stop();
+        verify(delegate, times(1)).stop();
+    }
+
+    @Test
+    public void shouldReportUnhealthyEngine() throws IOException {
+        ChessEngine delegate = mock(ChessEngine.class);
+        when(delegate.healthCheck()).thenReturn(true, false);
+        QueuedChessEngine engine = new QueuedChessEngine(delegate);
+        assertTrue(engine.healthCheck());
+        assertFalse(engine.healthCheck());
+        engine.stop();
+    }
+}
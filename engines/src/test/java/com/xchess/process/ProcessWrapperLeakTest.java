@@ -0,0 +1,63 @@
+package com.xchess.process;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Start and stop many short-lived processes, checking that no process,
+ * stdout reader thread or file descriptor is left behind. The number of
+ * cycles can be set with the "process.leak.cycles" system property
+ */
+public class ProcessWrapperLeakTest {
+    private static final String CAT = "/bin/cat";
+    private static final int CYCLES = Integer.getInteger(
+            "process.leak.cycles", 10_000);
+
+    @Test
+    public void shouldReleaseEverythingWhenCyclingProcesses() throws IOException,
+            TimeoutException {
+        Assume.assumeTrue(new File(CAT).canExecute());
+        int liveProcesses = LiveProcesses.count();
+        long readerThreads = countReaderThreads();
+        long descriptors = countFileDescriptors();
+
+        for (int i = 0; i < CYCLES; i++) {
+            try (ProcessWrapper wrapper = new ProcessWrapper(CAT)) {
+                wrapper.start();
+                // cat echoes the command back, as an engine would answer
+                wrapper.writeCommand("readyok");
+                assertEquals(List.of("readyok"),
+                        wrapper.readLinesUntil("readyok", 5000));
+            }
+        }
+
+        assertEquals(liveProcesses, LiveProcesses.count());
+        assertEquals(readerThreads, countReaderThreads());
+        if (descriptors >= 0) {
+            // Allow for descriptors opened by the JVM meanwhile
+            assertEquals(descriptors, countFileDescriptors(), 16);
+        }
+    }
+
+    private static long countReaderThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread instanceof StdoutReaderThread)
+                .count();
+    }
+
+    /**
+     * @return The number of open file descriptors, or -1 if the platform
+     * does not list them
+     */
+    private static long countFileDescriptors() {
+        String[] descriptors = new File("/proc/self/fd").list();
+        return descriptors == null ? -1 : descriptors.length;
+    }
+}
@@ -2,24 +2,30 @@ package com.xchess.process;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class ProcessWrapperTest {
     private ProcessWrapper subject;
     private Process process;
-    private BufferedReader stdoutReader;
+    private InputStream stdout;
     private StdoutReaderThread stdoutReaderThread;
     private BufferedWriter writer;
 
@@ -30,10 +36,10 @@ public class ProcessWrapperTest {
         this.process = mock(Process.class);
         this.subject.setProcess(this.process);
 
-        this.stdoutReader = mock(BufferedReader.class);
-        this.subject.setStdoutReader(stdoutReader);
+        this.stdout = mock(InputStream.class);
+        this.subject.setStdout(stdout);
         this.stdoutReaderThread =
-                new StdoutReaderThread(stdoutReader, process);
+                new StdoutReaderThread(stdout, process);
         this.subject.setStdoutReaderThread(stdoutReaderThread);
 
         this.writer = mock(BufferedWriter.class);
@@ -44,7 +50,7 @@ public class ProcessWrapperTest {
     public void testShouldCloseStreamOnStop() throws IOException {
         this.subject.stop();
 
-        verify(this.stdoutReader, times(1)).close();
+        verify(this.stdout, times(1)).close();
         verify(this.writer, times(1)).close();
     }
 
@@ -55,6 +61,40 @@ public class ProcessWrapperTest {
         verify(this.process, times(1)).destroy();
     }
 
+    @Test
+    public void shouldLetProcessExitOnItsOwnOnStop() throws IOException,
+            InterruptedException {
+        when(this.process.waitFor(anyLong(), any(TimeUnit.class))).thenReturn(true);
+
+        this.subject.stop();
+
+        verify(this.process, never()).destroy();
+        verify(this.process, never()).destroyForcibly();
+    }
+
+    @Test
+    public void shouldKillProcessIgnoringTermination() throws IOException,
+            InterruptedException {
+        this.subject.setStopTimeoutInMs(10);
+        when(this.process.waitFor(anyLong(), any(TimeUnit.class))).thenReturn(false);
+
+        this.subject.stop();
+
+        InOrder inOrder = inOrder(this.writer, this.process);
+        inOrder.verify(this.writer).close();
+        inOrder.verify(this.process).destroy();
+        inOrder.verify(this.process).destroyForcibly();
+    }
+
+    @Test
+    public void shouldStopOnlyOnce() throws IOException {
+        this.subject.close();
+        this.subject.stop();
+
+        verify(this.writer, times(1)).close();
+        verify(this.stdout, times(1)).close();
+    }
+
     @Test
     public void shouldReturnInputMessagesListWhenReadUntilPattern() throws IOException, TimeoutException {
         String breakMessage = "STOP";
@@ -92,7 +132,7 @@ public class ProcessWrapperTest {
     @Test
     public void shouldThrowExceptionIfReadlineThrowsException() throws IOException {
         String breakMessage = "STOP";
-        when(this.stdoutReader.readLine()).thenThrow(IOException.class);
+        when(this.stdout.read(any(byte[].class), anyInt(), anyInt())).thenThrow(IOException.class);
         assertThrows(IOException.class,
                 () -> this.subject.readLinesUntil(breakMessage, 5000));
     }
@@ -105,23 +145,82 @@ public class ProcessWrapperTest {
         verify(this.writer, times(1)).flush();
     }
 
-    private List<String> prepareLinesRead(String breakMessage) throws IOException {
-        AtomicInteger readCount = new AtomicInteger();
+    @Test
+    public void shouldFlushOnceAfterWritingCommands() throws IOException {
+        this.subject.writeCommands(List.of("ucinewgame", "position startpos",
+                "isready"));
+
+        verify(this.writer, times(1)).write("ucinewgame");
+        verify(this.writer, times(1)).write("position startpos");
+        verify(this.writer, times(1)).write("isready");
+        verify(this.writer, times(3)).newLine();
+        verify(this.writer, times(1)).flush();
+    }
+
+    @Test
+    public void shouldNotInterleaveCommandsWrittenFromSeveralThreads() throws Exception {
+        StringWriter output = new StringWriter();
+        this.subject.setWriter(new BufferedWriter(output, 16));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String command = "command-" + t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        if (i % 2 == 0) {
+                            this.subject.writeCommand(command);
+                        } else {
+                            this.subject.writeCommands(List.of(command, command));
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        String[] lines = output.toString().split(System.lineSeparator());
+        assertEquals(4 * 750, lines.length);
+        for (String line : lines) {
+            assertTrue(line, line.matches("command-[0-3]"));
+        }
+    }
+
+    @Test
+    public void shouldNotKeepLinesRejectedByFilter() throws IOException,
+            TimeoutException {
+        String output = "info depth 1 currmove e2e4 currmovenumber 1\n" +
+                "info depth 1 score cp 20 pv e2e4\n" +
+                "bestmove e2e4\n";
+        this.stdoutReaderThread = new StdoutReaderThread(
+                new ByteArrayInputStream(output.getBytes(StandardCharsets.US_ASCII)),
+                process, UciLineFilter.SKIP_UNSCORED_INFO);
+        this.subject.setStdoutReaderThread(this.stdoutReaderThread);
+        stdoutReaderThread.start();
+        when(this.process.isAlive()).thenReturn(true);
+        assertEquals(List.of("info depth 1 score cp 20 pv e2e4",
+                        "bestmove e2e4"),
+                this.subject.readLinesUntil(Pattern.compile("^bestmove.*$"),
+                        5000));
+    }
+
+    private List<String> prepareLinesRead(String breakMessage) {
         List<String> expected = new ArrayList<>();
-        when(this.stdoutReader.readLine()).thenAnswer(invocation -> {
-            String response;
-            if (readCount.get() < 4) {
-                response = "READ " + readCount.getAndIncrement();
-                expected.add(response);
-            } else if (readCount.get() == 4) {
-                response = breakMessage;
-                readCount.getAndIncrement();
-                expected.add(response);
-            } else {
-                response = "";
-            }
-            return response;
-        });
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            expected.add("READ " + i);
+            output.append("READ ").append(i).append("\n");
+        }
+        expected.add(breakMessage);
+        output.append(breakMessage).append("\n\n");
+        this.stdoutReaderThread = new StdoutReaderThread(
+                new ByteArrayInputStream(output.toString().getBytes(StandardCharsets.US_ASCII)),
+                process);
+        this.subject.setStdoutReaderThread(this.stdoutReaderThread);
         return expected;
     }
 }
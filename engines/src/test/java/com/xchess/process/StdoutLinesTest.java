@@ -0,0 +1,83 @@
+package com.xchess.process;
+
+import com.xchess.exceptions.ProcessKilledException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StdoutLinesTest {
+    private Process process;
+    private StdoutLines subject;
+
+    @Before
+    public void setUp() {
+        this.process = mock(Process.class);
+        when(this.process.isAlive()).thenReturn(true);
+        this.subject = new StdoutLines(process, UciLineFilter.ALL);
+    }
+
+    @Test
+    public void shouldKeepLinesAfterMatchingOne() throws TimeoutException,
+            ProcessKilledException {
+        this.subject.add("a");
+        this.subject.add("STOP");
+        this.subject.add("b");
+        assertEquals(List.of("a", "STOP"),
+                this.subject.getLinesUntil("STOP"::equals, 100));
+        assertEquals(List.of("b"), this.subject.getLines());
+    }
+
+    @Test
+    public void shouldNotLoseLinesOnTimeout() throws TimeoutException,
+            ProcessKilledException {
+        this.subject.add("a");
+        assertThrows(TimeoutException.class,
+                () -> this.subject.getLinesUntil("STOP"::equals, 20));
+        this.subject.add("STOP");
+        assertEquals(List.of("a", "STOP"),
+                this.subject.getLinesUntil("STOP"::equals, 100));
+    }
+
+    @Test
+    public void shouldWakeUpWhenMatchingLineArrives() throws Exception {
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.subject.add("STOP");
+        });
+        producer.start();
+        assertEquals(List.of("STOP"),
+                this.subject.getLinesUntil("STOP"::equals, 5000));
+        producer.join();
+    }
+
+    @Test
+    public void shouldThrowExceptionIfProcessIsDead() {
+        when(this.process.isAlive()).thenReturn(false);
+        assertThrows(ProcessKilledException.class,
+                () -> this.subject.getLinesUntil("STOP"::equals, 100));
+    }
+
+    @Test
+    public void shouldOnlyKeepLinesAcceptedByFilter() {
+        this.subject = new StdoutLines(process,
+                UciLineFilter.SKIP_UNSCORED_INFO);
+        byte[] info = "info depth 1 currmove e2e4".getBytes(StandardCharsets.US_ASCII);
+        byte[] bestMove = "bestmove e2e4".getBytes(StandardCharsets.US_ASCII);
+        this.subject.onLine(UciLineType.of(info, 0, info.length), info, 0,
+                info.length);
+        this.subject.onLine(UciLineType.of(bestMove, 0, bestMove.length),
+                bestMove, 0, bestMove.length);
+        assertEquals(List.of("bestmove e2e4"), this.subject.getLines());
+    }
+}
@@ -0,0 +1,126 @@
+package com.xchess.process;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StdoutReactorTest {
+    private StdoutReactor subject;
+
+    @Before
+    public void setUp() {
+        this.subject = new StdoutReactor(2);
+    }
+
+    @After
+    public void tearDown() {
+        this.subject.close();
+    }
+
+    @Test
+    public void shouldReadManyProcessesWithFewThreads() throws Exception {
+        int processCount = 200;
+        List<StdoutLines> allLines = new ArrayList<>();
+        for (int i = 0; i < processCount; i++) {
+            Process process = mock(Process.class);
+            when(process.isAlive()).thenReturn(true);
+            StdoutLines lines = new StdoutLines(process, UciLineFilter.ALL);
+            allLines.add(lines);
+            String output = "info depth 1 score cp " + i + "\nbestmove e2e4\n";
+            this.subject.register(new ByteArrayInputStream(
+                    output.getBytes(StandardCharsets.US_ASCII)), process, lines);
+        }
+        for (int i = 0; i < processCount; i++) {
+            assertEquals(List.of("info depth 1 score cp " + i, "bestmove e2e4"),
+                    allLines.get(i).getLinesUntil(line -> line.startsWith(
+                            "bestmove"), 5000));
+        }
+    }
+
+    @Test
+    public void shouldReadOutputWrittenAfterRegistration() throws Exception {
+        Process process = mock(Process.class);
+        when(process.isAlive()).thenReturn(true);
+        PipedOutputStream stdin = new PipedOutputStream();
+        StdoutLines lines = new StdoutLines(process, UciLineFilter.ALL);
+        this.subject.register(new PipedInputStream(stdin), process, lines);
+
+        stdin.write("readyok\n".getBytes(StandardCharsets.US_ASCII));
+        stdin.flush();
+        assertEquals(List.of("readyok"), lines.getLinesUntil("readyok"::equals,
+                5000));
+    }
+
+    @Test
+    public void shouldDropStreamOfDeadProcessAfterReadingIt() throws Exception {
+        Process process = mock(Process.class);
+        StdoutLines lines = new StdoutLines(process, UciLineFilter.ALL);
+        List<String> received = new ArrayList<>();
+        this.subject.register(new ByteArrayInputStream(
+                "bestmove e2e4\npartial".getBytes(StandardCharsets.US_ASCII)),
+                process, (type, buffer, offset, length) -> {
+                    synchronized (received) {
+                        received.add(UciOutputParser.toString(buffer, offset,
+                                length));
+                    }
+                });
+        waitForRegisteredCount(0);
+        synchronized (received) {
+            assertEquals(List.of("bestmove e2e4", "partial"), received);
+        }
+        assertTrue(lines.getLines().isEmpty());
+    }
+
+    @Test
+    public void shouldStopReadingUnregisteredStream() throws Exception {
+        Process process = mock(Process.class);
+        when(process.isAlive()).thenReturn(true);
+        PipedInputStream stdout = new PipedInputStream(new PipedOutputStream());
+        this.subject.register(stdout, process, (type, buffer, offset,
+                                                length) -> {
+        });
+        assertEquals(1, this.subject.getRegisteredCount());
+        this.subject.unregister(stdout);
+        assertEquals(0, this.subject.getRegisteredCount());
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidThreadCount() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StdoutReactor(0));
+    }
+
+    @Test
+    public void shouldNotRegisterOnClosedReactor() throws IOException {
+        this.subject.close();
+        assertThrows(IllegalStateException.class,
+                () -> this.subject.register(new ByteArrayInputStream(new byte[0]),
+                        mock(Process.class), (type, buffer, offset,
+                                              length) -> {
+                        }));
+    }
+
+    private void waitForRegisteredCount(int count) throws InterruptedException,
+            TimeoutException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (this.subject.getRegisteredCount() != count) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new TimeoutException();
+            }
+            Thread.sleep(5);
+        }
+    }
+}
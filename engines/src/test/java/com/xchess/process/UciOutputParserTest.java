@@ -0,0 +1,97 @@
+package com.xchess.process;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UciOutputParserTest {
+    private List<String> lines;
+    private List<UciLineType> types;
+    private UciLineHandler handler;
+
+    @Before
+    public void setUp() {
+        this.lines = new ArrayList<>();
+        this.types = new ArrayList<>();
+        this.handler = (type, buffer, offset, length) -> {
+            this.types.add(type);
+            this.lines.add(UciOutputParser.toString(buffer, offset, length));
+        };
+    }
+
+    @Test
+    public void shouldSplitStreamIntoLines() throws IOException {
+        parse("Stockfish 14.1 by the Stockfish developers\nreadyok\n");
+        assertEquals(List.of("Stockfish 14.1 by the Stockfish developers",
+                "readyok"), lines);
+    }
+
+    @Test
+    public void shouldRecogniseLineTypes() throws IOException {
+        parse("info depth 1 score cp 20\nbestmove e2e4 ponder e7e5\nreadyok\n" +
+                "Nodes searched: 20\nFen: 8/8/8/8/8/8/8/8 w - - 0 1\n" +
+                "Checkers:\nreadyokay\ninformation\n");
+        assertEquals(List.of(UciLineType.INFO, UciLineType.BESTMOVE,
+                UciLineType.READYOK, UciLineType.NODES_SEARCHED,
+                UciLineType.FEN, UciLineType.OTHER, UciLineType.OTHER,
+                UciLineType.OTHER), types);
+    }
+
+    @Test
+    public void shouldStripCarriageReturnAndSkipEmptyLines() throws IOException {
+        parse("readyok\r\n\r\n\nbestmove a2a4\r\n");
+        assertEquals(List.of("readyok", "bestmove a2a4"), lines);
+    }
+
+    @Test
+    public void shouldDispatchLastLineWithoutTerminatorAtEndOfStream() throws IOException {
+        parse("readyok\nbestmove (none)");
+        assertEquals(List.of("readyok", "bestmove (none)"), lines);
+    }
+
+    @Test
+    public void shouldJoinLinesSplitAcrossChunks() {
+        UciOutputParser parser = new UciOutputParser(
+                new ByteArrayInputStream(new byte[0]), handler);
+        byte[] bytes = ("info depth 1 score cp 20 nodes 20 pv e2e4\nbest" +
+                "move e2e4\n").getBytes(StandardCharsets.US_ASCII);
+        for (byte b : bytes) {
+            parser.feed(new byte[]{b}, 0, 1);
+        }
+        assertEquals(List.of("info depth 1 score cp 20 nodes 20 pv e2e4",
+                "bestmove e2e4"), lines);
+        assertEquals(List.of(UciLineType.INFO, UciLineType.BESTMOVE), types);
+    }
+
+    @Test
+    public void shouldReadOnlyAvailableBytes() throws IOException {
+        UciOutputParser parser = new UciOutputParser(
+                new ByteArrayInputStream("readyok\nbestmove".getBytes(StandardCharsets.US_ASCII)),
+                handler);
+        assertEquals(16, parser.readAvailable());
+        assertEquals(List.of("readyok"), lines);
+        parser.flush();
+        assertEquals(List.of("readyok", "bestmove"), lines);
+    }
+
+    @Test
+    public void shouldFindNeedleInLine() {
+        byte[] line = "info depth 1 score cp 20".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(UciOutputParser.contains(line, 0, line.length,
+                UciOutputParser.SCORE_TOKEN));
+        assertFalse(UciOutputParser.contains(line, 0, 12,
+                UciOutputParser.SCORE_TOKEN));
+    }
+
+    private void parse(String output) throws IOException {
+        new UciOutputParser(new ByteArrayInputStream(
+                output.getBytes(StandardCharsets.US_ASCII)), handler).readAll();
+    }
+}
@@ -0,0 +1,90 @@
+package com.xchess.startup;
+
+import com.xchess.ChessEngine;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class LazyChessEngineTest {
+    @Test
+    public void shouldStartEngineOnFirstUseOnly() throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        EvaluationParameters parameters =
+                EvaluationParameters.builder().depth(1).build();
+        when(engine.findBestMove(parameters)).thenReturn("e2e4");
+        AtomicInteger starts = new AtomicInteger();
+        LazyChessEngine<ChessEngine> subject = new LazyChessEngine<>(() -> {
+            starts.incrementAndGet();
+            return engine;
+        });
+
+        assertFalse(subject.isStarted());
+        assertEquals(-1, subject.getStartupNanos());
+        assertTrue(subject.healthCheck());
+        subject.stopSearch();
+        assertEquals(0, starts.get());
+
+        assertEquals("e2e4", subject.findBestMove(parameters));
+        subject.moveToStartPosition(true);
+        assertTrue(subject.isStarted());
+        assertTrue(subject.getStartupNanos() >= 0);
+        assertEquals(1, starts.get());
+        verify(engine).moveToStartPosition(true);
+    }
+
+    @Test
+    public void shouldStartAgainAfterStop() throws Exception {
+        AtomicInteger starts = new AtomicInteger();
+        LazyChessEngine<ChessEngine> subject = new LazyChessEngine<>(() -> {
+            starts.incrementAndGet();
+            return mock(ChessEngine.class);
+        });
+        subject.stop();
+        assertEquals(0, starts.get());
+
+        ChessEngine first = subject.get();
+        subject.stop();
+        verify(first).stop();
+        assertFalse(subject.isStarted());
+        assertNotSame(first, subject.get());
+        assertEquals(2, starts.get());
+    }
+
+    @Test
+    public void shouldRetryFailedStartup() throws Exception {
+        AtomicInteger starts = new AtomicInteger();
+        LazyChessEngine<ChessEngine> subject = new LazyChessEngine<>(() -> {
+            if (starts.incrementAndGet() == 1) {
+                throw new IOException("busy");
+            }
+            return mock(ChessEngine.class);
+        });
+        assertThrows(IOException.class, subject::getFenPosition);
+        assertThrows(IllegalStateException.class, () -> {
+            starts.set(0);
+            subject.getEngineVersion();
+        });
+        subject.getFenPosition();
+        assertTrue(subject.isStarted());
+    }
+
+    @Test
+    public void shouldThrowEngineFailuresAsIs() throws Exception {
+        ChessEngine engine = mock(ChessEngine.class);
+        InvalidFenPositionException failure =
+                new InvalidFenPositionException("invalid");
+        doThrow(failure).when(engine).moveToFenPosition("invalid", true);
+        LazyChessEngine<ChessEngine> subject =
+                new LazyChessEngine<>(() -> engine);
+
+        assertSame(failure, assertThrows(InvalidFenPositionException.class,
+                () -> subject.moveToFenPosition("invalid", true)));
+        assertSame(engine, subject.get());
+    }
+}
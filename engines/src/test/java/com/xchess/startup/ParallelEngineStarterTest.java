@@ -0,0 +1,83 @@
+package com.xchess.startup;
+
+import com.xchess.ChessEngine;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ParallelEngineStarterTest {
+    @Test
+    public void shouldStartEnginesConcurrently() throws Exception {
+        int count = 4;
+        CountDownLatch allStarting = new CountDownLatch(count);
+        List<EngineStartup<ChessEngine>> startups =
+                ParallelEngineStarter.startAll(() -> {
+                    allStarting.countDown();
+                    // Only returns if every engine is starting at once
+                    try {
+                        if (!allStarting.await(5, TimeUnit.SECONDS)) {
+                            throw new TimeoutException();
+                        }
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return mock(ChessEngine.class);
+                }, count);
+
+        assertEquals(count, startups.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, startups.get(i).getIndex());
+            assertNotNull(startups.get(i).getEngine());
+            assertTrue(startups.get(i).getElapsedNanos() > 0);
+        }
+    }
+
+    @Test
+    public void shouldLimitParallelism() throws Exception {
+        AtomicInteger starting = new AtomicInteger();
+        AtomicInteger maxStarting = new AtomicInteger();
+        ParallelEngineStarter.startAll(() -> {
+            maxStarting.accumulateAndGet(starting.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            starting.decrementAndGet();
+            return mock(ChessEngine.class);
+        }, 6, 2);
+        assertTrue(maxStarting.get() <= 2);
+    }
+
+    @Test
+    public void shouldStopStartedEnginesIfOneFails() throws Exception {
+        ChessEngine started = mock(ChessEngine.class);
+        AtomicInteger calls = new AtomicInteger();
+        IOException exception = assertThrows(IOException.class,
+                () -> ParallelEngineStarter.startAll(() -> {
+                    if (calls.incrementAndGet() == 2) {
+                        throw new IOException("no binary");
+                    }
+                    return started;
+                }, 3, 1));
+        assertEquals("no binary", exception.getMessage());
+        verify(started, times(2)).stop();
+    }
+
+    @Test
+    public void shouldReturnEmptyListWithoutEngines() throws Exception {
+        assertTrue(ParallelEngineStarter.startAll(() -> mock(ChessEngine.class),
+                0).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelEngineStarter.startAll(() -> mock(ChessEngine.class),
+                        -1));
+    }
+}
@@ -0,0 +1,46 @@
+package com.xchess.uci;
+
+import com.xchess.exceptions.InvalidUciOptionException;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UciOptionRegistryTest {
+    private final UciOptionRegistry subject = UciOptionRegistry.parse(List.of(
+            "Stockfish 16 by the Stockfish developers (see AUTHORS file)",
+            "id name Stockfish 16",
+            "option name Threads type spin default 1 min 1 max 1024",
+            "option name UCI_ShowWDL type check default false",
+            "uciok"));
+
+    @Test
+    public void shouldOnlyKeepOptionLines() {
+        assertEquals(2, subject.getOptions().size());
+        assertEquals("Threads", subject.getOptions().get(0).getName());
+    }
+
+    @Test
+    public void shouldFindOptionsIgnoringCase() {
+        assertTrue(subject.contains("threads"));
+        assertTrue(subject.contains("uci_showwdl"));
+        assertFalse(subject.contains("Slow Mover"));
+        assertNull(subject.get("Slow Mover"));
+    }
+
+    @Test
+    public void shouldBuildValidatedCommands() throws InvalidUciOptionException {
+        assertEquals("setoption name Threads value 8",
+                subject.buildCommand("threads", "8"));
+        assertThrows(InvalidUciOptionException.class,
+                () -> subject.buildCommand("Threads", "2048"));
+        assertThrows(InvalidUciOptionException.class,
+                () -> subject.buildCommand("Slow Mover", "100"));
+    }
+
+    @Test
+    public void shouldBeEmptyWithoutOptionLines() {
+        assertTrue(UciOptionRegistry.parse(List.of("readyok")).isEmpty());
+    }
+}
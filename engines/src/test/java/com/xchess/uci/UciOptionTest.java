@@ -0,0 +1,83 @@
+package com.xchess.uci;
+
+import com.xchess.exceptions.InvalidUciOptionException;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UciOptionTest {
+    @Test
+    public void shouldParseSpinOption() {
+        UciOption option = UciOption.parse("option name Hash type spin " +
+                "default 16 min 1 max 33554432");
+        assertNotNull(option);
+        assertEquals("Hash", option.getName());
+        assertEquals(UciOptionType.SPIN, option.getType());
+        assertEquals("16", option.getDefaultValue());
+        assertEquals(Integer.valueOf(1), option.getMin());
+        assertEquals(Integer.valueOf(33554432), option.getMax());
+    }
+
+    @Test
+    public void shouldParseNamesWithSpacesAndEmptyDefaults() {
+        UciOption debugLogFile = UciOption.parse("option name Debug Log File " +
+                "type string default ");
+        assertEquals("Debug Log File", debugLogFile.getName());
+        assertEquals("", debugLogFile.getDefaultValue());
+        assertEquals("", UciOption.parse("option name SyzygyPath type string" +
+                " default <empty>").getDefaultValue());
+    }
+
+    @Test
+    public void shouldParseComboAndButtonOptions() {
+        UciOption combo = UciOption.parse("option name Analysis Contempt type" +
+                " combo default Both var Off var White var Black var Both");
+        assertEquals(List.of("Off", "White", "Black", "Both"), combo.getVars());
+        assertEquals("Both", combo.getDefaultValue());
+
+        UciOption button = UciOption.parse("option name Clear Hash type button");
+        assertEquals(UciOptionType.BUTTON, button.getType());
+        assertNull(button.getDefaultValue());
+    }
+
+    @Test
+    public void shouldNotParseOtherLines() {
+        assertNull(UciOption.parse("id name Stockfish 16"));
+        assertNull(UciOption.parse("option name Hash"));
+        assertNull(UciOption.parse("option name Hash type unknown"));
+        assertNull(UciOption.parse("option name Hash type spin min one"));
+    }
+
+    @Test
+    public void shouldValidateValues() throws InvalidUciOptionException {
+        UciOption spin = UciOption.parse("option name MultiPV type spin " +
+                "default 1 min 1 max 500");
+        spin.validate("500");
+        assertThrows(InvalidUciOptionException.class, () -> spin.validate("0"));
+        assertThrows(InvalidUciOptionException.class,
+                () -> spin.validate("many"));
+
+        UciOption check = UciOption.parse("option name Ponder type check " +
+                "default false");
+        check.validate("true");
+        assertThrows(InvalidUciOptionException.class,
+                () -> check.validate("1"));
+
+        UciOption combo = UciOption.parse("option name Style type combo " +
+                "default Normal var Solid var Normal");
+        combo.validate("solid");
+        assertThrows(InvalidUciOptionException.class,
+                () -> combo.validate("Risky"));
+    }
+
+    @Test
+    public void shouldBuildCommands() throws InvalidUciOptionException {
+        assertEquals("setoption name Clear Hash", UciOption.parse("option name" +
+                " Clear Hash type button").buildCommand(null));
+        assertEquals("setoption name EvalFile value nn.nnue",
+                UciOption.parse("option name EvalFile type string default " +
+                        "nn-5af11540bbfe.nnue").buildCommand("nn.nnue"));
+    }
+}
@@ -97,4 +97,21 @@ public class FenSyntaxValidatorTest {
                 "/8" +
                 "/6P1/8/PPPPPP12P/RNBQKBNR b KQkq - 0 1"));
     }
+
+    @Test
+    public void testShouldNotValidateIfRankIsTooWide() {
+        assertFalse(FenSyntaxValidator.isFenSyntaxValid("rnbqkbnr/pppppppp/8" +
+                "/8" +
+                "/6P2/8/PPPPPP1P/RNBQKBNR b KQkq - 0 1"));
+    }
+
+    @Test
+    public void testShouldNotValidateIfPositionIsInconsistent() {
+        assertTrue(FenSyntaxValidator.isFenValid("rnbqkbnr/pppppppp/8" +
+                "/8" +
+                "/6P1/8/PPPPPP1P/RNBQKBNR b KQkq - 0 1"));
+        assertFalse(FenSyntaxValidator.isFenValid("rnbq1bnr/pppppppp/8" +
+                "/8" +
+                "/6P1/8/PPPPPP1P/RNBQKBNR b KQkq - 0 1"));
+    }
 }
@@ -2,6 +2,9 @@ package com.xchess.validators;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -40,4 +43,18 @@ public class MoveValidatorTest {
     public void testShouldReturnFalseIfInvalidMoveSize() {
         assertFalse(MoveValidator.isMoveValid("a2i"));
     }
+
+    @Test
+    public void testShouldReturnIndexOfFirstInvalidMove() {
+        assertEquals(2, MoveValidator.findFirstInvalidMove(Arrays.asList(
+                "e2e4", "e7e5q", "e7e9", "a2i8")));
+    }
+
+    @Test
+    public void testShouldReturnMinusOneIfAllMovesAreValid() {
+        assertEquals(-1, MoveValidator.findFirstInvalidMove(Arrays.asList(
+                "e2e4", "e7e5", "g7g8N")));
+        assertTrue(MoveValidator.areMovesValid(Arrays.asList("e2e4")));
+        assertFalse(MoveValidator.areMovesValid(Arrays.asList("e2e4", "")));
+    }
 }
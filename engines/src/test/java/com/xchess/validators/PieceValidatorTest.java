@@ -25,4 +25,21 @@ public class PieceValidatorTest {
     public void shouldReturnFalseIfPieceNotValid() {
         assertFalse(PieceValidator.isPromotablePieceValid("a"));
     }
+
+    @Test
+    public void shouldAcceptBothCases() {
+        assertTrue(PieceValidator.isPieceValid("K"));
+        assertTrue(PieceValidator.isPromotablePieceValid('Q'));
+    }
+
+    @Test
+    public void shouldReturnFalseIfPieceHasWrongLength() {
+        assertFalse(PieceValidator.isPieceValid("qq"));
+        assertFalse(PieceValidator.isPromotablePieceValid(""));
+    }
+
+    @Test
+    public void shouldReturnFalseIfCharIsOutOfTable() {
+        assertFalse(PieceValidator.isPieceValid('\u00e9'));
+    }
 }
@@ -15,4 +15,22 @@ public class SquareValidatorTest {
     public void shouldReturnFalseIfSquareIsNotValid() {
         assertFalse(SquareValidator.isSquareSyntaxValid("q9"));
     }
+
+    @Test
+    public void shouldReturnFalseIfSquareHasWrongLength() {
+        assertFalse(SquareValidator.isSquareSyntaxValid("a"));
+        assertFalse(SquareValidator.isSquareSyntaxValid("a44"));
+    }
+
+    @Test
+    public void shouldReturnFalseIfSquareIsUppercase() {
+        assertFalse(SquareValidator.isSquareSyntaxValid("A4"));
+    }
+
+    @Test
+    public void shouldValidateSquareInsideText() {
+        assertTrue(SquareValidator.isSquareSyntaxValid("e2h8", 2));
+        assertFalse(SquareValidator.isSquareSyntaxValid("e2h9", 2));
+        assertFalse(SquareValidator.isSquareSyntaxValid("e2h", 2));
+    }
 }
@@ -0,0 +1,109 @@
+package com.xchess.validators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Micro benchmark comparing the lookup table validators with the previous
+ * regex and list based implementations, kept here as reference. Not run by
+ * the test suite, launch the main method from the test classpath
+ */
+public class ValidatorBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int MOVE_COUNT = 100_000;
+
+    public static void main(String[] args) {
+        List<String> moves = randomMoves(new Random(42));
+        List<String> validMoves =
+                moves.stream().filter(MoveValidator::isMoveValid).toList();
+        run("legacy isMoveValid", moves, ValidatorBenchmark::legacyIsMoveValid);
+        run("isMoveValid", moves, MoveValidator::isMoveValid);
+        run("legacy bulk validation", validMoves,
+                ValidatorBenchmark::legacyFindFirstInvalidMove);
+        run("findFirstInvalidMove", validMoves,
+                MoveValidator::findFirstInvalidMove);
+    }
+
+    private interface Validation {
+        Object apply(String move);
+    }
+
+    private interface BulkValidation {
+        int apply(List<String> moves);
+    }
+
+    private static void run(String name, List<String> moves,
+                            Validation validation) {
+        run(name, moves, (BulkValidation) list -> {
+            int valid = 0;
+            for (String move : list) {
+                if (Boolean.TRUE.equals(validation.apply(move))) {
+                    valid++;
+                }
+            }
+            return valid;
+        });
+    }
+
+    private static void run(String name, List<String> moves,
+                            BulkValidation validation) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += validation.apply(moves);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += validation.apply(moves);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-24s %8.1f ns/move (sink %d)%n", name,
+                (double) elapsed / ((long) MEASURED_ROUNDS * moves.size()),
+                sink);
+    }
+
+    private static List<String> randomMoves(Random random) {
+        String chars = "abcdefghi123456789qrbnk";
+        List<String> moves = new ArrayList<>(MOVE_COUNT);
+        for (int i = 0; i < MOVE_COUNT; i++) {
+            StringBuilder move = new StringBuilder();
+            move.append((char) ('a' + random.nextInt(8)))
+                    .append((char) ('1' + random.nextInt(8)))
+                    .append((char) ('a' + random.nextInt(8)))
+                    .append((char) ('1' + random.nextInt(8)));
+            if (random.nextInt(10) == 0) {
+                move.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            if (random.nextInt(50) == 0) {
+                move.setCharAt(random.nextInt(move.length()),
+                        chars.charAt(random.nextInt(chars.length())));
+            }
+            moves.add(move.toString());
+        }
+        return moves;
+    }
+
+    private static int legacyFindFirstInvalidMove(List<String> moves) {
+        List<String> lowerCasesMoves =
+                moves.stream().map(String::toLowerCase).toList();
+        return lowerCasesMoves.stream().map(ValidatorBenchmark::legacyIsMoveValid).toList().indexOf(false);
+    }
+
+    private static boolean legacyIsMoveValid(String move) {
+        if (move.length() == 4) {
+            return legacyIsSquareSyntaxValid(move.substring(0, 2)) &&
+                    legacyIsSquareSyntaxValid(move.substring(2));
+        }
+        if (move.length() == 5) {
+            return legacyIsMoveValid(move.substring(0, 4)) &&
+                    Arrays.asList("q", "r", "b", "n").contains(move.substring(4).toLowerCase());
+        }
+        return false;
+    }
+
+    private static boolean legacyIsSquareSyntaxValid(String square) {
+        return square.matches("^[a-h][1-8]$");
+    }
+}
@@ -0,0 +1,530 @@
+package com.xchess.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.xchess.board.FenParser;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.exceptions.InvalidFenPositionException;
+import com.xchess.exceptions.InvalidSquareSyntaxException;
+import com.xchess.pool.EngineScheduler;
+import com.xchess.pool.EngineTask;
+import com.xchess.pool.Priority;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * HTTP server exposing the engines of an {@link EngineScheduler} as a
+ * JSON service. Every endpoint takes a POST request with a JSON object
+ * body:
+ * <ul>
+ *     <li>{@code /evaluate}: search a position, answering the best move,
+ *     the evaluation and the search statistics</li>
+ *     <li>{@code /bestmove}: find the best move of a position</li>
+ *     <li>{@code /moves}: list the legal moves of a position, or of one of
+ *     its squares with a "square" field</li>
+ *     <li>{@code /batch}: evaluate the positions of a "positions" array at
+ *     batch priority. Each entry is a FEN or an object with the fields of
+ *     an {@code /evaluate} request, the other fields of the batch request
+ *     being used as defaults</li>
+ *     <li>{@code /analyze/stream}: search a position, sending each
+ *     principal variation as an "info" server-sent event and the result as
+ *     a "bestmove" event</li>
+ * </ul>
+ * Positions are given by a "fen" field, the start position being used
+ * without it. Searches are limited by the "depth", "nodes", "movetime"
+ * and "mate" fields, the default depth being used when none is given, and
+ * restricted to the moves of a "searchMoves" array. A "gameId" field binds
+ * the request to a game, so that it runs on the engine which analyzed the
+ * previous positions of the game. Evaluations are given from white point
+ * of view, as by {@link com.xchess.ChessEngine#getPositionEvaluation}.
+ * <p>
+ * Connections are kept alive between requests. Failures are answered with
+ * a JSON object holding an "error" field: 400 for invalid requests, 502
+ * when the engine fails, 503 when the scheduler does not accept requests
+ * anymore and 504 when no engine is available before the deadline
+ */
+public class EngineServer implements Closeable {
+    public static final int DEFAULT_DEPTH = 15;
+    private static final String JSON_CONTENT_TYPE = "application/json; " +
+            "charset=utf-8";
+
+    private final EngineScheduler scheduler;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile Duration deadline;
+    private volatile int defaultDepth;
+
+    /**
+     * @param scheduler The scheduler running the requests. It is not closed
+     *                  with the server
+     * @param address   The address to listen to, with port 0 for any free
+     *                  port
+     * @throws IOException If the address cannot be bound
+     */
+    public EngineServer(EngineScheduler scheduler, InetSocketAddress address) throws IOException {
+        this.scheduler = scheduler;
+        this.defaultDepth = DEFAULT_DEPTH;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "engine-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext("/evaluate",
+                exchange -> handle(exchange, this::evaluate));
+        this.server.createContext("/bestmove",
+                exchange -> handle(exchange, this::findBestMove));
+        this.server.createContext("/moves",
+                exchange -> handle(exchange, this::getPossibleMoves));
+        this.server.createContext("/batch",
+                exchange -> handle(exchange, this::analyzeBatch));
+        this.server.createContext("/analyze/stream", this::stream);
+        this.server.createContext("/", exchange -> {
+            try {
+                exchange.getRequestBody().readAllBytes();
+                sendJson(exchange, 404, error("Unknown endpoint"));
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    /**
+     * @param deadline The maximum time a request waits for an engine, or
+     *                 null to wait as long as needed
+     * @return the server
+     */
+    public EngineServer setDeadline(Duration deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    /**
+     * @param defaultDepth The depth of searches without any limit, strictly
+     *                     positive
+     * @return the server
+     */
+    public EngineServer setDefaultDepth(int defaultDepth) {
+        if (defaultDepth <= 0) {
+            throw new IllegalArgumentException("Default depth should be " +
+                    "greater than 0");
+        }
+        this.defaultDepth = defaultDepth;
+        return this;
+    }
+
+    /**
+     * Start answering requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return The port the server listens to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop answering requests. Searches already running on the engines
+     * complete normally
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private Object evaluate(Map<String, Object> request) throws Exception {
+        String fen = readFen(request);
+        EvaluationParameters parameters = readParameters(request);
+        SearchResult result = await(submit(Priority.INTERACTIVE, request,
+                engine -> {
+                    engine.moveToFenPosition(fen, false);
+                    return engine.search(parameters);
+                }));
+        return toJson(result, isWhiteToMove(fen));
+    }
+
+    private Object findBestMove(Map<String, Object> request) throws Exception {
+        String fen = readFen(request);
+        EvaluationParameters parameters = readParameters(request);
+        String bestMove = await(submit(Priority.INTERACTIVE, request,
+                engine -> {
+                    engine.moveToFenPosition(fen, false);
+                    return engine.findBestMove(parameters);
+                }));
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("bestMove", bestMove);
+        return response;
+    }
+
+    private Object getPossibleMoves(Map<String, Object> request) throws Exception {
+        String fen = readFen(request);
+        String square = readString(request, "square");
+        List<String> moves = await(submit(Priority.INTERACTIVE, request,
+                engine -> {
+                    engine.moveToFenPosition(fen, false);
+                    return square == null ? engine.getPossibleMoves() :
+                            engine.getPossibleMoves(square);
+                }));
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("moves", moves);
+        return response;
+    }
+
+    private Object analyzeBatch(Map<String, Object> request) throws Exception {
+        if (!(request.get("positions") instanceof List<?> positions)) {
+            throw new IllegalArgumentException("\"positions\" should be an " +
+                    "array");
+        }
+        Map<String, Object> defaults = new LinkedHashMap<>(request);
+        defaults.remove("positions");
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Object position : positions) {
+            Map<String, Object> entry = new LinkedHashMap<>(defaults);
+            if (position instanceof String fen) {
+                entry.put("fen", fen);
+            } else if (position instanceof Map<?, ?> fields) {
+                fields.forEach((key, value) -> entry.put(String.valueOf(key),
+                        value));
+            } else {
+                throw new IllegalArgumentException("\"positions\" entries " +
+                        "should be FEN strings or objects");
+            }
+            entries.add(entry);
+        }
+        // Every entry is read before submitting any, so that an invalid
+        // entry does not leave searches running for nobody
+        List<String> fens = new ArrayList<>();
+        List<EngineTask<SearchResult>> tasks = new ArrayList<>();
+        for (Map<String, Object> entry : entries) {
+            String fen = readFen(entry);
+            EvaluationParameters parameters = readParameters(entry);
+            fens.add(fen);
+            tasks.add(engine -> {
+                engine.moveToFenPosition(fen, false);
+                return engine.search(parameters);
+            });
+        }
+        List<CompletableFuture<SearchResult>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                futures.add(submit(Priority.BATCH, entries.get(i),
+                        tasks.get(i)));
+            }
+        } catch (RuntimeException e) {
+            for (CompletableFuture<SearchResult> future : futures) {
+                future.cancel(false);
+            }
+            throw e;
+        }
+        List<Object> results = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            String fen = fens.get(i);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("fen", fen);
+            try {
+                result.putAll(toJson(await(futures.get(i)),
+                        isWhiteToMove(fen)));
+            } catch (Exception e) {
+                result.put("error", describe(e));
+            }
+            results.add(result);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("results", results);
+        return response;
+    }
+
+    private void stream(HttpExchange exchange) {
+        try {
+            Map<String, Object> request = readRequest(exchange, "/analyze/stream");
+            if (request == null) {
+                return;
+            }
+            String fen = readFen(request);
+            EvaluationParameters parameters = readParameters(request);
+            boolean whiteToMove = isWhiteToMove(fen);
+            exchange.getResponseHeaders().set("Content-Type",
+                    "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream body = exchange.getResponseBody();
+            try {
+                SearchResult result = await(submit(Priority.INTERACTIVE,
+                        request, engine -> {
+                            engine.moveToFenPosition(fen, false);
+                            return engine.search(parameters,
+                                    iteration -> sendEvent(body, "info",
+                                            toJson(iteration, whiteToMove)));
+                        }));
+                sendEvent(body, "bestmove", toJson(result, whiteToMove));
+            } catch (UncheckedIOException e) {
+                // Client gone, nothing left to answer
+            } catch (Exception e) {
+                sendEvent(body, "error", error(describe(e)));
+            }
+        } catch (Exception e) {
+            sendError(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) {
+        try {
+            Map<String, Object> request = readRequest(exchange,
+                    exchange.getHttpContext().getPath());
+            if (request != null) {
+                sendJson(exchange, 200, endpoint.handle(request));
+            }
+        } catch (Exception e) {
+            sendError(exchange, e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Read the request body, answering unknown paths and methods other
+     * than POST
+     *
+     * @return The request fields, or null if the request has been answered
+     */
+    private static Map<String, Object> readRequest(HttpExchange exchange,
+                                                   String path) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (!path.equals(exchange.getRequestURI().getPath())) {
+            sendJson(exchange, 404, error("Unknown endpoint"));
+            return null;
+        }
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            sendJson(exchange, 405, error("Method not allowed"));
+            return null;
+        }
+        String text = new String(body, StandardCharsets.UTF_8);
+        Object request = text.isBlank() ? Map.of() : Json.parse(text);
+        if (!(request instanceof Map<?, ?> fields)) {
+            throw new IllegalArgumentException("Request body should be a " +
+                    "JSON object");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        fields.forEach((key, value) -> result.put(String.valueOf(key), value));
+        return result;
+    }
+
+    private <T> CompletableFuture<T> submit(Priority priority,
+                                            Map<String, Object> request,
+                                            EngineTask<T> task) {
+        return scheduler.submit(priority, deadline, readString(request,
+                "gameId"), task);
+    }
+
+    private EvaluationParameters readParameters(Map<String, Object> request) {
+        EvaluationParameters parameters = EvaluationParameters.builder()
+                .depth(readPositiveInt(request, "depth"))
+                .nodes(readPositiveInt(request, "nodes"))
+                .movetime(readPositiveInt(request, "movetime"))
+                .mate(readPositiveInt(request, "mate"))
+                .build();
+        if (parameters.getDepth() == null && parameters.getNodes() == null &&
+                parameters.getMovetime() == null && parameters.getMate() == null) {
+            parameters.setDepth(defaultDepth);
+        }
+        Object searchMoves = request.get("searchMoves");
+        if (searchMoves != null) {
+            if (!(searchMoves instanceof List<?> moves) ||
+                    !moves.stream().allMatch(String.class::isInstance)) {
+                throw new IllegalArgumentException("\"searchMoves\" should " +
+                        "be an array of moves");
+            }
+            parameters.setSearchMoves(moves.stream().map(String.class::cast)
+                    .toList());
+        }
+        return parameters;
+    }
+
+    /**
+     * @return The position of the request, checked before being sent to an
+     * engine
+     */
+    private static String readFen(Map<String, Object> request) throws InvalidFenPositionException {
+        String fen = readString(request, "fen");
+        if (fen == null) {
+            return FenParser.START_POSITION;
+        }
+        FenParser.parse(fen);
+        return fen;
+    }
+
+    private static boolean isWhiteToMove(String fen) throws InvalidFenPositionException {
+        return FenParser.parse(fen).isWhiteToMove();
+    }
+
+    private static String readString(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("\"" + key + "\" should be a " +
+                    "string");
+        }
+        return (String) value;
+    }
+
+    private static Integer readPositiveInt(Map<String, Object> request,
+                                           String key) {
+        Object value = request.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Long number) || number <= 0 ||
+                number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("\"" + key + "\" should be a " +
+                    "positive integer");
+        }
+        return number.intValue();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw new IOException("Engine task failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an engine", e);
+        }
+    }
+
+    private static Map<String, Object> toJson(SearchResult result,
+                                              boolean whiteToMove) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("bestMove", result.getBestMove());
+        json.put("evaluation", toJson(result.getEvaluation(), whiteToMove));
+        json.put("depth", result.getDepth());
+        json.put("nodes", result.getNodes());
+        json.put("nps", result.getNps());
+        json.put("timeMs", result.getTimeMs());
+        return json;
+    }
+
+    private static Map<String, Object> toJson(SearchResult.Iteration iteration,
+                                              boolean whiteToMove) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("depth", iteration.getDepth());
+        json.put("move", iteration.getMove());
+        json.put("evaluation", toJson(iteration.getEvaluation(), whiteToMove));
+        json.put("bound", iteration.isBound());
+        json.put("nodes", iteration.getNodes());
+        json.put("nps", iteration.getNps());
+        json.put("timeMs", iteration.getTimeMs());
+        return json;
+    }
+
+    /**
+     * @param evaluation  The evaluation from the point of view of the side
+     *                    to move, as reported by the engine
+     * @param whiteToMove true if white is to move
+     * @return The evaluation from white point of view
+     */
+    private static Map<String, Object> toJson(ChessEngineEvaluation evaluation,
+                                              boolean whiteToMove) {
+        if (evaluation == null) {
+            return null;
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("type", evaluation.getType());
+        json.put("value", whiteToMove ? evaluation.getValue() :
+                -evaluation.getValue());
+        return json;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("error", message);
+        return json;
+    }
+
+    private static int statusOf(Exception e) {
+        if (e instanceof IllegalArgumentException ||
+                e instanceof InvalidFenPositionException ||
+                e instanceof InvalidSquareSyntaxException) {
+            return 400;
+        }
+        if (e instanceof TimeoutException) {
+            return 504;
+        }
+        if (e instanceof RejectedExecutionException ||
+                e instanceof CancellationException) {
+            return 503;
+        }
+        if (e instanceof IOException) {
+            return 502;
+        }
+        return 500;
+    }
+
+    private static String describe(Exception e) {
+        return Objects.isNull(e.getMessage()) ? e.getClass().getSimpleName() :
+                e.getMessage();
+    }
+
+    private static void sendError(HttpExchange exchange, Exception e) {
+        if (exchange.getResponseCode() != -1) {
+            // Headers already sent, the connection is closed by the caller
+            return;
+        }
+        try {
+            sendJson(exchange, statusOf(e), error(describe(e)));
+        } catch (IOException ignored) {
+            // Client gone
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status,
+                                 Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Write a server-sent event and flush it as a chunk
+     *
+     * @throws UncheckedIOException If the client is gone, so that the
+     *                              search listener stops the search
+     */
+    private static void sendEvent(OutputStream body, String event,
+                                  Object data) {
+        try {
+            body.write(("event: " + event + "\ndata: " + Json.write(data) +
+                    "\n\n").getBytes(StandardCharsets.UTF_8));
+            body.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        Object handle(Map<String, Object> request) throws Exception;
+    }
+}
@@ -0,0 +1,94 @@
+package com.xchess.server;
+
+import com.xchess.ChessEngine;
+import com.xchess.pool.EngineScheduler;
+import com.xchess.startup.EngineStartup;
+import com.xchess.stockfish.Stockfish;
+import com.xchess.stockfish.StockfishFactory;
+import com.xchess.stockfish.config.StockfishConfig;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Start an {@link EngineServer} on the loopback interface, backed by a pool
+ * of Stockfish processes.
+ * <p>
+ * Usage: {@code [--port <port>] [--engines <count>] [--depth <depth>]
+ * <stockfish command...>}
+ */
+public final class EngineServerMain {
+    private static final int DEFAULT_PORT = 8080;
+
+    // Private constructor to hide implicit public one
+    private EngineServerMain() {
+    }
+
+    public static void main(String[] args) throws IOException,
+            TimeoutException {
+        int port = DEFAULT_PORT;
+        int engineCount = Runtime.getRuntime().availableProcessors();
+        int depth = EngineServer.DEFAULT_DEPTH;
+        int index = 0;
+        try {
+            while (index < args.length && args[index].startsWith("--")) {
+                switch (args[index]) {
+                    case "--port" -> port = Integer.parseInt(args[++index]);
+                    case "--engines" ->
+                            engineCount = Integer.parseInt(args[++index]);
+                    case "--depth" -> depth = Integer.parseInt(args[++index]);
+                    default -> throw new IllegalArgumentException(
+                            "Unknown option " + args[index]);
+                }
+                index++;
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            usage("Invalid option value");
+            return;
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+            return;
+        }
+        if (index == args.length) {
+            usage("Missing Stockfish command");
+            return;
+        }
+        String[] command = Arrays.copyOfRange(args, index, args.length);
+
+        List<ChessEngine> engines = new ArrayList<>();
+        for (EngineStartup<Stockfish> startup :
+                new StockfishFactory(new StockfishConfig(), command)
+                        .createAll(engineCount)) {
+            engines.add(startup.getEngine());
+        }
+        EngineScheduler scheduler = new EngineScheduler(engines);
+        EngineServer server = new EngineServer(scheduler,
+                new InetSocketAddress("127.0.0.1", port))
+                .setDefaultDepth(depth);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            scheduler.close();
+            for (ChessEngine engine : engines) {
+                try {
+                    engine.stop();
+                } catch (IOException ignored) {
+                    // Process already gone
+                }
+            }
+        }, "engine-server-shutdown"));
+        server.start();
+        System.out.println("Engine server listening on port " +
+                server.getPort() + " with " + engines.size() + " engines");
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: [--port <port>] [--engines <count>] " +
+                "[--depth <depth>] <stockfish command...>");
+        System.exit(2);
+    }
+}
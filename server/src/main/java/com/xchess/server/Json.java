@@ -0,0 +1,269 @@
+package com.xchess.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader and writer for the server requests and responses.
+ * Objects are read as {@link Map}, arrays as {@link List}, integral
+ * numbers as {@link Long} and other numbers as {@link Double}
+ */
+final class Json {
+    private final String text;
+    private int position;
+
+    // Private constructor to hide implicit public one
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @param text The JSON text
+     * @return The parsed value
+     * @throws IllegalArgumentException If the text is not valid JSON
+     */
+    static Object parse(String text) {
+        Json json = new Json(text);
+        json.skipWhitespace();
+        Object value = json.readValue();
+        json.skipWhitespace();
+        if (json.position != text.length()) {
+            throw json.error("Unexpected trailing characters");
+        }
+        return value;
+    }
+
+    /**
+     * @param value A map, iterable, string, number, boolean or null
+     * @return The JSON text
+     * @throws IllegalArgumentException If the value cannot be written
+     */
+    static String write(Object value) {
+        StringBuilder builder = new StringBuilder();
+        write(builder, value);
+        return builder.toString();
+    }
+
+    private static void write(StringBuilder builder, Object value) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof String string) {
+            writeString(builder, string);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else if (value instanceof Enum<?> constant) {
+            writeString(builder, constant.name());
+        } else if (value instanceof Map<?, ?> map) {
+            builder.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                writeString(builder, String.valueOf(entry.getKey()));
+                builder.append(':');
+                write(builder, entry.getValue());
+            }
+            builder.append('}');
+        } else if (value instanceof Iterable<?> iterable) {
+            builder.append('[');
+            boolean first = true;
+            for (Object element : iterable) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                write(builder, element);
+            }
+            builder.append(']');
+        } else {
+            throw new IllegalArgumentException("Cannot write " +
+                    value.getClass().getName() + " as JSON");
+        }
+    }
+
+    private static void writeString(StringBuilder builder, String string) {
+        builder.append('"');
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+
+    private Object readValue() {
+        if (position >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = text.charAt(position);
+        return switch (c) {
+            case '{' -> readObject();
+            case '[' -> readArray();
+            case '"' -> readString();
+            case 't' -> readLiteral("true", Boolean.TRUE);
+            case 'f' -> readLiteral("false", Boolean.FALSE);
+            case 'n' -> readLiteral("null", null);
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    yield readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+            }
+        };
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (consume('}')) {
+            return object;
+        }
+        do {
+            skipWhitespace();
+            if (position >= text.length() || text.charAt(position) != '"') {
+                throw error("Expected object key");
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            object.put(key, readValue());
+            skipWhitespace();
+        } while (consume(','));
+        expect('}');
+        return object;
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (consume(']')) {
+            return array;
+        }
+        do {
+            skipWhitespace();
+            array.add(readValue());
+            skipWhitespace();
+        } while (consume(','));
+        expect(']');
+        return array;
+    }
+
+    private String readString() {
+        StringBuilder builder = new StringBuilder();
+        position++;
+        while (true) {
+            if (position >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"', '\\', '/' -> builder.append(escaped);
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'n' -> builder.append('\n');
+                case 'r' -> builder.append('\r');
+                case 't' -> builder.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) {
+                        throw error("Invalid unicode escape");
+                    }
+                    try {
+                        builder.append((char) Integer.parseInt(
+                                text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                }
+                default -> throw error("Invalid escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private Number readNumber() {
+        int start = position;
+        boolean integral = true;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            position++;
+        }
+        String number = text.substring(start, position);
+        try {
+            if (integral) {
+                return Long.valueOf(number);
+            }
+            return Double.valueOf(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("Unexpected token");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private boolean consume(char c) {
+        if (position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() &&
+                Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at offset " +
+                position + ": " + message);
+    }
+}
@@ -0,0 +1,244 @@
+package com.xchess.server;
+
+import com.xchess.ChessEngine;
+import com.xchess.board.FenParser;
+import com.xchess.evaluation.ChessEngineEvaluation;
+import com.xchess.evaluation.ChessEngineEvaluationType;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.parameter.EvaluationParameters;
+import com.xchess.pool.EngineScheduler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+public class EngineServerTest {
+    private static final String FEN = "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1";
+
+    private ChessEngine engine;
+    private EngineScheduler scheduler;
+    private EngineServer subject;
+    private HttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        this.engine = mock(ChessEngine.class);
+        this.scheduler = new EngineScheduler(List.of(engine));
+        this.subject = new EngineServer(scheduler,
+                new InetSocketAddress("127.0.0.1", 0)).setDefaultDepth(7);
+        this.subject.start();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @After
+    public void tearDown() {
+        this.subject.close();
+        this.scheduler.close();
+    }
+
+    @Test
+    public void shouldEvaluatePosition() throws Exception {
+        when(engine.search(any(EvaluationParameters.class))).thenReturn(result());
+
+        HttpResponse<String> response = post("/evaluate",
+                "{\"fen\": \"" + FEN + "\", \"nodes\": 1000, " +
+                        "\"searchMoves\": [\"e2e4\"]}");
+
+        assertEquals(200, response.statusCode());
+        Map<?, ?> body = (Map<?, ?>) Json.parse(response.body());
+        assertEquals("e2e4", body.get("bestMove"));
+        assertEquals(Map.of("type", "CENTIPAWNS", "value", 35L),
+                body.get("evaluation"));
+        assertEquals(12L, body.get("depth"));
+        verify(engine).moveToFenPosition(FEN, false);
+        ArgumentCaptor<EvaluationParameters> parameters =
+                ArgumentCaptor.forClass(EvaluationParameters.class);
+        verify(engine).search(parameters.capture());
+        assertEquals("go searchmoves e2e4 nodes 1000",
+                parameters.getValue().buildCommand());
+    }
+
+    @Test
+    public void shouldFindBestMoveWithDefaultDepth() throws Exception {
+        when(engine.findBestMove(any())).thenReturn("e1d1");
+
+        HttpResponse<String> response = post("/bestmove", "{}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(Map.of("bestMove", "e1d1"), Json.parse(response.body()));
+        verify(engine).moveToFenPosition(FenParser.START_POSITION, false);
+        ArgumentCaptor<EvaluationParameters> parameters =
+                ArgumentCaptor.forClass(EvaluationParameters.class);
+        verify(engine).findBestMove(parameters.capture());
+        assertEquals("go depth 7", parameters.getValue().buildCommand());
+    }
+
+    @Test
+    public void shouldListMovesOverOneConnection() throws Exception {
+        when(engine.getPossibleMoves()).thenReturn(List.of("e2e3", "e2e4"));
+        when(engine.getPossibleMoves("e1")).thenReturn(List.of("e1d1"));
+
+        HttpResponse<String> all = post("/moves", "{\"fen\": \"" + FEN + "\"}");
+        HttpResponse<String> square = post("/moves", "{\"fen\": \"" + FEN +
+                "\", \"square\": \"e1\"}");
+
+        assertEquals(Map.of("moves", List.of("e2e3", "e2e4")),
+                Json.parse(all.body()));
+        assertEquals(Map.of("moves", List.of("e1d1")),
+                Json.parse(square.body()));
+    }
+
+    @Test
+    public void shouldAnalyzeBatch() throws Exception {
+        when(engine.search(any(EvaluationParameters.class)))
+                .thenReturn(result())
+                .thenThrow(new IOException("Engine crashed"));
+
+        HttpResponse<String> response = post("/batch", "{\"depth\": 3, " +
+                "\"positions\": [\"" + FEN + "\", {\"depth\": 5}]}");
+
+        assertEquals(200, response.statusCode());
+        List<?> results = (List<?>) ((Map<?, ?>) Json.parse(response.body()))
+                .get("results");
+        assertEquals(2, results.size());
+        assertEquals(FEN, ((Map<?, ?>) results.get(0)).get("fen"));
+        assertEquals("e2e4", ((Map<?, ?>) results.get(0)).get("bestMove"));
+        assertEquals(FenParser.START_POSITION,
+                ((Map<?, ?>) results.get(1)).get("fen"));
+        assertEquals("Engine crashed", ((Map<?, ?>) results.get(1)).get("error"));
+        ArgumentCaptor<EvaluationParameters> parameters =
+                ArgumentCaptor.forClass(EvaluationParameters.class);
+        verify(engine, times(2)).search(parameters.capture());
+        assertEquals(List.of(3, 5), parameters.getAllValues().stream()
+                .map(EvaluationParameters::getDepth).toList());
+    }
+
+    @Test
+    public void shouldGiveEvaluationFromWhitePointOfView() throws Exception {
+        when(engine.search(any(EvaluationParameters.class))).thenReturn(result());
+        String blackToMove = "4k3/8/8/8/8/8/4P3/4K3 b - - 0 1";
+
+        HttpResponse<String> response = post("/evaluate",
+                "{\"fen\": \"" + blackToMove + "\"}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(Map.of("type", "CENTIPAWNS", "value", -35L),
+                ((Map<?, ?>) Json.parse(response.body())).get("evaluation"));
+    }
+
+    @Test
+    public void shouldNotSubmitBatchWithInvalidEntry() throws Exception {
+        HttpResponse<String> response = post("/batch", "{\"positions\": [\"" +
+                FEN + "\", \"" + FEN + "\", {\"fen\": \"bad\"}]}");
+
+        assertEquals(400, response.statusCode());
+        assertEquals(0, scheduler.getPendingCount());
+        verify(engine, never()).moveToFenPosition(any(), anyBoolean());
+        verify(engine, never()).search(any(EvaluationParameters.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldStreamSearchProgress() throws Exception {
+        when(engine.search(any(EvaluationParameters.class), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<SearchResult.Iteration> listener =
+                            invocation.getArgument(1);
+                    result().getIterations().forEach(listener);
+                    return result();
+                });
+
+        HttpResponse<String> response = post("/analyze/stream",
+                "{\"fen\": \"" + FEN + "\", \"movetime\": 100}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("text/event-stream; charset=utf-8",
+                response.headers().firstValue("Content-Type").orElse(null));
+        assertEquals("""
+                event: info
+                data: {"depth":11,"move":"e2e3","evaluation":{"type":"CENTIPAWNS","value":20},"bound":false,"nodes":800,"nps":8000,"timeMs":100}
+
+                event: info
+                data: {"depth":12,"move":"e2e4","evaluation":{"type":"CENTIPAWNS","value":35},"bound":false,"nodes":1500,"nps":10000,"timeMs":150}
+
+                event: bestmove
+                data: {"bestMove":"e2e4","evaluation":{"type":"CENTIPAWNS","value":35},"depth":12,"nodes":1500,"nps":10000,"timeMs":150}
+
+                """, response.body());
+    }
+
+    @Test
+    public void shouldReportErrors() throws Exception {
+        when(engine.getPossibleMoves()).thenThrow(new IOException("Broken " +
+                "pipe"));
+
+        assertEquals(400, post("/evaluate", "{\"fen\": \"bad\"}").statusCode());
+        assertEquals(400, post("/evaluate", "{\"depth\": -1}").statusCode());
+        assertEquals(400, post("/evaluate", "[1]").statusCode());
+        assertEquals(400, post("/bestmove", "{").statusCode());
+        HttpResponse<String> engineFailure = post("/moves", "{}");
+        assertEquals(502, engineFailure.statusCode());
+        assertEquals(Map.of("error", "Broken pipe"),
+                Json.parse(engineFailure.body()));
+        assertEquals(404, post("/unknown", "{}").statusCode());
+        assertEquals(404, post("/evaluate/more", "{}").statusCode());
+        HttpResponse<String> get = client.send(HttpRequest.newBuilder(
+                        uri("/evaluate")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+        verify(engine, never()).search(any(EvaluationParameters.class));
+    }
+
+    @Test
+    public void shouldReportClosedScheduler() throws Exception {
+        this.scheduler.close();
+
+        assertEquals(503, post("/evaluate", "{}").statusCode());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                        .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + subject.getPort() + path);
+    }
+
+    private static SearchResult result() {
+        return SearchResult.builder()
+                .bestMove("e2e4")
+                .evaluation(new ChessEngineEvaluation(
+                        ChessEngineEvaluationType.CENTIPAWNS, 35))
+                .depth(12)
+                .nodes(1500)
+                .nps(10000)
+                .timeMs(150)
+                .iteration(new SearchResult.Iteration(11, 100, 800, 8000,
+                        new ChessEngineEvaluation(
+                                ChessEngineEvaluationType.CENTIPAWNS, 20),
+                        false, "e2e3"))
+                .iteration(new SearchResult.Iteration(12, 150, 1500, 10000,
+                        new ChessEngineEvaluation(
+                                ChessEngineEvaluationType.CENTIPAWNS, 35),
+                        false, "e2e4"))
+                .build();
+    }
+}
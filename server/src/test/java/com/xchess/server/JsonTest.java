@@ -0,0 +1,52 @@
+package com.xchess.server;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JsonTest {
+    @Test
+    public void shouldParseValues() {
+        Object value = Json.parse(" {\"fen\": \"a \\\"b\\\"\\n\\u00e9\", " +
+                "\"depth\": 12, \"ratio\": -1.5e2, \"moves\": [\"e2e4\", " +
+                "true, null], \"empty\": {}} ");
+        Map<?, ?> object = (Map<?, ?>) value;
+        assertEquals("a \"b\"\n\u00e9", object.get("fen"));
+        assertEquals(12L, object.get("depth"));
+        assertEquals(-150.0, object.get("ratio"));
+        assertEquals(List.of("e2e4", true), ((List<?>) object.get("moves"))
+                .subList(0, 2));
+        assertNull(((List<?>) object.get("moves")).get(2));
+        assertEquals(Map.of(), object.get("empty"));
+    }
+
+    @Test
+    public void shouldRejectInvalidText() {
+        for (String text : List.of("", "{", "{\"a\" 1}", "[1,]", "\"abc",
+                "tru", "{} x", "{\"a\": 01x}")) {
+            assertThrows(text, IllegalArgumentException.class,
+                    () -> Json.parse(text));
+        }
+    }
+
+    @Test
+    public void shouldWriteValues() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("move", "e2e4");
+        object.put("text", "tab\t\"quote\"\u0001");
+        object.put("depth", 20);
+        object.put("bound", false);
+        object.put("evaluation", null);
+        object.put("moves", List.of("a", "b"));
+        assertEquals("{\"move\":\"e2e4\",\"text\":\"tab\\t\\\"quote\\\"" +
+                        "\\u0001\",\"depth\":20,\"bound\":false," +
+                        "\"evaluation\":null,\"moves\":[\"a\",\"b\"]}",
+                Json.write(object));
+        assertEquals(object.get("text"),
+                ((Map<?, ?>) Json.parse(Json.write(object))).get("text"));
+    }
+}
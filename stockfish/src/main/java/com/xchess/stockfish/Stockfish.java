@@ -1,37 +1,67 @@
 package com.xchess.stockfish;
 
 import com.xchess.ChessEngine;
+import com.xchess.board.Move;
+import com.xchess.board.MoveList;
 import com.xchess.evaluation.ChessEngineEvaluation;
 import com.xchess.evaluation.ChessEngineEvaluationType;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.SearchStabilityTracker;
+import com.xchess.evaluation.parameter.AdaptiveTimeManagement;
 import com.xchess.evaluation.parameter.EvaluationParameters;
 import com.xchess.exceptions.*;
+import com.xchess.perft.PerftResult;
 import com.xchess.process.ProcessWrapper;
+import com.xchess.process.UciLineFilter;
 import com.xchess.stockfish.config.StockfishConfig;
 import com.xchess.stockfish.option.StockfishOptions;
+import com.xchess.uci.UciOption;
+import com.xchess.uci.UciOptionRegistry;
+import com.xchess.validators.FenSyntaxValidator;
 import com.xchess.validators.MoveValidator;
 import com.xchess.validators.SquareValidator;
 import lombok.Getter;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
  * Java implementation for Stockfish engine
  */
 public class Stockfish implements ChessEngine {
+    private static final Pattern NODES_SEARCHED_PATTERN = Pattern.compile(
+            "^Nodes searched.*$");
+    private static final Pattern SEARCH_PROGRESS_PATTERN = Pattern.compile(
+            "^(info .* pv .*|bestmove.*)$");
+
     private final ProcessWrapper process;
     private final StockfishConfig config;
     @Getter
     private StockfishOptions options;
     @Getter
     private final Float engineVersion;
+    /**
+     * -- GETTER --
+     * Get the options advertised by the engine at startup
+     *
+     * @return the option registry
+     */
+    @Getter
+    private final UciOptionRegistry optionRegistry;
+    private final MoveList possibleMoves;
 
     /**
      * Creates an instance of Stockfish implementation. When creating an
-     * instance the default Stockfish engine options will be set.
+     * instance the default Stockfish engine options will be set, except
+     * the ones the engine version does not advertise.
      * See {@link StockfishOptions#getDefaultOptions()}
      *
      * @param process The process wrapper instance created with stockfish
@@ -46,41 +76,101 @@ public class Stockfish implements ChessEngine {
         this.process = process;
         this.config = config;
         this.options = StockfishOptions.getDefaultOptions();
+        this.possibleMoves = new MoveList();
 
+        this.process.setLineFilter(UciLineFilter.SKIP_UNSCORED_INFO);
         this.process.start();
-        this.process.writeCommand("uci");
-        List<String> initLines = waitUntilReady();
-        String initLine = initLines.stream().filter(line -> line.startsWith(
-                "Stockfish")).findFirst().orElseThrow(() -> new IOException(
-                "Cannot find stockfish initialization line"));
-        this.engineVersion = Float.parseFloat(initLine.split(" ")[1]);
+        try {
+            this.process.writeCommand("uci");
+            List<String> initLines = waitUntilReady();
+            String initLine = initLines.stream().filter(line -> line.startsWith(
+                    "Stockfish")).findFirst().orElseThrow(() -> new IOException(
+                    "Cannot find stockfish initialization line"));
+            this.engineVersion = Float.parseFloat(initLine.split(" ")[1]);
+            this.optionRegistry = UciOptionRegistry.parse(initLines);
 
-        setOptions(options);
+            if (!this.optionRegistry.isEmpty()) {
+                this.options = this.options.retainAll(this.optionRegistry::contains);
+            }
+            writeCommandsAndWaitUntilReady(this.options.getCommands());
+        } catch (IOException | TimeoutException | RuntimeException e) {
+            // The engine is never returned, so its process is stopped here
+            try {
+                this.process.stop();
+            } catch (IOException stopException) {
+                e.addSuppressed(stopException);
+            }
+            throw e;
+        }
     }
 
+    /**
+     * Ask the engine to quit, then stop the process. See
+     * {@link ProcessWrapper#stop()}
+     */
     public void stop() throws IOException {
+        try {
+            process.writeCommand("quit");
+        } catch (IOException e) {
+            // Process already gone, stopping it releases its resources
+        }
         process.stop();
     }
 
+    /**
+     * Not synchronized, so that a search running in another thread can be
+     * interrupted
+     */
+    public void stopSearch() throws IOException {
+        process.writeCommand("stop");
+    }
+
     /**
      * Set current Stockfish engine options. New options will be merged with
-     * current. See {@link StockfishOptions#merge(StockfishOptions)}
+     * current. See {@link StockfishOptions#merge(StockfishOptions)}. Only
+     * the options differing from the applied ones are sent, in a single
+     * batch, and nothing is sent if no option changes. Values are checked
+     * against the options advertised by the engine before sending anything
      *
      * @param options The options to set
-     * @throws IOException      If any error occurs communicating with
-     *                          Stockfish engine
-     *                          process
-     * @throws TimeoutException in case of timeout reached when reading
+     * @throws IOException               If any error occurs communicating
+     *                                   with Stockfish engine process
+     * @throws TimeoutException          in case of timeout reached when
+     *                                   reading
+     * @throws InvalidUciOptionException If an option is not advertised by
+     *                                   the engine or its value is invalid
      */
     public synchronized void setOptions(StockfishOptions options) throws IOException,
-            TimeoutException {
-        this.options = this.options.merge(options);
-        List<String> commands = this.options.getCommands();
-        for (String command :
-                commands) {
-            process.writeCommand(command);
-            waitUntilReady();
+            TimeoutException, InvalidUciOptionException {
+        StockfishOptions merged = this.options.merge(options);
+        StockfishOptions changes = merged.diff(this.options);
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<String> commands = new ArrayList<>();
+        for (Map.Entry<String, String> change : changes.getValues().entrySet()) {
+            commands.add(buildOptionCommand(change.getKey(), change.getValue()));
         }
+        writeCommandsAndWaitUntilReady(commands);
+        this.options = merged;
+    }
+
+    /**
+     * Set an option by name, including options without a dedicated field
+     * in {@link StockfishOptions}
+     *
+     * @param name  The option name, such as "MultiPV"
+     * @param value The option value
+     * @throws IOException               If any error occurs communicating
+     *                                   with Stockfish engine process
+     * @throws TimeoutException          in case of timeout reached when
+     *                                   reading
+     * @throws InvalidUciOptionException If the option is not advertised by
+     *                                   the engine or its value is invalid
+     */
+    public synchronized void setOption(String name, String value) throws IOException,
+            TimeoutException, InvalidUciOptionException {
+        setOptions(StockfishOptions.builder().customOption(name, value).build());
     }
 
     public synchronized String getFenPosition() throws IOException,
@@ -99,13 +189,47 @@ public class Stockfish implements ChessEngine {
 
     public synchronized List<String> getPossibleMoves() throws IOException,
             TimeoutException {
+        MoveList moves = new MoveList();
+        getPossibleMoves(moves);
+        return moves.toUciList();
+    }
+
+    public synchronized void getPossibleMoves(MoveList moves) throws IOException,
+            TimeoutException {
         process.writeCommand("go perft 1");
-        List<String> lines = process.readLinesUntil(Pattern.compile(
-                        "^Nodes searched.*$"),
+        List<String> lines = process.readLinesUntil(NODES_SEARCHED_PATTERN,
                 config.getTimeoutInMs());
         waitUntilReady();
-        return lines.stream().filter(line -> Pattern.matches("^....: 1$",
-                line)).map(line -> line.split(":")[0]).toList();
+        moves.clear();
+        for (String line : lines) {
+            int separatorIndex = line.indexOf(':');
+            if (separatorIndex == 4 || separatorIndex == 5) {
+                int move = Move.fromUci(line, 0, separatorIndex);
+                if (move != Move.NONE) {
+                    moves.add(move);
+                }
+            }
+        }
+    }
+
+    /**
+     * Run "go perft" from current position. The whole run must complete
+     * within the configured timeout, see
+     * {@link StockfishConfig#setTimeoutInMs(int)}
+     */
+    public synchronized PerftResult perft(int depth) throws IOException,
+            TimeoutException {
+        return runPerft(depth, false);
+    }
+
+    /**
+     * Run "go perft" from current position. The whole run must complete
+     * within the configured timeout, see
+     * {@link StockfishConfig#setTimeoutInMs(int)}
+     */
+    public synchronized PerftResult divide(int depth) throws IOException,
+            TimeoutException {
+        return runPerft(depth, true);
     }
 
     public synchronized List<String> getPossibleMoves(String square) throws IOException,
@@ -126,23 +250,29 @@ public class Stockfish implements ChessEngine {
         return getPossibleMoves().contains(lowerCaseMove);
     }
 
+    public synchronized boolean isMovePossible(int move) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException {
+        if (!Move.isValid(move)) {
+            throw new InvalidMoveSyntaxException(String.valueOf(move));
+        }
+        getPossibleMoves(possibleMoves);
+        return possibleMoves.contains(move);
+    }
+
     public synchronized void moveToStartPosition(boolean newGame) throws IOException,
             TimeoutException {
-        if (newGame) {
-            process.writeCommand("ucinewgame");
-        }
-        process.writeCommand("position startpos");
-        waitUntilReady();
+        writeCommandsAndWaitUntilReady(positionCommands("position startpos",
+                newGame));
     }
 
     public synchronized void moveToFenPosition(String fen, boolean newGame) throws IOException,
             TimeoutException, InvalidFenPositionException {
-        if (newGame) {
-            process.writeCommand("ucinewgame");
+        if (!FenSyntaxValidator.isFenValid(fen, options.isChess960())) {
+            throw new InvalidFenPositionException(fen);
         }
-        process.writeCommand("position fen " + fen);
         try {
-            waitUntilReady();
+            writeCommandsAndWaitUntilReady(positionCommands("position fen " + fen,
+                    newGame));
         } catch (ProcessKilledException e) {
             throw new InvalidFenPositionException(fen);
         }
@@ -151,20 +281,24 @@ public class Stockfish implements ChessEngine {
     public synchronized void move(List<String> moves) throws IOException,
             TimeoutException, InvalidMoveSyntaxException,
             IllegalMoveException, InvalidFenPositionException {
-        List<String> lowerCasesMoves =
-                moves.stream().map(String::toLowerCase).toList();
-        int invalidMoveIndex =
-                lowerCasesMoves.stream().map(MoveValidator::isMoveValid).toList().indexOf(false);
-        if (invalidMoveIndex != -1) {
-            throw new InvalidMoveSyntaxException(moves.get(invalidMoveIndex));
+        move(MoveList.fromUci(moves));
+    }
+
+    public synchronized void move(MoveList moves) throws IOException,
+            TimeoutException, InvalidMoveSyntaxException,
+            IllegalMoveException, InvalidFenPositionException {
+        for (int i = 0; i < moves.size(); i++) {
+            if (!Move.isValid(moves.get(i))) {
+                throw new InvalidMoveSyntaxException(String.valueOf(moves.get(i)));
+            }
         }
         String startingPosition = getFenPosition();
-        for (String move :
-                lowerCasesMoves) {
+        for (int i = 0; i < moves.size(); i++) {
+            String move = Move.toUci(moves.get(i));
             try {
-                if (isMovePossible(move)) {
-                    process.writeCommand("position fen " + getFenPosition() + " moves " + move);
-                    waitUntilReady();
+                if (isMovePossible(moves.get(i))) {
+                    writeCommandsAndWaitUntilReady(List.of("position fen " +
+                            getFenPosition() + " moves " + move));
                 } else {
                     moveToFenPosition(startingPosition, false);
                     throw new IllegalMoveException(move, getFenPosition());
@@ -178,9 +312,18 @@ public class Stockfish implements ChessEngine {
     }
 
     public synchronized String findBestMove(EvaluationParameters options) throws IOException, TimeoutException {
-        process.writeCommand(options.buildCommand());
+        return getBestMoveFromOutput(runSearch(options, null));
+    }
 
-        return getBestMoveFromOutput();
+    public synchronized SearchResult search(EvaluationParameters options) throws IOException,
+            TimeoutException {
+        return SearchResult.parse(runSearch(options, null));
+    }
+
+    public synchronized SearchResult search(EvaluationParameters options,
+                                            Consumer<SearchResult.Iteration> listener) throws IOException,
+            TimeoutException {
+        return SearchResult.parse(runSearch(options, listener));
     }
 
     public synchronized ChessEngineEvaluation getPositionEvaluation(EvaluationParameters options) throws IOException,
@@ -188,8 +331,7 @@ public class Stockfish implements ChessEngine {
         String currentFen = getFenPosition();
         int multiplier = currentFen.contains("w") ? 1 : -1;
 
-        process.writeCommand(options.buildCommand());
-        List<String> evaluationLines = getEvaluationLines();
+        List<String> evaluationLines = runSearch(options, null);
         Collections.reverse(evaluationLines);
 
         String lastInfoLine =
@@ -217,14 +359,72 @@ public class Stockfish implements ChessEngine {
     }
 
     /**
-     * @return The best move from process output
+     * @param depth  The perft depth
+     * @param divide true to keep the node count of each root move
+     * @return The perft result
      * @throws IOException      If any error occurs communicating with
      *                          Stockfish engine process
      * @throws TimeoutException if read timeout
      */
-    private String getBestMoveFromOutput() throws IOException,
+    private PerftResult runPerft(int depth, boolean divide) throws IOException,
             TimeoutException {
-        List<String> evaluationLines = getEvaluationLines();
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Perft depth must be " +
+                    "strictly positive: " + depth);
+        }
+        long start = System.nanoTime();
+        process.writeCommand("go perft " + depth);
+        List<String> lines = process.readLinesUntil(NODES_SEARCHED_PATTERN,
+                config.getTimeoutInMs());
+        long elapsedNanos = System.nanoTime() - start;
+        waitUntilReady();
+
+        Map<String, Long> nodesPerMove = new LinkedHashMap<>();
+        long nodes = -1;
+        for (String line : lines) {
+            int separatorIndex = line.indexOf(':');
+            if (separatorIndex == -1) {
+                continue;
+            }
+            String count = line.substring(separatorIndex + 1).trim();
+            if (line.startsWith("Nodes searched")) {
+                nodes = parseNodeCount(count);
+            } else if (divide && (separatorIndex == 4 || separatorIndex == 5) &&
+                    Move.fromUci(line, 0, separatorIndex) != Move.NONE) {
+                nodesPerMove.put(line.substring(0, separatorIndex),
+                        parseNodeCount(count));
+            }
+        }
+        if (nodes < 0) {
+            throw new IOException("Cannot find node count in perft output");
+        }
+        return PerftResult.builder()
+                .depth(depth)
+                .nodes(nodes)
+                .elapsedNanos(elapsedNanos)
+                .divide(divide ? nodesPerMove : Collections.emptyMap())
+                .build();
+    }
+
+    /**
+     * @param count The node count text
+     * @return The node count
+     * @throws IOException If the count is not a number
+     */
+    private static long parseNodeCount(String count) throws IOException {
+        try {
+            return Long.parseLong(count);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid node count in perft output: " + count);
+        }
+    }
+
+    /**
+     * @param evaluationLines The search output
+     * @return The best move from process output
+     * @throws IOException If the output holds no best move
+     */
+    private static String getBestMoveFromOutput(List<String> evaluationLines) throws IOException {
         String bestmoveLine =
                 evaluationLines.stream().filter(line -> line.startsWith(
                         "bestmove")).findFirst().orElseThrow(IOException::new);
@@ -233,6 +433,102 @@ public class Stockfish implements ChessEngine {
         return "(none)".equals(bestMove) ? null : bestMove;
     }
 
+    /**
+     * Run a search, stopping it once stable when the parameters hold an
+     * {@link AdaptiveTimeManagement}
+     *
+     * @param options  The search parameters
+     * @param listener Receives each principal variation as soon as it is
+     *                 read, or null
+     * @return The search output, up to and including the "bestmove" line
+     * @throws IOException      If any error occurs communicating with
+     *                          Stockfish engine process
+     * @throws TimeoutException if read timeout
+     */
+    private List<String> runSearch(EvaluationParameters options,
+                                   Consumer<SearchResult.Iteration> listener) throws IOException,
+            TimeoutException {
+        process.writeCommand(options.buildCommand());
+        AdaptiveTimeManagement timeManagement = options.getTimeManagement();
+        if (timeManagement == null && listener == null) {
+            return getEvaluationLines();
+        }
+        return readSearchProgress(timeManagement, listener);
+    }
+
+    /**
+     * Read the output of a search line by line. With a time management,
+     * "stop" is sent once the search is stable or its budget is spent. If
+     * the listener fails, the search is stopped and its output read before
+     * the failure is thrown, so that the engine is ready for the next
+     * command
+     *
+     * @param timeManagement The stability criteria and budget, or null for
+     *                       a search ending by itself
+     * @param listener       Receives each principal variation, or null
+     * @return The search output, up to and including the "bestmove" line
+     * @throws IOException      If any error occurs communicating with
+     *                          Stockfish engine process
+     * @throws TimeoutException if the engine does not answer in time
+     */
+    private List<String> readSearchProgress(AdaptiveTimeManagement timeManagement,
+                                            Consumer<SearchResult.Iteration> listener) throws IOException,
+            TimeoutException {
+        SearchStabilityTracker tracker = timeManagement == null ? null :
+                new SearchStabilityTracker(timeManagement);
+        long deadline = timeManagement == null ? 0 : System.nanoTime() +
+                TimeUnit.MILLISECONDS.toNanos(timeManagement.getMaxTimeInMs());
+        List<String> lines = new ArrayList<>();
+        RuntimeException listenerFailure = null;
+        boolean stopped = false;
+        while (true) {
+            boolean budgeted = tracker != null && !stopped;
+            long remainingInMs = budgeted ?
+                    TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) :
+                    config.getTimeoutInMs();
+            if (budgeted && remainingInMs <= 0) {
+                stopSearch();
+                stopped = true;
+                continue;
+            }
+            List<String> read;
+            try {
+                read = process.readLinesUntil(SEARCH_PROGRESS_PATTERN,
+                        (int) Math.min(remainingInMs, Integer.MAX_VALUE));
+            } catch (TimeoutException e) {
+                if (!budgeted) {
+                    throw e;
+                }
+                stopSearch();
+                stopped = true;
+                continue;
+            }
+            lines.addAll(read);
+            String last = read.get(read.size() - 1);
+            if (last.startsWith("bestmove")) {
+                break;
+            }
+            SearchResult.Iteration iteration = SearchResult.Iteration.parse(last);
+            if (listener != null && listenerFailure == null) {
+                try {
+                    listener.accept(iteration);
+                } catch (RuntimeException e) {
+                    listenerFailure = e;
+                }
+            }
+            if (!stopped && (listenerFailure != null ||
+                    (tracker != null && tracker.update(iteration)))) {
+                stopSearch();
+                stopped = true;
+            }
+        }
+        waitUntilReady();
+        if (listenerFailure != null) {
+            throw listenerFailure;
+        }
+        return lines;
+    }
+
     /**
      * @return Evaluation lines from evaluation request
      * @throws TimeoutException if read timeout
@@ -248,6 +544,54 @@ public class Stockfish implements ChessEngine {
         return bestMoveLines;
     }
 
+    /**
+     * @param name  The option name
+     * @param value The option value
+     * @return The setoption command
+     * @throws InvalidUciOptionException If the option is not advertised by
+     *                                   the engine or its value is invalid
+     */
+    private String buildOptionCommand(String name, String value) throws InvalidUciOptionException {
+        if (optionRegistry.isEmpty()) {
+            // Engine did not advertise its options, let it check the value
+            return "setoption name " + name + " value " + value;
+        }
+        UciOption option = optionRegistry.get(name);
+        if (option == null) {
+            throw new InvalidUciOptionException(name, value, "unknown option");
+        }
+        return option.buildCommand(value);
+    }
+
+    /**
+     * @param positionCommand The position command
+     * @param newGame         true to start a new game first
+     * @return The commands to send
+     */
+    private static List<String> positionCommands(String positionCommand,
+                                                 boolean newGame) {
+        return newGame ? List.of("ucinewgame", positionCommand) :
+                List.of(positionCommand);
+    }
+
+    /**
+     * Write commands followed by "isready" in a single batch
+     *
+     * @param commands The commands to write
+     * @return list of messages received before "readyok"
+     * @throws IOException      If any error occurs communicating with
+     *                          Stockfish engine process
+     * @throws TimeoutException if read timeout
+     */
+    private List<String> writeCommandsAndWaitUntilReady(List<String> commands) throws IOException,
+            TimeoutException {
+        List<String> batch = new ArrayList<>(commands.size() + 1);
+        batch.addAll(commands);
+        batch.add("isready");
+        process.writeCommands(batch);
+        return process.readLinesUntil("readyok", config.getTimeoutInMs());
+    }
+
     /**
      * @return list of messages received before "readyok"
      * @throws IOException      If any error occurs communicating with
@@ -0,0 +1,123 @@
+package com.xchess.stockfish;
+
+import com.xchess.exceptions.InvalidUciOptionException;
+import com.xchess.process.ProcessWrapper;
+import com.xchess.process.StdoutReactor;
+import com.xchess.startup.EngineFactory;
+import com.xchess.startup.EngineStartup;
+import com.xchess.startup.LazyChessEngine;
+import com.xchess.startup.ParallelEngineStarter;
+import com.xchess.stockfish.config.StockfishConfig;
+import com.xchess.stockfish.option.StockfishOptions;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Creates Stockfish engines sharing a startup command and configuration,
+ * one at a time, many at once in parallel or lazily on first use
+ */
+public class StockfishFactory implements EngineFactory<Stockfish> {
+    private final Supplier<ProcessWrapper> processSupplier;
+    private final StockfishConfig config;
+    private StockfishOptions options;
+    private StdoutReactor stdoutReactor;
+
+    /**
+     * @param config  The configuration of created engines
+     * @param command The Stockfish startup command
+     */
+    public StockfishFactory(StockfishConfig config, String... command) {
+        this(() -> new ProcessWrapper(command), config);
+    }
+
+    /**
+     * @param processSupplier Supplier of a new, not started, process
+     *                        wrapper for each engine
+     * @param config          The configuration of created engines
+     */
+    public StockfishFactory(Supplier<ProcessWrapper> processSupplier,
+                            StockfishConfig config) {
+        this.processSupplier = processSupplier;
+        this.config = config;
+    }
+
+    /**
+     * Set the options applied to each engine after startup, on top of the
+     * default ones
+     *
+     * @param options The options, or null to keep default ones
+     * @return the factory object
+     */
+    public StockfishFactory setOptions(StockfishOptions options) {
+        this.options = options;
+        return this;
+    }
+
+    /**
+     * Read the output of created engines with a shared reactor instead of
+     * one thread per engine. See {@link StdoutReactor}
+     *
+     * @param stdoutReactor The reactor, or null for one thread per engine
+     * @return the factory object
+     */
+    public StockfishFactory setStdoutReactor(StdoutReactor stdoutReactor) {
+        this.stdoutReactor = stdoutReactor;
+        return this;
+    }
+
+    /**
+     * Start an engine and apply the factory options
+     *
+     * @return The started engine
+     * @throws IOException      If any error occurs communicating with
+     *                          Stockfish engine process, or if the engine
+     *                          rejects the factory options
+     * @throws TimeoutException in case of timeout reached when reading
+     */
+    @Override
+    public Stockfish create() throws IOException, TimeoutException {
+        ProcessWrapper process = processSupplier.get();
+        if (stdoutReactor != null) {
+            process.setStdoutReactor(stdoutReactor);
+        }
+        Stockfish stockfish = new Stockfish(process, config);
+        if (options != null) {
+            try {
+                stockfish.setOptions(options);
+            } catch (InvalidUciOptionException e) {
+                stockfish.stop();
+                throw new IOException("Invalid startup options", e);
+            } catch (IOException | TimeoutException | RuntimeException e) {
+                stockfish.stop();
+                throw e;
+            }
+        }
+        return stockfish;
+    }
+
+    /**
+     * Start engines concurrently. See
+     * {@link ParallelEngineStarter#startAll(EngineFactory, int)}
+     *
+     * @param count The number of engines to start
+     * @return The started engines with their startup time, in start order
+     * @throws IOException      If an engine fails to start. Engines
+     *                          already started are stopped
+     * @throws TimeoutException If an engine does not answer in time.
+     *                          Engines already started are stopped
+     */
+    public List<EngineStartup<Stockfish>> createAll(int count) throws IOException,
+            TimeoutException {
+        return ParallelEngineStarter.startAll(this, count);
+    }
+
+    /**
+     * @return An engine started on first use. See {@link LazyChessEngine}
+     */
+    public LazyChessEngine<Stockfish> createLazy() {
+        return new LazyChessEngine<>(this);
+    }
+}
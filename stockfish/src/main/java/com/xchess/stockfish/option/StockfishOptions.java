@@ -4,13 +4,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Stockfish engine options
- * For more information, see Stockfish engine complete documentation
+ * For more information, see Stockfish engine complete documentation.
+ * Options without a dedicated field, such as "MultiPV",
+ * can be set by name with {@link StockfishOptionsBuilder#customOption}.
+ * Option names are case insensitive, as in UCI
  */
 @Builder
 @NoArgsConstructor
@@ -26,6 +28,11 @@ public class StockfishOptions {
     private Boolean uciChess960;
     private Integer uciElo;
     private Boolean uciLimitStrength;
+    private String syzygyPath;
+    private Integer syzygyProbeDepth;
+    private Boolean syzygy50MoveRule;
+    private Integer syzygyProbeLimit;
+    private Map<String, String> customOptions;
 
     public StockfishOptions(StockfishOptions other) {
         this.threads = other.threads;
@@ -38,6 +45,18 @@ public class StockfishOptions {
         this.uciChess960 = other.uciChess960;
         this.uciElo = other.uciElo;
         this.uciLimitStrength = other.uciLimitStrength;
+        this.syzygyPath = other.syzygyPath;
+        this.syzygyProbeDepth = other.syzygyProbeDepth;
+        this.syzygy50MoveRule = other.syzygy50MoveRule;
+        this.syzygyProbeLimit = other.syzygyProbeLimit;
+        this.customOptions = other.customOptions;
+    }
+
+    /**
+     * @return true if the "UCI_Chess960" option is enabled
+     */
+    public boolean isChess960() {
+        return Boolean.TRUE.equals(uciChess960);
     }
 
     /**
@@ -75,9 +94,150 @@ public class StockfishOptions {
         result.uciLimitStrength = Objects.isNull(other.uciLimitStrength) ?
                 this.uciLimitStrength :
                 other.uciLimitStrength;
+        result.syzygyPath = Objects.isNull(other.syzygyPath) ?
+                this.syzygyPath :
+                other.syzygyPath;
+        result.syzygyProbeDepth = Objects.isNull(other.syzygyProbeDepth) ?
+                this.syzygyProbeDepth :
+                other.syzygyProbeDepth;
+        result.syzygy50MoveRule = Objects.isNull(other.syzygy50MoveRule) ?
+                this.syzygy50MoveRule :
+                other.syzygy50MoveRule;
+        result.syzygyProbeLimit = Objects.isNull(other.syzygyProbeLimit) ?
+                this.syzygyProbeLimit :
+                other.syzygyProbeLimit;
+        Map<String, String> customOptions =
+                new LinkedHashMap<>(this.getCustomOptions());
+        other.getCustomOptions().forEach((name, value) ->
+                putIgnoreCase(customOptions, name, value));
+        result.customOptions = customOptions;
+        return result;
+    }
+
+    /**
+     * Compute the options to send to an engine to go from applied options
+     * to these ones. This method will not update current option object but
+     * return a new one
+     *
+     * @param applied the options currently applied on the engine
+     * @return The options of this object which are set and differ from
+     * the applied ones, other options being null
+     */
+    public StockfishOptions diff(StockfishOptions applied) {
+        StockfishOptions result = new StockfishOptions();
+        result.threads = changed(this.threads, applied.threads);
+        result.hash = changed(this.hash, applied.hash);
+        result.ponder = changed(this.ponder, applied.ponder);
+        result.moveOverhead = changed(this.moveOverhead, applied.moveOverhead);
+        result.skillLevel = changed(this.skillLevel, applied.skillLevel);
+        result.debugLogFile = changed(this.debugLogFile, applied.debugLogFile);
+        result.slowMover = changed(this.slowMover, applied.slowMover);
+        result.uciChess960 = changed(this.uciChess960, applied.uciChess960);
+        result.uciElo = changed(this.uciElo, applied.uciElo);
+        result.uciLimitStrength = changed(this.uciLimitStrength,
+                applied.uciLimitStrength);
+        result.syzygyPath = changed(this.syzygyPath, applied.syzygyPath);
+        result.syzygyProbeDepth = changed(this.syzygyProbeDepth,
+                applied.syzygyProbeDepth);
+        result.syzygy50MoveRule = changed(this.syzygy50MoveRule,
+                applied.syzygy50MoveRule);
+        result.syzygyProbeLimit = changed(this.syzygyProbeLimit,
+                applied.syzygyProbeLimit);
+        Map<String, String> appliedValues = applied.getValues();
+        Map<String, String> customOptions = new LinkedHashMap<>();
+        this.getCustomOptions().forEach((name, value) -> {
+            if (!value.equals(getIgnoreCase(appliedValues, name))) {
+                customOptions.put(name, value);
+            }
+        });
+        result.customOptions = customOptions;
         return result;
     }
 
+    /**
+     * Keep only some options, for instance the ones supported by an engine
+     * version. This method will not update current option object but
+     * return a new one
+     *
+     * @param namePredicate The predicate on option names, such as "Hash"
+     * @return The options whose name match the predicate
+     */
+    public StockfishOptions retainAll(Predicate<String> namePredicate) {
+        StockfishOptions result = new StockfishOptions(this);
+        result.threads = namePredicate.test("Threads") ? threads : null;
+        result.hash = namePredicate.test("Hash") ? hash : null;
+        result.ponder = namePredicate.test("Ponder") ? ponder : null;
+        result.moveOverhead = namePredicate.test("Move Overhead") ?
+                moveOverhead : null;
+        result.skillLevel = namePredicate.test("Skill Level") ? skillLevel :
+                null;
+        result.debugLogFile = namePredicate.test("Debug Log File") ?
+                debugLogFile : null;
+        result.slowMover = namePredicate.test("Slow Mover") ? slowMover : null;
+        result.uciChess960 = namePredicate.test("UCI_Chess960") ?
+                uciChess960 : null;
+        result.uciElo = namePredicate.test("UCI_Elo") ? uciElo : null;
+        result.uciLimitStrength = namePredicate.test("UCI_LimitStrength") ?
+                uciLimitStrength : null;
+        result.syzygyPath = namePredicate.test("SyzygyPath") ? syzygyPath :
+                null;
+        result.syzygyProbeDepth = namePredicate.test("SyzygyProbeDepth") ?
+                syzygyProbeDepth : null;
+        result.syzygy50MoveRule = namePredicate.test("Syzygy50MoveRule") ?
+                syzygy50MoveRule : null;
+        result.syzygyProbeLimit = namePredicate.test("SyzygyProbeLimit") ?
+                syzygyProbeLimit : null;
+        Map<String, String> customOptions = new LinkedHashMap<>();
+        this.getCustomOptions().forEach((name, value) -> {
+            if (namePredicate.test(name)) {
+                customOptions.put(name, value);
+            }
+        });
+        result.customOptions = customOptions;
+        return result;
+    }
+
+    /**
+     * @return The options without a dedicated field, by name
+     */
+    public Map<String, String> getCustomOptions() {
+        return Objects.isNull(customOptions) ? Collections.emptyMap() :
+                Collections.unmodifiableMap(customOptions);
+    }
+
+    /**
+     * Get the values of set options, by engine option name
+     *
+     * @return The option values, in command order
+     */
+    public Map<String, String> getValues() {
+        Map<String, String> values = new LinkedHashMap<>();
+        putIfSet(values, "Threads", threads);
+        putIfSet(values, "Hash", hash);
+        putIfSet(values, "Ponder", ponder);
+        putIfSet(values, "Move Overhead", moveOverhead);
+        putIfSet(values, "Skill Level", skillLevel);
+        putIfSet(values, "Debug Log File", debugLogFile);
+        putIfSet(values, "Slow Mover", slowMover);
+        putIfSet(values, "UCI_Chess960", uciChess960);
+        putIfSet(values, "UCI_Elo", uciElo);
+        putIfSet(values, "UCI_LimitStrength", uciLimitStrength);
+        putIfSet(values, "SyzygyPath", syzygyPath);
+        putIfSet(values, "SyzygyProbeDepth", syzygyProbeDepth);
+        putIfSet(values, "Syzygy50MoveRule", syzygy50MoveRule);
+        putIfSet(values, "SyzygyProbeLimit", syzygyProbeLimit);
+        getCustomOptions().forEach((name, value) ->
+                putIgnoreCase(values, name, value));
+        return values;
+    }
+
+    /**
+     * @return true if no option is set
+     */
+    public boolean isEmpty() {
+        return getValues().isEmpty();
+    }
+
     /**
      * Get a list of commands that will be sent to Stockfish engine
      *
@@ -85,60 +245,8 @@ public class StockfishOptions {
      */
     public List<String> getCommands() {
         List<String> commands = new ArrayList<>();
-        String nameBinding = "{{name}}";
-        String valueBinding = "{{value}}";
-        String commandTemplate =
-                "setoption name " + nameBinding + " value " + valueBinding;
-        if (!Objects.isNull(this.threads)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "Threads").
-                    replace(valueBinding, this.threads.toString()));
-        }
-        if (!Objects.isNull(this.hash)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "Hash").
-                    replace(valueBinding, this.hash.toString()));
-        }
-        if (!Objects.isNull(this.ponder)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "Ponder").
-                    replace(valueBinding, this.ponder.toString()));
-        }
-        if (!Objects.isNull(this.moveOverhead)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "Move Overhead").
-                    replace(valueBinding, this.moveOverhead.toString()));
-        }
-        if (!Objects.isNull(this.skillLevel)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "Skill Level").
-                    replace(valueBinding, this.skillLevel.toString()));
-        }
-        if (!Objects.isNull(this.debugLogFile)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "Debug Log File").
-                    replace(valueBinding, this.debugLogFile));
-        }
-        if (!Objects.isNull(this.slowMover)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "Slow Mover").
-                    replace(valueBinding, this.slowMover.toString()));
-        }
-        if (!Objects.isNull(this.uciChess960)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "UCI_Chess960").
-                    replace(valueBinding, this.uciChess960.toString()));
-        }
-        if (!Objects.isNull(this.uciElo)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "UCI_Elo").
-                    replace(valueBinding, this.uciElo.toString()));
-        }
-        if (!Objects.isNull(this.uciLimitStrength)) {
-            commands.add(commandTemplate.
-                    replace(nameBinding, "UCI_LimitStrength").
-                    replace(valueBinding, this.uciLimitStrength.toString()));
-        }
+        getValues().forEach((name, value) -> commands.add("setoption name " +
+                name + " value " + value));
         return commands;
     }
 
@@ -163,20 +271,152 @@ public class StockfishOptions {
                 .build();
     }
 
+    private static Integer parseInteger(String name, String value) {
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option " + name + " should " +
+                    "be an integer: " + value, e);
+        }
+    }
+
+    private static Boolean parseBoolean(String name, String value) {
+        String trimmed = value.trim();
+        if (trimmed.equalsIgnoreCase("true") || trimmed.equalsIgnoreCase("false")) {
+            return Boolean.valueOf(trimmed);
+        }
+        throw new IllegalArgumentException("Option " + name + " should be " +
+                "true or false: " + value);
+    }
+
+    /**
+     * @param values The option values, by name
+     * @param name   The option name, case insensitive
+     * @return The option value, or null if not set
+     */
+    private static String getIgnoreCase(Map<String, String> values,
+                                        String name) {
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Set an option value, replacing the value of the same option spelled
+     * with another case
+     *
+     * @param values The option values, by name
+     * @param name   The option name
+     * @param value  The option value
+     */
+    private static void putIgnoreCase(Map<String, String> values,
+                                      String name, String value) {
+        values.keySet().removeIf(key -> key.equalsIgnoreCase(name));
+        values.put(name, value);
+    }
+
+    private static void putIfSet(Map<String, String> values, String name,
+                                 Object value) {
+        if (!Objects.isNull(value)) {
+            values.put(name, value.toString());
+        }
+    }
+
+    /**
+     * @param value   The wanted value
+     * @param applied The applied value
+     * @return The wanted value if set and different from the applied one,
+     * null otherwise
+     */
+    private static <T> T changed(T value, T applied) {
+        return Objects.isNull(value) || value.equals(applied) ? null : value;
+    }
+
+    public static class StockfishOptionsBuilder {
+        private Map<String, String> customOptions;
+
+        /**
+         * Set an option by name. An option with a dedicated field, such as
+         * "Hash", sets the field. Otherwise an option already set with the
+         * same name, whatever its case, is replaced
+         *
+         * @param name  The option name, such as "MultiPV"
+         * @param value The option value
+         * @return the builder
+         * @throws IllegalArgumentException If the option has a dedicated
+         *                                  field and the value does not
+         *                                  match its type
+         */
+        public StockfishOptionsBuilder customOption(String name,
+                                                   String value) {
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "threads" -> threads(parseInteger(name, value));
+                case "hash" -> hash(parseInteger(name, value));
+                case "ponder" -> ponder(parseBoolean(name, value));
+                case "move overhead" -> moveOverhead(parseInteger(name, value));
+                case "skill level" -> skillLevel(parseInteger(name, value));
+                case "debug log file" -> debugLogFile(value);
+                case "slow mover" -> slowMover(parseInteger(name, value));
+                case "uci_chess960" -> uciChess960(parseBoolean(name, value));
+                case "uci_elo" -> uciElo(parseInteger(name, value));
+                case "uci_limitstrength" ->
+                        uciLimitStrength(parseBoolean(name, value));
+                case "syzygypath" -> syzygyPath(value);
+                case "syzygyprobedepth" ->
+                        syzygyProbeDepth(parseInteger(name, value));
+                case "syzygy50moverule" ->
+                        syzygy50MoveRule(parseBoolean(name, value));
+                case "syzygyprobelimit" ->
+                        syzygyProbeLimit(parseInteger(name, value));
+                default -> {
+                    // Copied so that options already built are never updated
+                    Map<String, String> options = Objects.isNull(customOptions) ?
+                            new LinkedHashMap<>() :
+                            new LinkedHashMap<>(customOptions);
+                    putIgnoreCase(options, name, value);
+                    this.customOptions = options;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @param customOptions Options by name. See
+         *                      {@link #customOption(String, String)}
+         * @return the builder
+         */
+        public StockfishOptionsBuilder customOptions(Map<String, String> customOptions) {
+            customOptions.forEach(this::customOption);
+            return this;
+        }
+
+        /**
+         * @return the builder, without any option set by name
+         */
+        public StockfishOptionsBuilder clearCustomOptions() {
+            this.customOptions = null;
+            return this;
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         StockfishOptions that = (StockfishOptions) o;
         return Objects.equals(threads, that.threads) && Objects.equals(hash,
-                that.hash) && Objects.equals(ponder, that.ponder) && Objects.equals(moveOverhead, that.moveOverhead) && Objects.equals(skillLevel, that.skillLevel) && Objects.equals(debugLogFile, that.debugLogFile) && Objects.equals(slowMover, that.slowMover) && Objects.equals(uciChess960, that.uciChess960) && Objects.equals(uciElo, that.uciElo) && Objects.equals(uciLimitStrength, that.uciLimitStrength);
+                that.hash) && Objects.equals(ponder, that.ponder) && Objects.equals(moveOverhead, that.moveOverhead) && Objects.equals(skillLevel, that.skillLevel) && Objects.equals(debugLogFile, that.debugLogFile) && Objects.equals(slowMover, that.slowMover) && Objects.equals(uciChess960, that.uciChess960) && Objects.equals(uciElo, that.uciElo) && Objects.equals(uciLimitStrength, that.uciLimitStrength) && Objects.equals(syzygyPath, that.syzygyPath) && Objects.equals(syzygyProbeDepth, that.syzygyProbeDepth) && Objects.equals(syzygy50MoveRule, that.syzygy50MoveRule) && Objects.equals(syzygyProbeLimit, that.syzygyProbeLimit) && getCustomOptions().equals(that.getCustomOptions());
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(threads, hash, ponder, moveOverhead,
                 skillLevel, debugLogFile, slowMover, uciChess960, uciElo,
-                uciLimitStrength);
+                uciLimitStrength, syzygyPath, syzygyProbeDepth,
+                syzygy50MoveRule, syzygyProbeLimit, getCustomOptions());
     }
 
     @Override
@@ -192,6 +432,11 @@ public class StockfishOptions {
                 ", uciChess960=" + uciChess960 +
                 ", uciElo=" + uciElo +
                 ", uciLimitStrength=" + uciLimitStrength +
+                ", syzygyPath='" + syzygyPath + '\'' +
+                ", syzygyProbeDepth=" + syzygyProbeDepth +
+                ", syzygy50MoveRule=" + syzygy50MoveRule +
+                ", syzygyProbeLimit=" + syzygyProbeLimit +
+                ", customOptions=" + getCustomOptions() +
                 '}';
     }
 }
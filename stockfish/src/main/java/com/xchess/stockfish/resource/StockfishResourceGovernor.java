@@ -0,0 +1,214 @@
+package com.xchess.stockfish.resource;
+
+import com.xchess.exceptions.InvalidUciOptionException;
+import com.xchess.stockfish.Stockfish;
+import com.xchess.stockfish.option.StockfishOptions;
+import com.xchess.uci.UciOption;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shares a host CPU and memory budget between the Stockfish engines of the
+ * JVM. Each registered engine gets an equal part of the budget as its
+ * "Threads" and "Hash" options, and all engines are rebalanced when one is
+ * registered or unregistered. Engines always get at least one thread and
+ * one megabyte of hash, so registering more engines than cores
+ * oversubscribes the host
+ */
+public class StockfishResourceGovernor {
+    private final int threadBudget;
+    private final long hashBudgetInMb;
+    private final List<Stockfish> engines;
+    private final Map<Stockfish, Allocation> allocations;
+
+    /**
+     * @param threadBudget   The number of search threads shared by all
+     *                       engines, strictly positive
+     * @param hashBudgetInMb The hash memory shared by all engines in
+     *                       megabytes, strictly positive
+     */
+    public StockfishResourceGovernor(int threadBudget, long hashBudgetInMb) {
+        if (threadBudget <= 0) {
+            throw new IllegalArgumentException("Thread budget should be " +
+                    "greater than 0");
+        }
+        if (hashBudgetInMb <= 0) {
+            throw new IllegalArgumentException("Hash budget should be " +
+                    "greater than 0");
+        }
+        this.threadBudget = threadBudget;
+        this.hashBudgetInMb = hashBudgetInMb;
+        this.engines = new ArrayList<>();
+        this.allocations = new IdentityHashMap<>();
+    }
+
+    /**
+     * Create a governor sharing all the processors available to the JVM
+     *
+     * @param hashBudgetInMb The hash memory shared by all engines in
+     *                       megabytes, strictly positive
+     * @return the governor
+     */
+    public static StockfishResourceGovernor forAvailableProcessors(long hashBudgetInMb) {
+        return new StockfishResourceGovernor(
+                Runtime.getRuntime().availableProcessors(), hashBudgetInMb);
+    }
+
+    /**
+     * Add an engine to the governed ones and rebalance all engines
+     *
+     * @param engine The engine to add. Adding an engine twice has no effect
+     * @throws IOException               If any error occurs communicating
+     *                                   with an engine process
+     * @throws TimeoutException          in case of timeout reached when
+     *                                   reading
+     * @throws InvalidUciOptionException If an engine rejects its allocation
+     */
+    public synchronized void register(Stockfish engine) throws IOException,
+            TimeoutException, InvalidUciOptionException {
+        if (allocations.containsKey(engine)) {
+            return;
+        }
+        engines.add(engine);
+        allocations.put(engine, null);
+        rebalance();
+    }
+
+    /**
+     * Remove an engine from the governed ones and share its resources
+     * between the remaining engines. The removed engine keeps its options
+     *
+     * @param engine The engine to remove
+     * @throws IOException               If any error occurs communicating
+     *                                   with an engine process
+     * @throws TimeoutException          in case of timeout reached when
+     *                                   reading
+     * @throws InvalidUciOptionException If an engine rejects its allocation
+     */
+    public synchronized void unregister(Stockfish engine) throws IOException,
+            TimeoutException, InvalidUciOptionException {
+        if (!allocations.containsKey(engine)) {
+            return;
+        }
+        engines.remove(engine);
+        allocations.remove(engine);
+        rebalance();
+    }
+
+    /**
+     * @return The governed engines, in registration order
+     */
+    public synchronized List<Stockfish> getEngines() {
+        return Collections.unmodifiableList(new ArrayList<>(engines));
+    }
+
+    /**
+     * @param engine A governed engine
+     * @return The number of threads allocated to the engine, or 0 if it is
+     * not governed
+     */
+    public synchronized int getThreads(Stockfish engine) {
+        Allocation allocation = allocations.get(engine);
+        return allocation == null ? 0 : allocation.threads;
+    }
+
+    /**
+     * @param engine A governed engine
+     * @return The hash size in megabytes allocated to the engine, or 0 if
+     * it is not governed
+     */
+    public synchronized int getHashInMb(Stockfish engine) {
+        Allocation allocation = allocations.get(engine);
+        return allocation == null ? 0 : allocation.hashInMb;
+    }
+
+    /**
+     * Apply a new allocation to every engine. Engines whose share shrinks
+     * are updated first, so that the budget is not exceeded while engines
+     * are being resized
+     */
+    private void rebalance() throws IOException, TimeoutException,
+            InvalidUciOptionException {
+        if (engines.isEmpty()) {
+            return;
+        }
+        int count = engines.size();
+        int baseThreads = threadBudget / count;
+        int extraThreads = threadBudget % count;
+        int hashInMb = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(1, hashBudgetInMb / count));
+
+        List<Stockfish> growing = new ArrayList<>();
+        List<Stockfish> shrinking = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Stockfish engine = engines.get(i);
+            Allocation allocation = new Allocation(
+                    clamp(engine, "Threads",
+                            Math.max(1, baseThreads + (i < extraThreads ? 1 : 0))),
+                    clamp(engine, "Hash", hashInMb));
+            allocations.put(engine, allocation);
+            if (allocation.isSmallerThan(engine.getOptions())) {
+                shrinking.add(engine);
+            } else {
+                growing.add(engine);
+            }
+        }
+        for (Stockfish engine : shrinking) {
+            apply(engine);
+        }
+        for (Stockfish engine : growing) {
+            apply(engine);
+        }
+    }
+
+    private void apply(Stockfish engine) throws IOException,
+            TimeoutException, InvalidUciOptionException {
+        Allocation allocation = allocations.get(engine);
+        engine.setOptions(StockfishOptions.builder()
+                .threads(allocation.threads)
+                .hash(allocation.hashInMb)
+                .build());
+    }
+
+    /**
+     * @return The value bounded by the maximum advertised by the engine
+     */
+    private static int clamp(Stockfish engine, String name, int value) {
+        UciOption option = engine.getOptionRegistry() == null ? null :
+                engine.getOptionRegistry().get(name);
+        if (option != null && option.getMax() != null) {
+            return Math.min(value, option.getMax());
+        }
+        return value;
+    }
+
+    private static class Allocation {
+        private final int threads;
+        private final int hashInMb;
+
+        Allocation(int threads, int hashInMb) {
+            this.threads = threads;
+            this.hashInMb = hashInMb;
+        }
+
+        /**
+         * @param current The options currently applied to an engine
+         * @return true if this allocation lowers a resource of the engine
+         */
+        boolean isSmallerThan(StockfishOptions current) {
+            Map<String, String> values = current.getValues();
+            return isSmaller(threads, values.get("Threads")) ||
+                    isSmaller(hashInMb, values.get("Hash"));
+        }
+
+        private static boolean isSmaller(int allocated, String current) {
+            return current != null && allocated < Integer.parseInt(current);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package stockfish;
+
+import com.xchess.process.ProcessWrapper;
+import com.xchess.startup.EngineStartup;
+import com.xchess.startup.LazyChessEngine;
+import com.xchess.stockfish.Stockfish;
+import com.xchess.stockfish.StockfishFactory;
+import com.xchess.stockfish.config.StockfishConfig;
+import com.xchess.stockfish.option.StockfishOptions;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class StockfishFactoryTest {
+    private final List<ProcessWrapper> processes = new ArrayList<>();
+
+    @Test
+    public void shouldStartEnginesInParallel() throws IOException,
+            TimeoutException {
+        StockfishFactory subject = new StockfishFactory(this::mockProcess,
+                new StockfishConfig());
+        List<EngineStartup<Stockfish>> startups = subject.createAll(3);
+
+        assertEquals(3, startups.size());
+        assertEquals(3, processes.size());
+        for (EngineStartup<Stockfish> startup : startups) {
+            assertEquals(16, startup.getEngine().getEngineVersion(), 0.1f);
+            assertTrue(startup.getElapsedNanos() > 0);
+        }
+        for (ProcessWrapper process : processes) {
+            verify(process, times(1)).start();
+        }
+    }
+
+    @Test
+    public void shouldApplyOptionsAfterStartup() throws IOException,
+            TimeoutException {
+        StockfishFactory subject = new StockfishFactory(this::mockProcess,
+                new StockfishConfig())
+                .setOptions(StockfishOptions.builder().threads(4).build());
+        Stockfish stockfish = subject.create();
+
+        assertEquals("4", stockfish.getOptions().getValues().get("Threads"));
+        verify(processes.get(0)).writeCommands(List.of(
+                "setoption name Threads value 4", "isready"));
+    }
+
+    @Test
+    public void shouldStopEngineIfOptionsAreRejected() throws IOException {
+        StockfishFactory subject = new StockfishFactory(this::mockProcess,
+                new StockfishConfig())
+                .setOptions(StockfishOptions.builder().slowMover(50).build());
+
+        assertThrows(IOException.class, subject::create);
+        verify(processes.get(0), times(1)).stop();
+    }
+
+    @Test
+    public void shouldStartLazyEngineOnFirstUse() throws IOException,
+            TimeoutException {
+        StockfishFactory subject = new StockfishFactory(this::mockProcess,
+                new StockfishConfig());
+        LazyChessEngine<Stockfish> lazy = subject.createLazy();
+        assertTrue(processes.isEmpty());
+
+        assertEquals(16, lazy.getEngineVersion(), 0.1f);
+        assertEquals(1, processes.size());
+        assertTrue(lazy.getStartupNanos() >= 0);
+    }
+
+    private synchronized ProcessWrapper mockProcess() {
+        ProcessWrapper process = mock(ProcessWrapper.class);
+        try {
+            List<String> initLines = getResourcesFileLines("stockfish/outputs" +
+                    "/initWithOptions.txt");
+            when(process.readLinesUntil(any(Pattern.class), anyInt()))
+                    .thenReturn(initLines);
+            when(process.readLinesUntil(anyString(), anyInt()))
+                    .thenReturn(initLines);
+        } catch (IOException | TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+        processes.add(process);
+        return process;
+    }
+
+    private static List<String> getResourcesFileLines(String file) throws IOException {
+        try (InputStream inputStream =
+                     StockfishFactoryTest.class.getClassLoader().getResourceAsStream(file);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     inputStream, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package stockfish;
 
+import com.xchess.board.FenParser;
+import com.xchess.board.Move;
+import com.xchess.board.MoveList;
 import com.xchess.evaluation.ChessEngineEvaluation;
 import com.xchess.evaluation.ChessEngineEvaluationType;
+import com.xchess.evaluation.SearchResult;
+import com.xchess.evaluation.parameter.AdaptiveTimeManagement;
 import com.xchess.evaluation.parameter.EvaluationParameters;
 import com.xchess.exceptions.IllegalMoveException;
 import com.xchess.exceptions.InvalidFenPositionException;
 import com.xchess.exceptions.InvalidMoveSyntaxException;
 import com.xchess.exceptions.InvalidSquareSyntaxException;
+import com.xchess.exceptions.InvalidUciOptionException;
+import com.xchess.perft.Perft;
+import com.xchess.perft.PerftResult;
 import com.xchess.process.ProcessWrapper;
 import com.xchess.stockfish.config.StockfishConfig;
 import com.xchess.stockfish.option.StockfishOptions;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -34,6 +43,7 @@ public class StockfishTest {
     public void setUp() {
         this.process = mock(ProcessWrapper.class);
         this.config = new StockfishConfig();
+        replayCommandBatches();
     }
 
     @Test
@@ -44,8 +54,24 @@ public class StockfishTest {
     }
 
     @Test
-    public void shouldThrowIoExceptionIfInitOutputIsInvalid() {
+    public void shouldThrowIoExceptionIfInitOutputIsInvalid() throws IOException {
         assertThrows(IOException.class, () -> initStockfishInstance(false));
+        verify(this.process, times(1)).stop();
+    }
+
+    @Test
+    public void shouldStopProcessIfHandshakeTimesOut() throws IOException,
+            TimeoutException {
+        when(this.process.readLinesUntil(anyString(), anyInt()))
+                .thenThrow(new TimeoutException());
+
+        assertThrows(TimeoutException.class,
+                () -> new StockfishTestImpl(this.process, this.config));
+
+        InOrder inOrder = inOrder(this.process);
+        inOrder.verify(this.process).start();
+        inOrder.verify(this.process).writeCommand("uci");
+        inOrder.verify(this.process).stop();
     }
 
     @Test
@@ -56,9 +82,31 @@ public class StockfishTest {
     }
 
     @Test
-    public void shouldWriteOptionsCommandToProcessInput() throws IOException,
+    public void shouldQuitBeforeStoppingProcessOnClose() throws IOException,
+            TimeoutException {
+        initStockfishInstance(true);
+        doThrow(new IOException("Broken pipe")).when(this.process)
+                .writeCommand("quit");
+
+        this.subject.close();
+
+        InOrder inOrder = inOrder(this.process);
+        inOrder.verify(this.process).writeCommand("quit");
+        inOrder.verify(this.process).stop();
+    }
+
+    @Test
+    public void shouldWriteStopCommandOnStopSearch() throws IOException,
             TimeoutException {
         initStockfishInstance(true);
+        this.subject.stopSearch();
+        verify(this.process, times(1)).writeCommand("stop");
+    }
+
+    @Test
+    public void shouldWriteOptionsCommandToProcessInput() throws IOException,
+            TimeoutException, InvalidUciOptionException {
+        initStockfishInstance(true);
         StockfishOptions options = StockfishOptions.builder()
                 .hash(12)
                 .threads(25)
@@ -72,8 +120,99 @@ public class StockfishTest {
     }
 
     @Test
-    public void shouldMergeWithCurrentOptions() throws IOException,
+    public void shouldWriteOptionsCommandsInSingleBatch() throws IOException,
+            TimeoutException, InvalidUciOptionException {
+        initStockfishInstance(true);
+        StockfishOptions options = StockfishOptions.builder()
+                .hash(12)
+                .build();
+        this.subject.setOptions(options);
+        verify(this.process, times(1)).writeCommands(List.of(
+                "setoption name Hash value 12", "isready"));
+    }
+
+    @Test
+    public void shouldOnlyWriteChangedOptions() throws IOException,
+            TimeoutException, InvalidUciOptionException {
+        initStockfishInstance(true);
+        this.subject.setOptions(StockfishOptions.builder()
+                .hash(16)
+                .threads(1)
+                .skillLevel(5)
+                .build());
+        verify(this.process, times(1)).writeCommands(List.of(
+                "setoption name Skill Level value 5", "isready"));
+        verify(this.process, times(1)).writeCommand("setoption name Hash " +
+                "value 16");
+    }
+
+    @Test
+    public void shouldNotWriteAnythingIfNoOptionChanges() throws IOException,
+            TimeoutException, InvalidUciOptionException {
+        initStockfishInstance(true);
+        clearInvocations(this.process);
+        this.subject.setOptions(StockfishOptions.getDefaultOptions());
+        verify(this.process, never()).writeCommands(anyList());
+        verify(this.process, never()).writeCommand(anyString());
+    }
+
+    @Test
+    public void shouldParseAdvertisedOptions() throws IOException,
+            TimeoutException {
+        initStockfishInstance("stockfish/outputs/initWithOptions.txt");
+        assertEquals(16, this.subject.getEngineVersion(), 0.1f);
+        assertEquals(20, this.subject.getOptionRegistry().getOptions().size());
+        assertEquals(Integer.valueOf(500),
+                this.subject.getOptionRegistry().get("multipv").getMax());
+    }
+
+    @Test
+    public void shouldNotSendDefaultOptionsUnknownByEngine() throws IOException,
             TimeoutException {
+        initStockfishInstance("stockfish/outputs/initWithOptions.txt");
+        verify(this.process, never()).writeCommand("setoption name Slow " +
+                "Mover value 100");
+        verify(this.process, times(1)).writeCommand("setoption name Hash " +
+                "value 16");
+        assertEquals(9, this.subject.getOptions().getCommands().size());
+    }
+
+    @Test
+    public void shouldSetArbitraryOption() throws IOException,
+            TimeoutException, InvalidUciOptionException {
+        initStockfishInstance("stockfish/outputs/initWithOptions.txt");
+        this.subject.setOption("MultiPV", "3");
+        verify(this.process, times(1)).writeCommands(List.of(
+                "setoption name MultiPV value 3", "isready"));
+        this.subject.setOption("MultiPV", "3");
+        verify(this.process, times(1)).writeCommand("setoption name MultiPV " +
+                "value 3");
+        assertEquals("3",
+                this.subject.getOptions().getCustomOptions().get("MultiPV"));
+    }
+
+    @Test
+    public void shouldValidateOptionsLocally() throws IOException,
+            TimeoutException {
+        initStockfishInstance("stockfish/outputs/initWithOptions.txt");
+        clearInvocations(this.process);
+        assertThrows(InvalidUciOptionException.class,
+                () -> this.subject.setOption("MultiPV", "501"));
+        assertThrows(InvalidUciOptionException.class,
+                () -> this.subject.setOption("UCI_ShowWDL", "yes"));
+        assertThrows(InvalidUciOptionException.class,
+                () -> this.subject.setOptions(StockfishOptions.builder()
+                        .hash(32)
+                        .slowMover(50)
+                        .build()));
+        verify(this.process, never()).writeCommands(anyList());
+        assertEquals(Integer.valueOf(16), Integer.valueOf(
+                this.subject.getOptions().getValues().get("Hash")));
+    }
+
+    @Test
+    public void shouldMergeWithCurrentOptions() throws IOException,
+            TimeoutException, InvalidUciOptionException {
         initStockfishInstance(true);
         StockfishOptions currentOptions = StockfishOptions.getDefaultOptions();
         StockfishOptions newOptions = StockfishOptions.builder()
@@ -83,7 +222,7 @@ public class StockfishTest {
         this.subject.setOptions(newOptions);
         assertEquals(currentOptions.merge(newOptions),
                 this.subject.getOptions());
-        verify(this.process, times(2)).writeCommand("setoption name Hash " +
+        verify(this.process, times(1)).writeCommand("setoption name Hash " +
                 "value 16");
         verify(this.process, times(1)).writeCommand("setoption name Ponder " +
                 "value true");
@@ -119,6 +258,90 @@ public class StockfishTest {
         assertEquals(20, result.size());
     }
 
+    @Test
+    public void shouldGetPossibleMovesIntoMoveList() throws IOException,
+            TimeoutException {
+        initStockfishInstance(true);
+        bindFileToLineReaderWhenWriting("stockfish/outputs/possibleMoves.txt",
+                "go perft 1");
+        MoveList moves = new MoveList();
+        moves.add(Move.fromUci("h7h5"));
+        this.subject.getPossibleMoves(moves);
+        assertEquals(20, moves.size());
+        assertTrue(moves.contains(Move.fromUci("g1h3")));
+        assertFalse(moves.contains(Move.fromUci("h7h5")));
+    }
+
+    @Test
+    public void shouldGetPromotionPossibleMoves() throws IOException,
+            TimeoutException {
+        initStockfishInstance(true);
+        bindFileToLineReaderWhenWriting("stockfish/outputs" +
+                "/possibleMovesWithPromotions.txt", "go perft 1");
+        List<String> result = this.subject.getPossibleMoves();
+        assertEquals(9, result.size());
+        assertTrue(result.contains("a7a8q"));
+        assertTrue(result.contains("a7a8n"));
+    }
+
+    @Test
+    public void shouldRunPerft() throws IOException, TimeoutException {
+        initStockfishInstance(true);
+        bindFileToLineReaderWhenWriting("stockfish/outputs/perftDepth2.txt",
+                "go perft 2");
+        PerftResult result = this.subject.perft(2);
+        assertEquals(2, result.getDepth());
+        assertEquals(400, result.getNodes());
+        assertTrue(result.getDivide().isEmpty());
+        assertTrue(result.getElapsedNanos() > 0);
+    }
+
+    @Test
+    public void shouldRunDivide() throws IOException, TimeoutException,
+            InvalidFenPositionException {
+        initStockfishInstance(true);
+        bindFileToLineReaderWhenWriting("stockfish/outputs/perftDepth2.txt",
+                "go perft 2");
+        PerftResult result = this.subject.divide(2);
+        assertEquals(400, result.getNodes());
+        assertEquals(20, result.getDivide().size());
+        assertEquals(Long.valueOf(20), result.getDivide().get("g1h3"));
+        assertTrue(result.mismatches(Perft.divide(FenParser.parse(FenParser.START_POSITION), 2)).isEmpty());
+    }
+
+    @Test
+    public void shouldThrowExceptionIfPerftOutputHasNoNodeCount() throws IOException, TimeoutException {
+        initStockfishInstance(true);
+        bindFileToLineReaderWhenWriting("stockfish/outputs/fenPosition.txt",
+                "go perft 3");
+        assertThrows(IOException.class, () -> this.subject.perft(3));
+    }
+
+    @Test
+    public void shouldThrowExceptionForNonPositivePerftDepth() throws IOException, TimeoutException {
+        initStockfishInstance(true);
+        assertThrows(IllegalArgumentException.class,
+                () -> this.subject.divide(0));
+        verify(this.process, never()).writeCommand("go perft 0");
+    }
+
+    @Test
+    public void shouldReturnTrueIfAPackedMoveIsPossible() throws IOException,
+            TimeoutException, InvalidMoveSyntaxException {
+        initStockfishInstance(true);
+        bindFileToLineReaderWhenWriting("stockfish/outputs/possibleMoves.txt",
+                "go perft 1");
+        assertTrue(this.subject.isMovePossible(Move.fromUci("a2a4")));
+        assertFalse(this.subject.isMovePossible(Move.fromUci("a3a4")));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfAPackedMoveIsInvalid() throws IOException, TimeoutException {
+        initStockfishInstance(true);
+        assertThrows(InvalidMoveSyntaxException.class,
+                () -> this.subject.isMovePossible(Move.NONE));
+    }
+
     @Test
     public void shouldGetPossibleMovesForSpecificSquare() throws IOException,
             TimeoutException, InvalidSquareSyntaxException {
@@ -190,6 +413,8 @@ public class StockfishTest {
         this.subject.moveToStartPosition(true);
         verify(this.process, times(1)).writeCommand("ucinewgame");
         verify(this.process, times(1)).writeCommand("position startpos");
+        verify(this.process, times(1)).writeCommands(List.of("ucinewgame",
+                "position startpos", "isready"));
     }
 
     @Test
@@ -201,6 +426,24 @@ public class StockfishTest {
         verify(this.process, times(1)).writeCommand("position fen " + fen);
     }
 
+    @Test
+    public void shouldMoveToChess960PositionWhenEnabled() throws IOException,
+            TimeoutException, InvalidFenPositionException,
+            InvalidUciOptionException {
+        initStockfishInstance(true);
+        String fen = "bqnb1rkr/pp3ppp/3ppn2/2p5/5P2/P2P4/NPP1P1PP/BQ1BNRKR " +
+                "w HFhf - 2 9";
+        assertThrows(InvalidFenPositionException.class,
+                () -> this.subject.moveToFenPosition(fen, false));
+
+        this.subject.setOptions(StockfishOptions.builder()
+                .uciChess960(true)
+                .build());
+        this.subject.moveToFenPosition(fen, false);
+
+        verify(this.process, times(1)).writeCommand("position fen " + fen);
+    }
+
     @Test
     public void shouldMoveToFenPositionWithNewGameCommand() throws IOException, TimeoutException, InvalidFenPositionException {
         initStockfishInstance(true);
@@ -208,6 +451,17 @@ public class StockfishTest {
         this.subject.moveToFenPosition(fen, true);
         verify(this.process, times(1)).writeCommand("ucinewgame");
         verify(this.process, times(1)).writeCommand("position fen " + fen);
+        verify(this.process, times(1)).writeCommands(List.of("ucinewgame",
+                "position fen " + fen, "isready"));
+    }
+
+    @Test
+    public void shouldThrowExceptionIfFenPositionIsInvalid() throws IOException, TimeoutException {
+        initStockfishInstance(true);
+        String fen = "rnbq1bnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+        assertThrows(InvalidFenPositionException.class,
+                () -> this.subject.moveToFenPosition(fen, false));
+        verify(this.process, never()).writeCommand("position fen " + fen);
     }
 
     @Test
@@ -239,6 +493,30 @@ public class StockfishTest {
                 "moves b2b4");
     }
 
+    @Test
+    public void shouldMoveWithMoveList() throws IOException, TimeoutException,
+            IllegalMoveException, InvalidMoveSyntaxException,
+            InvalidFenPositionException {
+        initStockfishInstance(true);
+        this.subject.setSuccessiveFens(Arrays.asList(
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/P7/8/1PPPPPPP/RNBQKBNR b KQkq - 0 1"
+        ));
+        this.subject.setSuccessivePossibleMoves(Arrays.asList(
+                Collections.singletonList("a2a4"),
+                Collections.singletonList("a7a5")
+        ));
+        this.subject.move(MoveList.fromUci(Arrays.asList("A2A4", "a7a5")));
+
+        verify(this.process, times(1)).writeCommand("position fen " +
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 " +
+                "moves a2a4");
+        verify(this.process, times(1)).writeCommand("position fen " +
+                "rnbqkbnr/pppppppp/8/8/P7/8/1PPPPPPP/RNBQKBNR b KQkq - 0 1 " +
+                "moves a7a5");
+    }
+
     @Test
     public void shouldGoBackToInitialPositionIfOneMoveIsNotValidDuringProcess() throws IOException, TimeoutException {
         initStockfishInstance(true);
@@ -312,6 +590,115 @@ public class StockfishTest {
         assertNull(this.subject.findBestMove(EvaluationParameters.builder().depth(10).build()));
     }
 
+    @Test
+    public void shouldSearch() throws IOException, TimeoutException {
+        initStockfishInstance(true);
+        bindFileToLineReaderWhenWriting("stockfish/outputs" +
+                        "/goDepth10InitialPosition.txt",
+                "go depth 10");
+        SearchResult result =
+                this.subject.search(EvaluationParameters.builder().depth(10).build());
+        assertEquals("e2e4", result.getBestMove());
+        assertEquals(10, result.getDepth());
+        assertEquals(18613, result.getNodes());
+        assertEquals(886333, result.getNps());
+        assertEquals(new ChessEngineEvaluation(ChessEngineEvaluationType.CENTIPAWNS, 105), result.getEvaluation());
+        assertEquals(17, result.getTimeToSolution("e2e4"::equals));
+    }
+
+    @Test
+    public void shouldStopAdaptiveSearchOnceStable() throws IOException,
+            TimeoutException {
+        initStockfishInstance(true);
+        when(this.process.readLinesUntil(any(Pattern.class), anyInt())).thenReturn(
+                List.of("info depth 1 score cp 20 nodes 20 time 1 pv d2d4"),
+                List.of("info depth 2 score cp 30 nodes 60 time 2 pv e2e4 e7e5"),
+                List.of("info depth 3 score cp 90 lowerbound nodes 90 time 3 pv e2e4"),
+                List.of("info depth 3 score cp 35 nodes 150 time 4 pv e2e4 e7e5"),
+                List.of("info depth 4 score cp 28 nodes 300 time 6 pv e2e4 c7c5"),
+                List.of("info depth 5 score cp 30 nodes 500 time 8 pv e2e4 c7c5",
+                        "bestmove e2e4 ponder c7c5"));
+        AdaptiveTimeManagement timeManagement = AdaptiveTimeManagement.builder()
+                .minDepth(4)
+                .stableDepths(3)
+                .build();
+
+        assertEquals("e2e4", this.subject.findBestMove(EvaluationParameters.builder()
+                .depth(10)
+                .timeManagement(timeManagement)
+                .build()));
+        InOrder inOrder = inOrder(this.process);
+        inOrder.verify(this.process).writeCommand("go infinite");
+        inOrder.verify(this.process).writeCommand("stop");
+        inOrder.verify(this.process).writeCommand("isready");
+        verify(this.process, times(6)).readLinesUntil(any(Pattern.class),
+                anyInt());
+    }
+
+    @Test
+    public void shouldStopAdaptiveSearchWhenBudgetIsSpent() throws IOException,
+            TimeoutException {
+        initStockfishInstance(true);
+        when(this.process.readLinesUntil(any(Pattern.class), anyInt()))
+                .thenThrow(new TimeoutException())
+                .thenReturn(List.of("info depth 9 score mate -3 nodes 20 time 1 pv h7h8",
+                        "bestmove h7h8"));
+        this.subject.setSuccessiveFens(Collections.singletonList("rnbqkbnr" +
+                "/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR b KQkq - 0 1"));
+
+        assertEquals(new ChessEngineEvaluation(ChessEngineEvaluationType.MATE, 3),
+                this.subject.getPositionEvaluation(EvaluationParameters.builder()
+                        .timeManagement(AdaptiveTimeManagement.builder()
+                                .maxTimeInMs(10)
+                                .build())
+                        .build()));
+        verify(this.process, times(1)).writeCommand("stop");
+    }
+
+    @Test
+    public void shouldStreamSearchProgress() throws IOException,
+            TimeoutException {
+        initStockfishInstance(true);
+        when(this.process.readLinesUntil(any(Pattern.class), anyInt())).thenReturn(
+                List.of("info depth 1 score cp 20 nodes 20 time 1 pv d2d4"),
+                List.of("info depth 2 score cp 30 nodes 60 time 2 pv e2e4 e7e5"),
+                List.of("bestmove e2e4 ponder e7e5"));
+        List<String> moves = new ArrayList<>();
+
+        SearchResult result = this.subject.search(EvaluationParameters.builder()
+                .depth(2)
+                .build(), iteration -> moves.add(iteration.getMove()));
+
+        assertEquals("e2e4", result.getBestMove());
+        assertEquals(List.of("d2d4", "e2e4"), moves);
+        verify(this.process).writeCommand("go depth 2");
+        verify(this.process, never()).writeCommand("stop");
+    }
+
+    @Test
+    public void shouldStopSearchWhenListenerFails() throws IOException,
+            TimeoutException {
+        initStockfishInstance(true);
+        when(this.process.readLinesUntil(any(Pattern.class), anyInt())).thenReturn(
+                List.of("info depth 1 score cp 20 nodes 20 time 1 pv d2d4"),
+                List.of("info depth 2 score cp 30 nodes 60 time 2 pv e2e4 e7e5"),
+                List.of("bestmove e2e4 ponder e7e5"));
+        IllegalStateException failure = new IllegalStateException("Client gone");
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> this.subject.search(EvaluationParameters.builder()
+                        .depth(20)
+                        .build(), iteration -> {
+                    throw failure;
+                })));
+        InOrder inOrder = inOrder(this.process);
+        inOrder.verify(this.process).writeCommand("go depth 20");
+        inOrder.verify(this.process).writeCommand("stop");
+        inOrder.verify(this.process).writeCommand("isready");
+        verify(this.process, times(3)).readLinesUntil(any(Pattern.class),
+                anyInt());
+    }
+
     @Test
     public void shouldGetCentipawnsEvaluation() throws IOException,
             TimeoutException {
@@ -369,13 +756,35 @@ public class StockfishTest {
     }
 
     private void initStockfishInstance(boolean validInitOutput) throws IOException, TimeoutException {
-        String file = validInitOutput ? "stockfish/outputs/init.txt" :
-                "stockfish/outputs/invalidInit.txt";
+        initStockfishInstance(validInitOutput ? "stockfish/outputs/init.txt" :
+                "stockfish/outputs/invalidInit.txt");
+    }
+
+    private void initStockfishInstance(String file) throws IOException,
+            TimeoutException {
         this.bindFileToLineReaderWhenWriting(file, "isready");
         this.subject = new StockfishTestImpl(process, config);
         verify(this.process, times(1)).writeCommand("uci");
     }
 
+    /**
+     * Replay batches as single commands, so that commands can be verified
+     * and bound to outputs whether they are batched or not
+     */
+    private void replayCommandBatches() {
+        try {
+            doAnswer((invocation) -> {
+                List<String> commands = invocation.getArgument(0);
+                for (String command : commands) {
+                    this.process.writeCommand(command);
+                }
+                return null;
+            }).when(this.process).writeCommands(anyList());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private void bindFileToLineReaderWhenWriting(String file,
                                                  String whenWriting) throws IOException {
         doAnswer((invocation) -> {
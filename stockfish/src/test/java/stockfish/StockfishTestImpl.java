@@ -1,5 +1,7 @@
 package stockfish;
 
+import com.xchess.board.Move;
+import com.xchess.board.MoveList;
 import com.xchess.process.ProcessWrapper;
 import com.xchess.stockfish.Stockfish;
 import com.xchess.stockfish.config.StockfishConfig;
@@ -58,6 +60,21 @@ public class StockfishTestImpl extends Stockfish {
         }
     }
 
+    @Override
+    public void getPossibleMoves(MoveList moves) throws IOException,
+            TimeoutException {
+        if (Objects.isNull(this.successivePossibleMoves) || this.successivePossibleMoves.size() <= possibleMovesCallCount) {
+            super.getPossibleMoves(moves);
+        } else {
+            moves.clear();
+            for (String move :
+                    this.successivePossibleMoves.get(possibleMovesCallCount)) {
+                moves.add(Move.fromUci(move));
+            }
+            possibleMovesCallCount++;
+        }
+    }
+
     @Override
     protected List<String> waitUntilReady() throws IOException,
             TimeoutException {
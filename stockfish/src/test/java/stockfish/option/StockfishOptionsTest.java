@@ -4,8 +4,12 @@ import com.xchess.stockfish.option.StockfishOptions;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Map;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertThrows;
 
 public class StockfishOptionsTest {
     @Test
@@ -50,4 +54,147 @@ public class StockfishOptionsTest {
                 result.getCommands()
         );
     }
+
+    @Test
+    public void diffShouldOnlyKeepChangedOptions() {
+        StockfishOptions applied = StockfishOptions.getDefaultOptions();
+        StockfishOptions wanted = applied.merge(StockfishOptions.builder()
+                .hash(16)
+                .skillLevel(3)
+                .debugLogFile("file.txt")
+                .build());
+
+        assertEquals(
+                Arrays.asList(
+                        "setoption name Skill Level value 3",
+                        "setoption name Debug Log File value file.txt"
+                ),
+                wanted.diff(applied).getCommands()
+        );
+    }
+
+    @Test
+    public void diffShouldBeEmptyForSameOptions() {
+        StockfishOptions applied = StockfishOptions.getDefaultOptions();
+        assertTrue(applied.diff(StockfishOptions.getDefaultOptions()).isEmpty());
+        assertTrue(StockfishOptions.builder().build().diff(applied).isEmpty());
+        assertFalse(StockfishOptions.builder().hash(1).build().isEmpty());
+    }
+
+    @Test
+    public void shouldBuildCustomOptionsCommandsAfterKnownOptions() {
+        StockfishOptions options = StockfishOptions.builder()
+                .customOption("MultiPV", "4")
+                .hash(64)
+                .build();
+
+        assertEquals(
+                Arrays.asList(
+                        "setoption name Hash value 64",
+                        "setoption name MultiPV value 4"
+                ),
+                options.getCommands()
+        );
+    }
+
+    @Test
+    public void shouldMergeAndDiffCustomOptions() {
+        StockfishOptions applied = StockfishOptions.builder()
+                .customOption("MultiPV", "4")
+                .customOption("UCI_ShowWDL", "true")
+                .build();
+        StockfishOptions wanted = applied.merge(StockfishOptions.builder()
+                .customOption("MultiPV", "2")
+                .build());
+
+        assertEquals("2", wanted.getCustomOptions().get("MultiPV"));
+        assertEquals("true", wanted.getCustomOptions().get("UCI_ShowWDL"));
+        assertEquals(
+                Arrays.asList("setoption name MultiPV value 2"),
+                wanted.diff(applied).getCommands()
+        );
+    }
+
+    @Test
+    public void shouldCompareCustomOptionNamesIgnoringCase() {
+        StockfishOptions applied = StockfishOptions.builder()
+                .customOption("MultiPV", "4")
+                .hash(64)
+                .build();
+        StockfishOptions wanted = applied.merge(StockfishOptions.builder()
+                .customOption("multipv", "4")
+                .customOption("hash", "64")
+                .build());
+
+        assertEquals(1, wanted.getCustomOptions().size());
+        assertTrue(wanted.diff(applied).isEmpty());
+        assertEquals(
+                Arrays.asList("setoption name multipv value 2"),
+                applied.merge(StockfishOptions.builder()
+                        .customOption("MULTIPV", "3")
+                        .customOption("multipv", "2")
+                        .build()).diff(applied).getCommands()
+        );
+    }
+
+    @Test
+    public void shouldSetDedicatedFieldsOfCustomOptions() {
+        StockfishOptions options = StockfishOptions.builder()
+                .hash(32)
+                .customOption("hash", "64")
+                .customOption("uci_chess960", "TRUE")
+                .build();
+
+        assertTrue(options.getCustomOptions().isEmpty());
+        assertEquals(Map.of("Hash", "64", "UCI_Chess960", "true"),
+                options.getValues());
+        assertTrue(options.isChess960());
+        assertTrue(options.diff(StockfishOptions.builder().hash(64)
+                .uciChess960(true).build()).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> StockfishOptions.builder().customOption("Hash", "big"));
+        assertThrows(IllegalArgumentException.class,
+                () -> StockfishOptions.builder().customOption("Ponder", "1"));
+    }
+
+    @Test
+    public void shouldRetainSupportedOptions() {
+        StockfishOptions options = StockfishOptions.getDefaultOptions()
+                .merge(StockfishOptions.builder()
+                        .customOption("Contempt", "24")
+                        .build())
+                .retainAll(name -> !name.equals("Slow Mover") &&
+                        !name.equals("Contempt"));
+
+        assertEquals(9, options.getCommands().size());
+        assertFalse(options.getValues().containsKey("Slow Mover"));
+        assertFalse(options.getValues().containsKey("Contempt"));
+    }
+
+    @Test
+    public void shouldBuildSyzygyCommands() {
+        StockfishOptions options = StockfishOptions.builder()
+                .syzygyPath("/tablebases/wdl:/tablebases/dtz")
+                .syzygyProbeDepth(4)
+                .syzygy50MoveRule(false)
+                .syzygyProbeLimit(6)
+                .build();
+
+        assertEquals(
+                Arrays.asList(
+                        "setoption name SyzygyPath value " +
+                                "/tablebases/wdl:/tablebases/dtz",
+                        "setoption name SyzygyProbeDepth value 4",
+                        "setoption name Syzygy50MoveRule value false",
+                        "setoption name SyzygyProbeLimit value 6"
+                ),
+                options.getCommands()
+        );
+        assertEquals(
+                Arrays.asList("setoption name SyzygyProbeDepth value 1"),
+                options.merge(StockfishOptions.builder()
+                        .syzygyProbeDepth(1)
+                        .build()).diff(options).getCommands()
+        );
+    }
 }
@@ -0,0 +1,115 @@
+package stockfish.resource;
+
+import com.xchess.stockfish.Stockfish;
+import com.xchess.stockfish.option.StockfishOptions;
+import com.xchess.stockfish.resource.StockfishResourceGovernor;
+import com.xchess.uci.UciOptionRegistry;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class StockfishResourceGovernorTest {
+    @Test
+    public void shouldShareBudgetBetweenEngines() throws Exception {
+        StockfishResourceGovernor subject = new StockfishResourceGovernor(8,
+                4096);
+        Stockfish first = mockEngine();
+        Stockfish second = mockEngine();
+        Stockfish third = mockEngine();
+
+        subject.register(first);
+        assertEquals(8, subject.getThreads(first));
+        assertEquals(4096, subject.getHashInMb(first));
+
+        subject.register(second);
+        subject.register(third);
+        assertEquals(3, subject.getThreads(first));
+        assertEquals(3, subject.getThreads(second));
+        assertEquals(2, subject.getThreads(third));
+        assertEquals(1365, subject.getHashInMb(third));
+        verify(third).setOptions(options(2, 1365));
+    }
+
+    @Test
+    public void shouldRebalanceWhenEngineIsUnregistered() throws Exception {
+        StockfishResourceGovernor subject = new StockfishResourceGovernor(4,
+                1024);
+        Stockfish first = mockEngine();
+        Stockfish second = mockEngine();
+        subject.register(first);
+        subject.register(second);
+        subject.unregister(first);
+
+        assertEquals(List.of(second), subject.getEngines());
+        assertEquals(0, subject.getThreads(first));
+        assertEquals(4, subject.getThreads(second));
+        assertEquals(1024, subject.getHashInMb(second));
+        verify(second, times(1)).setOptions(options(4, 1024));
+    }
+
+    @Test
+    public void shouldShrinkExistingEnginesBeforeGrowingOthers() throws Exception {
+        StockfishResourceGovernor subject = new StockfishResourceGovernor(2,
+                512);
+        Stockfish first = mockEngine();
+        Stockfish second = mockEngine();
+        subject.register(first);
+        when(first.getOptions()).thenReturn(options(2, 512));
+        subject.register(second);
+
+        InOrder inOrder = inOrder(first, second);
+        inOrder.verify(first).setOptions(options(1, 256));
+        inOrder.verify(second).setOptions(options(1, 256));
+    }
+
+    @Test
+    public void shouldGiveAtLeastOneThreadToEachEngine() throws Exception {
+        StockfishResourceGovernor subject = new StockfishResourceGovernor(1,
+                1);
+        Stockfish first = mockEngine();
+        Stockfish second = mockEngine();
+        subject.register(first);
+        subject.register(second);
+        subject.register(second);
+
+        assertEquals(2, subject.getEngines().size());
+        assertEquals(1, subject.getThreads(second));
+        assertEquals(1, subject.getHashInMb(second));
+    }
+
+    @Test
+    public void shouldRespectMaximumAdvertisedByEngine() throws Exception {
+        StockfishResourceGovernor subject = new StockfishResourceGovernor(4096,
+                64);
+        Stockfish engine = mockEngine();
+        when(engine.getOptionRegistry()).thenReturn(UciOptionRegistry.parse(
+                List.of("option name Threads type spin default 1 min 1 max 1024")));
+        subject.register(engine);
+
+        assertEquals(1024, subject.getThreads(engine));
+    }
+
+    @Test
+    public void shouldThrowExceptionOnInvalidBudget() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StockfishResourceGovernor(0, 16));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StockfishResourceGovernor(1, 0));
+    }
+
+    private static Stockfish mockEngine() {
+        Stockfish engine = mock(Stockfish.class);
+        when(engine.getOptions()).thenReturn(StockfishOptions.getDefaultOptions());
+        when(engine.getOptionRegistry()).thenReturn(UciOptionRegistry.parse(
+                List.of()));
+        return engine;
+    }
+
+    private static StockfishOptions options(int threads, int hash) {
+        return StockfishOptions.builder().threads(threads).hash(hash).build();
+    }
+}